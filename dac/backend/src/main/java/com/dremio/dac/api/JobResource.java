@@ -17,6 +17,7 @@ package com.dremio.dac.api;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
+import java.util.Locale;
 
 import javax.annotation.security.RolesAllowed;
 import javax.inject.Inject;
@@ -31,7 +32,9 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.dac.annotations.APIResource;
@@ -116,6 +119,46 @@ public class JobResource extends BaseResourceWithAllocator {
     }
   }
 
+  /**
+   * Streams the results of a completed job with chunked transfer encoding, as newline delimited JSON records
+   * ({@code format=json}) or as an Arrow IPC stream ({@code format=arrow}). Unlike {@code /results}, the number of
+   * records is not capped; all the records starting at {@code offset} are returned unless a {@code limit} is given.
+   */
+  @GET
+  @Path("/{id}/results/stream")
+  @Produces({"application/x-ndjson", "application/vnd.apache.arrow.stream"})
+  public Response streamQueryResults(@PathParam("id") String id,
+                                     @QueryParam("format") @DefaultValue("json") String format,
+                                     @QueryParam("offset") @DefaultValue("0") Integer offset,
+                                     @QueryParam("limit") Integer limit) {
+    Preconditions.checkArgument(offset >= 0, "offset can not be negative");
+    Preconditions.checkArgument(limit == null || limit >= 0, "limit can not be negative");
+    final JobResultsStreamingOutput.Format outputFormat;
+    try {
+      outputFormat = JobResultsStreamingOutput.Format.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(String.format("Unsupported results format [%s], expected json or arrow.", format));
+    }
+
+    try {
+      JobSummaryRequest request = JobSummaryRequest.newBuilder()
+        .setJobId(JobProtobuf.JobId.newBuilder().setId(id).build())
+        .setUserName(securityContext.getUserPrincipal().getName())
+        .build();
+      JobSummary jobSummary = jobs.getJobSummary(request);
+
+      if (jobSummary.getJobState() != JobState.COMPLETED) {
+        throw new BadRequestException(String.format("Can not fetch details for a job that is in [%s] state.", jobSummary.getJobState()));
+      }
+
+      final StreamingOutput output = new JobResultsStreamingOutput(jobs, id, offset,
+        limit == null ? Integer.MAX_VALUE : limit, outputFormat, getOrCreateAllocator("streamQueryResults"));
+      return Response.ok(output, outputFormat.getMediaType()).build();
+    } catch (JobNotFoundException e) {
+      throw new NotFoundException(String.format("Could not find a job with id [%s]", id));
+    }
+  }
+
   @POST
   @Path("/{id}/cancel")
   public void cancelJob(@PathParam("id") String id) throws JobException {
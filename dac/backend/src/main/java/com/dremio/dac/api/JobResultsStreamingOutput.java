@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Optional;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.flight.FlightStream;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.dac.explore.model.APIJobResultsSerializer;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.store.EventBasedRecordWriter;
+import com.dremio.service.jobs.JobsFlightTicket;
+import com.dremio.service.jobs.JobsRpcUtils;
+import com.dremio.service.jobs.JobsService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Streams the results of a job to a REST API client, either as an Arrow IPC stream or as newline delimited JSON.
+ * Results are pulled batch by batch from the jobs service and written out as they arrive, so memory use does not
+ * depend on the number of records streamed.
+ */
+public class JobResultsStreamingOutput implements StreamingOutput {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /**
+   * Supported output formats.
+   */
+  public enum Format {
+    JSON("application/x-ndjson"),
+    ARROW("application/vnd.apache.arrow.stream");
+
+    private final String mediaType;
+
+    Format(String mediaType) {
+      this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+      return mediaType;
+    }
+  }
+
+  private final JobsService jobsService;
+  private final String jobId;
+  private final int offset;
+  private final int limit;
+  private final Format format;
+  private final BufferAllocator allocator;
+
+  public JobResultsStreamingOutput(JobsService jobsService, String jobId, int offset, int limit, Format format,
+                                   BufferAllocator allocator) {
+    this.jobsService = jobsService;
+    this.jobId = jobId;
+    this.offset = offset;
+    this.limit = limit;
+    this.format = format;
+    this.allocator = allocator;
+  }
+
+  @Override
+  public void write(OutputStream output) throws IOException, WebApplicationException {
+    try (final FlightStream stream = jobsService.getJobsClient().getFlightClient()
+      .getStream(new JobsFlightTicket(jobId, offset, limit).toTicket())) {
+      if (format == Format.ARROW) {
+        writeArrow(stream, output);
+      } else {
+        writeJson(stream, output);
+      }
+    } catch (FlightRuntimeException fre) {
+      Optional<UserException> ue = JobsRpcUtils.fromFlightRuntimeException(fre);
+      throw ue.isPresent() ? ue.get() : fre;
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static void writeArrow(FlightStream stream, OutputStream output) throws IOException {
+    // the root is owned by the stream and reloaded with each batch
+    final VectorSchemaRoot root = stream.getRoot();
+    try (final ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(output))) {
+      writer.start();
+      while (stream.next()) {
+        writer.writeBatch();
+      }
+      writer.end();
+    }
+  }
+
+  private void writeJson(FlightStream stream, OutputStream output) throws IOException {
+    final JsonGenerator generator = JSON_FACTORY.createGenerator(output);
+    // records are separated by new lines rather than by the default root value separator
+    generator.setRootValueSeparator(null);
+    final APIJobResultsSerializer jsonWriter = new APIJobResultsSerializer(generator, false);
+    jsonWriter.setup();
+
+    try (final VectorContainer container = new VectorContainer(allocator)) {
+      final VectorSchemaRoot root = stream.getRoot();
+      while (stream.next()) {
+        VectorContainer.transferFromRoot(root, container, allocator);
+        final EventBasedRecordWriter recordWriter = new EventBasedRecordWriter(container, jsonWriter);
+        for (int i = 0; i < container.getRecordCount(); i++) {
+          recordWriter.writeOneRecord(i);
+          generator.writeRaw('\n');
+        }
+        generator.flush();
+      }
+    }
+    generator.close();
+  }
+}
@@ -42,6 +42,7 @@ import com.dremio.context.RequestContext;
 import com.dremio.context.TenantContext;
 import com.dremio.context.UserContext;
 import com.dremio.dac.daemon.DACDaemon.ClusterMode;
+import com.dremio.dac.explore.DatasetSampleCache;
 import com.dremio.dac.homefiles.HomeFileTool;
 import com.dremio.dac.server.APIServer;
 import com.dremio.dac.server.BufferAllocatorFactory;
@@ -64,6 +65,7 @@ import com.dremio.dac.service.search.SearchService;
 import com.dremio.dac.service.search.SearchServiceImpl;
 import com.dremio.dac.service.search.SearchServiceInvoker;
 import com.dremio.dac.service.source.SourceService;
+import com.dremio.dac.service.statistics.StatisticsServiceImpl;
 import com.dremio.dac.service.users.UserServiceHelper;
 import com.dremio.dac.support.BasicQueryLogBundleService;
 import com.dremio.dac.support.BasicSupportService;
@@ -89,6 +91,7 @@ import com.dremio.exec.maestro.MaestroForwarder;
 import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.maestro.MaestroServiceImpl;
 import com.dremio.exec.maestro.NoOpMaestroForwarder;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.planner.observer.QueryObserverFactory;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.rpc.RpcConstants;
@@ -137,7 +140,7 @@ import com.dremio.resource.GroupResourceInformation;
 import com.dremio.resource.QueryCancelTool;
 import com.dremio.resource.ResourceAllocator;
 import com.dremio.resource.RuleBasedEngineSelector;
-import com.dremio.resource.basic.BasicResourceAllocator;
+import com.dremio.resource.basic.MemoryAwareResourceAllocator;
 import com.dremio.sabot.exec.CancelQueryContext;
 import com.dremio.sabot.exec.CoordinatorHeapClawBackStrategy;
 import com.dremio.sabot.exec.ExecToCoordTunnelCreator;
@@ -487,6 +490,7 @@ public class DACDaemonModule implements DACModule {
         registry.provider(NamespaceService.Factory.class),
         registry.provider(CatalogService.class),
         registry.provider(ContextService.class),
+        registry.provider(DatasetSampleCache.class),
         () -> bootstrap.getAllocator()
       )
     );
@@ -563,6 +567,7 @@ public class DACDaemonModule implements DACModule {
       registry.provider(QueryObserverFactory.class),
       registry.provider(AccelerationManager.class),
       registry.provider(AccelerationListManager.class),
+      registry.provider(StatisticsService.class),
       registry.provider(NamespaceService.Factory.class),
       registry.provider(DatasetListingService.class),
       registry.provider(UserService.class),
@@ -809,7 +814,7 @@ public class DACDaemonModule implements DACModule {
       ));
     }
 
-    registry.bind(ResourceAllocator.class, new BasicResourceAllocator(registry.provider(ClusterCoordinator
+    registry.bind(ResourceAllocator.class, new MemoryAwareResourceAllocator(registry.provider(ClusterCoordinator
       .class), registry.provider(GroupResourceInformation.class)));
     if (isCoordinator){
       final Provider<OptionManager> optionManagerProvider = () -> sabotContextProvider.get().getOptionManager();
@@ -932,6 +937,7 @@ public class DACDaemonModule implements DACModule {
     }
 
     registry.bind(AccelerationManager.class, AccelerationManager.NO_OP);
+    registry.bind(StatisticsService.class, StatisticsService.NO_OP);
 
     if (isCoordinator) {
       final ReflectionServiceImpl reflectionService = new ReflectionServiceImpl(
@@ -954,6 +960,12 @@ public class DACDaemonModule implements DACModule {
         registry.provider(ReflectionService.class),
         registry.provider(ReflectionAdministrationService.Factory.class),
         namespaceServiceProvider));
+      final StatisticsServiceImpl statisticsService = registry.bindSelf(new StatisticsServiceImpl(
+        registry.provider(LegacyKVStoreProvider.class),
+        registry.provider(JobsService.class),
+        bootstrap.getExecutor(),
+        bootstrap.getAllocator()));
+      registry.replace(StatisticsService.class, statisticsService);
 
       final Provider<Collection<NodeEndpoint>> nodeEndpointsProvider = () -> sabotContextProvider.get().getExecutors();
 
@@ -1107,6 +1119,7 @@ public class DACDaemonModule implements DACModule {
 
     registry.bindSelf(SourceService.class);
     registry.bindSelf(DatasetVersionMutator.class);
+    registry.bindSelf(new DatasetSampleCache());
     registry.bind(NamespaceService.class, NamespaceServiceImpl.class);
     registry.bindSelf(ReflectionServiceHelper.class);
     registry.bindSelf(CatalogServiceHelper.class);
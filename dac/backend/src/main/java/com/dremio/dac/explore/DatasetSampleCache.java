@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.explore;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import com.dremio.dac.explore.model.DatasetPath;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.QueryType;
+import com.dremio.service.jobs.SqlQuery;
+import com.dremio.service.namespace.dataset.DatasetVersion;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Remembers the completed jobs holding the sample of a dataset version and the results of the queries run on top of
+ * that sample (histograms, transform cards, recommendations).
+ *
+ * A dataset version is immutable, so once a job completed for a given query on a version, its stored Arrow results
+ * can be read again for the same query instead of searching the job store or rerunning the query.
+ *
+ * Entries expire a fixed time after they are added, well before the results of their jobs are cleaned up, so the
+ * results of a cached job are not checked again.
+ */
+public class DatasetSampleCache {
+
+  static final long DEFAULT_MAX_ENTRIES = 10_000;
+  static final long DEFAULT_EXPIRATION_MINUTES = 60;
+
+  private final Cache<Key, JobId> cache;
+
+  public DatasetSampleCache() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_EXPIRATION_MINUTES, TimeUnit.MINUTES);
+  }
+
+  DatasetSampleCache(long maxEntries, long expiration, TimeUnit unit) {
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxEntries)
+      .expireAfterWrite(expiration, unit)
+      .build();
+  }
+
+  /**
+   * Returns the id of a completed job with results for the given query on the dataset version, or null if none is known.
+   */
+  public JobId get(DatasetPath datasetPath, DatasetVersion version, QueryType queryType, SqlQuery query) {
+    return cache.getIfPresent(new Key(datasetPath, version, queryType, query));
+  }
+
+  public void put(DatasetPath datasetPath, DatasetVersion version, QueryType queryType, SqlQuery query, JobId jobId) {
+    cache.put(new Key(datasetPath, version, queryType, query), Preconditions.checkNotNull(jobId));
+  }
+
+  /**
+   * Forgets the job of the given query, typically because its results have been cleaned up.
+   */
+  public void invalidate(DatasetPath datasetPath, DatasetVersion version, QueryType queryType, SqlQuery query) {
+    cache.invalidate(new Key(datasetPath, version, queryType, query));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  long size() {
+    cache.cleanUp();
+    return cache.size();
+  }
+
+  private static final class Key {
+    private final List<String> datasetPath;
+    private final DatasetVersion version;
+    private final QueryType queryType;
+    private final String sql;
+    private final List<String> context;
+    private final String username;
+
+    private Key(DatasetPath datasetPath, DatasetVersion version, QueryType queryType, SqlQuery query) {
+      this.datasetPath = ImmutableList.copyOf(datasetPath.toPathList());
+      this.version = Preconditions.checkNotNull(version);
+      this.queryType = queryType;
+      this.sql = query.getSql();
+      this.context = query.getContext() == null ? ImmutableList.of() : ImmutableList.copyOf(query.getContext());
+      this.username = query.getUsername();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key that = (Key) o;
+      return datasetPath.equals(that.datasetPath)
+        && version.equals(that.version)
+        && queryType == that.queryType
+        && Objects.equals(sql, that.sql)
+        && context.equals(that.context)
+        && Objects.equals(username, that.username);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(datasetPath, version, queryType, sql, context, username);
+    }
+  }
+}
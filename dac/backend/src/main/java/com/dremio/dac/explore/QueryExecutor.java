@@ -73,12 +73,15 @@ public class QueryExecutor {
   private final JobsService jobsService;
   private final CatalogService catalogService;
   private final SecurityContext context;
+  private final DatasetSampleCache sampleCache;
 
   @Inject
-  public QueryExecutor(JobsService jobsService, CatalogService catalogService, SecurityContext context) {
+  public QueryExecutor(JobsService jobsService, CatalogService catalogService, SecurityContext context,
+                       DatasetSampleCache sampleCache) {
     this.jobsService = jobsService;
     this.catalogService = catalogService;
     this.context = context;
+    this.sampleCache = sampleCache;
   }
 
   /**
@@ -124,7 +127,19 @@ public class QueryExecutor {
 
     try {
       // don't check the cache for UI_RUN queries
-      if (queryType != QueryType.UI_RUN && DremioEdition.get() != DremioEdition.MARKETPLACE) {
+      final boolean useCache = queryType != QueryType.UI_RUN && DremioEdition.get() != DremioEdition.MARKETPLACE;
+      final boolean useSampleCache = useCache && sampleCache != null && version != null;
+      if (useSampleCache) {
+        final JobId cachedJobId = sampleCache.get(datasetPath, version, queryType, query);
+        if (cachedJobId != null) {
+          // entries expire before the results of their jobs are cleaned up, so the job details are not checked
+          logger.debug("reusing job {} from the sample cache for dataset {}", cachedJobId.getId(), messagePath);
+          statusListener.jobCompleted();
+          return new JobDataWrapper(jobsService, cachedJobId, query.getUsername());
+        }
+      }
+
+      if (useCache) {
         final SearchJobsRequest.Builder requestBuilder = SearchJobsRequest.newBuilder()
             .setLimit(MAX_JOBS_TO_SEARCH)
             .setUserName(query.getUsername());
@@ -150,8 +165,12 @@ public class QueryExecutor {
                 continue;
               }
 
+              final JobId jobId = JobsProtoUtil.toStuff(job.getJobId());
+              if (useSampleCache) {
+                sampleCache.put(datasetPath, version, queryType, query, jobId);
+              }
               statusListener.jobCompleted();
-              return new JobDataWrapper(jobsService, JobsProtoUtil.toStuff(job.getJobId()), query.getUsername());
+              return new JobDataWrapper(jobsService, jobId, query.getUsername());
             } catch (JobNotFoundException | RuntimeException e) {
               logger.debug("job {} not found for dataset {}", job.getJobId().getId(), messagePath, e);
               // no result
@@ -163,6 +182,9 @@ public class QueryExecutor {
       }
 
       final JobSubmittedListener submittedListener = new JobSubmittedListener();
+      final SampleCachingListener cachingListener = useSampleCache
+        ? new SampleCachingListener(datasetPath, version, queryType, query)
+        : null;
       final JobId jobId = jobsService.submitJob(
         SubmitJobRequest.newBuilder()
           .setSqlQuery(JobsProtoUtil.toBuf(query))
@@ -173,7 +195,12 @@ public class QueryExecutor {
             .build())
           .setRunInSameThread(runInSameThread)
           .build(),
-        new MultiJobStatusListener(statusListener, submittedListener));
+        cachingListener == null
+          ? new MultiJobStatusListener(statusListener, submittedListener)
+          : new MultiJobStatusListener(cachingListener, statusListener, submittedListener));
+      if (cachingListener != null) {
+        cachingListener.setJobId(jobId);
+      }
       submittedListener.await();
 
       return new JobDataWrapper(jobsService, jobId, query.getUsername());
@@ -182,6 +209,42 @@ public class QueryExecutor {
     }
   }
 
+  /**
+   * Adds the job to the sample cache once it completes. The job may complete before its id is returned by the
+   * jobs service, in which case the entry is added when the id is set.
+   */
+  private final class SampleCachingListener implements JobStatusListener {
+    private final DatasetPath datasetPath;
+    private final DatasetVersion version;
+    private final QueryType queryType;
+    private final SqlQuery query;
+
+    private JobId jobId;
+    private boolean completed;
+
+    private SampleCachingListener(DatasetPath datasetPath, DatasetVersion version, QueryType queryType, SqlQuery query) {
+      this.datasetPath = datasetPath;
+      this.version = version;
+      this.queryType = queryType;
+      this.query = query;
+    }
+
+    synchronized void setJobId(JobId jobId) {
+      this.jobId = jobId;
+      if (completed) {
+        sampleCache.put(datasetPath, version, queryType, query, jobId);
+      }
+    }
+
+    @Override
+    public synchronized void jobCompleted() {
+      completed = true;
+      if (jobId != null) {
+        sampleCache.put(datasetPath, version, queryType, query, jobId);
+      }
+    }
+  }
+
   public JobData runQueryAndWaitForCompletion(SqlQuery query, QueryType queryType, DatasetPath datasetPath, DatasetVersion version) {
     final CompletionListener listener = new CompletionListener();
     final JobData data = runQueryWithListener(query, queryType, datasetPath, version, listener);
@@ -30,6 +30,7 @@ import java.util.Set;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 
 import com.dremio.exec.ops.OperatorMetricRegistry;
+import com.dremio.exec.proto.UserBitShared.ConjunctInfo;
 import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
 import com.dremio.exec.proto.UserBitShared.CoreOperatorTypeMetricsMap;
 import com.dremio.exec.proto.UserBitShared.ExpressionSplitInfo;
@@ -100,6 +101,9 @@ public class OperatorWrapper {
 
   public static final String[] SLOW_IO_INFO_COLUMNS = { "FilePath" , "IO Time (ns)", "IO Size", "Offset", "Operation Type"};
 
+  public static final String[] CONJUNCT_INFO_COLUMNS = { "Position", "Conjunct", "Records In", "Records Out",
+    "Eval Time (ns)" };
+
   public void addSummary(TableBuilder tb) {
     try {
       String path = new OperatorPathBuilder().setMajor(major).setOperator(firstProfile).build();
@@ -370,6 +374,18 @@ public class OperatorWrapper {
         builder.endEntry();
       }
       builder.end();
+    } else if (!foundOp.getDetails().getConjunctInfosList().isEmpty()) {
+      JsonBuilder builder = new JsonBuilder(generator, CONJUNCT_INFO_COLUMNS);
+      for (ConjunctInfo conjunctInfo : foundOp.getDetails().getConjunctInfosList()) {
+        builder.startEntry();
+        builder.appendString(Integer.toString(conjunctInfo.getFinalPosition()));
+        builder.appendString(conjunctInfo.getExpression());
+        builder.appendString(Long.toString(conjunctInfo.getRecordsIn()));
+        builder.appendString(Long.toString(conjunctInfo.getRecordsOut()));
+        builder.appendString(Long.toString(conjunctInfo.getEvalNanos()));
+        builder.endEntry();
+      }
+      builder.end();
     } else {
       JsonBuilder builder = new JsonBuilder(generator, SLOW_IO_INFO_COLUMNS);
       addSlowIO(builder, foundOp.getDetails().getSlowIoInfosList(), "Data IO");
@@ -23,6 +23,7 @@ import javax.ws.rs.core.SecurityContext;
 
 import org.apache.arrow.memory.BufferAllocator;
 
+import com.dremio.dac.explore.DatasetSampleCache;
 import com.dremio.dac.explore.DatasetTool;
 import com.dremio.dac.explore.DatasetVersionResource;
 import com.dremio.dac.explore.QueryExecutor;
@@ -56,6 +57,7 @@ public class DACViewCreatorFactory implements ViewCreatorFactory {
   private final Provider<NamespaceService.Factory> namespaceServiceFactory;
   private final Provider<ContextService> contextService;
   private final Provider<CatalogService> catalogService;
+  private final Provider<DatasetSampleCache> sampleCache;
   private final BufferAllocator allocator;
 
   public DACViewCreatorFactory(Provider<InitializerRegistry> initializerRegistry,
@@ -64,6 +66,7 @@ public class DACViewCreatorFactory implements ViewCreatorFactory {
                                 Provider<NamespaceService.Factory> namespaceServiceFactory,
                                 Provider<CatalogService> catalogService,
                                 Provider<ContextService> contextService,
+                                Provider<DatasetSampleCache> sampleCache,
                                 Provider<BufferAllocator> allocator
   ) {
     this.initializerRegistry = initializerRegistry;
@@ -72,6 +75,7 @@ public class DACViewCreatorFactory implements ViewCreatorFactory {
     this.namespaceServiceFactory = namespaceServiceFactory;
     this.catalogService = catalogService;
     this.contextService = contextService;
+    this.sampleCache = sampleCache;
     this.allocator = allocator.get().newChildAllocator(getClass().getName(), 0, Long.MAX_VALUE);
   }
 
@@ -99,7 +103,7 @@ public class DACViewCreatorFactory implements ViewCreatorFactory {
     @Override
     public void createView(List<String> path, String sql, List<String> sqlContext, NamespaceAttribute... attributes) {
       SecurityContext securityContext = getSecurityContext();
-      QueryExecutor executor = new QueryExecutor(jobsService, null, securityContext);
+      QueryExecutor executor = new QueryExecutor(jobsService, null, securityContext, sampleCache.get());
       DatasetTool tool = newDatasetTool(securityContext, executor);
 
       try {
@@ -117,7 +121,7 @@ public class DACViewCreatorFactory implements ViewCreatorFactory {
     @Override
     public void updateView(List<String> path, String sql, List<String> sqlContext, NamespaceAttribute... attributes) {
       SecurityContext securityContext = getSecurityContext();
-      QueryExecutor executor = new QueryExecutor(jobsService, null, securityContext);
+      QueryExecutor executor = new QueryExecutor(jobsService, null, securityContext, sampleCache.get());
       DatasetVersion version = DatasetVersion.newVersion();
 
       NamespaceKey namespaceKey = new NamespaceKey(path);
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.service.statistics;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.inject.Provider;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.ArrowType.ArrowTypeID;
+import org.apache.arrow.vector.types.pojo.Field;
+
+import com.dremio.common.utils.SqlUtils;
+import com.dremio.dac.util.JobRequestUtil;
+import com.dremio.datastore.api.LegacyKVStore;
+import com.dremio.datastore.api.LegacyKVStoreCreationFunction;
+import com.dremio.datastore.api.LegacyKVStoreProvider;
+import com.dremio.datastore.api.LegacyStoreBuildingFactory;
+import com.dremio.datastore.format.Format;
+import com.dremio.exec.planner.cost.ColumnStatistics;
+import com.dremio.exec.planner.cost.Histogram;
+import com.dremio.exec.planner.cost.StatisticsService;
+import com.dremio.exec.planner.cost.TableStatistics;
+import com.dremio.service.Service;
+import com.dremio.service.job.QueryType;
+import com.dremio.service.job.SubmitJobRequest;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.jobs.JobDataClientUtils;
+import com.dremio.service.jobs.JobDataFragment;
+import com.dremio.service.jobs.JobStatusListener;
+import com.dremio.service.jobs.JobsService;
+import com.dremio.service.namespace.NamespaceKey;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Computes table statistics with internal jobs and keeps them in the kv store.
+ *
+ * A first job counts the rows, and the nulls and distinct values of every column, along with the bounds of numeric
+ * columns. Once it completes a second job computes an equi-width histogram for the numeric columns.
+ *
+ * Statistics are stored along with the version of the dataset they were computed on, and are ignored once the
+ * dataset changes, e.g. after a metadata refresh picked up new data.
+ */
+public class StatisticsServiceImpl implements StatisticsService, Service {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StatisticsServiceImpl.class);
+
+  private static final String STATISTICS_STORE = "table_statistics";
+  private static final int HISTOGRAM_BUCKETS = 16;
+  private static final String ROW_COUNT = "row_count";
+
+  private final Provider<LegacyKVStoreProvider> storeProvider;
+  private final Provider<JobsService> jobsService;
+  private final Executor executor;
+  private final BufferAllocator allocator;
+
+  private LegacyKVStore<String, TableStatistics> store;
+  private LoadingCache<String, Optional<TableStatistics>> cache;
+
+  public StatisticsServiceImpl(Provider<LegacyKVStoreProvider> storeProvider, Provider<JobsService> jobsService,
+                               Executor executor, BufferAllocator allocator) {
+    this.storeProvider = storeProvider;
+    this.jobsService = jobsService;
+    this.executor = executor;
+    this.allocator = allocator;
+  }
+
+  @Override
+  public void start() throws Exception {
+    store = storeProvider.get().getStore(StatisticsStoreCreator.class);
+    // statistics are read for every scan the planner costs, avoid going to the kv store every time
+    cache = CacheBuilder.newBuilder()
+      .maximumSize(10_000)
+      .expireAfterWrite(1, TimeUnit.MINUTES)
+      .build(new CacheLoader<String, Optional<TableStatistics>>() {
+        @Override
+        public Optional<TableStatistics> load(String key) {
+          return Optional.ofNullable(store.get(key));
+        }
+      });
+  }
+
+  @Override
+  public void close() throws Exception {
+  }
+
+  @Override
+  public String computeStatistics(NamespaceKey table, String datasetVersion, List<Field> columns, String userName) {
+    Preconditions.checkArgument(!columns.isEmpty(), "No column to compute statistics for");
+    final List<String> expressions = new ArrayList<>();
+    expressions.add(format("COUNT(*) AS %s", ROW_COUNT));
+    for (int i = 0; i < columns.size(); i++) {
+      final Field field = columns.get(i);
+      final String column = SqlUtils.quoteIdentifier(field.getName());
+      expressions.add(format("COUNT(%s) AS c%d_count", column, i));
+      expressions.add(format("NDV(%s) AS c%d_ndv", column, i));
+      if (isNumeric(field)) {
+        expressions.add(format("MIN(CAST(%s AS DOUBLE)) AS c%d_min", column, i));
+        expressions.add(format("MAX(CAST(%s AS DOUBLE)) AS c%d_max", column, i));
+      }
+    }
+
+    final String sql = format("SELECT %s FROM %s", String.join(", ", expressions), table.getSchemaPath());
+    // listeners may be notified before submitJob() returns the job id
+    final CompletableFuture<JobId> jobId = new CompletableFuture<>();
+    jobId.complete(submit(sql, userName, new JobStatusListener() {
+      @Override
+      public void jobCompleted() {
+        jobId.thenAcceptAsync(id -> {
+          try {
+            onSummaryCompleted(table, datasetVersion, columns, userName, id);
+          } catch (Exception e) {
+            logger.warn("Failed to store statistics for table {}", table, e);
+          }
+        }, executor);
+      }
+
+      @Override
+      public void jobFailed(Exception e) {
+        logger.warn("Failed to compute statistics for table {}", table, e);
+      }
+    }));
+    return jobId.join().getId();
+  }
+
+  private void onSummaryCompleted(NamespaceKey table, String datasetVersion, List<Field> columns, String userName,
+                                  JobId jobId) {
+    final TableStatistics.Builder statistics = TableStatistics.newBuilder()
+      .setComputedAt(System.currentTimeMillis());
+    if (datasetVersion != null) {
+      statistics.setDatasetVersion(datasetVersion);
+    }
+    final List<Integer> histogramColumns = new ArrayList<>();
+
+    try (JobDataFragment data = JobDataClientUtils.getJobData(jobsService.get(), allocator, jobId, 0, 1)) {
+      final long rowCount = toLong(data.extractValue(ROW_COUNT, 0));
+      statistics.setRowCount(rowCount);
+      for (int i = 0; i < columns.size(); i++) {
+        final Field field = columns.get(i);
+        final ColumnStatistics.Builder column = ColumnStatistics.newBuilder()
+          .setName(field.getName())
+          .setNullCount(rowCount - toLong(data.extractValue(format("c%d_count", i), 0)))
+          .setNdv(toLong(data.extractValue(format("c%d_ndv", i), 0)));
+        if (isNumeric(field)) {
+          final Object min = data.extractValue(format("c%d_min", i), 0);
+          final Object max = data.extractValue(format("c%d_max", i), 0);
+          if (min != null && max != null) {
+            final double minValue = ((Number) min).doubleValue();
+            final double maxValue = ((Number) max).doubleValue();
+            column.setHistogram(Histogram.newBuilder()
+              .setMin(minValue)
+              .setMax(maxValue));
+            // buckets of NaN or infinite bounds are meaningless
+            if (Double.isFinite((maxValue - minValue) / HISTOGRAM_BUCKETS)) {
+              histogramColumns.add(i);
+            }
+          }
+        }
+        statistics.addColumn(column);
+      }
+    }
+
+    save(table, statistics.build());
+    if (histogramColumns.isEmpty()) {
+      return;
+    }
+
+    final List<String> expressions = new ArrayList<>();
+    for (int i : histogramColumns) {
+      final String column = SqlUtils.quoteIdentifier(columns.get(i).getName());
+      final Histogram.Builder histogram = statistics.getColumnBuilder(i).getHistogramBuilder();
+      final double width = (histogram.getMax() - histogram.getMin()) / HISTOGRAM_BUCKETS;
+      for (int b = 0; b < HISTOGRAM_BUCKETS; b++) {
+        final double lower = histogram.getMin() + b * width;
+        // the last bucket includes the maximum value
+        final String upperBound = b == HISTOGRAM_BUCKETS - 1
+          ? format("<= %s", toDoubleLiteral(histogram.getMax()))
+          : format("< %s", toDoubleLiteral(lower + width));
+        expressions.add(format("SUM(CASE WHEN CAST(%s AS DOUBLE) >= %s AND CAST(%s AS DOUBLE) %s THEN 1 ELSE 0 END) AS c%d_b%d",
+          column, toDoubleLiteral(lower), column, upperBound, i, b));
+      }
+    }
+
+    final String sql = format("SELECT %s FROM %s", String.join(", ", expressions), table.getSchemaPath());
+    final CompletableFuture<JobId> histogramJobId = new CompletableFuture<>();
+    histogramJobId.complete(submit(sql, userName, new JobStatusListener() {
+      @Override
+      public void jobCompleted() {
+        histogramJobId.thenAcceptAsync(id -> {
+          try (JobDataFragment data = JobDataClientUtils.getJobData(jobsService.get(), allocator, id, 0, 1)) {
+            for (int i : histogramColumns) {
+              final Histogram.Builder histogram = statistics.getColumnBuilder(i).getHistogramBuilder();
+              for (int b = 0; b < HISTOGRAM_BUCKETS; b++) {
+                histogram.addBucketCount(toLong(data.extractValue(format("c%d_b%d", i, b), 0)));
+              }
+            }
+            save(table, statistics.build());
+          } catch (Exception e) {
+            logger.warn("Failed to store histograms for table {}", table, e);
+          }
+        }, executor);
+      }
+
+      @Override
+      public void jobFailed(Exception e) {
+        logger.warn("Failed to compute histograms for table {}", table, e);
+      }
+    }));
+  }
+
+  private JobId submit(String sql, String userName, JobStatusListener listener) {
+    return jobsService.get().submitJob(SubmitJobRequest.newBuilder()
+      .setSqlQuery(JobRequestUtil.createSqlQuery(sql, userName))
+      .setQueryType(QueryType.UI_INTERNAL_RUN)
+      .build(), listener);
+  }
+
+  @Override
+  public boolean deleteStatistics(NamespaceKey table) {
+    final String key = getKey(table);
+    final boolean exists = store.contains(key);
+    if (exists) {
+      store.delete(key);
+    }
+    cache.invalidate(key);
+    return exists;
+  }
+
+  @Override
+  public TableStatistics getTableStatistics(NamespaceKey table, String datasetVersion) {
+    final TableStatistics statistics = cache.getUnchecked(getKey(table)).orElse(null);
+    if (statistics == null || datasetVersion == null || !datasetVersion.equals(statistics.getDatasetVersion())) {
+      return null;
+    }
+    return statistics;
+  }
+
+  private void save(NamespaceKey table, TableStatistics statistics) {
+    final String key = getKey(table);
+    store.put(key, statistics);
+    cache.invalidate(key);
+    logger.debug("Stored statistics for table {}: {} rows, columns {}", table, statistics.getRowCount(),
+      statistics.getColumnList().stream().map(ColumnStatistics::getName).collect(Collectors.toList()));
+  }
+
+  private static String getKey(NamespaceKey table) {
+    return table.asLowerCase().getSchemaPath();
+  }
+
+  private static boolean isNumeric(Field field) {
+    final ArrowTypeID type = field.getType().getTypeID();
+    return type == ArrowTypeID.Int || type == ArrowTypeID.FloatingPoint || type == ArrowTypeID.Decimal;
+  }
+
+  /**
+   * Formats a finite double as a SQL literal. Double.toString() is a valid numeric literal, the cast keeps it a double.
+   */
+  private static String toDoubleLiteral(double value) {
+    Preconditions.checkArgument(Double.isFinite(value), "Not a finite value: %s", value);
+    return format("CAST(%s AS DOUBLE)", Double.toString(value));
+  }
+
+  private static long toLong(Object value) {
+    return value == null ? 0 : ((Number) value).longValue();
+  }
+
+  /**
+   * Statistics store creator.
+   */
+  public static final class StatisticsStoreCreator implements LegacyKVStoreCreationFunction<String, TableStatistics> {
+    @Override
+    public LegacyKVStore<String, TableStatistics> build(LegacyStoreBuildingFactory factory) {
+      return factory.<String, TableStatistics>newStore()
+        .name(STATISTICS_STORE)
+        .keyFormat(Format.ofString())
+        .valueFormat(Format.ofProtobuf(TableStatistics.class))
+        .build();
+    }
+  }
+}
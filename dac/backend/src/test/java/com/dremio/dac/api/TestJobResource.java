@@ -19,12 +19,18 @@ import static com.dremio.service.jobs.JobsServiceUtil.finalJobStates;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -99,6 +105,56 @@ public class TestJobResource extends BaseTestServer {
     assertTrue(body.contains("\"rows\":[{\"version\":\"" + DremioVersionInfo.getVersion() + "\""));
   }
 
+  @Test
+  public void testStreamJobResultsAsJson() throws InterruptedException {
+    final SqlQuery query = new SqlQuery("select * from (values (1), (2), (3)) as t(a)", Collections.emptyList(), SystemUser.SYSTEM_USERNAME);
+
+    final JobId jobId = submitJobAndWaitUntilCompletion(
+      JobRequest.newBuilder().setSqlQuery(query).setQueryType(QueryType.REST).build()
+    );
+
+    final Response response = expectSuccess(getStreamBuilder(getPublicAPI(3).path(JOB_PATH).path(jobId.getId()).path("results").path("stream")
+      .queryParam("offset", 1), "application/x-ndjson").buildGet());
+    final String body = response.readEntity(String.class);
+
+    assertEquals("{\"a\":2}\n{\"a\":3}\n", body);
+  }
+
+  @Test
+  public void testStreamJobResultsAsArrow() throws Exception {
+    final SqlQuery query = new SqlQuery("select * from (values (1), (2), (3)) as t(a)", Collections.emptyList(), SystemUser.SYSTEM_USERNAME);
+
+    final JobId jobId = submitJobAndWaitUntilCompletion(
+      JobRequest.newBuilder().setSqlQuery(query).setQueryType(QueryType.REST).build()
+    );
+
+    final Response response = expectSuccess(getStreamBuilder(getPublicAPI(3).path(JOB_PATH).path(jobId.getId()).path("results").path("stream")
+      .queryParam("format", "arrow")
+      .queryParam("limit", 2), "application/vnd.apache.arrow.stream").buildGet());
+
+    int rowCount = 0;
+    try (BufferAllocator allocator = getSabotContext().getAllocator().newChildAllocator("test-stream-results", 0, Long.MAX_VALUE);
+         ArrowStreamReader reader = new ArrowStreamReader(response.readEntity(InputStream.class), allocator)) {
+      while (reader.loadNextBatch()) {
+        rowCount += reader.getVectorSchemaRoot().getRowCount();
+      }
+      assertEquals("a", reader.getVectorSchemaRoot().getSchema().getFields().get(0).getName());
+    }
+    assertEquals(2, rowCount);
+  }
+
+  @Test
+  public void testStreamJobResultsWithUnknownFormatShouldFail() throws InterruptedException {
+    final SqlQuery query = new SqlQuery("select * from sys.version", Collections.emptyList(), SystemUser.SYSTEM_USERNAME);
+
+    final JobId jobId = submitJobAndWaitUntilCompletion(
+      JobRequest.newBuilder().setSqlQuery(query).setQueryType(QueryType.REST).build()
+    );
+
+    expectStatus(Response.Status.BAD_REQUEST, getStreamBuilder(getPublicAPI(3).path(JOB_PATH).path(jobId.getId()).path("results").path("stream")
+      .queryParam("format", "csv"), MediaType.WILDCARD).buildGet());
+  }
+
   @Test
   public void testCancelJob() throws InterruptedException {
     JobsService jobs = l(JobsService.class);
@@ -143,6 +199,10 @@ public class TestJobResource extends BaseTestServer {
     expectStatus(Response.Status.NOT_FOUND, getBuilder(getPublicAPI(3).path(JOB_PATH).path("bad-id")).buildGet());
   }
 
+  private Invocation.Builder getStreamBuilder(WebTarget webTarget, String mediaType) {
+    return webTarget.request(mediaType).header(getAuthHeaderName(), getAuthHeaderValue());
+  }
+
   private boolean ensureJobIsRunningOrFinishedWith(JobState expectedFinalState, JobState state) {
     if (expectedFinalState.equals(state)) {
       return true;
@@ -63,7 +63,7 @@ public class RecommenderTestBase extends BaseTestServer {
   public void setupTest() throws Exception {
     HybridJobsService jobsService = (HybridJobsService) l(JobsService.class);
     allocator = l(ContextService.class).get().getAllocator().newChildAllocator("RecommenderTestBase", 0, Long.MAX_VALUE);
-    executor = new QueryExecutor(jobsService, l(CatalogService.class), DACSecurityContext.system());
+    executor = new QueryExecutor(jobsService, l(CatalogService.class), DACSecurityContext.system(), l(DatasetSampleCache.class));
     version = DatasetVersion.newVersion();
   }
 
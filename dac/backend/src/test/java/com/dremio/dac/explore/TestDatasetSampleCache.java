@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.explore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.dac.explore.model.DatasetPath;
+import com.dremio.dac.model.job.JobData;
+import com.dremio.service.job.JobDetails;
+import com.dremio.service.job.JobDetailsRequest;
+import com.dremio.service.job.SearchJobsRequest;
+import com.dremio.service.job.SubmitJobRequest;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.QueryType;
+import com.dremio.service.jobs.JobStatusListener;
+import com.dremio.service.jobs.JobsService;
+import com.dremio.service.jobs.SqlQuery;
+import com.dremio.service.namespace.dataset.DatasetVersion;
+
+/**
+ * Tests for {@link DatasetSampleCache}
+ */
+public class TestDatasetSampleCache {
+  private final DatasetPath datasetPath = new DatasetPath(Arrays.asList("space", "dataset"));
+  private final DatasetVersion version = DatasetVersion.newVersion();
+  private final SqlQuery query = new SqlQuery("SELECT * FROM space.dataset", Collections.emptyList(), "user");
+
+  private JobsService jobsService;
+  private DatasetSampleCache sampleCache;
+  private QueryExecutor executor;
+
+  @Before
+  public void setup() throws Exception {
+    jobsService = mock(JobsService.class);
+    when(jobsService.searchJobs(any(SearchJobsRequest.class))).thenReturn(Collections.emptyList());
+    when(jobsService.submitJob(any(SubmitJobRequest.class), any(JobStatusListener.class))).thenAnswer(invocation -> {
+      final JobStatusListener listener = invocation.getArgumentAt(1, JobStatusListener.class);
+      listener.jobSubmitted();
+      listener.jobCompleted();
+      return new JobId("job");
+    });
+    when(jobsService.getJobDetails(any(JobDetailsRequest.class)))
+      .thenReturn(JobDetails.newBuilder().setHasResults(true).build());
+
+    sampleCache = new DatasetSampleCache();
+    executor = new QueryExecutor(jobsService, null, null, sampleCache);
+  }
+
+  @Test
+  public void testKeyedByVersionAndQuery() {
+    sampleCache.put(datasetPath, version, QueryType.UI_PREVIEW, query, new JobId("job"));
+
+    assertEquals(new JobId("job"), sampleCache.get(datasetPath, version, QueryType.UI_PREVIEW, query));
+    assertNull(sampleCache.get(datasetPath, DatasetVersion.newVersion(), QueryType.UI_PREVIEW, query));
+    assertNull(sampleCache.get(datasetPath, version, QueryType.UI_INTERNAL_RUN, query));
+    assertNull(sampleCache.get(datasetPath, version, QueryType.UI_PREVIEW, query.cloneWithNewSql("SELECT 1")));
+    assertNull(sampleCache.get(datasetPath, version, QueryType.UI_PREVIEW,
+      new SqlQuery(query.getSql(), query.getContext(), "other")));
+
+    sampleCache.invalidate(datasetPath, version, QueryType.UI_PREVIEW, query);
+    assertNull(sampleCache.get(datasetPath, version, QueryType.UI_PREVIEW, query));
+  }
+
+  @Test
+  public void testCompletedJobIsReused() throws Exception {
+    final JobData first = executor.runQueryAndWaitForCompletion(query, QueryType.UI_INTERNAL_RUN, datasetPath, version);
+    final JobData second = executor.runQueryAndWaitForCompletion(query, QueryType.UI_INTERNAL_RUN, datasetPath, version);
+
+    assertEquals(first.getJobId(), second.getJobId());
+    verify(jobsService, times(1)).searchJobs(any(SearchJobsRequest.class));
+    verify(jobsService, times(1)).submitJob(any(SubmitJobRequest.class), any(JobStatusListener.class));
+    assertEquals(1, sampleCache.size());
+  }
+
+  @Test
+  public void testCacheHitSkipsJobsService() throws Exception {
+    sampleCache.put(datasetPath, version, QueryType.UI_INTERNAL_RUN, query, new JobId("cached"));
+
+    final JobData data = executor.runQueryAndWaitForCompletion(query, QueryType.UI_INTERNAL_RUN, datasetPath, version);
+
+    assertEquals(new JobId("cached"), data.getJobId());
+    verify(jobsService, never()).getJobDetails(any(JobDetailsRequest.class));
+    verify(jobsService, never()).searchJobs(any(SearchJobsRequest.class));
+    verify(jobsService, never()).submitJob(any(SubmitJobRequest.class), any(JobStatusListener.class));
+  }
+}
@@ -779,7 +779,7 @@ public class TestSQLGenerator {
   }
 
   private TransformResult transform(TransformBase tb, VirtualDatasetState state) {
-    QueryExecutor executor = new QueryExecutor(null, null, null){
+    QueryExecutor executor = new QueryExecutor(null, null, null, null){
       @Override
       public List<String> getColumnList(String username, DatasetPath path) {
         return asList("bar", "baz");
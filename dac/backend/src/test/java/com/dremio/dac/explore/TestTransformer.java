@@ -168,7 +168,7 @@ public class TestTransformer extends BaseTestServer { // needed for parsing quer
   }
 
   private TransformResult transform(TransformBase tb, Boolean preview) {
-    QueryExecutor executor = new QueryExecutor(null, null, null){
+    QueryExecutor executor = new QueryExecutor(null, null, null, null){
       @Override
       public List<String> getColumnList(String username, DatasetPath path) {
         return asList("bar", "baz");
@@ -1031,7 +1031,7 @@ public class TestTransformer extends BaseTestServer { // needed for parsing quer
     final DatasetPath headPath = new DatasetPath(transformCreateFromParent.getCreateFrom().getTable().getDatasetPath());
     final DatasetConfig headConfig = namespaceService.getDataset(headPath.toNamespaceKey());
     final VirtualDatasetUI headVersion = datasetService.getVersion(headPath, headConfig.getVirtualDataset().getVersion());
-    final QueryExecutor executor = new QueryExecutor(l(JobsService.class), null, null);
+    final QueryExecutor executor = new QueryExecutor(l(JobsService.class), null, null, l(DatasetSampleCache.class));
 
     final Transformer testTransformer =
       new Transformer(l(SabotContext.class), l(JobsService.class), namespaceService, datasetService,
@@ -735,6 +735,13 @@ public class ElasticConnectionPool implements AutoCloseable {
       }
     }
 
+    /**
+     * Sliced scrolls are only available starting with Elasticsearch 5.0.
+     */
+    public boolean isSlicedScrollSupported() {
+      return enable5vFeatures;
+    }
+
     @Deprecated
     public WebTarget getTarget(){
       return target;
@@ -17,9 +17,11 @@ package com.dremio.plugins.elastic;
 
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.dremio.connector.metadata.DatasetSplit;
@@ -27,8 +29,11 @@ import com.dremio.connector.metadata.DatasetSplitAffinity;
 import com.dremio.connector.metadata.PartitionChunk;
 import com.dremio.connector.metadata.PartitionChunkListing;
 import com.dremio.elastic.proto.ElasticReaderProto.ElasticSplitXattr;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
 import com.dremio.plugins.elastic.ElasticActions.Count;
 import com.dremio.plugins.elastic.ElasticActions.CountResult;
+import com.dremio.plugins.elastic.ElasticActions.IndicesStats;
 import com.dremio.plugins.elastic.ElasticActions.NodesInfo;
 import com.dremio.plugins.elastic.ElasticActions.Result;
 import com.dremio.plugins.elastic.ElasticActions.SearchShards;
@@ -43,10 +48,13 @@ import com.google.gson.JsonObject;
  * Representation of PartitionChunkListing for the elastic plugin.
  *
  * Contains methods to build a list of partition chunks if it doesn't
- * already exist.
+ * already exist. Each shard is one partition chunk; shards holding many
+ * documents are split into several sliced scrolls so that they can be read
+ * in parallel.
  *
  */
 class ElasticPartitionChunkListing implements PartitionChunkListing {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ElasticPartitionChunkListing.class);
   private static final Joiner RESOURCE_JOINER = Joiner.on('/');
 
   private static final double SPLIT_DEFAULT_SIZE = 100000;
@@ -104,6 +112,7 @@ class ElasticPartitionChunkListing implements PartitionChunkListing {
 
     JsonArray shards = result.getAsJsonObject().getAsJsonArray("shards");
 
+    final Map<String, Long> shardDocCounts = getShardDocCounts();
     Set<String> indexes = new HashSet<>();
 
     for (JsonElement e : shards) {
@@ -127,18 +136,26 @@ class ElasticPartitionChunkListing implements PartitionChunkListing {
 
       indexes.add(onlyIndex);
 
-      final ElasticSplitXattr splitAttributes = ElasticSplitXattr.newBuilder()
-        .setResource(RESOURCE_JOINER.join(onlyIndex, typeName))
-        .setShard(onlyShard)
-        .build();
-
       List<DatasetSplitAffinity> affinity = new ArrayList<>();
       for (String host : hosts) {
         affinity.add(DatasetSplitAffinity.of(host, SPLIT_DEFAULT_SIZE));
       }
 
-      partitionChunks.add(PartitionChunk.of(
-        DatasetSplit.of(affinity, (long) SPLIT_DEFAULT_SIZE, 0, os -> splitAttributes.writeTo(os))));
+      final Long shardDocCount = shardDocCounts.get(RESOURCE_JOINER.join(onlyIndex, onlyShard));
+      final int sliceCount = shardDocCount == null ? 1 : getSliceCount(shardDocCount);
+      final List<DatasetSplit> splits = new ArrayList<>(sliceCount);
+      for (int slice = 0; slice < sliceCount; slice++) {
+        final ElasticSplitXattr.Builder builder = ElasticSplitXattr.newBuilder()
+          .setResource(RESOURCE_JOINER.join(onlyIndex, typeName))
+          .setShard(onlyShard);
+        if (sliceCount > 1) {
+          builder.setSliceId(slice).setSliceMax(sliceCount);
+        }
+        final ElasticSplitXattr splitAttributes = builder.build();
+        splits.add(DatasetSplit.of(affinity, (long) SPLIT_DEFAULT_SIZE, 0, os -> splitAttributes.writeTo(os)));
+      }
+
+      partitionChunks.add(PartitionChunk.of(splits));
 
       partitionChunkList = partitionChunks;
     }
@@ -155,4 +172,55 @@ class ElasticPartitionChunkListing implements PartitionChunkListing {
 
     return partitionChunks.iterator();
   }
+
+  /**
+   * Number of sliced scrolls a shard holding the given number of documents is read with. Shards are only split
+   * when the cluster supports sliced scrolls.
+   */
+  private int getSliceCount(long shardDocCount) {
+    final OptionManager options = datasetHandle.getContext().getOptionManager();
+    final long docsPerSlice = options.getOption(ExecConstants.ELASTIC_DOCS_PER_SLICE);
+    final long maxSlices = options.getOption(ExecConstants.ELASTIC_MAX_SLICES_PER_SHARD);
+    if (maxSlices <= 1 || shardDocCount <= docsPerSlice || !datasetHandle.getConnection().isSlicedScrollSupported()) {
+      return 1;
+    }
+    return (int) Math.min(maxSlices, (shardDocCount + docsPerSlice - 1) / docsPerSlice);
+  }
+
+  /**
+   * Gets the number of documents held by each primary shard, keyed by index and shard number. Shard statistics are
+   * only used to size the splits, so an empty map is returned if they cannot be retrieved.
+   */
+  private Map<String, Long> getShardDocCounts() {
+    final Map<String, Long> shardDocCounts = new HashMap<>();
+    final Result result = datasetHandle.getConnection().executeAndHandleResponseCode(new IndicesStats().addIndex(indexOrAlias), false,
+      "Cannot get shards statistics for [" + indexOrAlias + "." + typeName + "].");
+    if (!result.success()) {
+      logger.debug("Unable to get shards statistics for [{}], reading each shard with a single scroll. {}",
+        indexOrAlias, result.getErrorMessage());
+      return shardDocCounts;
+    }
+
+    final JsonObject indices = result.getAsJsonObject().getAsJsonObject("indices");
+    if (indices == null) {
+      return shardDocCounts;
+    }
+    for (Map.Entry<String, JsonElement> index : indices.entrySet()) {
+      final JsonObject shards = index.getValue().getAsJsonObject().getAsJsonObject("shards");
+      if (shards == null) {
+        continue;
+      }
+      for (Map.Entry<String, JsonElement> shard : shards.entrySet()) {
+        for (JsonElement copy : shard.getValue().getAsJsonArray()) {
+          final JsonObject copyObject = copy.getAsJsonObject();
+          final JsonObject routing = copyObject.getAsJsonObject("routing");
+          final JsonObject docs = copyObject.getAsJsonObject("docs");
+          if (routing != null && routing.get("primary").getAsBoolean() && docs != null) {
+            shardDocCounts.put(RESOURCE_JOINER.join(index.getKey(), shard.getKey()), docs.get("count").getAsLong());
+          }
+        }
+      }
+    }
+    return shardDocCounts;
+  }
 }
@@ -61,6 +61,8 @@ import com.fasterxml.jackson.core.JsonGenerationException;
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 /**
@@ -124,11 +126,11 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     this.stats = context == null ? null : context.getStats();
     this.readDefinition = readDefinition;
     this.connection = connection;
-    String query = spec.getQuery();
-    this.query = query != null && query.length() > 0 ? query : MATCH_ALL_REQUEST;
     this.usingElasticProjection = useElasticProjection;
     this.config = config;
     this.splitAttributes = split == null ? null : ElasticSplitXattr.parseFrom(split.getDatasetSplitInfo().getExtendedProperty());
+    String query = spec.getQuery();
+    this.query = addSlice(query != null && query.length() > 0 ? query : MATCH_ALL_REQUEST, splitAttributes);
     this.resource = split == null ? spec.getResource() : splitAttributes.getResource();
     this.metaUIDSelected = getColumns().contains(SchemaPath.getSimplePath(ElasticsearchConstants.UID)) || isStarQuery();
     this.metaIDSelected = config.isShowIdColumn() && (getColumns().contains(SchemaPath.getSimplePath(ElasticsearchConstants.ID)) || isStarQuery());
@@ -140,6 +142,21 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * Restricts the query to the sliced scroll of the split, if the shard of the split is read by several slices.
+   */
+  static String addSlice(String query, ElasticSplitXattr splitAttributes) {
+    if (splitAttributes == null || splitAttributes.getSliceMax() <= 1) {
+      return query;
+    }
+    final JsonObject request = new JsonParser().parse(query).getAsJsonObject();
+    final JsonObject slice = new JsonObject();
+    slice.addProperty("id", splitAttributes.getSliceId());
+    slice.addProperty("max", splitAttributes.getSliceMax());
+    request.add("slice", slice);
+    return request.toString();
+  }
+
   @Override
   public void setup(OutputMutator output) throws ExecutionSetupException {
     complexWriter = new VectorContainerWriter(output);
@@ -215,7 +232,14 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     try {
       jsonReader.setSource(bytes);
       Pair<String, Long> scrollIdAndTotalSize = jsonReader.getScrollAndTotalSizeThenSeekToHits();
-      scrollId = scrollIdAndTotalSize.getKey();
+      synchronized (this) {
+        scrollId = scrollIdAndTotalSize.getKey();
+        if (state == State.CLOSED) {
+          // the reader was closed while the first page was requested, the scroll would otherwise never be cleared
+          clearScroll();
+          return;
+        }
+      }
       totalSize = scrollIdAndTotalSize.getValue();
     } catch (IOException e) {
       String bestEffortMessage = bestEffortMessageForUnknownException(e.getCause());
@@ -231,7 +255,13 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
         .build(logger);
     }
 
-    state = State.READ;
+    synchronized (this) {
+      if (state == State.CLOSED) {
+        clearScroll();
+        return;
+      }
+      state = State.READ;
+    }
   }
 
   private byte[] getNextPage() throws IOException {
@@ -259,6 +289,9 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
 
     if(state == State.INIT){
       getFirstPage();
+      if (state != State.READ) {
+        return 0;
+      }
     }
 
     assert state == State.READ;
@@ -285,7 +318,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
 
         // if we receive the records we were told we'd receive, we will should stop reading.
         if (totalCount == totalSize) {
-          state = State.DEPLETED;
+          depleted();
           break;
         }
 
@@ -297,7 +330,10 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
 
         if(!badStreamBreak){
           jsonReader.setSource(bytes);
-          scrollId = jsonReader.getScrollAndTotalSizeThenSeekToHits().getKey();
+          final String nextScrollId = jsonReader.getScrollAndTotalSizeThenSeekToHits().getKey();
+          synchronized (this) {
+            scrollId = nextScrollId;
+          }
           continue;
         }
 
@@ -307,7 +343,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
 
         if (!timedOut && config.isWarnOnRowCountMismatch()) {
           logger.warn("Dremio didn't receive as many results from Elasticsearch as expected. Expected {}. Received: {}", totalSize, totalCount);
-          state = State.DEPLETED;
+          depleted();
           break;
         }
 
@@ -358,18 +394,34 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
   }
 
   @Override
-  public synchronized void close() throws Exception {
-    if(state == State.CLOSED){
-      return;
-    }
+  public void close() throws Exception {
+    synchronized (this) {
+      if (state == State.CLOSED) {
+        return;
+      }
 
-    if (state == State.INIT) {
+      // set before clearing the scroll, so that a first page still being requested clears the scroll it gets
+      // instead of reading it
       state = State.CLOSED;
-      return; // scroll id is not yet set
+      clearScroll();
+    }
+  }
+
+  /**
+   * Releases the scroll as soon as all the records of the split are read, rather than keeping its search context
+   * open on the cluster until the reader is closed. Scans of sliced shards hold one scroll per slice.
+   */
+  private synchronized void depleted() {
+    if (state == State.READ) {
+      state = State.DEPLETED;
+      clearScroll();
     }
+  }
 
-    // TODO(DX-10051): fix rare race condition: above block assumes scrollId is not set, but the fragment thread
-    // could be in #getFirstPage, right before setting scrollId. In this case, the scroll will never be deleted.
+  private synchronized void clearScroll() {
+    if (scrollId == null) {
+      return;
+    }
 
     try {
       final DeleteScroll delete = new DeleteScroll(scrollId);
@@ -394,7 +446,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     } catch (Exception e) {
       logger.warn("Failure while closing Elasticsearch scroll: " + scrollId);
     } finally {
-      state = State.CLOSED;
+      scrollId = null;
     }
   }
 }
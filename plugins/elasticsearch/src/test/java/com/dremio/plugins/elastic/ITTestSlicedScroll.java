@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic;
+
+import static com.dremio.plugins.elastic.ElasticsearchType.INTEGER;
+
+import org.junit.Test;
+
+import com.dremio.TestBuilder;
+import com.dremio.exec.ExecConstants;
+import com.dremio.plugins.elastic.ElasticBaseTestQuery.ElasticScrollSize;
+
+/**
+ * Tests reading a shard through several sliced scrolls, each read by its own reader.
+ */
+@ElasticScrollSize(scrollSize=128)
+public class ITTestSlicedScroll extends ElasticBaseTestQuery {
+
+  @Test
+  public void testSlicedScroll() throws Exception {
+    final int rowCount = 1000;
+    Object[][] obj = new Object[rowCount][1];
+    for (int i = 0; i < rowCount; i++) {
+      obj[i][0] = i;
+    }
+    ElasticsearchCluster.ColumnData[] data = new ElasticsearchCluster.ColumnData[]{
+      new ElasticsearchCluster.ColumnData("val", INTEGER, obj)
+    };
+
+    elastic.load(schema, table, data);
+
+    // the shard is read by 4 slices of about 250 documents, each spanning several scroll pages
+    try (AutoCloseable ignored = withSystemOption(ExecConstants.ELASTIC_DOCS_PER_SLICE, 300);
+         AutoCloseable ignored2 = withSystemOption(ExecConstants.ELASTIC_MAX_SLICES_PER_SHARD, 4)) {
+      TestBuilder builder = testBuilder()
+        .sqlQuery(String.format("select val from elasticsearch.%s.%s", schema, table))
+        .unOrdered()
+        .baselineColumns("val");
+
+      for (int i = 0; i < rowCount; i++) {
+        builder.baselineValues(i);
+      }
+
+      builder.go();
+
+      testBuilder()
+        .sqlQuery(String.format("select count(*) as cnt, count(distinct val) as dist from elasticsearch.%s.%s", schema, table))
+        .unOrdered()
+        .baselineColumns("cnt", "dist")
+        .baselineValues((long) rowCount, (long) rowCount)
+        .go();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.dremio.elastic.proto.ElasticReaderProto.ElasticSplitXattr;
+import com.dremio.test.DremioTest;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Test ElasticsearchRecordReader.addSlice
+ */
+public class TestSlicedScroll extends DremioTest {
+
+  @Test
+  public void testSingleSliceKeepsQuery() {
+    final ElasticSplitXattr split = ElasticSplitXattr.newBuilder()
+      .setResource("index/type")
+      .setShard(0)
+      .build();
+    assertSame(ElasticsearchRecordReader.MATCH_ALL_REQUEST,
+      ElasticsearchRecordReader.addSlice(ElasticsearchRecordReader.MATCH_ALL_REQUEST, split));
+    assertSame(ElasticsearchRecordReader.MATCH_ALL_REQUEST,
+      ElasticsearchRecordReader.addSlice(ElasticsearchRecordReader.MATCH_ALL_REQUEST, null));
+  }
+
+  @Test
+  public void testSliceAddedToQuery() {
+    final ElasticSplitXattr split = ElasticSplitXattr.newBuilder()
+      .setResource("index/type")
+      .setShard(3)
+      .setSliceId(2)
+      .setSliceMax(5)
+      .build();
+    final String query = ElasticsearchRecordReader.addSlice(ElasticsearchRecordReader.MATCH_ALL_REQUEST, split);
+    final JsonObject request = new JsonParser().parse(query).getAsJsonObject();
+
+    assertEquals(2, request.getAsJsonObject("slice").get("id").getAsInt());
+    assertEquals(5, request.getAsJsonObject("slice").get("max").getAsInt());
+    assertFalse(request.getAsJsonObject("query").entrySet().isEmpty());
+  }
+}
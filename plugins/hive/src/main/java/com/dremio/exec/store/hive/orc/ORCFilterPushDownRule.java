@@ -35,6 +35,7 @@ import com.dremio.exec.catalog.StoragePluginId;
 import com.dremio.exec.planner.logical.FilterRel;
 import com.dremio.exec.planner.logical.RelOptHelper;
 import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.easy.orc.OrcFindRelevantFilters;
 import com.dremio.exec.store.hive.HiveRulesFactory.HiveScanDrel;
 import com.dremio.exec.store.hive.ORCScanFilter;
 import com.dremio.exec.store.hive.exec.HiveORCVectorizedReader;
@@ -92,7 +93,7 @@ public class ORCFilterPushDownRule extends RelOptRule {
     final RexNode originalFilter = filter.getCondition();
 
     try {
-      final ORCFindRelevantFilters filterFinder = new ORCFindRelevantFilters(rexBuilder, scan.getRowType());
+      final OrcFindRelevantFilters filterFinder = new OrcFindRelevantFilters(rexBuilder, scan.getRowType());
       RexNode filterThatCanBePushed = originalFilter.accept(filterFinder);
       if (filterThatCanBePushed == null) {
         return;
@@ -101,7 +102,7 @@ public class ORCFilterPushDownRule extends RelOptRule {
       // Convert the filter expression that is just an input ref on bool column into a function call.
       // SearchArgumentGenerator can only work on filter expressions where root is a function call.
       filterThatCanBePushed =
-          ORCFindRelevantFilters.convertBooleanInputRefToFunctionCall(rexBuilder, filterThatCanBePushed);
+          OrcFindRelevantFilters.convertBooleanInputRefToFunctionCall(rexBuilder, filterThatCanBePushed);
 
       final HiveTableXattr tableXattr =
         HiveTableXattr.parseFrom(scan.getTableMetadata().getReadDefinition().getExtendedProperty().asReadOnlyByteBuffer());
@@ -53,7 +53,7 @@ import com.google.common.base.Preconditions;
 /**
  * Convert the predicate ({@link RexNode}) that can be pushed into ORC reader as {@link SearchArgument}.
  * Input predicate must contain only expressions that can be pushed into ORC reader. It should be the output of
- * {@link ORCFindRelevantFilters}.
+ * {@link com.dremio.exec.store.easy.orc.OrcFindRelevantFilters}.
  */
 class ORCSearchArgumentGenerator extends RexVisitorImpl<Object> {
   private final SearchArgument.Builder sargBuilder;
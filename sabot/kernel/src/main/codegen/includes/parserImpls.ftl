@@ -465,6 +465,40 @@ SqlNode SqlLoadMaterialization() :
 }
 
 
+/**
+ * Parses an ANALYZE TABLE statement
+ *   ANALYZE TABLE tblname COMPUTE STATISTICS [ FOR ALL COLUMNS | FOR COLUMNS (field1, field2, ...) ]
+ *   ANALYZE TABLE tblname DELETE STATISTICS
+ */
+SqlNode SqlAnalyzeTableStatistics() :
+{
+    SqlParserPos pos;
+    SqlIdentifier tblName;
+    SqlLiteral isAnalyze = SqlLiteral.createBoolean(true, SqlParserPos.ZERO);
+    SqlNodeList columns = SqlNodeList.EMPTY;
+}
+{
+    <ANALYZE> { pos = getPos(); }
+    <TABLE>
+    tblName = CompoundIdentifier()
+    (
+        <COMPUTE> <STATISTICS>
+        [
+            <FOR>
+            (
+                <ALL> <COLUMNS>
+            |
+                <COLUMNS> columns = ParseRequiredFieldList("Statistics")
+            )
+        ]
+    |
+        <DELETE> <STATISTICS> { isAnalyze = SqlLiteral.createBoolean(false, SqlParserPos.ZERO); }
+    )
+    {
+        return new SqlAnalyzeTableStatistics(pos, tblName, isAnalyze, columns);
+    }
+}
+
 /**
  * Parses a COMPACT REFRESH statement
  *   $COMPACT MATERIALIZATION materialization_path AS materializationId
@@ -88,6 +88,12 @@ public interface ExecConstants {
   String WORK_THRESHOLD_FOR_SPLIT_KEY = "exec.expression.split.work_per_split";
   DoubleValidator WORK_THRESHOLD_FOR_SPLIT = new RangeDoubleValidator(WORK_THRESHOLD_FOR_SPLIT_KEY, 0.0, Long.MAX_VALUE, 3.0);
 
+  // Evaluate the conjuncts of a filter one at a time on the rows surviving the previous ones, periodically
+  // reordering them by the selectivity and cost observed at runtime. Conjuncts are evaluated with Java code generation.
+  BooleanValidator FILTER_ADAPTIVE_REORDER = new BooleanValidator("exec.filter.adaptive_reorder.enabled", false);
+  // number of batches between two reorderings of the conjuncts
+  PositiveLongValidator FILTER_ADAPTIVE_REORDER_INTERVAL = new PositiveLongValidator("exec.filter.adaptive_reorder.interval", 1 << 16, 16);
+
   PositiveLongValidator MAX_FOREMEN_PER_COORDINATOR = new PositiveLongValidator("coordinator.alive_queries.limit", Long.MAX_VALUE, 1000);
 
   BooleanValidator REST_API_RUN_QUERY_ASYNC = new BooleanValidator("dremio.coordinator.rest.run_query.async", false);
@@ -137,11 +143,30 @@ public interface ExecConstants {
   OptionValidator OPERATOR_TARGET_BATCH_BYTES_VALIDATOR = new LongValidator(OPERATOR_TARGET_BATCH_BYTES, 10*1024*1024);
 
   BooleanValidator ENABLE_VECTORIZED_HASHAGG = new BooleanValidator("exec.operator.aggregate.vectorize", true);
+  BooleanValidator ENABLE_VECTORIZED_STREAMAGG = new BooleanValidator("exec.operator.aggregate.streaming.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN = new BooleanValidator("exec.operator.join.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN_SPECIFIC = new BooleanValidator("exec.operator.join.vectorize.specific", false);
+  BooleanValidator ENABLE_VECTORIZED_MERGEJOIN = new BooleanValidator("exec.operator.join.merge.vectorize", false);
   BooleanValidator ENABLE_VECTORIZED_COPIER = new BooleanValidator("exec.operator.copier.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_PARTITIONER = new BooleanValidator("exec.operator.partitioner.vectorize", true);
+  // number of first batches the vectorized partition sender samples to report hot keys, 0 disables the sampling
+  RangeLongValidator PARTITIONER_HOT_KEYS_SAMPLE_BATCHES = new RangeLongValidator("exec.operator.partitioner.hot_keys.sample_batches", 0, 1024, 4);
+  // a key is hot when its share of the sampled rows is at least this fraction of a single receiver's fair share
+  DoubleValidator PARTITIONER_HOT_KEYS_MIN_SHARE = new RangeDoubleValidator("exec.operator.partitioner.hot_keys.min_share", 0.01, 100.0, 0.5);
+  // spread the hot keys of hash joins and aggregations: the probe side of an inner or left hash join spreads its hot
+  // keys while the build side replicates its rows, single phase hash aggregations spread their hot keys and merge the
+  // split groups in a second phase
+  BooleanValidator PARTITIONER_SPREAD_HOT_KEYS = new BooleanValidator("exec.operator.partitioner.hot_keys.spread", false);
+  // number of receivers the rows of a hot key are spread to, each build row of a spread join is sent to as many receivers
+  RangeLongValidator PARTITIONER_HOT_KEYS_SPREAD_RECEIVERS = new RangeLongValidator("exec.operator.partitioner.hot_keys.spread_receivers", 2, 1024, 4);
   BooleanValidator DEBUG_HASHJOIN_INSERTION = new BooleanValidator("exec.operator.join.debug-insertion", false);
+  BooleanValidator ENABLE_HASHJOIN_PROBE_BLOOM_FILTER = new BooleanValidator("exec.operator.join.probe_bloom_filter.enabled", true);
+  // the filter is not built if it would be larger than this, it has to stay cache resident to be worth it
+  RangeLongValidator HASHJOIN_PROBE_BLOOM_FILTER_MAX_BYTES = new RangeLongValidator("exec.operator.join.probe_bloom_filter.max_bytes", 1024, 64 * 1024 * 1024, 2 * 1024 * 1024);
+  // the filter is only applied to a probe batch if the fraction of matching rows in the previous batch is at most this
+  DoubleValidator HASHJOIN_PROBE_BLOOM_FILTER_MAX_MATCH_RATE = new RangeDoubleValidator("exec.operator.join.probe_bloom_filter.max_match_rate", 0.0, 1.0, 0.5);
+  // fragments of a node share a single table for joins with a broadcast build side
+  BooleanValidator ENABLE_HASHJOIN_SHARED_BUILD = new BooleanValidator("exec.operator.join.shared_build.enabled", false);
 
   String OUTPUT_FORMAT_OPTION = "store.format";
   StringValidator OUTPUT_FORMAT_VALIDATOR = new StringValidator(OUTPUT_FORMAT_OPTION, "parquet");
@@ -187,6 +212,21 @@ public interface ExecConstants {
 
   LongValidator PARQUET_MIN_RECORDS_FOR_FLUSH_VALIDATOR = new LongValidator("store.parquet.min_records_for_flush", 25000);
 
+  // write completed parquet files in the background while the next file is being encoded
+  BooleanValidator PARQUET_WRITER_PIPELINED = new BooleanValidator("store.parquet.writer.pipelined.enabled", false);
+  // maximum number of files being written in the background, the writer waits for them beyond that
+  LongValidator PARQUET_WRITER_PIPELINED_MAX_PENDING = new RangeLongValidator("store.parquet.writer.pipelined.max_pending_files", 1, 8, 1);
+
+  // write partitioned parquet tables without sorting the input, by keeping a writer open for each partition
+  BooleanValidator PARQUET_HASH_PARTITIONED_WRITER = new BooleanValidator("store.parquet.partitioned_writer.hash.enabled", false);
+  // maximum number of partitions open at once per writer, the least recently used partition is closed beyond that
+  LongValidator PARQUET_HASH_PARTITIONED_WRITER_MAX_OPEN = new RangeLongValidator("store.parquet.partitioned_writer.hash.max_open_writers", 1, 1000, 32);
+
+  // write split block bloom filters for the sort and distribution columns of the table
+  BooleanValidator PARQUET_WRITER_BLOOM_FILTERS = new BooleanValidator("store.parquet.writer.bloom_filters.enabled", false);
+  // size of the bloom filter of a column chunk
+  LongValidator PARQUET_WRITER_BLOOM_FILTER_MAX_BYTES = new RangeLongValidator("store.parquet.writer.bloom_filters.max_bytes", 1024, 128 * 1024 * 1024, 1024 * 1024);
+
   String PARQUET_NEW_RECORD_READER = "store.parquet.use_new_reader";
   BooleanValidator PARQUET_RECORD_READER_IMPLEMENTATION_VALIDATOR = new BooleanValidator(PARQUET_NEW_RECORD_READER, false);
 
@@ -195,6 +235,8 @@ public interface ExecConstants {
 
   BooleanValidator PARQUET_READER_VECTORIZE = new BooleanValidator("store.parquet.vectorize", true);
   BooleanValidator ENABLED_PARQUET_TRACING = new BooleanValidator("store.parquet.vectorize.tracing.enable", false);
+  // read the columns of pushed down filters first, and the other columns only for the rows matching the filter
+  BooleanValidator PARQUET_LATE_MATERIALIZATION = new BooleanValidator("store.parquet.late_materialization.enabled", false);
 
   String PARQUET_READER_INT96_AS_TIMESTAMP = "store.parquet.reader.int96_as_timestamp";
   BooleanValidator PARQUET_READER_INT96_AS_TIMESTAMP_VALIDATOR = new BooleanValidator(PARQUET_READER_INT96_AS_TIMESTAMP, true);
@@ -222,6 +264,13 @@ public interface ExecConstants {
   String JSON_READ_NUMBERS_AS_DOUBLE = "store.json.read_numbers_as_double";
   BooleanValidator JSON_READ_NUMBERS_AS_DOUBLE_VALIDATOR = new BooleanValidator(JSON_READ_NUMBERS_AS_DOUBLE, false);
 
+  // Read JSON files by indexing whole buffers into a structural tape instead of streaming tokens through Jackson.
+  // Comments and unquoted field names are not supported in this mode.
+  BooleanValidator JSON_TAPE_READER = new BooleanValidator("store.json.tape_reader.enabled", false);
+
+  // Push filters into the filesystem ORC reader to skip stripes and row groups using ORC indexes and bloom filters.
+  BooleanValidator ORC_FILTER_PUSHDOWN = new BooleanValidator("store.orc.enable_filter_pushdown", true);
+
   /* Mongo configurations */
   String MONGO_ALL_TEXT_MODE = "store.mongo.all_text_mode";
   OptionValidator MONGO_READER_ALL_TEXT_MODE_VALIDATOR = new BooleanValidator(MONGO_ALL_TEXT_MODE, false);
@@ -247,6 +296,10 @@ public interface ExecConstants {
 
   String ELASTIC_ACTION_RETRIES = "store.elastic.action_retries";
   LongValidator ELASTIC_ACTION_RETRIES_VALIDATOR = new LongValidator(ELASTIC_ACTION_RETRIES, 0);
+  // Shards holding more documents than this are split into several sliced scrolls that are read in parallel
+  PositiveLongValidator ELASTIC_DOCS_PER_SLICE = new PositiveLongValidator("store.elastic.docs_per_slice", Long.MAX_VALUE, 1_000_000);
+  // 1 disables sliced scrolls
+  RangeLongValidator ELASTIC_MAX_SLICES_PER_SHARD = new RangeLongValidator("store.elastic.max_slices_per_shard", 1, 1024, 1);
 
   BooleanValidator ENABLE_UNION_TYPE = new BooleanValidator("exec.enable_union_type", true);
 
@@ -386,6 +439,11 @@ public interface ExecConstants {
   LongValidator PARQUET_SINGLE_STREAM_COLUMN_THRESHOLD = new LongValidator("store.parquet.single_stream_column_threshold", 40);
   LongValidator PARQUET_MULTI_STREAM_SIZE_LIMIT = new LongValidator("store.parquet.multi_stream_limit", 1024*1024);
   BooleanValidator PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE = new BooleanValidator("store.parquet.multi_stream_limit.enable", true);
+  // When the row-wise parquet reader reads a stream per column, read nearby column chunks of a row group with a single request
+  BooleanValidator PARQUET_COALESCE_READS = new BooleanValidator("store.parquet.coalesce_reads.enabled", false);
+  LongValidator PARQUET_COALESCE_READS_MAX_GAP = new RangeLongValidator("store.parquet.coalesce_reads.max_gap_bytes", 0, 64 * 1024 * 1024, 256 * 1024);
+  LongValidator PARQUET_COALESCE_READS_MAX_RANGE = new RangeLongValidator("store.parquet.coalesce_reads.max_range_bytes", 1024 * 1024, 256 * 1024 * 1024, 8 * 1024 * 1024);
+  LongValidator PARQUET_COALESCE_READS_MAX_BUFFERED = new RangeLongValidator("store.parquet.coalesce_reads.max_buffered_bytes", 1024 * 1024, Integer.MAX_VALUE, 64 * 1024 * 1024);
   LongValidator PARQUET_FULL_FILE_READ_THRESHOLD = new RangeLongValidator("store.parquet.full_file_read.threshold", 0, Integer.MAX_VALUE, 0);
   DoubleValidator PARQUET_FULL_FILE_READ_COLUMN_RATIO = new RangeDoubleValidator("store.parquet.full_file_read.column_ratio", 0.0, 1.0, 0.25);
   BooleanValidator PARQUET_CACHED_ENTITY_SET_FILE_SIZE = new BooleanValidator("store.parquet.set_file_length",true);
@@ -466,6 +524,8 @@ public interface ExecConstants {
 
   BooleanValidator ENABLE_ICEBERG = new BooleanValidator("dremio.iceberg.enabled", false);
   BooleanValidator ENABLE_ICEBERG_MIN_MAX = new BooleanValidator("dremio.iceberg.min_max.enabled", true);
+  // number of delta lake commits inspected at metadata refresh to refresh reflections incrementally
+  PositiveLongValidator INCREMENTAL_REFRESH_MAX_SNAPSHOTS = new PositiveLongValidator("dremio.incremental_refresh.max_snapshots", Integer.MAX_VALUE, 100);
 
   // warning threshold for running time of a task
   PositiveLongValidator SLICING_WARN_MAX_RUNTIME_MS = new PositiveLongValidator("dremio.sliced.warn_max_runtime", Long.MAX_VALUE, 120000);
@@ -511,10 +571,16 @@ public interface ExecConstants {
 
   BooleanValidator PREFETCH_READER = new BooleanValidator("store.parquet.prefetch_reader", true);
   BooleanValidator READ_COLUMN_INDEXES = new BooleanValidator("store.parquet.read_column_indexes", true);
+  // skip row groups using the bloom filters of the columns compared with a literal by pushed down filters
+  BooleanValidator READ_BLOOM_FILTERS = new BooleanValidator("store.parquet.read_bloom_filters", true);
     // Increasing this will increase the number of splits that are prefetched. Unfortunately, it can also lead to multiple footer reads
     // if the future splits are from the same file
   RangeLongValidator NUM_SPLITS_TO_PREFETCH = new RangeLongValidator("store.parquet.num_splits_to_prefetch", 1, 20L, 1);
 
+  // Open the readers of the next splits in the background while the current split is being read
+  BooleanValidator ASYNC_SPLIT_PREFETCH = new BooleanValidator("store.async_split_prefetch.enabled", false);
+  RangeLongValidator ASYNC_SPLIT_PREFETCH_DEPTH = new RangeLongValidator("store.async_split_prefetch.depth", 1, 20L, 2);
+
   // Use this as a factor to scale the rowcount estimation of number of rows in a data file
   DoubleValidator DELTALAKE_ROWCOUNT_ESTIMATION_FACTOR = new RangeDoubleValidator("store.delta.rowcount_estimation_factor", 0.8d, 2.0d, 1.25d);
   StringValidator DISABLED_GANDIVA_FUNCTIONS = new StringValidator("exec.disabled.gandiva-functions", "");
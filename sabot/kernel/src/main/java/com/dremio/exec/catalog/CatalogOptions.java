@@ -22,6 +22,7 @@ import com.dremio.options.TypeValidators;
 import com.dremio.options.TypeValidators.BooleanValidator;
 import com.dremio.options.TypeValidators.LongValidator;
 import com.dremio.options.TypeValidators.PositiveLongValidator;
+import com.dremio.options.TypeValidators.RangeLongValidator;
 import com.dremio.service.namespace.NamespaceService;
 
 /**
@@ -55,6 +56,9 @@ public final class CatalogOptions {
   // How should (multi-)splits be compressed in the K/V store
   public static final TypeValidators.EnumValidator<NamespaceService.SplitCompression> SPLIT_COMPRESSION_TYPE = new TypeValidators.EnumValidator<>(
     "store.plugin.split_compression", NamespaceService.SplitCompression.class, NamespaceService.SplitCompression.SNAPPY);
+  // Maximum number of datasets of a source whose metadata is refreshed concurrently by a background refresh
+  public static final LongValidator METADATA_REFRESH_DATASET_PARALLELISM = new RangeLongValidator("store.metadata.refresh.dataset_parallelism", 1, 128, 8);
+
   // Disable cross source select
   public static final BooleanValidator DISABLE_CROSS_SOURCE_SELECT = new BooleanValidator("planner.cross_source_select.disable", false);
 
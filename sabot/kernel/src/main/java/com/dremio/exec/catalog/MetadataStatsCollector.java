@@ -18,19 +18,31 @@ package com.dremio.exec.catalog;
 import java.util.List;
 
 import com.dremio.exec.proto.UserBitShared.PlanPhaseProfile;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 public class MetadataStatsCollector {
   private final List<PlanPhaseProfile> planPhaseProfiles = Lists.newArrayList();
 
-  void addDatasetStat(String datasetPath, String type, long millisTaken) {
+  synchronized void addDatasetStat(String datasetPath, String type, long millisTaken) {
     planPhaseProfiles.add(PlanPhaseProfile.newBuilder()
       .setPhaseName(String.format("%s: %s", datasetPath, type))
       .setDurationMillis(millisTaken)
       .build());
   }
 
-  public List<PlanPhaseProfile> getPlanPhaseProfiles() {
-    return planPhaseProfiles;
+  /**
+   * Adds the time spent in a phase of a metadata operation that is not specific to a single dataset, like the phases
+   * of a source metadata synchronization. For phases run concurrently, this is the sum of the time of all threads.
+   */
+  synchronized void addPhaseStat(String phaseName, long millisTaken) {
+    planPhaseProfiles.add(PlanPhaseProfile.newBuilder()
+      .setPhaseName(phaseName)
+      .setDurationMillis(millisTaken)
+      .build());
+  }
+
+  public synchronized List<PlanPhaseProfile> getPlanPhaseProfiles() {
+    return ImmutableList.copyOf(planPhaseProfiles);
   }
 }
@@ -16,16 +16,23 @@
 package com.dremio.exec.catalog;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import com.dremio.common.collections.Tuple;
+import com.dremio.common.concurrent.CloseableThreadPool;
 import com.dremio.common.utils.PathUtils;
 import com.dremio.connector.ConnectorException;
 import com.dremio.connector.metadata.BytesOutput;
@@ -49,6 +56,7 @@ import com.dremio.service.namespace.source.proto.UpdateMode;
 import com.dremio.service.namespace.space.proto.FolderConfig;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Sets;
 
 import io.protostuff.ByteString;
@@ -61,6 +69,8 @@ public class MetadataSynchronizer {
 
   private static final int NUM_RETRIES = 1;
   private final SyncStatus syncStatus = new SyncStatus(true);
+  private final MetadataStatsCollector statsCollector = new MetadataStatsCollector();
+  private final Map<SyncPhase, LongAdder> phaseNanos = new EnumMap<>(SyncPhase.class);
 
   private final NamespaceService systemNamespace;
   private final NamespaceKey sourceKey;
@@ -70,6 +80,7 @@ public class MetadataSynchronizer {
   private final DatasetRetrievalOptions options;
 
   private final UpdateMode updateMode;
+  private final int parallelism;
   private final Set<NamespaceKey> ancestorsToKeep;
   private final List<Tuple<String, String>> failedDatasets;
 
@@ -81,7 +92,8 @@ public class MetadataSynchronizer {
       ManagedStoragePlugin.MetadataBridge bridge,
       MetadataPolicy metadataPolicy,
       DatasetSaver saver,
-      DatasetRetrievalOptions options
+      DatasetRetrievalOptions options,
+      int parallelism
   ) {
     this.systemNamespace = Preconditions.checkNotNull(systemNamespace);
     this.sourceKey = Preconditions.checkNotNull(sourceKey);
@@ -91,8 +103,13 @@ public class MetadataSynchronizer {
     this.options = options;
 
     this.updateMode = metadataPolicy.getDatasetUpdateMode();
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+    this.parallelism = parallelism;
     this.ancestorsToKeep = new HashSet<>();
-    this.failedDatasets = new ArrayList<>();
+    this.failedDatasets = Collections.synchronizedList(new ArrayList<>());
+    for (SyncPhase phase : SyncPhase.values()) {
+      phaseNanos.put(phase, new LongAdder());
+    }
   }
 
   /**
@@ -128,11 +145,15 @@ public class MetadataSynchronizer {
 
       // remaining entries in existingDatasets must be deleted
 
+      final Stopwatch deleteStopwatch = Stopwatch.createStarted();
+
       // 2. delete all the folders that have no references
       deleteOrphanFolders();
 
       // 3. delete all the orphaned datasets
       deleteOrphanedDatasets();
+
+      addPhaseTime(SyncPhase.DELETE_ORPHANS, deleteStopwatch);
     } catch (ManagedStoragePlugin.StoragePluginChanging e) {
       syncStatus.setInterrupted(true);
     } catch (Exception e) {
@@ -148,6 +169,9 @@ public class MetadataSynchronizer {
                 .collect(Collectors.joining("\n"))
         );
       }
+      for (SyncPhase phase : SyncPhase.values()) {
+        statsCollector.addPhaseStat(phase.getName(), TimeUnit.NANOSECONDS.toMillis(phaseNanos.get(phase).sum()));
+      }
       if (logger.isDebugEnabled()) {
         logger.debug("Source '{}' sync ended. Took {} milliseconds",
             sourceKey, stopwatch.elapsed(TimeUnit.MILLISECONDS));
@@ -157,6 +181,20 @@ public class MetadataSynchronizer {
     return syncStatus;
   }
 
+  /**
+   * Time spent in each phase of the last synchronization. Phases run by several threads report the sum of the time
+   * of all threads.
+   *
+   * @return stats collector
+   */
+  public MetadataStatsCollector getMetadataStatsCollector() {
+    return statsCollector;
+  }
+
+  private void addPhaseTime(SyncPhase phase, Stopwatch stopwatch) {
+    phaseNanos.get(phase).add(stopwatch.elapsed(TimeUnit.NANOSECONDS));
+  }
+
   private DatasetHandleListing getDatasetHandleListing(GetDatasetOption... options) throws ConnectorException {
     if (sourceMetadata instanceof SupportsListingDatasets) {
       return ((SupportsListingDatasets) sourceMetadata).listDatasetHandles(options);
@@ -167,19 +205,26 @@ public class MetadataSynchronizer {
 
   /**
    * Brings the namespace up to date by gathering metadata from the source about existing and new datasets.
+   * <p>
+   * Dataset handles are listed by the calling thread, since listings are not thread safe. Fetching and saving the
+   * metadata of each dataset is handed over to up to {@code parallelism} threads.
    *
    * @throws NamespaceException if it cannot be handled
    */
   private void synchronizeDatasets() throws NamespaceException, ConnectorException {
-    logger.trace("Source '{}' syncing datasets", sourceKey);
-    try (DatasetHandleListing datasetListing = getDatasetHandleListing(options.asGetDatasetOptions(null))) {
+    logger.trace("Source '{}' syncing datasets with parallelism {}", sourceKey, parallelism);
+    try (DatasetHandleListing datasetListing = getDatasetHandleListing(options.asGetDatasetOptions(null));
+         DatasetSyncPipeline pipeline = new DatasetSyncPipeline()) {
       final Iterator<? extends DatasetHandle> iterator = datasetListing.iterator();
       do {
         try {
-          if (!iterator.hasNext()) {
+          final Stopwatch listStopwatch = Stopwatch.createStarted();
+          final boolean hasNext = iterator.hasNext();
+          final DatasetHandle handle = hasNext ? iterator.next() : null;
+          addPhaseTime(SyncPhase.LIST_DATASETS, listStopwatch);
+          if (!hasNext) {
             break;
           }
-          final DatasetHandle handle = iterator.next();
           final NamespaceKey datasetKey = MetadataObjectsUtils.toNamespaceKey(handle.getDatasetPath());
           final boolean existing = existingDatasets.remove(datasetKey);
           if (logger.isTraceEnabled()) {
@@ -187,15 +232,105 @@ public class MetadataSynchronizer {
           }
           if (existing) {
             addAncestors(datasetKey, ancestorsToKeep);
-            handleExistingDataset(datasetKey, handle);
+            pipeline.submit(() -> handleExistingDataset(datasetKey, handle));
           } else {
-            handleNewDataset(datasetKey, handle);
+            pipeline.submit(() -> handleNewDataset(datasetKey, handle));
           }
         } catch (DatasetMetadataTooLargeException e) {
           final boolean existing = existingDatasets.remove(new NamespaceKey(PathUtils.parseFullPath(e.getMessage())));
           logger.warn("Dataset {} sync failed ({}) due to Metadata too large. Please check.", e.getMessage(), existing ? "existing" : "new");
         }
       } while (true);
+
+      pipeline.awaitCompletion();
+    }
+  }
+
+  /**
+   * Synchronization of a single dataset.
+   */
+  @FunctionalInterface
+  private interface DatasetSyncTask {
+    void run() throws NamespaceException;
+  }
+
+  /**
+   * Runs dataset synchronization tasks with at most {@code parallelism} tasks in flight, so the listing never runs
+   * far ahead of the synchronization. With a parallelism of 1, tasks are run by the calling thread.
+   * <p>
+   * The first unexpected failure of a task is rethrown to the calling thread, which then stops the synchronization as
+   * it would have when synchronizing datasets one at a time.
+   */
+  private final class DatasetSyncPipeline implements AutoCloseable {
+    private final CloseableThreadPool pool;
+    private final Semaphore permits;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    private DatasetSyncPipeline() {
+      this.pool = parallelism > 1 ? new CloseableThreadPool("metadata-sync-" + sourceKey.getRoot()) : null;
+      this.permits = new Semaphore(parallelism);
+    }
+
+    void submit(DatasetSyncTask task) throws NamespaceException {
+      if (pool == null) {
+        task.run();
+        return;
+      }
+
+      rethrowFailure();
+      acquire(1);
+      try {
+        pool.execute(() -> {
+          try {
+            task.run();
+          } catch (DatasetMetadataTooLargeException e) {
+            logger.warn("Dataset {} sync failed due to Metadata too large. Please check.", e.getMessage());
+          } catch (Exception e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            permits.release();
+          }
+        });
+      } catch (RuntimeException e) {
+        permits.release();
+        throw e;
+      }
+    }
+
+    void awaitCompletion() throws NamespaceException {
+      if (pool == null) {
+        return;
+      }
+      acquire(parallelism);
+      permits.release(parallelism);
+      rethrowFailure();
+    }
+
+    private void acquire(int count) {
+      try {
+        permits.acquire(count);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        syncStatus.setInterrupted(true);
+        throw new IllegalStateException("Source '" + sourceKey + "' sync was interrupted", e);
+      }
+    }
+
+    private void rethrowFailure() throws NamespaceException {
+      final Exception e = failure.get();
+      if (e == null) {
+        return;
+      }
+      Throwables.throwIfInstanceOf(e, NamespaceException.class);
+      Throwables.throwIfUnchecked(e);
+      throw new IllegalStateException(e);
+    }
+
+    @Override
+    public void close() {
+      if (pool != null) {
+        pool.close();
+      }
     }
   }
 
@@ -275,9 +410,15 @@ public class MetadataSynchronizer {
       final DatasetMetadata currentExtended = new DatasetMetadataAdapter(currentConfig);
 
       final ByteString readSignature = currentConfig.getReadDefinition().getReadSignature();
-      final MetadataValidity metadataValidity = supportsReadSignature.validateMetadata(
-          readSignature == null ? BytesOutput.NONE : os -> ByteString.writeTo(os, readSignature),
-          datasetHandle, currentExtended);
+      final Stopwatch validateStopwatch = Stopwatch.createStarted();
+      final MetadataValidity metadataValidity;
+      try {
+        metadataValidity = supportsReadSignature.validateMetadata(
+            readSignature == null ? BytesOutput.NONE : os -> ByteString.writeTo(os, readSignature),
+            datasetHandle, currentExtended);
+      } finally {
+        addPhaseTime(SyncPhase.VALIDATE_METADATA, validateStopwatch);
+      }
 
       if (metadataValidity == MetadataValidity.VALID) {
         logger.trace("Dataset '{}' metadata is valid, skipping", datasetKey);
@@ -286,7 +427,12 @@ public class MetadataSynchronizer {
       }
     }
 
-    saver.save(currentConfig, datasetHandle, sourceMetadata, false, options);
+    final Stopwatch saveStopwatch = Stopwatch.createStarted();
+    try {
+      saver.save(currentConfig, datasetHandle, sourceMetadata, false, options);
+    } finally {
+      addPhaseTime(SyncPhase.SAVE_METADATA, saveStopwatch);
+    }
     logger.trace("Dataset '{}' metadata saved to namespace", datasetKey);
     syncStatus.setRefreshed();
     syncStatus.incrementExtendedChanged();
@@ -310,6 +456,7 @@ public class MetadataSynchronizer {
 
     case PREFETCH_QUERIED: {
       final DatasetConfig newConfig = MetadataObjectsUtils.newShallowConfig(handle);
+      final Stopwatch addStopwatch = Stopwatch.createStarted();
       try {
         systemNamespace.addOrUpdateDataset(datasetKey, newConfig);
         syncStatus.setRefreshed();
@@ -317,6 +464,8 @@ public class MetadataSynchronizer {
       } catch (ConcurrentModificationException ignored) {
         // race condition
         logger.debug("Dataset '{}' add failed (CME)", datasetKey);
+      } finally {
+        addPhaseTime(SyncPhase.ADD_NEW_DATASETS, addStopwatch);
       }
       return;
     }
@@ -398,6 +547,27 @@ public class MetadataSynchronizer {
     }
   }
 
+  /**
+   * Phases of a synchronization, for which the time spent is reported.
+   */
+  private enum SyncPhase {
+    LIST_DATASETS("Metadata sync: list datasets"),
+    VALIDATE_METADATA("Metadata sync: validate metadata"),
+    SAVE_METADATA("Metadata sync: fetch and save metadata"),
+    ADD_NEW_DATASETS("Metadata sync: add new datasets"),
+    DELETE_ORPHANS("Metadata sync: delete orphans");
+
+    private final String name;
+
+    SyncPhase(String name) {
+      this.name = name;
+    }
+
+    String getName() {
+      return name;
+    }
+  }
+
   private static void addAncestors(NamespaceKey datasetKey, Set<NamespaceKey> ancestors) {
     NamespaceKey key = datasetKey.getParent();
     while (key.hasParent()) {
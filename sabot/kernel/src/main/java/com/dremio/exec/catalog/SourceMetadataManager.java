@@ -25,6 +25,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 import javax.inject.Provider;
 
@@ -401,12 +402,16 @@ class SourceMetadataManager implements AutoCloseable {
 
       final Stopwatch stopwatch = Stopwatch.createStarted();
       final MetadataSynchronizer synchronizeRun = new MetadataSynchronizer(systemNamespace, sourceKey,
-          bridge, metadataPolicy, getSaver(), retrievalOptions);
+          bridge, metadataPolicy, getSaver(), retrievalOptions,
+          (int) Math.max(1, optionManager.getOption(CatalogOptions.METADATA_REFRESH_DATASET_PARALLELISM)));
       synchronizeRun.setup();
       final SyncStatus syncStatus = synchronizeRun.go();
 
-      logger.info("Source '{}' refreshed details in {} seconds. Details:\n{}",
-          sourceKey, stopwatch.elapsed(TimeUnit.SECONDS), syncStatus);
+      logger.info("Source '{}' refreshed details in {} seconds. Details:\n{}{}",
+          sourceKey, stopwatch.elapsed(TimeUnit.SECONDS), syncStatus,
+          synchronizeRun.getMetadataStatsCollector().getPlanPhaseProfiles().stream()
+              .map(phase -> String.format("%s: %d ms", phase.getPhaseName(), phase.getDurationMillis()))
+              .collect(Collectors.joining("\n")));
 
       return syncStatus.isRefreshed();
     }
@@ -16,7 +16,7 @@
 package com.dremio.exec.catalog;
 
 /**
- * Metadata sync status.
+ * Metadata sync status. Datasets of a source may be synchronized concurrently, so updates are thread safe.
  */
 class SyncStatus {
 
@@ -31,38 +31,38 @@ class SyncStatus {
   private long extendedUnreadable;
   private long extendedDeleted;
 
-  private boolean refreshed;
-  private boolean interrupted;
+  private volatile boolean refreshed;
+  private volatile boolean interrupted;
 
   SyncStatus(boolean fullRefresh) {
     this.fullRefresh = fullRefresh;
   }
 
-  void incrementShallowAdded() {
+  synchronized void incrementShallowAdded() {
     shallowAdded++;
   }
 
-  void incrementShallowDeleted() {
+  synchronized void incrementShallowDeleted() {
     shallowDeleted++;
   }
 
-  void incrementShallowUnchanged() {
+  synchronized void incrementShallowUnchanged() {
     shallowUnchanged++;
   }
 
-  void incrementExtendedChanged() {
+  synchronized void incrementExtendedChanged() {
     extendedChanged++;
   }
 
-  void incrementExtendedUnchanged() {
+  synchronized void incrementExtendedUnchanged() {
     extendedUnchanged++;
   }
 
-  void incrementExtendedUnreadable() {
+  synchronized void incrementExtendedUnreadable() {
     extendedUnreadable++;
   }
 
-  void incrementExtendedDeleted() {
+  synchronized void incrementExtendedDeleted() {
     extendedDeleted++;
   }
 
@@ -83,7 +83,7 @@ class SyncStatus {
   }
 
   @Override
-  public String toString() {
+  public synchronized String toString() {
     final StringBuilder builder = new StringBuilder();
     builder.append(String.format("Shallow probed %d datasets: %d added, %d unchanged, %d deleted\n",
         shallowAdded + shallowUnchanged + shallowDeleted, shallowAdded, shallowUnchanged, shallowDeleted));
@@ -158,6 +158,14 @@ public class WriterOptions {
     return sortColumns != null && !sortColumns.isEmpty();
   }
 
+  /**
+   * @return true if the writer only partitions its input, in which case the partitions can be written from unsorted
+   * input by keeping a file open for each partition
+   */
+  public boolean canWritePartitionsUnsorted() {
+    return hasPartitions() && !hasDistributions() && !hasSort();
+  }
+
   public WriterOptions withRecordLimit(long recordLimit) {
     return new WriterOptions(this.ringCount, this.partitionColumns, this.sortColumns, this.distributionColumns,
       this.partitionDistributionStrategy, this.singleWriter, recordLimit, this.icebergWriterOperation, this.extendedProperty);
@@ -179,6 +187,12 @@ public class WriterOptions {
                              this.icebergWriterOperation, this.extendedProperty, this.outputLimitEnabled, outputLimitSize);
   }
 
+  public WriterOptions withSingleWriter(boolean singleWriter) {
+    return new WriterOptions(this.ringCount, this.partitionColumns, this.sortColumns, this.distributionColumns,
+                             this.partitionDistributionStrategy, singleWriter, this.recordLimit,
+                             this.icebergWriterOperation, this.extendedProperty, this.outputLimitEnabled, this.outputLimitSize);
+  }
+
   public WriterOptions withPartitionColumns(List<String> partitionColumns) {
     return new WriterOptions(this.ringCount, partitionColumns, this.sortColumns, this.distributionColumns,
       this.partitionDistributionStrategy, this.singleWriter, this.recordLimit, this.icebergWriterOperation, this.extendedProperty);
@@ -47,6 +47,8 @@ public class HashJoinPOP extends AbstractBase {
   private final List<JoinCondition> conditions;
   private final JoinRelType joinType;
   private final boolean vectorize;
+  // true if the build side is broadcast, so that all the fragments of a node build identical tables
+  private final boolean broadcastBuild;
   private RuntimeFilterInfo runtimeFilterInfo;
 
   @JsonCreator
@@ -57,7 +59,8 @@ public class HashJoinPOP extends AbstractBase {
       @JsonProperty("conditions") List<JoinCondition> conditions,
       @JsonProperty("joinType") JoinRelType joinType,
       @JsonProperty("vectorize") boolean vectorize,
-      @JsonProperty("runtimeFilterInfo") RuntimeFilterInfo runtimeFilterInfo
+      @JsonProperty("runtimeFilterInfo") RuntimeFilterInfo runtimeFilterInfo,
+      @JsonProperty("broadcastBuild") boolean broadcastBuild
       ) {
     super(props);
     this.left = left;
@@ -66,6 +69,7 @@ public class HashJoinPOP extends AbstractBase {
     this.joinType = joinType;
     this.vectorize = vectorize;
     this.runtimeFilterInfo = runtimeFilterInfo;
+    this.broadcastBuild = broadcastBuild;
   }
 
   @Override
@@ -76,7 +80,7 @@ public class HashJoinPOP extends AbstractBase {
   @Override
   public PhysicalOperator getNewWithChildren(List<PhysicalOperator> children) {
       Preconditions.checkArgument(children.size() == 2);
-      return new HashJoinPOP(props, children.get(0), children.get(1), conditions, joinType, vectorize, runtimeFilterInfo);
+      return new HashJoinPOP(props, children.get(0), children.get(1), conditions, joinType, vectorize, runtimeFilterInfo, broadcastBuild);
   }
 
   @Override
@@ -104,6 +108,10 @@ public class HashJoinPOP extends AbstractBase {
     return vectorize;
   }
 
+  public boolean isBroadcastBuild() {
+    return broadcastBuild;
+  }
+
   @Override
   public int getOperatorType() {
     return CoreOperatorType.HASH_JOIN_VALUE;
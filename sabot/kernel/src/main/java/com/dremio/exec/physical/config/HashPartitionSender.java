@@ -37,8 +37,25 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 public class HashPartitionSender extends AbstractSender implements OpWithMinorSpecificAttrs {
   private static final String DESTINATIONS_ATTRIBUTE_KEY = "hash-partition-sender-destinations";
 
+  /**
+   * How the sender routes the rows of hot keys, i.e. keys frequent enough to overload the receiver they hash to.
+   */
+  public enum HotKeyRouting {
+    /** every row goes to the receiver its hash maps to */
+    NONE,
+    /**
+     * rows of the hot keys found by sampling the first batches go round-robin to the receiver their hash maps to and
+     * the next hotKeyReceivers - 1 receivers
+     */
+    SPREAD,
+    /** every row goes to the receiver its hash maps to and the next hotKeyReceivers - 1 receivers */
+    REPLICATE
+  }
+
   private List<MinorFragmentIndexEndpoint> destinations;
   private final LogicalExpression expr;
+  private final HotKeyRouting hotKeyRouting;
+  private final int hotKeyReceivers;
 
   public HashPartitionSender(
     OpProps props,
@@ -47,10 +64,25 @@ public class HashPartitionSender extends AbstractSender implements OpWithMinorSp
     int receiverMajorFragmentId,
     List<MinorFragmentIndexEndpoint> destinations,
     LogicalExpression expr
+  ) {
+    this(props, schema, child, receiverMajorFragmentId, destinations, expr, HotKeyRouting.NONE, 1);
+  }
+
+  public HashPartitionSender(
+    OpProps props,
+    BatchSchema schema,
+    PhysicalOperator child,
+    int receiverMajorFragmentId,
+    List<MinorFragmentIndexEndpoint> destinations,
+    LogicalExpression expr,
+    HotKeyRouting hotKeyRouting,
+    int hotKeyReceivers
   ) {
     super(props, schema, child, receiverMajorFragmentId);
     this.destinations = destinations;
     this.expr = expr;
+    this.hotKeyRouting = hotKeyRouting == null ? HotKeyRouting.NONE : hotKeyRouting;
+    this.hotKeyReceivers = Math.max(1, hotKeyReceivers);
   }
 
   @JsonCreator
@@ -59,20 +91,34 @@ public class HashPartitionSender extends AbstractSender implements OpWithMinorSp
       @JsonProperty("schema") BatchSchema schema,
       @JsonProperty("child") PhysicalOperator child,
       @JsonProperty("receiverMajorFragmentId") int receiverMajorFragmentId,
-      @JsonProperty("expr") LogicalExpression expr
+      @JsonProperty("expr") LogicalExpression expr,
+      @JsonProperty("hotKeyRouting") HotKeyRouting hotKeyRouting,
+      @JsonProperty("hotKeyReceivers") int hotKeyReceivers
       ) {
-    this(props, schema, child, receiverMajorFragmentId, null, expr);
+    this(props, schema, child, receiverMajorFragmentId, null, expr, hotKeyRouting, hotKeyReceivers);
   }
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashPartitionSender(props, schema, child, receiverMajorFragmentId, destinations, expr);
+    return new HashPartitionSender(props, schema, child, receiverMajorFragmentId, destinations, expr, hotKeyRouting,
+      hotKeyReceivers);
   }
 
   public LogicalExpression getExpr() {
     return expr;
   }
 
+  public HotKeyRouting getHotKeyRouting() {
+    return hotKeyRouting;
+  }
+
+  /**
+   * @return number of receivers the rows of a hot key are sent to, see {@link HotKeyRouting}
+   */
+  public int getHotKeyReceivers() {
+    return hotKeyReceivers;
+  }
+
   @Override
   public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E {
     return physicalVisitor.visitHashPartitionSender(this, value);
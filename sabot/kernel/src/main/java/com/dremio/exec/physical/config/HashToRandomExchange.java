@@ -24,6 +24,7 @@ import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.physical.base.PhysicalOperatorUtil;
 import com.dremio.exec.physical.base.Receiver;
 import com.dremio.exec.physical.base.Sender;
+import com.dremio.exec.physical.config.HashPartitionSender.HotKeyRouting;
 import com.dremio.exec.physical.config.HashSenderCalculator.BucketOptions;
 import com.dremio.exec.planner.fragment.EndpointsIndex;
 import com.dremio.exec.proto.CoordExecRPC.MinorFragmentIndexEndpoint;
@@ -41,6 +42,8 @@ public class HashToRandomExchange extends AbstractExchange {
 
   private final BucketOptions options;
   private final LogicalExpression expr;
+  private final HotKeyRouting hotKeyRouting;
+  private final int hotKeyReceivers;
 
   public HashToRandomExchange(
       OpProps props,
@@ -50,15 +53,31 @@ public class HashToRandomExchange extends AbstractExchange {
       BatchSchema schema,
       PhysicalOperator child,
       LogicalExpression expr) {
+    this(props, senderProps, receiverProps, options, schema, child, expr, HotKeyRouting.NONE, 1);
+  }
+
+  public HashToRandomExchange(
+      OpProps props,
+      OpProps senderProps,
+      OpProps receiverProps,
+      BucketOptions options,
+      BatchSchema schema,
+      PhysicalOperator child,
+      LogicalExpression expr,
+      HotKeyRouting hotKeyRouting,
+      int hotKeyReceivers) {
     super(props, senderProps, receiverProps, schema, child);
     this.options = options;
     this.expr = expr;
+    this.hotKeyRouting = hotKeyRouting;
+    this.hotKeyReceivers = hotKeyReceivers;
   }
 
   @Override
   public Sender getSender(int minorFragmentId, PhysicalOperator child, EndpointsIndex.Builder indexBuilder) {
     final List<MinorFragmentIndexEndpoint> dest = PhysicalOperatorUtil.getIndexOrderedEndpoints(receiverLocations, indexBuilder);
-    return new HashPartitionSender(options.getResult(senderProps, dest.size()), schema, child, receiverMajorFragmentId, dest, expr);
+    return new HashPartitionSender(options.getResult(senderProps, dest.size()), schema, child, receiverMajorFragmentId, dest, expr,
+      hotKeyRouting, hotKeyReceivers);
   }
 
   @Override
@@ -68,11 +87,22 @@ public class HashToRandomExchange extends AbstractExchange {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashToRandomExchange(props, senderProps, receiverProps, options, schema, child, expr);
+    return new HashToRandomExchange(props, senderProps, receiverProps, options, schema, child, expr, hotKeyRouting,
+      hotKeyReceivers);
   }
 
   @JsonProperty("expr")
   public LogicalExpression getExpression(){
     return expr;
   }
+
+  @JsonProperty("hotKeyRouting")
+  public HotKeyRouting getHotKeyRouting() {
+    return hotKeyRouting;
+  }
+
+  @JsonProperty("hotKeyReceivers")
+  public int getHotKeyReceivers() {
+    return hotKeyReceivers;
+  }
 }
@@ -34,6 +34,7 @@ public class StreamingAggregate extends AbstractSingle {
   private final List<NamedExpression> aggrExprs;
 
   private final float cardinality;
+  private final boolean vectorize;
 
   @JsonCreator
   public StreamingAggregate(
@@ -41,12 +42,14 @@ public class StreamingAggregate extends AbstractSingle {
       @JsonProperty("child") PhysicalOperator child,
       @JsonProperty("groupByExprs") List<NamedExpression> groupByExprs,
       @JsonProperty("aggrExprs") List<NamedExpression> aggrExprs,
-      @JsonProperty("cardinality") float cardinality
+      @JsonProperty("cardinality") float cardinality,
+      @JsonProperty("vectorize") boolean vectorize
       ) {
     super(props, child);
     this.groupByExprs = groupByExprs;
     this.aggrExprs = aggrExprs;
     this.cardinality = cardinality;
+    this.vectorize = vectorize;
   }
 
   public List<NamedExpression> getGroupByExprs() {
@@ -61,6 +64,10 @@ public class StreamingAggregate extends AbstractSingle {
     return cardinality;
   }
 
+  public boolean isVectorize() {
+    return vectorize;
+  }
+
   @Override
   public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E{
     return physicalVisitor.visitStreamingAggregate(this, value);
@@ -68,7 +75,7 @@ public class StreamingAggregate extends AbstractSingle {
 
   @Override
   protected StreamingAggregate getNewWithChild(PhysicalOperator child) {
-    return new StreamingAggregate(props, child, groupByExprs, aggrExprs, cardinality);
+    return new StreamingAggregate(props, child, groupByExprs, aggrExprs, cardinality, vectorize);
   }
 
   @Override
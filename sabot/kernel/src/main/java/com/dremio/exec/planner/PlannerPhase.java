@@ -122,11 +122,13 @@ import com.dremio.exec.planner.physical.HashJoinPrule;
 import com.dremio.exec.planner.physical.LimitPrule;
 import com.dremio.exec.planner.physical.LimitUnionExchangeTransposeRule;
 import com.dremio.exec.planner.physical.MergeJoinPrule;
+import com.dremio.exec.planner.physical.NestedLoopJoinPrel;
 import com.dremio.exec.planner.physical.NestedLoopJoinPrule;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.physical.ProjectNLJMergeRule;
 import com.dremio.exec.planner.physical.ProjectPrule;
 import com.dremio.exec.planner.physical.PushLimitToTopN;
+import com.dremio.exec.planner.physical.RangeNLJConditionRule;
 import com.dremio.exec.planner.physical.SamplePrule;
 import com.dremio.exec.planner.physical.SampleToLimitPrule;
 import com.dremio.exec.planner.physical.ScreenPrule;
@@ -422,6 +424,9 @@ public enum PlannerPhase {
       if (context.getPlannerSettings().options.getOption(PlannerSettings.NLJ_PUSHDOWN)) {
         builder.add(SimplifyNLJConditionRule.INSTANCE);
       }
+      if (context.getPlannerSettings().options.getOption(NestedLoopJoinPrel.RANGE_JOIN)) {
+        builder.add(RangeNLJConditionRule.INSTANCE);
+      }
       return RuleSets.ofList(builder.build());
     }
   };
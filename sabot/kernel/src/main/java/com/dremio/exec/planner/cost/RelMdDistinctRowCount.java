@@ -39,6 +39,10 @@ public class RelMdDistinctRowCount extends org.apache.calcite.rel.metadata.RelMd
           BuiltInMethod.DISTINCT_ROW_COUNT.method, INSTANCE);
 
   public Double getDistinctRowCount(ScanRelBase scan, RelMetadataQuery mq, ImmutableBitSet groupKey, RexNode predicate) {
+    final Double distinctRowCount = StatisticsEstimator.getDistinctRowCount(scan, mq, groupKey, predicate);
+    if (distinctRowCount != null) {
+      return distinctRowCount;
+    }
     return getDistinctRowCountFromEstimateRowCount(scan, mq, groupKey, predicate);
   }
 
@@ -67,6 +67,8 @@ public class RelMdRowCount extends org.apache.calcite.rel.metadata.RelMdRowCount
   // DX-3859:  Need to make sure that join row count is calculated in a reasonable manner.  Calcite's default
   // implementation is leftRowCount * rightRowCount * discountBySelectivity, which is too large (cartesian join).
   // Since we do not support cartesian join, we should just take the maximum of the two join input row counts.
+  // When statistics were collected for the join keys, the equi-join row count is derived from their number of distinct
+  // values instead.
   public static double estimateRowCount(Join rel, RelMetadataQuery mq) {
     double rightJoinFactor = 1.0;
 
@@ -113,6 +115,11 @@ public class RelMdRowCount extends org.apache.calcite.rel.metadata.RelMdRowCount
       }
     }
 
+    final Double equiJoinRowCount = StatisticsEstimator.getEquiJoinRowCount(rel, mq);
+    if (equiJoinRowCount != null) {
+      return selectivity * equiJoinRowCount * rightJoinFactor;
+    }
+
     return selectivity * Math.max(mq.getRowCount(rel.getLeft()), mq.getRowCount(rel.getRight())) * rightJoinFactor;
   }
 
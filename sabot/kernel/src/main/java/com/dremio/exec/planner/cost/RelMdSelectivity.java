@@ -16,10 +16,12 @@
 package com.dremio.exec.planner.cost;
 
 import org.apache.calcite.plan.volcano.RelSubset;
+import org.apache.calcite.rel.core.TableScan;
 import org.apache.calcite.rel.metadata.BuiltInMetadata;
 import org.apache.calcite.rel.metadata.MetadataDef;
 import org.apache.calcite.rel.metadata.MetadataHandler;
 import org.apache.calcite.rel.metadata.ReflectiveRelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMdUtil;
 import org.apache.calcite.rel.metadata.RelMetadataProvider;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexNode;
@@ -47,4 +49,12 @@ implements MetadataHandler<BuiltInMetadata.Selectivity> {
       RexNode predicate) {
     return mq.getSelectivity(MoreObjects.firstNonNull(rel.getBest(), rel.getOriginal()), predicate);
   }
+
+  public Double getSelectivity(TableScan rel, RelMetadataQuery mq, RexNode predicate) {
+    final Double selectivity = StatisticsEstimator.getSelectivity(rel, mq, predicate);
+    if (selectivity != null) {
+      return selectivity;
+    }
+    return RelMdUtil.guessSelectivity(predicate);
+  }
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.metadata.RelColumnOrigin;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.PrelUtil;
+import com.dremio.exec.store.NamespaceTable;
+import com.dremio.service.namespace.NamespaceKey;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Cardinality estimates based on the statistics collected by ANALYZE TABLE.
+ *
+ * Every method returns null when no statistics are available, in which case callers should fall back to their
+ * default estimates.
+ */
+final class StatisticsEstimator {
+
+  private StatisticsEstimator() {
+  }
+
+  /**
+   * Statistics of the table column an output column of a relational expression originates from.
+   */
+  private static final class ColumnStatisticsRef {
+    private final long tableRowCount;
+    private final ColumnStatistics statistics;
+
+    private ColumnStatisticsRef(long tableRowCount, ColumnStatistics statistics) {
+      this.tableRowCount = tableRowCount;
+      this.statistics = statistics;
+    }
+
+    private double getNullFraction() {
+      return tableRowCount == 0 ? 0 : Math.min(1d, (double) statistics.getNullCount() / tableRowCount);
+    }
+
+    private double getNdv() {
+      return Math.max(1d, statistics.getNdv());
+    }
+  }
+
+  private static StatisticsService getStatisticsService(RelNode rel) {
+    final PlannerSettings settings = PrelUtil.getPlannerSettings(rel.getCluster());
+    if (settings == null || !settings.isStatisticsEnabled()) {
+      return null;
+    }
+    return settings.getStatisticsService();
+  }
+
+  private static ColumnStatisticsRef getColumnStatistics(StatisticsService service, RelNode rel, RelMetadataQuery mq,
+                                                         int column) {
+    final RelColumnOrigin origin = mq.getColumnOrigin(rel, column);
+    if (origin == null || origin.isDerived()) {
+      return null;
+    }
+
+    final RelOptTable table = origin.getOriginTable();
+    // statistics are only valid for the version of the dataset they were computed on
+    final NamespaceTable namespaceTable = table.unwrap(NamespaceTable.class);
+    final TableStatistics tableStatistics = service.getTableStatistics(new NamespaceKey(table.getQualifiedName()),
+      namespaceTable == null ? null : namespaceTable.getVersion());
+    if (tableStatistics == null) {
+      return null;
+    }
+
+    final String name = table.getRowType().getFieldNames().get(origin.getOriginColumnOrdinal());
+    for (ColumnStatistics statistics : tableStatistics.getColumnList()) {
+      if (statistics.getName().equalsIgnoreCase(name)) {
+        return new ColumnStatisticsRef(tableStatistics.getRowCount(), statistics);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Estimates the selectivity of a predicate over the output of a relational expression.
+   */
+  static Double getSelectivity(RelNode rel, RelMetadataQuery mq, RexNode predicate) {
+    if (predicate == null || predicate.isAlwaysTrue()) {
+      return null;
+    }
+    final StatisticsService service = getStatisticsService(rel);
+    if (service == null) {
+      return null;
+    }
+
+    final SelectivityEstimator estimator = new SelectivityEstimator(service, rel, mq);
+    final double selectivity = estimator.estimate(predicate);
+    return estimator.usedStatistics ? selectivity : null;
+  }
+
+  /**
+   * Estimates the number of distinct values of a group of columns, using the column ndv when all of them are known.
+   */
+  static Double getDistinctRowCount(RelNode rel, RelMetadataQuery mq, ImmutableBitSet groupKey, RexNode predicate) {
+    if (groupKey.isEmpty()) {
+      return null;
+    }
+    final StatisticsService service = getStatisticsService(rel);
+    if (service == null) {
+      return null;
+    }
+
+    double domainSize = 1;
+    for (int column : groupKey) {
+      final ColumnStatisticsRef ref = getColumnStatistics(service, rel, mq, column);
+      if (ref == null) {
+        return null;
+      }
+      domainSize *= ref.getNdv();
+    }
+
+    final Double selectivity = getSelectivity(rel, mq, predicate);
+    final double rowCount = mq.getRowCount(rel) * (selectivity != null ? selectivity : RelMdUtil.guessSelectivity(predicate));
+    return Math.min(domainSize, rowCount);
+  }
+
+  /**
+   * Estimates the number of rows produced by the equality conditions of a join as
+   * {@code left * right / max(ndv(left key), ndv(right key))}, using the most selective key with known statistics.
+   */
+  static Double getEquiJoinRowCount(Join join, RelMetadataQuery mq) {
+    final StatisticsService service = getStatisticsService(join);
+    if (service == null) {
+      return null;
+    }
+
+    final JoinInfo joinInfo = join.analyzeCondition();
+    if (joinInfo.leftKeys.isEmpty()) {
+      return null;
+    }
+
+    final double leftRowCount = mq.getRowCount(join.getLeft());
+    final double rightRowCount = mq.getRowCount(join.getRight());
+    double maxNdv = 0;
+    for (int i = 0; i < joinInfo.leftKeys.size(); i++) {
+      final ColumnStatisticsRef left = getColumnStatistics(service, join.getLeft(), mq, joinInfo.leftKeys.get(i));
+      final ColumnStatisticsRef right = getColumnStatistics(service, join.getRight(), mq, joinInfo.rightKeys.get(i));
+      if (left == null || right == null) {
+        continue;
+      }
+      // an input cannot have more distinct values than rows
+      final double ndv = Math.max(Math.min(left.getNdv(), leftRowCount), Math.min(right.getNdv(), rightRowCount));
+      maxNdv = Math.max(maxNdv, ndv);
+    }
+
+    if (maxNdv == 0) {
+      return null;
+    }
+
+    double rowCount = leftRowCount * rightRowCount / Math.max(1d, maxNdv);
+    switch (join.getJoinType()) {
+      case LEFT:
+        rowCount = Math.max(rowCount, leftRowCount);
+        break;
+      case RIGHT:
+        rowCount = Math.max(rowCount, rightRowCount);
+        break;
+      case FULL:
+        rowCount = Math.max(rowCount, Math.max(leftRowCount, rightRowCount));
+        break;
+      default:
+        break;
+    }
+    return rowCount;
+  }
+
+  /**
+   * Fraction of the non null values of a column lower than the given value, assuming values are uniformly
+   * distributed within each bucket of the histogram.
+   */
+  @VisibleForTesting
+  static double getFractionBelow(Histogram histogram, double value) {
+    final List<Long> buckets = histogram.getBucketCountList();
+    long total = 0;
+    for (long count : buckets) {
+      total += count;
+    }
+    if (total == 0 || buckets.isEmpty()) {
+      return 0.5;
+    }
+    if (value <= histogram.getMin()) {
+      return 0;
+    }
+    if (value > histogram.getMax()) {
+      return 1;
+    }
+
+    final double width = (histogram.getMax() - histogram.getMin()) / buckets.size();
+    final int bucket = Math.min(buckets.size() - 1, (int) ((value - histogram.getMin()) / width));
+    double below = 0;
+    for (int i = 0; i < bucket; i++) {
+      below += buckets.get(i);
+    }
+    below += buckets.get(bucket) * Math.min(1d, (value - histogram.getMin() - bucket * width) / width);
+    return below / total;
+  }
+
+  /**
+   * Estimates the selectivity of a predicate, combining conjuncts and disjuncts assuming independence. Parts of the
+   * predicate the statistics do not cover are estimated with Calcite's default guesses.
+   */
+  private static final class SelectivityEstimator {
+    private final StatisticsService service;
+    private final RelNode rel;
+    private final RelMetadataQuery mq;
+    private boolean usedStatistics;
+
+    private SelectivityEstimator(StatisticsService service, RelNode rel, RelMetadataQuery mq) {
+      this.service = service;
+      this.rel = rel;
+      this.mq = mq;
+    }
+
+    private double estimate(RexNode predicate) {
+      switch (predicate.getKind()) {
+        case AND: {
+          double selectivity = 1;
+          for (RexNode operand : ((RexCall) predicate).getOperands()) {
+            selectivity *= estimate(operand);
+          }
+          return selectivity;
+        }
+        case OR: {
+          double notSelected = 1;
+          for (RexNode operand : ((RexCall) predicate).getOperands()) {
+            notSelected *= 1 - estimate(operand);
+          }
+          return 1 - notSelected;
+        }
+        case NOT:
+          return 1 - estimate(((RexCall) predicate).getOperands().get(0));
+        case IS_NULL:
+        case IS_NOT_NULL: {
+          final ColumnStatisticsRef ref = getColumn(((RexCall) predicate).getOperands().get(0));
+          if (ref == null) {
+            break;
+          }
+          usedStatistics = true;
+          return predicate.getKind() == SqlKind.IS_NULL ? ref.getNullFraction() : 1 - ref.getNullFraction();
+        }
+        case EQUALS:
+        case NOT_EQUALS:
+        case LESS_THAN:
+        case LESS_THAN_OR_EQUAL:
+        case GREATER_THAN:
+        case GREATER_THAN_OR_EQUAL: {
+          final Double selectivity = estimateComparison((RexCall) predicate);
+          if (selectivity == null) {
+            break;
+          }
+          usedStatistics = true;
+          return selectivity;
+        }
+        default:
+          break;
+      }
+      return RelMdUtil.guessSelectivity(predicate);
+    }
+
+    private Double estimateComparison(RexCall call) {
+      final RexNode left = call.getOperands().get(0);
+      final RexNode right = call.getOperands().get(1);
+      final SqlKind kind;
+      final RexNode column;
+      final RexNode literal;
+      if (right instanceof RexLiteral) {
+        kind = call.getKind();
+        column = left;
+        literal = right;
+      } else if (left instanceof RexLiteral) {
+        kind = call.getKind().reverse();
+        column = right;
+        literal = left;
+      } else {
+        return null;
+      }
+
+      final ColumnStatisticsRef ref = getColumn(column);
+      if (ref == null) {
+        return null;
+      }
+
+      final double nonNullFraction = 1 - ref.getNullFraction();
+      switch (kind) {
+        case EQUALS:
+          return nonNullFraction / ref.getNdv();
+        case NOT_EQUALS:
+          return nonNullFraction * (1 - 1 / ref.getNdv());
+        default:
+          break;
+      }
+
+      final Comparable<?> value = ((RexLiteral) literal).getValue();
+      if (!ref.statistics.hasHistogram() || !(value instanceof Number)) {
+        return null;
+      }
+      final double below = getFractionBelow(ref.statistics.getHistogram(), ((Number) value).doubleValue());
+      switch (kind) {
+        case LESS_THAN:
+        case LESS_THAN_OR_EQUAL:
+          return nonNullFraction * below;
+        default:
+          return nonNullFraction * (1 - below);
+      }
+    }
+
+    private ColumnStatisticsRef getColumn(RexNode node) {
+      if (!(node instanceof RexInputRef)) {
+        return null;
+      }
+      return getColumnStatistics(service, rel, mq, ((RexInputRef) node).getIndex());
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import java.util.List;
+
+import org.apache.arrow.vector.types.pojo.Field;
+
+import com.dremio.service.namespace.NamespaceKey;
+
+/**
+ * Collects and serves the table and column statistics used by the planner for cardinality estimation.
+ */
+public interface StatisticsService {
+
+  /**
+   * Starts collecting statistics for the given columns of a table. Statistics are stored once the job completes.
+   *
+   * @param table table to analyze
+   * @param datasetVersion current version of the table
+   * @param columns columns to collect statistics for
+   * @param userName user running the statistics job
+   * @return id of the job collecting the statistics
+   */
+  String computeStatistics(NamespaceKey table, String datasetVersion, List<Field> columns, String userName);
+
+  /**
+   * Removes the statistics stored for a table.
+   *
+   * @return true if statistics were stored for the table
+   */
+  boolean deleteStatistics(NamespaceKey table);
+
+  /**
+   * @param table analyzed table
+   * @param datasetVersion current version of the table
+   * @return statistics stored for the table, or null if the table was never analyzed or its data changed since
+   */
+  TableStatistics getTableStatistics(NamespaceKey table, String datasetVersion);
+
+  StatisticsService NO_OP = new StatisticsService() {
+    @Override
+    public String computeStatistics(NamespaceKey table, String datasetVersion, List<Field> columns, String userName) {
+      throw new UnsupportedOperationException("StatisticsService.computeStatistics() called on a non-coordinator node");
+    }
+
+    @Override
+    public boolean deleteStatistics(NamespaceKey table) {
+      throw new UnsupportedOperationException("StatisticsService.deleteStatistics() called on a non-coordinator node");
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(NamespaceKey table, String datasetVersion) {
+      return null;
+    }
+  };
+}
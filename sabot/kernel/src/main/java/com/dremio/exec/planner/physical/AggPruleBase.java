@@ -89,7 +89,14 @@ public abstract class AggPruleBase extends Prule {
       return false;
     }
 
-    for (AggregateCall aggCall : aggregate.getAggCallList()) {
+    return isTwoPhaseSupported(aggregate.getAggCallList());
+  }
+
+  /**
+   * @return true if all the aggregate functions can be computed in two phases
+   */
+  public static boolean isTwoPhaseSupported(List<AggregateCall> aggCalls) {
+    for (AggregateCall aggCall : aggCalls) {
       String name = aggCall.getAggregation().getName();
       if (!twoPhaseFunctions.contains(name)) {
         return false;
@@ -186,10 +186,22 @@ public class HashJoinPrel extends JoinPrel {
         conditions,
         joinType,
         vectorize,
-        runtimeFilterInfo
+        runtimeFilterInfo,
+        isBroadcast(currentRight)
     );
   }
 
+  /**
+   * @return true if the input is a broadcast exchange, possibly below operators of the same fragment
+   */
+  private static boolean isBroadcast(RelNode input) {
+    RelNode node = input;
+    while (!(node instanceof ExchangePrel) && node.getInputs().size() == 1) {
+      node = node.getInputs().get(0);
+    }
+    return node instanceof BroadcastExchangePrel;
+  }
+
   private boolean canVectorize(FunctionLookupContext functionLookup, PhysicalOperator leftPop, PhysicalOperator rightPop, List<JoinCondition> conditions){
     BatchSchema left = leftPop.getProps().getSchema();
     BatchSchema right = rightPop.getProps().getSchema();
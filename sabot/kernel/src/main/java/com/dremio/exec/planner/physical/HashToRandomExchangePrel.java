@@ -29,6 +29,7 @@ import org.apache.calcite.rel.metadata.RelMetadataQuery;
 
 import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.physical.config.HashPartitionSender.HotKeyRouting;
 import com.dremio.exec.physical.config.HashSenderCalculator;
 import com.dremio.exec.physical.config.HashToRandomExchange;
 import com.dremio.exec.planner.cost.DremioCost;
@@ -49,13 +50,28 @@ public class HashToRandomExchangePrel extends ExchangePrel {
 
   private final List<DistributionField> fields;
   private final String hashFunctionName;
+  private final HotKeyRouting hotKeyRouting;
+  private final int hotKeyReceivers;
 
   public HashToRandomExchangePrel(RelOptCluster cluster, RelTraitSet traitSet, RelNode input, List<DistributionField> fields,
                                   String hashFunctionName) {
+    this(cluster, traitSet, input, fields, hashFunctionName, HotKeyRouting.NONE, 1);
+  }
+
+  /**
+   * @param hotKeyRouting how the senders route the rows of hot keys, see {@link HotKeyRouting}. Anything but NONE
+   *                      breaks the hash distribution of the output, which is only correct for the consumers
+   *                      {@link com.dremio.exec.planner.physical.visitor.HotKeyExchangeVisitor} sets it for
+   * @param hotKeyReceivers number of receivers the rows of a hot key are sent to
+   */
+  public HashToRandomExchangePrel(RelOptCluster cluster, RelTraitSet traitSet, RelNode input, List<DistributionField> fields,
+                                  String hashFunctionName, HotKeyRouting hotKeyRouting, int hotKeyReceivers) {
     super(cluster, traitSet, input);
     this.fields = fields;
     assert input.getConvention() == Prel.PHYSICAL;
     this.hashFunctionName = hashFunctionName;
+    this.hotKeyRouting = hotKeyRouting;
+    this.hotKeyReceivers = hotKeyReceivers;
   }
 
   public HashToRandomExchangePrel(RelOptCluster cluster, RelTraitSet traitSet, RelNode input, List<DistributionField> fields) {
@@ -96,7 +112,16 @@ public class HashToRandomExchangePrel extends ExchangePrel {
 
   @Override
   public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
-    return new HashToRandomExchangePrel(getCluster(), traitSet, sole(inputs), fields, hashFunctionName);
+    return new HashToRandomExchangePrel(getCluster(), traitSet, sole(inputs), fields, hashFunctionName, hotKeyRouting,
+      hotKeyReceivers);
+  }
+
+  /**
+   * @return a copy of this exchange whose senders route the rows of hot keys as given
+   */
+  public HashToRandomExchangePrel withHotKeyRouting(HotKeyRouting hotKeyRouting, int hotKeyReceivers) {
+    return new HashToRandomExchangePrel(getCluster(), traitSet, getInput(), fields, hashFunctionName, hotKeyRouting,
+      hotKeyReceivers);
   }
 
   public PhysicalOperator getPhysicalOperator(PhysicalPlanCreator creator) throws IOException {
@@ -116,7 +141,9 @@ public class HashToRandomExchangePrel extends ExchangePrel {
         HashSenderCalculator.captureBucketOptions(creator.getOptionManager(), SENDER_RESERVE, props.getSchema()),
         props.getSchema(),
         childPOP,
-        HashPrelUtil.getHashExpression(this.fields, getInput().getRowType()));
+        HashPrelUtil.getHashExpression(this.fields, getInput().getRowType()),
+        hotKeyRouting,
+        hotKeyReceivers);
   }
 
   public List<DistributionField> getFields() {
@@ -129,6 +156,8 @@ public class HashToRandomExchangePrel extends ExchangePrel {
       for (Ord<DistributionField> ord : Ord.zip(fields)) {
         pw.item("dist" + ord.i, ord.e);
       }
+    pw.itemIf("hotKeyRouting", hotKeyRouting, hotKeyRouting != HotKeyRouting.NONE);
+    pw.itemIf("hotKeyReceivers", hotKeyReceivers, hotKeyRouting != HotKeyRouting.NONE);
     return pw;
   }
 
@@ -140,4 +169,12 @@ public class HashToRandomExchangePrel extends ExchangePrel {
   public String getHashFunctionName() {
     return this.hashFunctionName;
   }
+
+  public HotKeyRouting getHotKeyRouting() {
+    return hotKeyRouting;
+  }
+
+  public int getHotKeyReceivers() {
+    return hotKeyReceivers;
+  }
 }
@@ -30,7 +30,11 @@ import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.util.ImmutableBitSet;
 
+import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.ExpressionTreeMaterializer;
+import com.dremio.exec.expr.fn.FunctionLookupContext;
 import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.physical.config.MergeJoinPOP;
 import com.dremio.exec.planner.cost.DremioCost;
@@ -43,6 +47,7 @@ import com.dremio.options.TypeValidators.LongValidator;
 import com.dremio.options.TypeValidators.PositiveLongValidator;
 import com.dremio.sabot.op.join.JoinUtils;
 import com.dremio.sabot.op.join.JoinUtils.JoinCategory;
+import com.dremio.sabot.op.join.merge.KeyNormalizer;
 import com.google.common.collect.Lists;
 
 @Options
@@ -120,6 +125,9 @@ public class MergeJoinPrel  extends JoinPrel {
 
     buildJoinConditions(conditions, leftFields, rightFields, leftKeys, rightKeys);
 
+    final boolean vectorize = creator.getContext().getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_MERGEJOIN)
+        && canVectorize(creator.getContext().getFunctionRegistry(), leftPop, rightPop, conditions);
+
     SchemaBuilder b = BatchSchema.newBuilder();
     for (Field f : rightPop.getProps().getSchema()) {
       b.addField(f);
@@ -134,10 +142,27 @@ public class MergeJoinPrel  extends JoinPrel {
         leftPop,
         rightPop,
         conditions,
-        jtype
+        jtype,
+        vectorize
         );
   }
 
+  private boolean canVectorize(FunctionLookupContext functionLookup, PhysicalOperator leftPop, PhysicalOperator rightPop, List<JoinCondition> conditions){
+    BatchSchema left = leftPop.getProps().getSchema();
+    BatchSchema right = rightPop.getProps().getSchema();
+
+    // keys are compared in their normalized form, which is only available for some types.
+    for(JoinCondition c : conditions){
+      LogicalExpression leftExpr = ExpressionTreeMaterializer.materializeAndCheckErrors(c.getLeft(), left, functionLookup);
+      LogicalExpression rightExpr = ExpressionTreeMaterializer.materializeAndCheckErrors(c.getRight(), right, functionLookup);
+      if(!KeyNormalizer.isSupported(leftExpr.getCompleteType()) || !leftExpr.getCompleteType().equals(rightExpr.getCompleteType())){
+        return false;
+      }
+    }
+
+    return true;
+  }
+
   @Override
   public SelectionVectorMode[] getSupportedEncodings() {
     // currently, MergeJoin operator is not handling incoming batch containing SV2 or SV4, so
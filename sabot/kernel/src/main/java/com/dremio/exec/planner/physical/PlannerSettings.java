@@ -28,6 +28,7 @@ import org.apache.calcite.util.CancelFlag;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.catalog.conf.SourceType;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.server.options.CachingOptionManager;
 import com.dremio.exec.testing.ExecutionControls;
@@ -107,6 +108,8 @@ public class PlannerSettings implements Context{
   public static final OptionValidator HASH_JOIN_SWAP_MARGIN_FACTOR = new RangeDoubleValidator("planner.join.hash_join_swap_margin_factor", 0, 100, 10d);
   public static final LongValidator STREAM_AGG_MAX_GROUP = new PositiveLongValidator("planner.streamagg.max_group_key", Long.MAX_VALUE, 64);
   public static final BooleanValidator STREAM_AGG_WITH_GROUPS = new BooleanValidator("planner.streamagg.allow_grouping", false);
+  // vectorizable stream aggregates with groups are still considered when the input is already sorted on the group keys
+  public static final BooleanValidator STREAM_AGG_ON_COLLATED_INPUT = new BooleanValidator("planner.streamagg.collated_input", true);
   public static final String ENABLE_DECIMAL_DATA_TYPE_KEY = "planner.enable_decimal_data_type";
   public static final LongValidator HEP_PLANNER_MATCH_LIMIT = new PositiveLongValidator("planner.hep_match_limit", Integer.MAX_VALUE, Integer.MAX_VALUE);
   public static final BooleanValidator TRANSITIVE_FILTER_JOIN_PUSHDOWN = new BooleanValidator("planner.filter.transitive_pushdown", true);
@@ -210,6 +213,8 @@ public class PlannerSettings implements Context{
                               Integer.MAX_VALUE, DEFAULT_IDENTIFIER_MAX_LENGTH);
 
   public static final BooleanValidator ENABLE_GLOBAL_DICTIONARY = new BooleanValidator("planner.enable_global_dictionary", true);
+  // keep hash join keys and filter operands encoded when they are compared with fields encoded with the same dictionary
+  public static final BooleanValidator ENABLE_GLOBAL_DICTIONARY_ENCODED_KEYS = new BooleanValidator("planner.global_dictionary.encoded_keys.enabled", true);
 
   public static final DoubleValidator FLATTEN_EXPANSION_AMOUNT = new TypeValidators.RangeDoubleValidator("planner.flatten.expansion_size", 0, Double.MAX_VALUE, 10.0d);
 
@@ -293,6 +298,11 @@ public class PlannerSettings implements Context{
    */
   public static final BooleanValidator QUERY_PLAN_CACHE_ENABLED = new BooleanValidator("planner.query_plan_cache_enabled", false);
 
+  /**
+   * Use the table and column statistics collected by ANALYZE TABLE for selectivity and cardinality estimates
+   */
+  public static final BooleanValidator USE_STATISTICS = new BooleanValidator("planner.use_statistics", true);
+
   private final SabotConfig sabotConfig;
   private final ExecutionControls executionControls;
   public final OptionManager options;
@@ -308,6 +318,8 @@ public class PlannerSettings implements Context{
 
   private NodeEndpoint nodeEndpoint = null;
 
+  private StatisticsService statisticsService = StatisticsService.NO_OP;
+
   public PlannerSettings(SabotConfig config, OptionManager options,
                          Supplier<GroupResourceInformation> resourceInformation) {
     this(config, options, resourceInformation, null);
@@ -425,6 +437,18 @@ public class PlannerSettings implements Context{
     return options.getOption(RELATIONAL_PLANNING);
   }
 
+  public boolean isStatisticsEnabled() {
+    return options.getOption(USE_STATISTICS);
+  }
+
+  public StatisticsService getStatisticsService() {
+    return statisticsService;
+  }
+
+  public void setStatisticsService(StatisticsService statisticsService) {
+    this.statisticsService = statisticsService;
+  }
+
   public boolean isPlanCacheEnabled() {
     return options.getOption(QUERY_PLAN_CACHE_ENABLED);
   }
@@ -487,6 +511,10 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_GLOBAL_DICTIONARY.getOptionName()).getBoolVal();
   }
 
+  public boolean isGlobalDictionaryEncodedKeysEnabled() {
+    return options.getOption(ENABLE_GLOBAL_DICTIONARY_ENCODED_KEYS);
+  }
+
   public boolean isStreamAggEnabled() {
     return options.getOption(STREAMAGG.getOptionName()).getBoolVal();
   }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlFunction;
+import org.apache.calcite.sql.SqlFunctionCategory;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.OperandTypes;
+import org.apache.calcite.sql.type.ReturnTypes;
+import org.apache.calcite.sql.type.SqlTypeFamily;
+
+import com.dremio.exec.planner.logical.RelOptHelper;
+
+/**
+ * Finds range conditions in the condition of a NLJ, value &gt;= low AND value &lt;= high where the value comes from
+ * one side of the join and both bounds from the other side (as in a.x BETWEEN b.lo AND b.hi), and sets them as the
+ * vector expression of the join. The candidate pairs are then generated from the sorted build side instead of the
+ * cartesian product. The condition is left unchanged, and still evaluated on every candidate pair.
+ */
+public class RangeNLJConditionRule extends RelOptRule {
+  public static final RelOptRule INSTANCE = new RangeNLJConditionRule();
+
+  public static final SqlFunction RANGE_JOIN =
+    new SqlFunction(
+      "RANGE_JOIN",
+      SqlKind.OTHER_FUNCTION,
+      ReturnTypes.BOOLEAN,
+      null,
+      OperandTypes.family(SqlTypeFamily.ANY, SqlTypeFamily.ANY, SqlTypeFamily.ANY),
+      SqlFunctionCategory.SYSTEM);
+
+  private RangeNLJConditionRule() {
+    super(RelOptHelper.any(NestedLoopJoinPrel.class), "RangeNLJConditionRule");
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    NestedLoopJoinPrel nlj = call.rel(0);
+    return !nlj.hasVectorExpression() &&
+        (nlj.getJoinType() == JoinRelType.INNER || nlj.getJoinType() == JoinRelType.LEFT) &&
+        PrelUtil.getPlannerSettings(call.getPlanner()).getOptions().getOption(NestedLoopJoinPrel.VECTORIZED);
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    NestedLoopJoinPrel nlj = call.rel(0);
+    final int leftCount = nlj.getLeft().getRowType().getFieldCount();
+    final List<RelDataTypeField> fields = nlj.getInputRowType().getFieldList();
+
+    // a comparison between fields of both sides bounds each of them: x >= lo is a low bound of x and a high bound of lo
+    final List<Bound> bounds = new ArrayList<>();
+    for (RexNode conjunct : RelOptUtil.conjunctions(nlj.getCondition())) {
+      if (!(conjunct instanceof RexCall)) {
+        continue;
+      }
+      final RexCall comparison = (RexCall) conjunct;
+      final boolean greater;
+      switch (comparison.getKind()) {
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL:
+        greater = true;
+        break;
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+        greater = false;
+        break;
+      default:
+        continue;
+      }
+      final RexNode first = comparison.getOperands().get(0);
+      final RexNode second = comparison.getOperands().get(1);
+      if (!(first instanceof RexInputRef) || !(second instanceof RexInputRef)) {
+        continue;
+      }
+      final int firstIndex = ((RexInputRef) first).getIndex();
+      final int secondIndex = ((RexInputRef) second).getIndex();
+      if ((firstIndex < leftCount) == (secondIndex < leftCount)
+          || !isSupported(fields.get(firstIndex).getType()) || !isSupported(fields.get(secondIndex).getType())) {
+        continue;
+      }
+      bounds.add(new Bound((RexInputRef) first, (RexInputRef) second, greater));
+      bounds.add(new Bound((RexInputRef) second, (RexInputRef) first, !greater));
+    }
+
+    for (Bound low : bounds) {
+      if (!low.isLow) {
+        continue;
+      }
+      for (Bound high : bounds) {
+        if (!high.isLow && high.value.getIndex() == low.value.getIndex()) {
+          final RexNode vectorExpression = nlj.getCluster().getRexBuilder().makeCall(RANGE_JOIN, low.value, low.bound, high.bound);
+          call.transformTo(nlj.copy(nlj.getCondition(), vectorExpression));
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if the range join can compare values of this type
+   */
+  private static boolean isSupported(RelDataType type) {
+    switch (type.getSqlTypeName()) {
+    case INTEGER:
+    case BIGINT:
+    case FLOAT:
+    case REAL:
+    case DOUBLE:
+    case DECIMAL:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * A field of one side of the join bounded by a field of the other side.
+   */
+  private static final class Bound {
+    private final RexInputRef value;
+    private final RexInputRef bound;
+    private final boolean isLow;
+
+    Bound(RexInputRef value, RexInputRef bound, boolean isLow) {
+      this.value = value;
+      this.bound = bound;
+      this.isLow = isLow;
+    }
+  }
+}
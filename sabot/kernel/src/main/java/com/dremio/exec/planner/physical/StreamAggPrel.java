@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
@@ -36,21 +37,30 @@ import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Aggregate;
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.util.ImmutableBitSet;
 
+import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.NamedExpression;
+import com.dremio.common.types.TypeProtos.MinorType;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.ExpressionTreeMaterializer;
+import com.dremio.exec.expr.FunctionHolderExpr;
+import com.dremio.exec.expr.ValueVectorReadExpression;
 import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.physical.config.StreamingAggregate;
 import com.dremio.exec.planner.cost.DremioCost;
 import com.dremio.exec.planner.cost.DremioCost.Factory;
 import com.dremio.exec.planner.physical.visitor.PrelVisitor;
+import com.dremio.exec.planner.sql.TypeInferenceUtils;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.util.AssertionUtil;
+import com.dremio.options.OptionManager;
 import com.dremio.options.Options;
 import com.dremio.options.TypeValidators.LongValidator;
 import com.dremio.options.TypeValidators.PositiveLongValidator;
+import com.google.common.collect.ImmutableList;
 
 @Options
 public class StreamAggPrel extends AggPrelBase implements Prel{
@@ -169,7 +179,150 @@ public class StreamAggPrel extends AggPrelBase implements Prel{
         childPop,
         keys,
         aggExprs,
-        1.0f);
+        1.0f,
+        canVectorize(creator, childPop));
+  }
+
+  private boolean canVectorize(PhysicalPlanCreator creator, PhysicalOperator child) {
+    if (!creator.getContext().getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_STREAMAGG)) {
+      return false;
+    }
+
+    final BatchSchema childSchema = child.getProps().getSchema();
+
+    for (NamedExpression ne : keys) {
+      final LogicalExpression expr = ExpressionTreeMaterializer.materializeAndCheckErrors(ne.getExpr(), childSchema, creator.getContext().getFunctionRegistry());
+
+      // group boundaries are found by comparing the key vectors directly.
+      if (expr == null || !(expr instanceof ValueVectorReadExpression)
+          || !isVectorizableKey(expr.getCompleteType().toMinorType())) {
+        return false;
+      }
+    }
+
+    for (NamedExpression ne : aggExprs) {
+      final LogicalExpression expr = ExpressionTreeMaterializer.materializeAndCheckErrors(ne.getExpr(), childSchema, creator.getContext().getFunctionRegistry());
+
+      if (expr == null || !(expr instanceof FunctionHolderExpr)) {
+        return false;
+      }
+
+      final FunctionHolderExpr func = (FunctionHolderExpr) expr;
+      final ImmutableList<LogicalExpression> exprs = ImmutableList.copyOf(expr);
+
+      // COUNT(*)
+      if (func.getName().equals("count") && exprs.isEmpty()) {
+        continue;
+      }
+
+      if (exprs.size() != 1 || !(exprs.get(0) instanceof ValueVectorReadExpression)
+          || !isVectorizableAggregate(func.getName(), exprs.get(0).getCompleteType().toMinorType())) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Checks, before the physical plan is created, whether the aggregate can use VectorizedStreamingAggOperator. The
+   * types are those of the input row type, so the physical plan creation may still fall back to StreamingAggOperator.
+   */
+  static boolean canVectorize(OptionManager options, Aggregate aggregate) {
+    if (!options.getOption(ExecConstants.ENABLE_VECTORIZED_STREAMAGG)) {
+      return false;
+    }
+
+    final List<RelDataTypeField> inputFields = aggregate.getInput().getRowType().getFieldList();
+    for (int key : aggregate.getGroupSet()) {
+      if (!isVectorizableKey(TypeInferenceUtils.getMinorTypeFromCalciteType(inputFields.get(key).getType()))) {
+        return false;
+      }
+    }
+
+    for (AggregateCall call : aggregate.getAggCallList()) {
+      if (call.isDistinct() || call.filterArg >= 0) {
+        return false;
+      }
+
+      final String name = call.getAggregation().getName().toLowerCase(Locale.ROOT);
+      if (name.equals("count") && call.getArgList().isEmpty()) {
+        continue;
+      }
+
+      if (call.getArgList().size() != 1
+          || !isVectorizableAggregate(name, TypeInferenceUtils.getMinorTypeFromCalciteType(inputFields.get(call.getArgList().get(0)).getType()))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean isVectorizableKey(MinorType type) {
+    switch (type) {
+    case BIGINT:
+    case DATE:
+    case FLOAT4:
+    case FLOAT8:
+    case INT:
+    case INTERVALDAY:
+    case INTERVALYEAR:
+    case TIME:
+    case TIMESTAMP:
+    case VARBINARY:
+    case VARCHAR:
+    case DECIMAL:
+    case BIT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Only the fixed width accumulators of the vectorized hash agg are reused.
+   */
+  private static boolean isVectorizableAggregate(String name, MinorType argType) {
+    switch (name) {
+    case "count":
+      return true;
+
+    case "$sum0":
+    case "sum":
+      switch (argType) {
+      case BIGINT:
+      case FLOAT4:
+      case FLOAT8:
+      case INT:
+      case DECIMAL:
+        return true;
+      default:
+        return false;
+      }
+
+    case "min":
+    case "max":
+      switch (argType) {
+      case BIGINT:
+      case FLOAT4:
+      case FLOAT8:
+      case INT:
+      case BIT:
+      case DATE:
+      case INTERVALDAY:
+      case INTERVALYEAR:
+      case TIME:
+      case TIMESTAMP:
+      case DECIMAL:
+        return true;
+      default:
+        return false;
+      }
+
+    default:
+      return false;
+    }
   }
 
   @Override
@@ -51,9 +51,15 @@ public class StreamAggPrule extends AggPruleBase {
   public void onMatch(RelOptRuleCall call) {
     final AggregateRel aggregate = (AggregateRel) call.rel(0);
 
-    if (aggregate.getGroupCount() > 0 && !PrelUtil.getPlannerSettings(call.getPlanner()).getOptions().getOption(PlannerSettings.STREAM_AGG_WITH_GROUPS)) {
-      if (PrelUtil.getPlannerSettings(call.getPlanner()).isHashAggEnabled()) {
-        // if hash agg is enabled and stream agg with groups is disabled and this has >0 group count, don't match.
+    final PlannerSettings settings = PrelUtil.getPlannerSettings(call.getPlanner());
+    if (aggregate.getGroupCount() > 0 && !settings.getOptions().getOption(PlannerSettings.STREAM_AGG_WITH_GROUPS)) {
+      if (settings.isHashAggEnabled()
+          && !(settings.getOptions().getOption(PlannerSettings.STREAM_AGG_ON_COLLATED_INPUT)
+               && StreamAggPrel.canVectorize(settings.getOptions(), aggregate)
+               && isCollatedOnGroupKeys(call, aggregate))) {
+        // if hash agg is enabled and stream agg with groups is disabled and this has >0 group count, don't match,
+        // unless the input is already sorted on the group keys and the vectorized streaming agg can be used, as the
+        // row at a time streaming agg is slower than the hash agg.
         return;
       }
     }
@@ -215,6 +221,25 @@ public class StreamAggPrule extends AggPruleBase {
   }
 
 
+  /**
+   * @return true if the input of the aggregate is sorted on its group keys, as for sorted reflections, so no sort is
+   * needed for a streaming aggregate
+   */
+  private boolean isCollatedOnGroupKeys(RelOptRuleCall call, AggregateRel aggregate) {
+    final List<RelCollation> collations = call.getMetadataQuery().collations(aggregate.getInput());
+    if (collations == null) {
+      return false;
+    }
+
+    final RelCollation inputCollation = getInputCollation(aggregate);
+    for (RelCollation collation : collations) {
+      if (collation.satisfies(inputCollation)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private RelCollation getOutputCollation(AggregateRel rel){
 
     List<RelFieldCollation> fields = Lists.newArrayList();
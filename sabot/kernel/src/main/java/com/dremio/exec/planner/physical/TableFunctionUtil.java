@@ -15,6 +15,8 @@
  */
 package com.dremio.exec.planner.physical;
 
+import static com.dremio.exec.planner.acceleration.IncrementalUpdateUtils.UPDATE_COLUMN;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -58,18 +60,43 @@ public class TableFunctionUtil {
     List<ParquetFilterCondition> conditions,
     List<SchemaPath> columns,
     boolean arrowCachingEnabled) {
+    return getParquetScanTableFunctionContext(tableMetadata, conditions, columns,
+      tableMetadata.getReadDefinition().getPartitionColumnsList(), arrowCachingEnabled);
+  }
+
+  private static TableFunctionContext getParquetScanTableFunctionContext(
+    final TableMetadata tableMetadata,
+    List<ParquetFilterCondition> conditions,
+    List<SchemaPath> columns,
+    List<String> partitionColumns,
+    boolean arrowCachingEnabled) {
     final BatchSchema schema = tableMetadata.getSchema().maskAndReorder(columns);
     return new TableFunctionContext(
       tableMetadata.getFormatSettings(), schema,
       tableMetadata.getSchema(),
       ImmutableList.of(tableMetadata.getName().getPathComponents()), conditions,
       tableMetadata.getStoragePluginId(), columns,
-      tableMetadata.getReadDefinition().getPartitionColumnsList(), null,
+      partitionColumns, null,
       tableMetadata.getReadDefinition().getExtendedProperty(),
       arrowCachingEnabled
     );
   }
 
+  /**
+   * Partition columns populated from the split partition values when scanning the data files listed by split
+   * generation. The update column is not stored in the data files, split generation always provides it.
+   */
+  private static List<String> getSplitGenPartitionColumns(TableMetadata tableMetadata) {
+    final List<String> partitionColumns = tableMetadata.getReadDefinition().getPartitionColumnsList();
+    if (tableMetadata.getSchema().findFieldIgnoreCase(UPDATE_COLUMN).isPresent()
+      && (partitionColumns == null || !partitionColumns.contains(UPDATE_COLUMN))) {
+      final List<String> columns = partitionColumns == null ? new ArrayList<>() : new ArrayList<>(partitionColumns);
+      columns.add(UPDATE_COLUMN);
+      return columns;
+    }
+    return partitionColumns;
+  }
+
   public static <E, T> TableFunctionContext getSplitProducerTableFunctionContext(
           final TableMetadata tableMetadata,
           List<ParquetFilterCondition> conditions) {
@@ -92,6 +119,19 @@ public class TableFunctionUtil {
     return new TableFunctionConfig(TableFunctionConfig.FunctionType.PARQUET_DATA_SCAN, false, tableFunctionContext);
   }
 
+  /**
+   * Config of the scan of parquet data files listed by split generation, as for delta lake tables.
+   */
+  public static TableFunctionConfig getSplitGenParquetScanTableFunctionConfig(
+    final TableMetadata tableMetadata,
+    List<ParquetFilterCondition> conditions,
+    List<SchemaPath> columns,
+    boolean arrowCachingEnabled) {
+    TableFunctionContext tableFunctionContext = getParquetScanTableFunctionContext(tableMetadata, conditions, columns,
+      getSplitGenPartitionColumns(tableMetadata), arrowCachingEnabled);
+    return new TableFunctionConfig(TableFunctionConfig.FunctionType.PARQUET_DATA_SCAN, false, tableFunctionContext);
+  }
+
   public static TableFunctionConfig getManifestScanTableFunctionConfig(
       final TableMetadata tableMetadata,
       List<SchemaPath> columns,
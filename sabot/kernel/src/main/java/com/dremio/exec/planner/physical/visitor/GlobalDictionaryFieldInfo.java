@@ -15,6 +15,8 @@
  */
 package com.dremio.exec.planner.physical.visitor;
 
+import java.util.Objects;
+
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.parquet.Preconditions;
@@ -65,6 +67,17 @@ public class GlobalDictionaryFieldInfo {
     return new GlobalDictionaryFieldInfo(dictionaryVersion, fieldName, storagePluginId, arrowType, dictionaryPath, relDataTypeField);
   }
 
+  /**
+   * Two fields share a dictionary when they are encoded with the same version of the same dictionary file, their
+   * dictionary ids can then be compared without decoding them.
+   */
+  public boolean sharesDictionary(GlobalDictionaryFieldInfo other) {
+    return other != null
+      && dictionaryVersion == other.dictionaryVersion
+      && Objects.equals(storagePluginId, other.storagePluginId)
+      && Objects.equals(dictionaryPath, other.dictionaryPath);
+  }
+
   public long getDictionaryVersion() {
     return dictionaryVersion;
   }
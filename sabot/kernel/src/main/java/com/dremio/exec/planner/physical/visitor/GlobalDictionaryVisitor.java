@@ -16,6 +16,7 @@
 package com.dremio.exec.planner.physical.visitor;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -23,11 +24,13 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rel.type.RelDataTypeFieldImpl;
+import org.apache.calcite.rex.RexCall;
 import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexShuttle;
@@ -40,12 +43,14 @@ import com.dremio.exec.planner.physical.AggPrelBase;
 import com.dremio.exec.planner.physical.DistributionTrait.DistributionField;
 import com.dremio.exec.planner.physical.ExchangePrel;
 import com.dremio.exec.planner.physical.FilterPrel;
+import com.dremio.exec.planner.physical.HashJoinPrel;
 import com.dremio.exec.planner.physical.HashToMergeExchangePrel;
 import com.dremio.exec.planner.physical.HashToRandomExchangePrel;
 import com.dremio.exec.planner.physical.JoinPrel;
 import com.dremio.exec.planner.physical.LeafPrel;
 import com.dremio.exec.planner.physical.LimitPrel;
 import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.PrelUtil;
 import com.dremio.exec.planner.physical.ProjectPrel;
 import com.dremio.exec.planner.sql.CalciteArrowHelper;
 import com.dremio.exec.planner.sql.TypeInferenceUtils;
@@ -71,15 +76,25 @@ import com.google.protobuf.InvalidProtocolBufferException;
  */
 public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryInfo, Void, RuntimeException> {
 
-  private final RelDataType dictionaryDataType;
+  // comparisons of two fields encoded with the same dictionary that can be evaluated on dictionary ids
+  private static final Set<SqlKind> ENCODED_COMPARISONS = EnumSet.of(SqlKind.EQUALS, SqlKind.NOT_EQUALS);
+  private static final Set<SqlKind> ENCODED_NULL_CHECKS = EnumSet.of(SqlKind.IS_NULL, SqlKind.IS_NOT_NULL);
 
+  private final RelDataType dictionaryDataType;
+  private final boolean encodedKeysEnabled;
 
   public GlobalDictionaryVisitor(RelOptCluster cluster) {
+    this(cluster, false);
+  }
+
+  public GlobalDictionaryVisitor(RelOptCluster cluster, boolean encodedKeysEnabled) {
     dictionaryDataType = cluster.getTypeFactory().createSqlType(SqlTypeName.INTEGER);
+    this.encodedKeysEnabled = encodedKeysEnabled;
   }
 
   public static Prel useGlobalDictionaries(Prel prel) {
-    final PrelWithDictionaryInfo p =  prel.accept(new GlobalDictionaryVisitor(prel.getCluster()), null);
+    final boolean encodedKeysEnabled = PrelUtil.getPlannerSettings(prel.getCluster()).isGlobalDictionaryEncodedKeysEnabled();
+    final PrelWithDictionaryInfo p =  prel.accept(new GlobalDictionaryVisitor(prel.getCluster(), encodedKeysEnabled), null);
     return p.getPrel();
   }
 
@@ -133,11 +148,9 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       return new PrelWithDictionaryInfo(joinPrel);
     }
 
-    final Set<Integer> fieldsUsed = Sets.newHashSet();
     final Set<Integer> leftFieldsUsed = Sets.newHashSet();
     final Set<Integer> rightFieldsUsed = Sets.newHashSet();
 
-    final InputReferenceRexVisitor visitor = new InputReferenceRexVisitor(fieldsUsed);
     final int leftFieldCount = leftInput.getFields().length;
     final int rightFieldCount = rightInput.getFields().length;
     final int systemFieldCount = joinPrel.getSystemFieldList().size();
@@ -148,10 +161,18 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       reorderedFields[i] = null;
     }
 
-    joinPrel.getCondition().accept(visitor);
+    final GlobalDictionaryFieldInfo[] conditionFields = new GlobalDictionaryFieldInfo[reorderedFields.length];
+    System.arraycopy(leftInput.getFields(), 0, conditionFields, systemFieldCount, leftFieldCount);
+    System.arraycopy(rightInput.getFields(), 0, conditionFields, systemFieldCount + leftFieldCount, rightFieldCount);
+
+    // hash join keys compared with keys encoded with the same dictionary are joined on their ids
+    final Set<Integer> fieldsUsed = fieldsToDecode(joinPrel.getCondition(), conditionFields, joinPrel instanceof HashJoinPrel);
 
     for (int fieldIndex : fieldsUsed) {
-      if (fieldIndex < leftFieldCount) {
+      if (fieldIndex < systemFieldCount) {
+        continue;
+      }
+      if (fieldIndex < systemFieldCount + leftFieldCount) {
         leftFieldsUsed.add(fieldIndex - systemFieldCount);
       } else {
         rightFieldsUsed.add(fieldIndex - (systemFieldCount + leftFieldCount));
@@ -166,10 +187,17 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
     }
 
     for (int i = 0; i < rightFieldCount; ++i) {
-      reorderedFields[leftFieldCount + i] = rightInput.getGlobalDictionaryFieldInfo(i);
+      reorderedFields[systemFieldCount + leftFieldCount + i] = rightInput.getGlobalDictionaryFieldInfo(i);
     }
-    return new PrelWithDictionaryInfo((Prel)joinPrel.copy(joinPrel.getTraitSet(),
-      Lists.<RelNode>newArrayList(leftInput.getPrel(), rightInput.getPrel())), reorderedFields);
+
+    // join keys which are still encoded are now integers
+    final List<RelDataTypeField> conditionInputFields = Lists.newArrayList(joinPrel.getSystemFieldList());
+    conditionInputFields.addAll(leftInput.getPrel().getRowType().getFieldList());
+    conditionInputFields.addAll(rightInput.getPrel().getRowType().getFieldList());
+    final RexNode condition = joinPrel.getCondition().accept(new InputReferenceRetypingShuttle(conditionInputFields));
+
+    return new PrelWithDictionaryInfo((Prel)joinPrel.copy(joinPrel.getTraitSet(), condition,
+      leftInput.getPrel(), rightInput.getPrel(), joinPrel.getJoinType(), joinPrel.isSemiJoinDone()), reorderedFields);
   }
 
   @Override
@@ -326,17 +354,74 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       return new PrelWithDictionaryInfo(filterPrel); // none of fields are encoded
     }
 
-    final Set<Integer> fieldsUsed = Sets.newHashSet();
-    final InputReferenceRexVisitor visitor = new InputReferenceRexVisitor(fieldsUsed);
-    filterPrel.getCondition().accept(visitor);
+    final Set<Integer> fieldsUsed = fieldsToDecode(filterPrel.getCondition(), newInput.getFields(), true);
 
     // decode used inputs by this filter
     newInput = newInput.decodeFields(fieldsUsed);
 
-    return new PrelWithDictionaryInfo((Prel)filterPrel.copy(filterPrel.getTraitSet(), newInput.getPrel(), filterPrel.getCondition()),
+    final RexNode condition = filterPrel.getCondition().accept(
+      new InputReferenceRetypingShuttle(newInput.getPrel().getRowType().getFieldList()));
+    return new PrelWithDictionaryInfo((Prel)filterPrel.copy(filterPrel.getTraitSet(), newInput.getPrel(), condition),
       newInput.getFields());
   }
 
+  /**
+   * Find the fields referenced by a condition that have to be decoded before evaluating it.
+   * When keepEncodedKeys is set, encoded fields only referenced by conjuncts that can be evaluated on dictionary ids
+   * stay encoded:
+   * <ul>
+   *   <li>equality or inequality with another field encoded with the same dictionary,</li>
+   *   <li>IS NULL or IS NOT NULL since null values are not encoded.</li>
+   * </ul>
+   *
+   * @param condition condition to evaluate
+   * @param fields dictionary information of the fields referenced by the condition
+   * @param keepEncodedKeys whether the operator evaluating the condition can work on dictionary ids
+   * @return indices of the fields referenced by the condition which must be decoded
+   */
+  private Set<Integer> fieldsToDecode(RexNode condition, GlobalDictionaryFieldInfo[] fields, boolean keepEncodedKeys) {
+    final Set<Integer> fieldsUsed = Sets.newHashSet();
+    final InputReferenceRexVisitor visitor = new InputReferenceRexVisitor(fieldsUsed);
+    if (!encodedKeysEnabled || !keepEncodedKeys) {
+      condition.accept(visitor);
+      return fieldsUsed;
+    }
+
+    final List<int[]> encodedPairs = Lists.newArrayList();
+    for (RexNode conjunct : RelOptUtil.conjunctions(condition)) {
+      if (conjunct.isA(ENCODED_COMPARISONS)) {
+        final List<RexNode> operands = ((RexCall) conjunct).getOperands();
+        if (operands.get(0) instanceof RexInputRef && operands.get(1) instanceof RexInputRef) {
+          final int left = ((RexInputRef) operands.get(0)).getIndex();
+          final int right = ((RexInputRef) operands.get(1)).getIndex();
+          if (fields[left] != null && fields[left].sharesDictionary(fields[right])) {
+            encodedPairs.add(new int[] {left, right});
+            continue;
+          }
+        }
+      } else if (conjunct.isA(ENCODED_NULL_CHECKS)) {
+        if (((RexCall) conjunct).getOperands().get(0) instanceof RexInputRef) {
+          continue;
+        }
+      }
+      conjunct.accept(visitor);
+    }
+
+    // both fields of a comparison are decoded as soon as one of them needs to be, repeat until no new field is decoded
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int[] pair : encodedPairs) {
+        if (fieldsUsed.contains(pair[0]) != fieldsUsed.contains(pair[1])) {
+          fieldsUsed.add(pair[0]);
+          fieldsUsed.add(pair[1]);
+          changed = true;
+        }
+      }
+    }
+    return fieldsUsed;
+  }
+
   // Pass through do not decode.
   private PrelWithDictionaryInfo visitLimit(LimitPrel limitPrel, Void value) {
     final PrelWithDictionaryInfo newInput = ((Prel)limitPrel.getInput()).accept(this, value);
@@ -452,6 +537,26 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
     return new PrelWithDictionaryInfo(newParquetScanPrel, fieldInfos);
   }
 
+  /**
+   * Update the type of input references after some of the inputs have been encoded or decoded.
+   */
+  private static class InputReferenceRetypingShuttle extends RexShuttle {
+    private final List<RelDataTypeField> inputFields;
+
+    InputReferenceRetypingShuttle(List<RelDataTypeField> inputFields) {
+      this.inputFields = inputFields;
+    }
+
+    @Override
+    public RexNode visitInputRef(RexInputRef inputRef) {
+      final RelDataType type = inputFields.get(inputRef.getIndex()).getType();
+      if (type.equals(inputRef.getType())) {
+        return inputRef;
+      }
+      return new RexInputRef(inputRef.getIndex(), type);
+    }
+  }
+
   private static class InputReferenceRexVisitor extends RexShuttle {
     private final Set<Integer> fieldsUsed;
 
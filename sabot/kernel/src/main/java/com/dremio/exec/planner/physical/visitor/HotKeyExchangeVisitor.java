@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical.visitor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.calcite.rel.InvalidRelException;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.JoinRelType;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.config.HashPartitionSender.HotKeyRouting;
+import com.dremio.exec.planner.physical.AggPrelBase.OperatorPhase;
+import com.dremio.exec.planner.physical.AggPruleBase;
+import com.dremio.exec.planner.physical.DistributionTrait.DistributionField;
+import com.dremio.exec.planner.physical.ExchangePrel;
+import com.dremio.exec.planner.physical.FilterPrel;
+import com.dremio.exec.planner.physical.HashAggPrel;
+import com.dremio.exec.planner.physical.HashJoinPrel;
+import com.dremio.exec.planner.physical.HashToRandomExchangePrel;
+import com.dremio.exec.planner.physical.JoinPrel;
+import com.dremio.exec.planner.physical.LimitPrel;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.ProjectPrel;
+import com.dremio.exec.planner.physical.SelectionVectorRemoverPrel;
+import com.dremio.exec.planner.physical.SortPrel;
+import com.dremio.exec.planner.physical.TopNPrel;
+import com.dremio.options.OptionManager;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Lets the hash exchanges of hash joins and single phase hash aggregations spread their hot keys across receivers,
+ * see {@link HotKeyRouting}:
+ * <ul>
+ *   <li>the probe side exchange of an inner or left hash join spreads the rows of its hot keys over a few receivers,
+ *   while the build side exchange sends each row to all these receivers, so every probe row still meets all its
+ *   matching build rows. Joins whose output distribution is needed by the operators above them are left as is.</li>
+ *   <li>a single phase hash aggregation becomes a partial aggregation over the spreading exchange followed by a final
+ *   aggregation over a strict exchange, which merges the groups split across receivers.</li>
+ * </ul>
+ * The value passed down the tree is true when the operators above need the hash distribution of the current subtree.
+ */
+public class HotKeyExchangeVisitor extends BasePrelVisitor<Prel, Boolean, RuntimeException> {
+
+  private final int hotKeyReceivers;
+
+  public static Prel spreadHotKeys(Prel prel, OptionManager options) {
+    // only the vectorized partition sender samples and routes hot keys
+    if (!options.getOption(ExecConstants.PARTITIONER_SPREAD_HOT_KEYS)
+      || !options.getOption(ExecConstants.ENABLE_VECTORIZED_PARTITIONER)
+      || options.getOption(ExecConstants.PARTITIONER_HOT_KEYS_SAMPLE_BATCHES) == 0) {
+      return prel;
+    }
+
+    final int hotKeyReceivers = (int) options.getOption(ExecConstants.PARTITIONER_HOT_KEYS_SPREAD_RECEIVERS);
+    return prel.accept(new HotKeyExchangeVisitor(hotKeyReceivers), true);
+  }
+
+  private HotKeyExchangeVisitor(int hotKeyReceivers) {
+    this.hotKeyReceivers = hotKeyReceivers;
+  }
+
+  @Override
+  public Prel visitExchange(ExchangePrel prel, Boolean distributionRequired) throws RuntimeException {
+    // the exchange redistributes its input, whatever the distribution of the subtree below
+    return visitChildren(prel, false);
+  }
+
+  @Override
+  public Prel visitJoin(JoinPrel prel, Boolean distributionRequired) throws RuntimeException {
+    final JoinPrel join = (JoinPrel) visitChildren(prel, true);
+    if (distributionRequired || !(join instanceof HashJoinPrel)) {
+      return join;
+    }
+
+    // the probe side of a swapped join is its right input
+    final HashJoinPrel hashJoin = (HashJoinPrel) join;
+    final JoinRelType joinType = hashJoin.isSwapped() ? hashJoin.getJoinType().swap() : hashJoin.getJoinType();
+    // replicated build rows must never be emitted on their own, or unmatched ones would show up several times
+    if (joinType != JoinRelType.INNER && joinType != JoinRelType.LEFT) {
+      return join;
+    }
+
+    final int probeIndex = hashJoin.isSwapped() ? 1 : 0;
+    final RelNode probe = join.getInputs().get(probeIndex);
+    final RelNode build = join.getInputs().get(1 - probeIndex);
+    final HashToRandomExchangePrel probeExchange = findExchange(probe);
+    final HashToRandomExchangePrel buildExchange = findExchange(build);
+    // both sides must be hashed the same way by this join's own exchanges, so receivers agree on the keys they get
+    if (probeExchange == null || buildExchange == null
+      || probeExchange.getFields().size() != buildExchange.getFields().size()
+      || !probeExchange.getHashFunctionName().equals(buildExchange.getHashFunctionName())) {
+      return join;
+    }
+
+    final RelNode newProbe = replaceExchange(probe,
+      probeExchange.withHotKeyRouting(HotKeyRouting.SPREAD, hotKeyReceivers));
+    final RelNode newBuild = replaceExchange(build,
+      buildExchange.withHotKeyRouting(HotKeyRouting.REPLICATE, hotKeyReceivers));
+    final List<RelNode> inputs = probeIndex == 0 ? ImmutableList.of(newProbe, newBuild)
+      : ImmutableList.of(newBuild, newProbe);
+    return (Prel) join.copy(join.getTraitSet(), inputs);
+  }
+
+  @Override
+  public Prel visitPrel(Prel prel, Boolean distributionRequired) throws RuntimeException {
+    final Prel newPrel = visitChildren(prel, keepsDistribution(prel) ? distributionRequired : true);
+    if (newPrel instanceof HashAggPrel) {
+      return spreadAggregate((HashAggPrel) newPrel);
+    }
+    return newPrel;
+  }
+
+  private Prel visitChildren(Prel prel, boolean distributionRequired) {
+    List<RelNode> children = Lists.newArrayList();
+    for (Prel child : prel) {
+      children.add(child.accept(this, distributionRequired));
+    }
+    return (Prel) prel.copy(prel.getTraitSet(), children);
+  }
+
+  /**
+   * @return true if the operator does not care about the distribution of its input, and does not change it
+   */
+  private static boolean keepsDistribution(Prel prel) {
+    return prel instanceof ProjectPrel
+      || prel instanceof FilterPrel
+      || prel instanceof SelectionVectorRemoverPrel
+      || prel instanceof LimitPrel
+      || prel instanceof SortPrel
+      || prel instanceof TopNPrel;
+  }
+
+  /**
+   * Splits a single phase hash aggregation over a hash exchange in two phases, the first one over the same exchange
+   * spreading its hot keys, the second one over a strict exchange on the same fields.
+   */
+  private Prel spreadAggregate(HashAggPrel agg) {
+    if (agg.getOperatorPhase() != OperatorPhase.PHASE_1of1
+      || !(agg.getInput() instanceof HashToRandomExchangePrel)
+      || agg.indicator
+      || agg.getGroupSets().size() != 1
+      || agg.getGroupSet().isEmpty()
+      || !AggPruleBase.isTwoPhaseSupported(agg.getAggCallList())) {
+      return agg;
+    }
+    for (AggregateCall aggCall : agg.getAggCallList()) {
+      if (aggCall.isDistinct()) {
+        return agg;
+      }
+    }
+
+    // the partial aggregation outputs the group columns first, in the order of the group set
+    final HashToRandomExchangePrel exchange = (HashToRandomExchangePrel) agg.getInput();
+    final Map<Integer, Integer> groupIndices = new HashMap<>();
+    int groupIndex = 0;
+    for (int field : agg.getGroupSet()) {
+      groupIndices.put(field, groupIndex++);
+    }
+    final List<DistributionField> mergeFields = Lists.newArrayList();
+    for (DistributionField field : exchange.getFields()) {
+      final Integer index = groupIndices.get(field.getFieldId());
+      if (index == null) {
+        return agg;
+      }
+      mergeFields.add(new DistributionField(index));
+    }
+
+    try {
+      final HashAggPrel partialAgg = HashAggPrel.create(
+        agg.getCluster(),
+        agg.getTraitSet(),
+        exchange.withHotKeyRouting(HotKeyRouting.SPREAD, hotKeyReceivers),
+        agg.indicator,
+        agg.getGroupSet(),
+        agg.getGroupSets(),
+        agg.getAggCallList(),
+        OperatorPhase.PHASE_1of2);
+
+      final HashToRandomExchangePrel mergeExchange = new HashToRandomExchangePrel(agg.getCluster(), agg.getTraitSet(),
+        partialAgg, ImmutableList.copyOf(mergeFields), exchange.getHashFunctionName());
+
+      return HashAggPrel.create(
+        agg.getCluster(),
+        mergeExchange.getTraitSet(),
+        mergeExchange,
+        agg.indicator,
+        partialAgg.getPhase2GroupSet(),
+        null,
+        partialAgg.getPhase2AggCalls(),
+        OperatorPhase.PHASE_2of2);
+    } catch (InvalidRelException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * @return the hash exchange feeding a join input, possibly below projects, or null if there is none
+   */
+  private static HashToRandomExchangePrel findExchange(RelNode input) {
+    RelNode node = input;
+    while (node instanceof ProjectPrel) {
+      node = ((ProjectPrel) node).getInput();
+    }
+    return node instanceof HashToRandomExchangePrel ? (HashToRandomExchangePrel) node : null;
+  }
+
+  private static RelNode replaceExchange(RelNode input, HashToRandomExchangePrel exchange) {
+    if (input instanceof ProjectPrel) {
+      return input.copy(input.getTraitSet(),
+        ImmutableList.of(replaceExchange(((ProjectPrel) input).getInput(), exchange)));
+    }
+    return exchange;
+  }
+}
@@ -23,6 +23,7 @@ import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexNode;
 
 import com.dremio.exec.planner.physical.ExchangePrel;
+import com.dremio.exec.planner.physical.HashPrelUtil;
 import com.dremio.exec.planner.physical.HashPrelUtil.HashExpressionCreatorHelper;
 import com.dremio.exec.planner.physical.HashToRandomExchangePrel;
 import com.dremio.exec.planner.physical.PlannerSettings;
@@ -91,8 +92,10 @@ public class InsertLocalExchangeVisitor extends BasePrelVisitor<Prel, Void, Runt
       newPrel = new UnorderedMuxExchangePrel(child.getCluster(), child.getTraitSet(), child);
     }
 
+    final HashToRandomExchangePrel hashPrel = (HashToRandomExchangePrel) prel;
     newPrel = new HashToRandomExchangePrel(prel.getCluster(),
-        prel.getTraitSet(), newPrel, ((HashToRandomExchangePrel) prel).getFields());
+        prel.getTraitSet(), newPrel, hashPrel.getFields(), HashPrelUtil.HASH32_FUNCTION_NAME,
+        hashPrel.getHotKeyRouting(), hashPrel.getHotKeyReceivers());
 
     if (isDeMuxEnabled) {
       HashToRandomExchangePrel hashExchangePrel = (HashToRandomExchangePrel) newPrel;
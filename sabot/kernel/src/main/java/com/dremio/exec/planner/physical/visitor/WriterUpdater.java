@@ -34,8 +34,10 @@ import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexUtil;
 
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.base.WriterOptions;
 import com.dremio.exec.planner.common.MoreRelOptUtil;
+import com.dremio.exec.planner.logical.CreateTableEntry;
 import com.dremio.exec.planner.physical.DistributionTrait;
 import com.dremio.exec.planner.physical.DistributionTrait.DistributionType;
 import com.dremio.exec.planner.physical.DistributionTraitDef;
@@ -46,6 +48,9 @@ import com.dremio.exec.planner.physical.ProjectPrel;
 import com.dremio.exec.planner.physical.SortPrel;
 import com.dremio.exec.planner.physical.WriterPrel;
 import com.dremio.exec.planner.sql.SqlOperatorImpl;
+import com.dremio.exec.store.dfs.FileSystemCreateTableEntry;
+import com.dremio.exec.store.parquet.ParquetFormatConfig;
+import com.dremio.options.OptionManager;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
@@ -63,12 +68,26 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WriterUpdater.class);
 
-  private static final WriterUpdater INSTANCE = new WriterUpdater();
+  private final boolean hashPartitionedParquetWriter;
 
-  private WriterUpdater(){}
+  private WriterUpdater(boolean hashPartitionedParquetWriter){
+    this.hashPartitionedParquetWriter = hashPartitionedParquetWriter;
+  }
+
+  public static Prel update(Prel prel, OptionManager options) {
+    return prel.accept(new WriterUpdater(options.getOption(ExecConstants.PARQUET_HASH_PARTITIONED_WRITER)), null);
+  }
 
-  public static Prel update(Prel prel) {
-    return prel.accept(INSTANCE, null);
+  /**
+   * Parquet writers can route records to one open file per partition, see
+   * {@link com.dremio.sabot.op.writer.PartitionWriterCache}, so their input doesn't need to be sorted by partition.
+   */
+  private boolean canSkipPartitionSort(WriterPrel writer) {
+    final CreateTableEntry entry = writer.getCreateTableEntry();
+    return hashPartitionedParquetWriter
+      && entry.getOptions().canWritePartitionsUnsorted()
+      && entry instanceof FileSystemCreateTableEntry
+      && ((FileSystemCreateTableEntry) entry).getFormatConfig() instanceof ParquetFormatConfig;
   }
 
   private Prel renameAsNecessary(RelDataType expectedRowType, Prel initialInput, WriterOptions.IcebergWriterOperation icebergWriterOperation) {
@@ -158,6 +177,11 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
       final WriterPrel writer = new WriterPrel(prel.getCluster(), prel.getTraitSet(), changeDetection, prel.getCreateTableEntry(), prel.getExpectedInboundRowType());
       return writer;
 
+    } else if (canSkipPartitionSort(prel)) {
+      // records of the same partition don't need to be contiguous, the change detection only saves partition lookups
+      final Prel changeDetectionPrel = addChangeDetectionProject(input, getFieldIndices(options.getPartitionColumns(), input.getRowType()));
+      return new WriterPrel(prel.getCluster(), prel.getTraitSet(), changeDetectionPrel, prel.getCreateTableEntry(), prel.getExpectedInboundRowType());
+
     } else if(options.hasPartitions()) {
       List<Integer> sortKeys = new ArrayList<>();
 
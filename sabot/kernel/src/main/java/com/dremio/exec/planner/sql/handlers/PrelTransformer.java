@@ -107,6 +107,7 @@ import com.dremio.exec.planner.physical.visitor.ComplexToJsonPrelVisitor;
 import com.dremio.exec.planner.physical.visitor.ExcessiveExchangeIdentifier;
 import com.dremio.exec.planner.physical.visitor.FinalColumnReorderer;
 import com.dremio.exec.planner.physical.visitor.GlobalDictionaryVisitor;
+import com.dremio.exec.planner.physical.visitor.HotKeyExchangeVisitor;
 import com.dremio.exec.planner.physical.visitor.InsertHashProjectVisitor;
 import com.dremio.exec.planner.physical.visitor.InsertLocalExchangeVisitor;
 import com.dremio.exec.planner.physical.visitor.JoinPrelRenameVisitor;
@@ -810,7 +811,12 @@ public class PrelTransformer {
     /* 5.5)
      * Insert additional required operations to achieve correct writer behavior
      */
-    phyRelNode = WriterUpdater.update(phyRelNode);
+    phyRelNode = WriterUpdater.update(phyRelNode, queryOptions);
+
+    /* 5.5)
+     * Spread the hot keys of hash joins and single phase hash aggregations across receivers
+     */
+    phyRelNode = HotKeyExchangeVisitor.spreadHotKeys(phyRelNode, queryOptions);
 
     /* 5.5)
      * Insert Project before/after HashToMergeExchangePrel and HashToRandomExchangePrel nodes
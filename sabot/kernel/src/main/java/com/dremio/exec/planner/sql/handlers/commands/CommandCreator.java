@@ -41,6 +41,7 @@ import com.dremio.exec.planner.sql.handlers.direct.AccelDropReflectionHandler;
 import com.dremio.exec.planner.sql.handlers.direct.AccelToggleHandler;
 import com.dremio.exec.planner.sql.handlers.direct.AddColumnsHandler;
 import com.dremio.exec.planner.sql.handlers.direct.AlterTableSetOptionHandler;
+import com.dremio.exec.planner.sql.handlers.direct.AnalyzeTableStatisticsHandler;
 import com.dremio.exec.planner.sql.handlers.direct.ChangeColumnHandler;
 import com.dremio.exec.planner.sql.handlers.direct.CreateEmptyTableHandler;
 import com.dremio.exec.planner.sql.handlers.direct.CreateViewHandler;
@@ -71,6 +72,7 @@ import com.dremio.exec.planner.sql.parser.SqlAlterTableAddColumns;
 import com.dremio.exec.planner.sql.parser.SqlAlterTableChangeColumn;
 import com.dremio.exec.planner.sql.parser.SqlAlterTableDropColumn;
 import com.dremio.exec.planner.sql.parser.SqlAlterTableSetOption;
+import com.dremio.exec.planner.sql.parser.SqlAnalyzeTableStatistics;
 import com.dremio.exec.planner.sql.parser.SqlCreateEmptyTable;
 import com.dremio.exec.planner.sql.parser.SqlCreateReflection;
 import com.dremio.exec.planner.sql.parser.SqlDropReflection;
@@ -358,6 +360,8 @@ public class CommandCreator {
           return direct.create(new RefreshSourceStatusHandler(catalog));
         } else if (sqlNode instanceof SqlSetApprox) {
           return direct.create(new SetApproxHandler(catalog));
+        } else if (sqlNode instanceof SqlAnalyzeTableStatistics) {
+          return direct.create(new AnalyzeTableStatisticsHandler(catalog, context.getStatisticsService(), context.getQueryUserName()));
         } else if (sqlNode instanceof SqlCreateEmptyTable) {
           return direct.create(new CreateEmptyTableHandler(catalog, config));
         } else if (sqlNode instanceof SqlTruncateTable) {
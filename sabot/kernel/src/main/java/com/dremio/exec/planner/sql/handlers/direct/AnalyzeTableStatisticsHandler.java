@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql.handlers.direct;
+
+import static com.dremio.exec.planner.sql.handlers.direct.SimpleCommandResult.successful;
+import static java.util.Collections.singletonList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.calcite.schema.Schema.TableType;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlNode;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.catalog.Catalog;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.planner.cost.StatisticsService;
+import com.dremio.exec.planner.sql.parser.SqlAnalyzeTableStatistics;
+import com.dremio.service.namespace.NamespaceKey;
+
+/**
+ * Handler for <code>ANALYZE TABLE ... COMPUTE|DELETE STATISTICS</code> command.
+ */
+public class AnalyzeTableStatisticsHandler extends SimpleDirectHandler {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AnalyzeTableStatisticsHandler.class);
+
+  private final Catalog catalog;
+  private final StatisticsService statisticsService;
+  private final String userName;
+
+  public AnalyzeTableStatisticsHandler(Catalog catalog, StatisticsService statisticsService, String userName) {
+    this.catalog = catalog;
+    this.statisticsService = statisticsService;
+    this.userName = userName;
+  }
+
+  @Override
+  public List<SimpleCommandResult> toResult(String sql, SqlNode sqlNode) throws Exception {
+    final SqlAnalyzeTableStatistics sqlAnalyze = SqlNodeUtil.unwrap(sqlNode, SqlAnalyzeTableStatistics.class);
+    final NamespaceKey path = catalog.resolveSingle(sqlAnalyze.getPath());
+
+    final DremioTable table = catalog.getTable(path);
+    if (table == null || table.getJdbcTableType() != TableType.TABLE) {
+      throw UserException.validationError().message("Unable to find table %s.", path).build(logger);
+    }
+
+    if (!sqlAnalyze.isAnalyze()) {
+      final boolean deleted = statisticsService.deleteStatistics(table.getPath());
+      return singletonList(successful(deleted
+        ? String.format("Statistics for table %s deleted.", table.getPath())
+        : String.format("Table %s has no statistics.", table.getPath())));
+    }
+
+    final List<Field> fields = getFields(table, sqlAnalyze);
+    final String jobId = statisticsService.computeStatistics(table.getPath(), table.getVersion(), fields, userName);
+    return singletonList(successful(String.format("Computing statistics for table %s, job id: %s.", table.getPath(), jobId)));
+  }
+
+  private static List<Field> getFields(DremioTable table, SqlAnalyzeTableStatistics sqlAnalyze) {
+    final List<Field> tableFields = table.getSchema().getFields();
+    if (sqlAnalyze.getColumns().size() == 0) {
+      return tableFields;
+    }
+
+    final List<Field> fields = new ArrayList<>();
+    for (SqlNode node : sqlAnalyze.getColumns()) {
+      final String name = ((SqlIdentifier) node).getSimple();
+      final Field field = tableFields.stream()
+        .filter(f -> f.getName().equalsIgnoreCase(name))
+        .findFirst()
+        .orElseThrow(() -> UserException.validationError()
+          .message("Column %s not found in table %s.", name, table.getPath())
+          .build(logger));
+      fields.add(field);
+    }
+    return fields;
+  }
+}
@@ -209,6 +209,7 @@ public class CompoundIdentifierConverter extends SqlShuttle {
     rules.put(SqlAlterTableChangeColumn.class, R(D, D, D));
     rules.put(SqlAlterTableAddColumns.class, R(D, D));
     rules.put(SqlAlterTableSetOption.class, R(D, D, D, D));
+    rules.put(SqlAnalyzeTableStatistics.class, R(D, D, D));
 
     REWRITE_RULES = ImmutableMap.copyOf(rules);
   }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql.parser;
+
+import java.util.List;
+
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlLiteral;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.SqlSpecialOperator;
+import org.apache.calcite.sql.SqlWriter;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.util.ImmutableNullableList;
+
+import com.dremio.service.namespace.NamespaceKey;
+
+/**
+ * SQL node tree for <code>ANALYZE TABLE table_identifier (COMPUTE | DELETE) STATISTICS [FOR COLUMNS (col1, ...)]</code>
+ */
+public class SqlAnalyzeTableStatistics extends SqlSystemCall {
+
+  public static final SqlSpecialOperator OPERATOR =
+      new SqlSpecialOperator("ANALYZE_TABLE_STATISTICS", SqlKind.OTHER) {
+        @Override public SqlCall createCall(SqlLiteral functionQualifier,
+            SqlParserPos pos, SqlNode... operands) {
+          return new SqlAnalyzeTableStatistics(pos,
+            (SqlIdentifier) operands[0],
+            (SqlLiteral) operands[1],
+            (SqlNodeList) operands[2]);
+        }
+      };
+
+  private SqlIdentifier table;
+  private SqlLiteral isAnalyze;
+  private SqlNodeList columns;
+
+  /** Creates a SqlAnalyzeTableStatistics. */
+  public SqlAnalyzeTableStatistics(SqlParserPos pos, SqlIdentifier table, SqlLiteral isAnalyze, SqlNodeList columns) {
+    super(pos);
+    this.table = table;
+    this.isAnalyze = isAnalyze;
+    this.columns = columns;
+  }
+
+  @Override public void unparse(SqlWriter writer, int leftPrec, int rightPrec) {
+    writer.keyword("ANALYZE");
+    writer.keyword("TABLE");
+    table.unparse(writer, leftPrec, rightPrec);
+    writer.keyword(isAnalyze.booleanValue() ? "COMPUTE" : "DELETE");
+    writer.keyword("STATISTICS");
+
+    if (columns.size() > 0) {
+      writer.keyword("FOR");
+      writer.keyword("COLUMNS");
+      final SqlWriter.Frame frame = writer.startList("(", ")");
+      for (SqlNode column : columns) {
+        writer.sep(",");
+        column.unparse(writer, leftPrec, rightPrec);
+      }
+      writer.endList(frame);
+    }
+  }
+
+  @Override public void setOperand(int i, SqlNode operand) {
+    switch (i) {
+      case 0:
+        table = (SqlIdentifier) operand;
+        break;
+      case 1:
+        isAnalyze = (SqlLiteral) operand;
+        break;
+      case 2:
+        columns = (SqlNodeList) operand;
+        break;
+      default:
+        throw new AssertionError(i);
+    }
+  }
+
+  @Override public SqlOperator getOperator() {
+    return OPERATOR;
+  }
+
+  @Override public List<SqlNode> getOperandList() {
+    return ImmutableNullableList.<SqlNode>of(table, isAnalyze, columns);
+  }
+
+  public NamespaceKey getPath() {
+    return new NamespaceKey(table.names);
+  }
+
+  public SqlIdentifier getTable() { return table; }
+
+  /**
+   * @return true to compute statistics, false to delete them
+   */
+  public boolean isAnalyze() { return isAnalyze.booleanValue(); }
+
+  /**
+   * @return columns to compute statistics for, empty for all columns
+   */
+  public SqlNodeList getColumns() { return columns; }
+}
@@ -38,6 +38,7 @@ import com.dremio.exec.catalog.ConnectionReader;
 import com.dremio.exec.catalog.ViewCreatorFactory;
 import com.dremio.exec.enginemanagement.proto.EngineManagementProtos.EngineId;
 import com.dremio.exec.enginemanagement.proto.EngineManagementProtos.SubEngineId;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.planner.observer.QueryObserverFactory;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.server.options.SystemOptionManager;
@@ -81,6 +82,7 @@ public class ContextService implements Service, Provider<SabotContext> {
   private final Provider<QueryObserverFactory> queryObserverFactory;
   private final Provider<AccelerationManager> accelerationManager;
   private final Provider<AccelerationListManager> accelerationListManager;
+  private final Provider<StatisticsService> statisticsService;
   private final Provider<NamespaceService.Factory> namespaceServiceFactoryProvider;
   private final Provider<DatasetListingService> datasetListingServiceProvider;
   private final Provider<UserService> userService;
@@ -115,6 +117,7 @@ public class ContextService implements Service, Provider<SabotContext> {
     Provider<QueryObserverFactory> queryObserverFactory,
     Provider<AccelerationManager> accelerationManager,
     Provider<AccelerationListManager> accelerationListManager,
+    Provider<StatisticsService> statisticsService,
     Provider<NamespaceService.Factory> namespaceServiceFactory,
     Provider<DatasetListingService> datasetListingServiceProvider,
     Provider<UserService> userService,
@@ -136,7 +139,7 @@ public class ContextService implements Service, Provider<SabotContext> {
     this(bootstrapContext, coord, resourceInformationProvider, workStats,
       kvStoreProvider, fabric, conduitServer, userServer,
       materializationDescriptorProvider, queryObserverFactory, accelerationManager,
-      accelerationListManager, namespaceServiceFactory, datasetListingServiceProvider, userService, catalogService,
+      accelerationListManager, statisticsService, namespaceServiceFactory, datasetListingServiceProvider, userService, catalogService,
       conduitProvider, informationSchemaStub, viewCreatorFactory, spillService, connectionReaderProvider, credentialsService,
       jobResultInfoProvider, optionManagerProvider, systemOptionManagerProvider, engineIdProvider, subEngineIdProvider, optionValidatorProvider,
       allRoles ? EnumSet.allOf(ClusterCoordinator.Role.class) : Sets.newHashSet(ClusterCoordinator.Role.EXECUTOR));
@@ -155,6 +158,7 @@ public class ContextService implements Service, Provider<SabotContext> {
     Provider<QueryObserverFactory> queryObserverFactory,
     Provider<AccelerationManager> accelerationManager,
     Provider<AccelerationListManager> accelerationListManager,
+    Provider<StatisticsService> statisticsService,
     Provider<NamespaceService.Factory> namespaceServiceFactoryProvider,
     Provider<DatasetListingService> datasetListingServiceProvider,
     Provider<UserService> userService,
@@ -185,6 +189,7 @@ public class ContextService implements Service, Provider<SabotContext> {
     this.queryObserverFactory = queryObserverFactory;
     this.accelerationManager = accelerationManager;
     this.accelerationListManager = accelerationListManager;
+    this.statisticsService = statisticsService;
     this.namespaceServiceFactoryProvider = namespaceServiceFactoryProvider;
     this.datasetListingServiceProvider = datasetListingServiceProvider;
     this.userService = userService;
@@ -274,6 +279,7 @@ public class ContextService implements Service, Provider<SabotContext> {
       queryObserverFactory,
       accelerationManager,
       accelerationListManager,
+      statisticsService,
       catalogService,
       masterCoordinatorConduit.get(),
       informationSchemaStub,
@@ -41,6 +41,7 @@ import com.dremio.exec.expr.fn.DecimalFunctionImplementationRegistry;
 import com.dremio.exec.expr.fn.FunctionImplementationRegistry;
 import com.dremio.exec.planner.PhysicalPlanReader;
 import com.dremio.exec.planner.RulesFactory;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.planner.observer.QueryObserverFactory;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.server.options.SystemOptionManager;
@@ -91,6 +92,7 @@ public class SabotContext implements AutoCloseable {
   private final Provider<QueryObserverFactory> queryObserverFactory;
   private final Provider<AccelerationManager> accelerationManager;
   private final Provider<AccelerationListManager> accelerationListManager;
+  private final Provider<StatisticsService> statisticsService;
   private final Provider<CatalogService> catalogService;
   private final ConduitProvider conduitProvider;
   private final Provider<InformationSchemaServiceBlockingStub> informationSchemaStub;
@@ -127,6 +129,7 @@ public class SabotContext implements AutoCloseable {
       Provider<QueryObserverFactory> queryObserverFactory,
       Provider<AccelerationManager> accelerationManager,
       Provider<AccelerationListManager> accelerationListManager,
+      Provider<StatisticsService> statisticsService,
       Provider<CatalogService> catalogService,
       ConduitProvider conduitProvider,
       Provider<InformationSchemaServiceBlockingStub> informationSchemaStub,
@@ -153,6 +156,7 @@ public class SabotContext implements AutoCloseable {
     this.lpPersistence = lpPersistence;
     this.accelerationManager = accelerationManager;
     this.accelerationListManager = accelerationListManager;
+    this.statisticsService = statisticsService;
     this.connectionReaderProvider = connectionReaderProvider;
 
     this.reader = new PhysicalPlanReader(config, classpathScan, lpPersistence, endpoint, catalogService, this);
@@ -220,6 +224,7 @@ public class SabotContext implements AutoCloseable {
     Provider<QueryObserverFactory> queryObserverFactory,
     Provider<AccelerationManager> accelerationManager,
     Provider<AccelerationListManager> accelerationListManager,
+    Provider<StatisticsService> statisticsService,
     Provider<CatalogService> catalogService,
     ConduitProvider conduitProvider,
     Provider<InformationSchemaServiceBlockingStub> informationSchemaStub,
@@ -251,6 +256,7 @@ public class SabotContext implements AutoCloseable {
     this.lpPersistence = lpPersistence;
     this.accelerationManager = accelerationManager;
     this.accelerationListManager = accelerationListManager;
+    this.statisticsService = statisticsService;
     this.connectionReaderProvider = connectionReaderProvider;
 
     // Escaping 'this'
@@ -480,6 +486,10 @@ public class SabotContext implements AutoCloseable {
     return accelerationListManager.get();
   }
 
+  public StatisticsService getStatisticsService() {
+    return statisticsService.get();
+  }
+
   public boolean isCoordinator() {
     return roles.contains(Role.COORDINATOR);
   }
@@ -53,6 +53,7 @@ import com.dremio.exec.maestro.MaestroForwarder;
 import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.maestro.MaestroServiceImpl;
 import com.dremio.exec.maestro.NoOpMaestroForwarder;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.planner.observer.QueryObserverFactory;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.rpc.RpcConstants;
@@ -86,7 +87,7 @@ import com.dremio.resource.GroupResourceInformation;
 import com.dremio.resource.QueryCancelTool;
 import com.dremio.resource.ResourceAllocator;
 import com.dremio.resource.RuleBasedEngineSelector;
-import com.dremio.resource.basic.BasicResourceAllocator;
+import com.dremio.resource.basic.MemoryAwareResourceAllocator;
 import com.dremio.sabot.exec.ExecToCoordTunnelCreator;
 import com.dremio.sabot.exec.FragmentWorkManager;
 import com.dremio.sabot.exec.TaskPoolInitializer;
@@ -548,6 +549,7 @@ public class SabotNode implements AutoCloseable {
         ));
 
         bind(AccelerationManager.class).toInstance(AccelerationManager.NO_OP);
+        bind(StatisticsService.class).toInstance(StatisticsService.NO_OP);
 
         // Note: corePoolSize param below should be more than 1 to show any multithreading issues
         final LocalSchedulerService localSchedulerService = new LocalSchedulerService(2);
@@ -557,7 +559,7 @@ public class SabotNode implements AutoCloseable {
 
         bind(SystemTablePluginConfigProvider.class).toInstance(new SystemTablePluginConfigProvider());
 
-        bind(ResourceAllocator.class).toInstance(new BasicResourceAllocator(getProvider(ClusterCoordinator.class),
+        bind(ResourceAllocator.class).toInstance(new MemoryAwareResourceAllocator(getProvider(ClusterCoordinator.class),
           getProvider(GroupResourceInformation.class)));
 
         bind(ExecutorSelectorFactory.class).toInstance(new ExecutorSelectorFactoryImpl());
@@ -652,6 +654,7 @@ public class SabotNode implements AutoCloseable {
             Provider<QueryObserverFactory> queryObserverFactory,
             Provider<AccelerationManager> accelerationManager,
             Provider<AccelerationListManager> accelerationListManager,
+            Provider<StatisticsService> statisticsService,
             Provider<NamespaceService.Factory> namespaceServiceFactory,
             Provider<DatasetListingService> datasetListingService,
             Provider<UserService> userService,
@@ -677,6 +680,7 @@ public class SabotNode implements AutoCloseable {
               queryObserverFactory,
               accelerationManager,
               accelerationListManager,
+              statisticsService,
               namespaceServiceFactory,
               datasetListingService,
               userService,
@@ -93,6 +93,16 @@ public interface RecordWriter extends AutoCloseable {
    */
   void abort() throws IOException;
 
+  /**
+   * Creates additional writers for the same output, which may be open at the same time as the original writer.
+   */
+  interface Factory {
+    /**
+     * @param ordinal distinguishes the names of the files created by the writer from other writers of the fragment
+     */
+    RecordWriter create(int ordinal) throws IOException;
+  }
+
   /**
    * Listener that is informed of any output entries that have been returned.
    * Depending on the source, this could be files, a database path, etc.
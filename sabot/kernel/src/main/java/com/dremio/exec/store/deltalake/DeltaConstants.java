@@ -75,6 +75,12 @@ public final class DeltaConstants {
     public static final String OP_NUM_ADDED_BYTES = "numAddedBytes";
     public static final String OP_NUM_REMOVED_BYTES = "numRemovedBytes";
     public static final String OP_NUM_DELETED_ROWS = "numDeletedRows";
+    public static final String OP_PARAMETERS = "operationParameters";
+    public static final String OP_PARAMETER_MODE = "mode";
+    public static final String OP_PARAMETER_OUTPUT_MODE = "outputMode";
+    public static final String OP_WRITE = "WRITE";
+    public static final String OP_STREAMING_UPDATE = "STREAMING UPDATE";
+    public static final String MODE_APPEND = "Append";
 
     public static final String PROTOCOL_MIN_READER_VERSION = "minReaderVersion";
 
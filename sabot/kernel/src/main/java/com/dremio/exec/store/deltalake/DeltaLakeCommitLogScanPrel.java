@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.store.deltalake;
 
+import static com.dremio.exec.planner.acceleration.IncrementalUpdateUtils.UPDATE_COLUMN;
 import static com.dremio.exec.store.deltalake.DeltaConstants.DELTA_FIELD_ADD;
 import static com.dremio.exec.store.deltalake.DeltaConstants.DELTA_FIELD_REMOVE;
 import static com.dremio.exec.store.deltalake.DeltaConstants.SCHEMA_DATA_CHANGE;
@@ -257,6 +258,10 @@ public class DeltaLakeCommitLogScanPrel extends AbstractRelNode implements LeafP
     final List<Field> nullCountFields = new ArrayList<>(dataSchema.getFieldCount());
 
     for (Field field : dataSchema.getFields()) {
+      if (UPDATE_COLUMN.equals(field.getName())) {
+        // populated from the modification time of the added files
+        continue;
+      }
       if (partitionColumnsList.contains(field.getName())) {
         partitionColFields.add(field);
       } else {
@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.store.deltalake;
 
+import static com.dremio.exec.planner.acceleration.IncrementalUpdateUtils.UPDATE_COLUMN;
 import static com.dremio.service.users.SystemUser.SYSTEM_USERNAME;
 
 import java.io.IOException;
@@ -23,10 +24,12 @@ import java.util.Collections;
 import java.util.List;
 
 import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.dremio.common.expression.CompleteType;
 import com.dremio.connector.ConnectorException;
 import com.dremio.connector.metadata.BytesOutput;
 import com.dremio.connector.metadata.DatasetHandle;
@@ -128,7 +131,11 @@ public class DeltaLakeFormatDatasetAccessor implements FileDatasetHandle {
         public Schema getRecordSchema() {
           try {
             Preconditions.checkNotNull(snapshot, "Unable to read commit snapshot");
-            return DeltaLakeSchemaConverter.fromSchemaString(snapshot.getSchema());
+            // data files are immutable, the time they were added to the table is used to refresh reflections incrementally
+            final Schema schema = DeltaLakeSchemaConverter.fromSchemaString(snapshot.getSchema());
+            final List<Field> fields = new ArrayList<>(schema.getFields());
+            fields.add(CompleteType.BIGINT.toField(UPDATE_COLUMN));
+            return new Schema(fields);
           } catch (IOException e) {
             logger.error("Error while parsing DeltaLake schema", e);
             throw new RuntimeException(e);
@@ -228,7 +228,7 @@ public class DeltaLakeScanPrel extends ScanRelBase implements Prel, PrelFinaliza
             HashPrelUtil.DREMIO_SPLIT_DISTRIBUTE_HASH_FUNCTION_NAME);
 
     // Parquet scan phase
-    TableFunctionConfig parquetScanTableFunctionConfig = TableFunctionUtil.getParquetScanTableFunctionConfig(
+    TableFunctionConfig parquetScanTableFunctionConfig = TableFunctionUtil.getSplitGenParquetScanTableFunctionConfig(
       tableMetadata, getConditions(), getProjectedColumns(), arrowCachingEnabled);
 
     return new TableFunctionPrel(getCluster(), getTraitSet().plus(DistributionTrait.ANY), table, parquetSplitsExchange, tableMetadata,
@@ -34,6 +34,7 @@ import com.carrotsearch.hppc.cursors.ObjectLongCursor;
 import com.dremio.connector.metadata.BytesOutput;
 import com.dremio.connector.metadata.DatasetSplit;
 import com.dremio.connector.metadata.DatasetSplitAffinity;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.CoordinationProtos;
 import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.store.dfs.FileSelection;
@@ -157,9 +158,53 @@ public class DeltaLakeTable {
             deltaXAttrBuilder.setNumFiles(this.deltaLogSnapshot.getNetFilesAdded());
             deltaXAttrBuilder.setSizeBytes(this.deltaLogSnapshot.getNetBytesAdded());
         }
+
+        long snapshotTimestamp = 0;
+        long appendOnlySince = 0;
+        for (DeltaLogSnapshot snapshot : getListOfSnapshot()) {
+            snapshotTimestamp = Math.max(snapshotTimestamp, snapshot.getTimestamp());
+            if (snapshot.containsCheckpoint()) {
+                appendOnlySince = Math.max(appendOnlySince, getCheckpointAppendOnlySince(snapshot));
+            } else if (!snapshot.isAppendOnly()) {
+                appendOnlySince = Math.max(appendOnlySince, snapshot.getTimestamp());
+            }
+        }
+        deltaXAttrBuilder.setSnapshotTimestamp(snapshotTimestamp);
+        deltaXAttrBuilder.setAppendOnlySince(appendOnlySince);
         return deltaXAttrBuilder.build();
     }
 
+    /**
+     * A checkpoint only summarizes the commits up to its version, it does not change the table. The commit files it
+     * folds are usually still around, so read the commit info of the last ones to know since when the table is append
+     * only. Only a bounded number of commits is read: a reflection refreshed before the oldest one does a full refresh.
+     */
+    private long getCheckpointAppendOnlySince(DeltaLogSnapshot checkpoint) {
+        final long maxCommits = context.getOptionManager().getOption(ExecConstants.INCREMENTAL_REFRESH_MAX_SNAPSHOTS);
+        final DeltaFilePathResolver resolver = new DeltaFilePathResolver();
+        final DeltaLogReader reader = DeltaLogReader.getInstance(FileType.JSON);
+        long appendOnlySince = checkpoint.getTimestamp();
+        try {
+            for (long version = checkpoint.getVersionId(), read = 0; version >= 0 && read < maxCommits; version--, read++) {
+                final Path commitPath = resolver.resolve(deltaLogDir, version, FileType.JSON);
+                if (!fs.exists(commitPath)) {
+                    // cleaned up, the changes of older commits are unknown
+                    break;
+                }
+                final DeltaLogSnapshot commit = reader.parseMetadata(deltaLogDir.getParent(), context, fs,
+                    fs.getFileAttributes(commitPath));
+                if (!commit.isAppendOnly()) {
+                    return commit.getTimestamp();
+                }
+                appendOnlySince = commit.getTimestamp();
+            }
+        } catch (IOException e) {
+            logger.debug("Unable to read the commits of checkpoint version {} of {}", checkpoint.getVersionId(), deltaLogDir, e);
+            return checkpoint.getTimestamp();
+        }
+        return appendOnlySince;
+    }
+
     private long setNumCommitJsonDataFileCount() {
       return getListOfSnapshot().stream().filter(s -> !s.containsCheckpoint()).mapToLong(DeltaLogSnapshot::getNetFilesAdded).sum();
     }
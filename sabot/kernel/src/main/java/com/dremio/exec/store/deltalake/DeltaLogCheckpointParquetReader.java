@@ -196,8 +196,9 @@ public class DeltaLogCheckpointParquetReader implements DeltaLogReader {
 
       logger.debug("Checkpoint parquet file {}, netFilesAdded {}, estiamteBytesAdded {}, estimatedRecordsAdded {}",
         fileAttributes.getPath(), netFilesAdded, estimatedNetBytesAdded, estimatedNetRecordsAdded);
+      // the checkpoint is written right after the commit it summarizes
       final DeltaLogSnapshot snap = new DeltaLogSnapshot("UNKNOWN", netFilesAdded,
-        estimatedNetBytesAdded, estimatedNetRecordsAdded, netFilesAdded, System.currentTimeMillis(), true);
+        estimatedNetBytesAdded, estimatedNetRecordsAdded, netFilesAdded, fileAttributes.lastModifiedTime().toMillis(), true);
       snap.setSchema(schemaString, partitionCols);
       snap.setSplits(generateSplits(fileAttributes));
       return snap;
@@ -24,6 +24,7 @@ import static com.dremio.exec.store.deltalake.DeltaConstants.DELTA_FIELD_METADAT
 import static com.dremio.exec.store.deltalake.DeltaConstants.DELTA_FIELD_PROTOCOL;
 import static com.dremio.exec.store.deltalake.DeltaConstants.DELTA_FIELD_REMOVE;
 import static com.dremio.exec.store.deltalake.DeltaConstants.DELTA_TIMESTAMP;
+import static com.dremio.exec.store.deltalake.DeltaConstants.MODE_APPEND;
 import static com.dremio.exec.store.deltalake.DeltaConstants.OP;
 import static com.dremio.exec.store.deltalake.DeltaConstants.OP_METRICS;
 import static com.dremio.exec.store.deltalake.DeltaConstants.OP_NUM_ADDED_BYTES;
@@ -34,6 +35,11 @@ import static com.dremio.exec.store.deltalake.DeltaConstants.OP_NUM_OUTPUT_BYTES
 import static com.dremio.exec.store.deltalake.DeltaConstants.OP_NUM_OUTPUT_ROWS;
 import static com.dremio.exec.store.deltalake.DeltaConstants.OP_NUM_REMOVED_BYTES;
 import static com.dremio.exec.store.deltalake.DeltaConstants.OP_NUM_REMOVED_FILES;
+import static com.dremio.exec.store.deltalake.DeltaConstants.OP_PARAMETERS;
+import static com.dremio.exec.store.deltalake.DeltaConstants.OP_PARAMETER_MODE;
+import static com.dremio.exec.store.deltalake.DeltaConstants.OP_PARAMETER_OUTPUT_MODE;
+import static com.dremio.exec.store.deltalake.DeltaConstants.OP_STREAMING_UPDATE;
+import static com.dremio.exec.store.deltalake.DeltaConstants.OP_WRITE;
 import static com.dremio.exec.store.deltalake.DeltaConstants.PROTOCOL_MIN_READER_VERSION;
 
 import java.io.BufferedReader;
@@ -201,9 +207,21 @@ public class DeltaLogCommitJsonReader implements DeltaLogReader {
             final long timestamp = get(commitInfo, 0L, asLong, DELTA_TIMESTAMP);
             DeltaLogSnapshot result = new DeltaLogSnapshot(operationType, netFilesAdded, netBytesAdded, netOutputRows, totalFileEntries, timestamp, false);
             result.setMissingRequiredValues(missingRequiredValues.get());
+            result.setAppendOnly(!missingRequiredValues.get() && numRemovedFiles == 0 && isAppend(commitInfo, operationType));
             return result;
         }
 
+        // blind appends and streaming appends only add files to the table
+        private boolean isAppend(JsonNode commitInfo, String operationType) {
+            if (OP_WRITE.equals(operationType)) {
+                return MODE_APPEND.equalsIgnoreCase(get(commitInfo, "", JsonNode::asText, OP_PARAMETERS, OP_PARAMETER_MODE));
+            }
+            if (OP_STREAMING_UPDATE.equals(operationType)) {
+                return MODE_APPEND.equalsIgnoreCase(get(commitInfo, "", JsonNode::asText, OP_PARAMETERS, OP_PARAMETER_OUTPUT_MODE));
+            }
+            return false;
+        }
+
         // get an required value
         private <T> T getRequired(JsonNode node, AtomicBoolean missingRequiredValues, T defaultVal, Function<JsonNode, T> typeFunc, String... paths) {
           node = findNode(node, paths);
@@ -44,6 +44,7 @@ public final class DeltaLogSnapshot implements Comparable<DeltaLogSnapshot> {
     private List<String> partitionColumns = Collections.emptyList();
     private List<DatasetSplit> splits = Collections.emptyList();
     private boolean missingRequiredValues = false;
+    private boolean appendOnly = false;
 
     public DeltaLogSnapshot(String operationType,
                             long netFilesAdded,
@@ -87,6 +88,17 @@ public final class DeltaLogSnapshot implements Comparable<DeltaLogSnapshot> {
         return operationType;
     }
 
+    /**
+     * @return true if the commit is known to only add data files to the table
+     */
+    public boolean isAppendOnly() {
+      return appendOnly;
+    }
+
+    public void setAppendOnly(boolean appendOnly) {
+      this.appendOnly = appendOnly;
+    }
+
     public String getSchema() {
         return schema;
     }
@@ -174,6 +186,7 @@ public final class DeltaLogSnapshot implements Comparable<DeltaLogSnapshot> {
         clone.setSchema(this.schema, this.partitionColumns);
         clone.setVersionId(this.versionId);
         clone.setMissingRequiredValues(this.isMissingRequiredValues());
+        clone.setAppendOnly(this.isAppendOnly());
         return clone;
     }
     @Override
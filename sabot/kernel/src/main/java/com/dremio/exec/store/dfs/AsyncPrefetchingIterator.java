@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.store.RecordReader;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.parquet.RecordReaderIterator;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
+
+/**
+ * Wraps a {@link RecordReaderIterator} and creates the readers of the next splits in the background while the current
+ * split is being read, so that opening a split (footer read, input stream setup) doesn't wait for the previous split
+ * to be exhausted.<br>
+ * The readers are created in order, one at a time, and the underlying iterator is only accessed while holding a lock.
+ * Resources held by prefetched readers are allocated from the operator allocator like any other reader's.<br>
+ * The operator stats are not thread safe, so the underlying iterator has to add its metrics to separate stats, which
+ * are merged into the operator stats by the fragment thread. Wait times are not recorded outside of fragment threads
+ * (see {@link OperatorStats#getWaitRecorder}), and the I/O stats of the file systems are thread safe. Readers are only
+ * set up by the fragment thread.
+ */
+public class AsyncPrefetchingIterator implements RecordReaderIterator {
+  private static final Logger logger = LoggerFactory.getLogger(AsyncPrefetchingIterator.class);
+
+  private final RecordReaderIterator delegate;
+  private final Executor executor;
+  private final int depth;
+  private final OperatorStats stats;
+  private final OperatorStats delegateStats;
+  private final Deque<CompletableFuture<PrefetchedReader>> prefetched = new ArrayDeque<>();
+
+  private CompletableFuture<PrefetchedReader> last;
+  private ParquetProtobuf.ParquetDatasetSplitScanXAttr currentSplitXAttr;
+
+  AsyncPrefetchingIterator(RecordReaderIterator delegate, Executor executor, int depth, OperatorStats stats) {
+    this(delegate, executor, depth, stats, null);
+  }
+
+  /**
+   * @param stats operator stats, only updated by the fragment thread
+   * @param delegateStats stats the underlying iterator adds its metrics to, or null if it doesn't have any
+   */
+  AsyncPrefetchingIterator(RecordReaderIterator delegate, Executor executor, int depth, OperatorStats stats,
+                           OperatorStats delegateStats) {
+    Preconditions.checkArgument(depth > 0, "at least one split must be prefetched");
+    Preconditions.checkArgument(delegateStats != stats, "the underlying iterator can't update the operator stats");
+    this.delegate = delegate;
+    this.executor = executor;
+    this.depth = depth;
+    this.stats = stats;
+    this.delegateStats = delegateStats;
+  }
+
+  /**
+   * Wraps the readers if asynchronous prefetching is enabled and the operator context has an executor.
+   *
+   * @param delegateStats stats the readers iterator adds its metrics to instead of the operator stats, or null
+   */
+  public static RecordReaderIterator wrapIfEnabled(OperatorContext context, RecordReaderIterator readers,
+                                                   OperatorStats delegateStats) {
+    if (!context.getOptions().getOption(ExecConstants.ASYNC_SPLIT_PREFETCH)) {
+      return readers;
+    }
+    final Executor executor;
+    try {
+      executor = context.getExecutor();
+    } catch (UnsupportedOperationException e) {
+      logger.debug("No executor available, splits will be opened synchronously");
+      return readers;
+    }
+    final int depth = (int) context.getOptions().getOption(ExecConstants.ASYNC_SPLIT_PREFETCH_DEPTH);
+    return new AsyncPrefetchingIterator(readers, executor, depth, context.getStats(), delegateStats);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (prefetched.isEmpty()) {
+      synchronized (delegate) {
+        return delegate.hasNext();
+      }
+    }
+    // readers are prefetched in order, if the first one is missing the underlying iterator is exhausted
+    return await(prefetched.peekFirst()) != null;
+  }
+
+  @Override
+  public RecordReader next() {
+    Preconditions.checkArgument(hasNext());
+    final PrefetchedReader next = prefetched.isEmpty() ? take() : await(prefetched.pollFirst());
+    currentSplitXAttr = next.splitXAttr;
+    mergeDelegateStats();
+    prefetch();
+    return next.reader;
+  }
+
+  private void mergeDelegateStats() {
+    if (delegateStats == null) {
+      return;
+    }
+    synchronized (delegate) {
+      stats.mergeMetrics(delegateStats);
+      delegateStats.clear();
+    }
+  }
+
+  private void prefetch() {
+    while (prefetched.size() < depth) {
+      last = (last == null || last.isDone()) ?
+        CompletableFuture.supplyAsync(this::take, executor) :
+        last.thenApplyAsync(previous -> previous == null ? null : take(), executor);
+      prefetched.addLast(last);
+    }
+  }
+
+  /**
+   * @return the next reader of the underlying iterator, or null if it is exhausted
+   */
+  private PrefetchedReader take() {
+    synchronized (delegate) {
+      if (!delegate.hasNext()) {
+        return null;
+      }
+      final RecordReader reader = delegate.next();
+      return new PrefetchedReader(reader, delegate.getCurrentSplitXAttr());
+    }
+  }
+
+  private PrefetchedReader await(CompletableFuture<PrefetchedReader> future) {
+    if (future.isDone()) {
+      return getUnchecked(future);
+    }
+    final Stopwatch watch = Stopwatch.createStarted();
+    try {
+      return getUnchecked(future);
+    } finally {
+      stats.addLongStat(ScanOperator.Metric.PREFETCH_WAIT_NS, watch.elapsed(TimeUnit.NANOSECONDS));
+    }
+  }
+
+  private static PrefetchedReader getUnchecked(CompletableFuture<PrefetchedReader> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while opening the next split", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  @Override
+  public ParquetProtobuf.ParquetDatasetSplitScanXAttr getCurrentSplitXAttr() {
+    return currentSplitXAttr;
+  }
+
+  @Override
+  public void addRuntimeFilter(RuntimeFilter runtimeFilter) {
+    // readers already prefetched are still returned, the filter only applies to the splits not opened yet
+    synchronized (delegate) {
+      delegate.addRuntimeFilter(runtimeFilter);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    // wait for the pending prefetches, their readers have to be closed as well
+    for (CompletableFuture<PrefetchedReader> future : prefetched) {
+      try {
+        final PrefetchedReader reader = future.get();
+        if (reader != null) {
+          closeables.add(reader.reader);
+        }
+      } catch (ExecutionException e) {
+        logger.debug("Failed to prefetch split", e.getCause());
+      }
+    }
+    prefetched.clear();
+    mergeDelegateStats();
+    closeables.add(delegate);
+    AutoCloseables.close(closeables);
+  }
+
+  private static final class PrefetchedReader {
+    private final RecordReader reader;
+    private final ParquetProtobuf.ParquetDatasetSplitScanXAttr splitXAttr;
+
+    private PrefetchedReader(RecordReader reader, ParquetProtobuf.ParquetDatasetSplitScanXAttr splitXAttr) {
+      this.reader = reader;
+      this.splitXAttr = splitXAttr;
+    }
+  }
+}
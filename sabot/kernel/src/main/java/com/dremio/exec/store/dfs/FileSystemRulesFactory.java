@@ -23,6 +23,7 @@ import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.convert.ConverterRule;
 
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.calcite.logical.ScanCrel;
 import com.dremio.exec.catalog.conf.SourceType;
 import com.dremio.exec.ops.OptimizerRulesContext;
@@ -39,6 +40,7 @@ import com.dremio.exec.store.TableMetadata;
 import com.dremio.exec.store.common.SourceLogicalConverter;
 import com.dremio.exec.store.deltalake.DeltaLakeScanPrel;
 import com.dremio.exec.store.dfs.easy.EasyScanPrel;
+import com.dremio.exec.store.easy.orc.OrcFilterPushDownRule;
 import com.dremio.exec.store.iceberg.IcebergScanPrel;
 import com.dremio.exec.store.parquet.ParquetScanPrel;
 import com.dremio.service.namespace.DatasetHelper;
@@ -96,7 +98,7 @@ public class FileSystemRulesFactory extends StoragePluginTypeRulesFactory {
       FilesystemScanDrel drel = (FilesystemScanDrel) rel;
       // TODO: this singleton check should be removed once DX-7175 is fixed
       boolean singleton = !drel.getTableMetadata().getStoragePluginId().getCapabilities().getCapability(SourceCapabilities.REQUIRES_HARD_AFFINITY) && drel.getTableMetadata().getSplitCount() == 1;
-      return new EasyScanPrel(drel.getCluster(), drel.getTraitSet().plus(Prel.PHYSICAL).plus(singleton ? DistributionTrait.SINGLETON : DistributionTrait.ANY), drel.getTable(), drel.getPluginId(), drel.getTableMetadata(), drel.getProjectedColumns(), drel.getObservedRowcountAdjustment());
+      return new EasyScanPrel(drel.getCluster(), drel.getTraitSet().plus(Prel.PHYSICAL).plus(singleton ? DistributionTrait.SINGLETON : DistributionTrait.ANY), drel.getTable(), drel.getPluginId(), drel.getTableMetadata(), drel.getProjectedColumns(), drel.getObservedRowcountAdjustment(), drel.getScanFilter());
     }
 
     @Override
@@ -181,6 +183,10 @@ public class FileSystemRulesFactory extends StoragePluginTypeRulesFactory {
           builder.add(new PruneScanRuleFilterOnSampleScan<>(pluginType, FilesystemScanDrel.class, optimizerContext));
         }
 
+        if (optimizerContext.getPlannerSettings().getOptions().getOption(ExecConstants.ORC_FILTER_PUSHDOWN)) {
+          builder.add(new OrcFilterPushDownRule(pluginType));
+        }
+
         return builder.build();
 
       case PHYSICAL:
@@ -37,7 +37,6 @@ import com.dremio.exec.planner.logical.partition.PruneFilterCondition;
 import com.dremio.exec.store.RelOptNamespaceTable;
 import com.dremio.exec.store.ScanFilter;
 import com.dremio.exec.store.TableMetadata;
-import com.dremio.exec.store.parquet.ParquetFilterCondition;
 import com.dremio.exec.store.parquet.ParquetScanFilter;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
@@ -46,7 +45,7 @@ import com.google.common.base.Preconditions;
  * ScanDrel for filesystem stores filter conditions.
  */
 public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableScan, PruneableScan {
-  private final ParquetScanFilter filter;
+  private final ScanFilter filter;
   private final PruneFilterCondition partitionFilter;
   private final boolean arrowCachingEnabled;
 
@@ -56,7 +55,7 @@ public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableSc
   }
 
   private FilesystemScanDrel(RelOptCluster cluster, RelTraitSet traitSet, RelOptTable table, StoragePluginId pluginId,
-                             TableMetadata dataset, List<SchemaPath> projectedColumns, ParquetScanFilter filter, double observedRowcountAdjustment, boolean arrowCachingEnabled, PruneFilterCondition partitionFilter) {
+                             TableMetadata dataset, List<SchemaPath> projectedColumns, ScanFilter filter, double observedRowcountAdjustment, boolean arrowCachingEnabled, PruneFilterCondition partitionFilter) {
     super(cluster, traitSet, table, pluginId, dataset, projectedColumns, observedRowcountAdjustment);
     assert traitSet.getTrait(ConventionTraitDef.INSTANCE) == Rel.LOGICAL;
     this.filter = filter;
@@ -65,7 +64,7 @@ public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableSc
   }
 
   // Clone with new conditions
-  private FilesystemScanDrel(FilesystemScanDrel that, ParquetScanFilter filter) {
+  private FilesystemScanDrel(FilesystemScanDrel that, ScanFilter filter) {
     super(that.getCluster(), that.getTraitSet(), that.getTable(), that.getPluginId(), that.getTableMetadata(), that.getProjectedColumns(), that.getObservedRowcountAdjustment());
     assert traitSet.getTrait(ConventionTraitDef.INSTANCE) == Rel.LOGICAL;
     this.filter = filter;
@@ -77,7 +76,7 @@ public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableSc
   private FilesystemScanDrel(FilesystemScanDrel that, PruneFilterCondition partitionFilter) {
     super(that.getCluster(), that.getTraitSet(), that.getTable(), that.getPluginId(), that.getTableMetadata(), that.getProjectedColumns(), that.getObservedRowcountAdjustment());
     assert traitSet.getTrait(ConventionTraitDef.INSTANCE) == Rel.LOGICAL;
-    this.filter = that.getFilter();
+    this.filter = that.getScanFilter();
     this.arrowCachingEnabled = that.isArrowCachingEnabled();
     this.partitionFilter = partitionFilter;
   }
@@ -86,7 +85,7 @@ public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableSc
   private FilesystemScanDrel(FilesystemScanDrel that, TableMetadata newDatasetPointer) {
     super(that.getCluster(), that.getTraitSet(), new RelOptNamespaceTable(newDatasetPointer, that.getCluster()), that.getPluginId(), newDatasetPointer, that.getProjectedColumns(), that.getObservedRowcountAdjustment());
     assert traitSet.getTrait(ConventionTraitDef.INSTANCE) == Rel.LOGICAL;
-    this.filter = that.getFilter();
+    this.filter = that.getScanFilter();
     this.arrowCachingEnabled = that.isArrowCachingEnabled();
     this.partitionFilter = that.getPartitionFilter();
   }
@@ -95,7 +94,7 @@ public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableSc
   private FilesystemScanDrel(FilesystemScanDrel that, boolean arrowCachingEnabled) {
     super(that.getCluster(), that.getTraitSet(), that.getTable(), that.getPluginId(), that.getTableMetadata(), that.getProjectedColumns(), that.getObservedRowcountAdjustment());
     assert traitSet.getTrait(ConventionTraitDef.INSTANCE) == Rel.LOGICAL;
-    this.filter = that.getFilter();
+    this.filter = that.getScanFilter();
     this.arrowCachingEnabled = arrowCachingEnabled;
     this.partitionFilter = that.getPartitionFilter();
   }
@@ -107,8 +106,7 @@ public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableSc
 
   @Override
   public FilesystemScanDrel applyFilter(ScanFilter scanFilter) {
-    Preconditions.checkArgument(scanFilter instanceof ParquetScanFilter);
-    return new FilesystemScanDrel(this, (ParquetScanFilter) scanFilter);
+    return new FilesystemScanDrel(this, scanFilter);
   }
 
   @Override
@@ -125,7 +123,17 @@ public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableSc
     return new FilesystemScanDrel(this, arrowCachingEnabled);
   }
 
+  /**
+   * @return the filter pushed into the scan when it is a parquet filter, null otherwise
+   */
   public ParquetScanFilter getFilter() {
+    return filter instanceof ParquetScanFilter ? (ParquetScanFilter) filter : null;
+  }
+
+  /**
+   * @return the filter pushed into the scan, whatever the format of the dataset
+   */
+  public ScanFilter getScanFilter() {
     return filter;
   }
 
@@ -156,9 +164,8 @@ public class FilesystemScanDrel extends ScanRelBase implements Rel, FilterableSc
     if (filter != null && preserveFilterColumns) {
       final List<SchemaPath> newProjection = new ArrayList<>(projection);
       final Set<SchemaPath> projectionSet = new HashSet<>(projection);
-      if (filter.getConditions() != null) {
-        for (ParquetFilterCondition f : filter.getConditions()) {
-          final SchemaPath col = f.getPath();
+      if (filter.getPaths() != null) {
+        for (SchemaPath col : filter.getPaths()) {
           if (!projectionSet.contains(col)) {
             newProjection.add(col);
           }
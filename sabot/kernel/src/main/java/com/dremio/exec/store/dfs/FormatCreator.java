@@ -31,6 +31,7 @@ import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.store.deltalake.DeltaLakeFormatConfig;
 import com.dremio.exec.store.easy.arrow.ArrowFormatPluginConfig;
 import com.dremio.exec.store.easy.json.JSONFormatPlugin;
+import com.dremio.exec.store.easy.orc.OrcFormatPluginConfig;
 import com.dremio.exec.store.easy.text.TextFormatPlugin;
 import com.dremio.exec.store.easy.text.TextFormatPlugin.TextFormatConfig;
 import com.dremio.exec.store.iceberg.IcebergFormatConfig;
@@ -107,6 +108,7 @@ public class FormatCreator {
     defaultFormats.put("parquet", new ParquetFormatConfig());
     defaultFormats.put("json", new JSONFormatPlugin.JSONFormatConfig());
     defaultFormats.put("dremarrow1", new ArrowFormatPluginConfig());
+    defaultFormats.put("orc", new OrcFormatPluginConfig());
     defaultFormats.put("iceberg", new IcebergFormatConfig());
     defaultFormats.put("delta", new DeltaLakeFormatConfig());
     return defaultFormats;
@@ -28,6 +28,8 @@ import com.dremio.exec.store.easy.arrow.ArrowFormatPluginConfig;
 import com.dremio.exec.store.easy.excel.ExcelFormatPlugin;
 import com.dremio.exec.store.easy.excel.ExcelFormatPluginConfig;
 import com.dremio.exec.store.easy.json.JSONFormatPlugin;
+import com.dremio.exec.store.easy.orc.OrcFormatPlugin;
+import com.dremio.exec.store.easy.orc.OrcFormatPluginConfig;
 import com.dremio.exec.store.easy.text.TextFormatPlugin;
 import com.dremio.exec.store.easy.text.TextFormatPlugin.TextFormatConfig;
 import com.dremio.exec.store.easy.text.compliant.TextParsingSettings;
@@ -49,6 +51,7 @@ import com.dremio.service.namespace.file.proto.FileType;
 import com.dremio.service.namespace.file.proto.IcebergFileConfig;
 import com.dremio.service.namespace.file.proto.IcebergMetaStoreType;
 import com.dremio.service.namespace.file.proto.JsonFileConfig;
+import com.dremio.service.namespace.file.proto.OrcFileConfig;
 import com.dremio.service.namespace.file.proto.ParquetFileConfig;
 import com.dremio.service.namespace.file.proto.TextFileConfig;
 import com.dremio.service.namespace.file.proto.UnknownFileConfig;
@@ -136,6 +139,8 @@ public class PhysicalDatasetUtils {
         return toParquetFormatConfig(parquetFileConfig);
       case ARROW:
         return new ArrowFormatPluginConfig();
+      case ORC:
+        return new OrcFormatPluginConfig();
       case EXCEL: {
         final ExcelFileConfig excelFileConfig = (ExcelFileConfig) ExcelFileConfig.getForFile(fileConfig);
         final ExcelFormatPluginConfig excelFormatPluginConfig = new ExcelFormatPluginConfig();
@@ -214,6 +219,9 @@ public class PhysicalDatasetUtils {
     if (formatPlugin instanceof ArrowFormatPlugin) {
       return new ArrowFileConfig();
     }
+    if (formatPlugin instanceof OrcFormatPlugin) {
+      return new OrcFileConfig();
+    }
     if (formatPlugin instanceof TextFormatPlugin) {
       final TextFileConfig textFileConfig = new TextFileConfig();
       TextParsingSettings settings = new TextParsingSettings();
@@ -15,6 +15,8 @@
  */
 package com.dremio.exec.store.dfs;
 
+import static com.dremio.exec.planner.acceleration.IncrementalUpdateUtils.UPDATE_COLUMN;
+
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
@@ -152,6 +154,10 @@ public class SplitGenTableFunction extends AbstractTableFunction {
       setPartitionValue(partitionCol, partitionValueBuilder);
       partitionInfoBuilder.addValues(partitionValueBuilder.build());
     }
+    // the time the file was added to the table, used to refresh reflections incrementally
+    partitionInfoBuilder.addValues(PartitionProtobuf.PartitionValue.newBuilder()
+      .setColumn(UPDATE_COLUMN)
+      .setLongValue(modTimeVector.get(row)));
 
     PartitionProtobuf.NormalizedPartitionInfo partitionInfo = partitionInfoBuilder.build();
     final List<SplitAndPartitionInfo> splits = new ArrayList<>();
@@ -25,6 +25,7 @@ import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.base.SubScan;
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.ScanFilter;
 import com.dremio.exec.store.SplitAndPartitionInfo;
 import com.dremio.exec.store.SplitWork;
 import com.dremio.exec.store.TableMetadata;
@@ -35,11 +36,22 @@ import com.dremio.service.namespace.file.proto.FileType;
  */
 public class EasyGroupScan extends AbstractGroupScan {
 
+  private final ScanFilter filter;
+
   public EasyGroupScan(
       OpProps props,
       TableMetadata dataset,
       List<SchemaPath> columns) {
+    this(props, dataset, columns, null);
+  }
+
+  public EasyGroupScan(
+      OpProps props,
+      TableMetadata dataset,
+      List<SchemaPath> columns,
+      ScanFilter filter) {
     super(props, dataset, columns);
+    this.filter = filter;
   }
 
   @Override
@@ -59,7 +71,8 @@ public class EasyGroupScan extends AbstractGroupScan {
         dataset.getStoragePluginId(),
         columns,
         getDataset().getReadDefinition().getPartitionColumnsList(),
-        getDataset().getReadDefinition().getExtendedProperty());
+        getDataset().getReadDefinition().getExtendedProperty(),
+        filter);
   }
 
 
@@ -92,6 +105,8 @@ public class EasyGroupScan extends AbstractGroupScan {
         return UserBitShared.CoreOperatorType.ICEBERG_SUB_SCAN_VALUE;
       case DELTA:
         return UserBitShared.CoreOperatorType.DELTALAKE_SUB_SCAN_VALUE;
+      case ORC:
+        return UserBitShared.CoreOperatorType.ORC_SUB_SCAN_VALUE;
       case UNKNOWN:
       case HTTP_LOG:
       default:
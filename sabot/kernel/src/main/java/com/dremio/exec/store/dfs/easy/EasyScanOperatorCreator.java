@@ -35,6 +35,7 @@ import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.SplitAndPartitionInfo;
+import com.dremio.exec.store.dfs.AsyncPrefetchingIterator;
 import com.dremio.exec.store.dfs.FileSystemPlugin;
 import com.dremio.exec.store.dfs.PhysicalDatasetUtils;
 import com.dremio.exec.store.dfs.implicit.CompositeReaderConfig;
@@ -169,7 +170,8 @@ public class EasyScanOperatorCreator implements ProducerOperator.Creator<EasySub
       readerIterator = RecordReaderIterator.from(readers.iterator());
     }
 
-    return new ScanOperator(config, context, readerIterator);
+    // the readers only update the operator stats when they are set up, by the fragment thread
+    return new ScanOperator(config, context, AsyncPrefetchingIterator.wrapIfEnabled(context, readerIterator, null));
   }
 
   /**
@@ -22,6 +22,7 @@ import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
 
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.exec.catalog.StoragePluginId;
@@ -30,10 +31,12 @@ import com.dremio.exec.planner.common.ScanRelBase;
 import com.dremio.exec.planner.physical.PhysicalPlanCreator;
 import com.dremio.exec.planner.physical.ScanPrelBase;
 import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.ScanFilter;
 import com.dremio.exec.store.TableMetadata;
 import com.dremio.options.Options;
 import com.dremio.options.TypeValidators.LongValidator;
 import com.dremio.options.TypeValidators.PositiveLongValidator;
+import com.google.common.base.Objects;
 
 /**
  * Convert scan prel to easy group scan.
@@ -44,8 +47,19 @@ public class EasyScanPrel extends ScanPrelBase {
   public static final LongValidator RESERVE = new PositiveLongValidator("planner.op.scan.easy.reserve_bytes", Long.MAX_VALUE, DEFAULT_RESERVE);
   public static final LongValidator LIMIT = new PositiveLongValidator("planner.op.scan.easy.limit_bytes", Long.MAX_VALUE, DEFAULT_LIMIT);
 
+  private final ScanFilter filter;
+
   public EasyScanPrel(RelOptCluster cluster, RelTraitSet traitSet, RelOptTable table, StoragePluginId pluginId, TableMetadata dataset, List<SchemaPath> projectedColumns, double observedRowcountAdjustment) {
+    this(cluster, traitSet, table, pluginId, dataset, projectedColumns, observedRowcountAdjustment, null);
+  }
+
+  public EasyScanPrel(RelOptCluster cluster, RelTraitSet traitSet, RelOptTable table, StoragePluginId pluginId, TableMetadata dataset, List<SchemaPath> projectedColumns, double observedRowcountAdjustment, ScanFilter filter) {
     super(cluster, traitSet, table, pluginId, dataset, projectedColumns, observedRowcountAdjustment);
+    this.filter = filter;
+  }
+
+  public ScanFilter getFilter() {
+    return filter;
   }
 
   @Override
@@ -54,17 +68,32 @@ public class EasyScanPrel extends ScanPrelBase {
     return new EasyGroupScan(
         creator.props(this, tableMetadata.getUser(), schema, RESERVE, LIMIT),
         tableMetadata,
-        getProjectedColumns());
+        getProjectedColumns(),
+        filter);
   }
 
   @Override
   public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
-    return new EasyScanPrel(getCluster(), traitSet, getTable(), pluginId, tableMetadata, getProjectedColumns(), observedRowcountAdjustment);
+    return new EasyScanPrel(getCluster(), traitSet, getTable(), pluginId, tableMetadata, getProjectedColumns(), observedRowcountAdjustment, filter);
   }
 
   @Override
   public ScanRelBase cloneWithProject(List<SchemaPath> projection) {
-    return new EasyScanPrel(getCluster(), getTraitSet(), table, pluginId, tableMetadata, projection, observedRowcountAdjustment);
+    return new EasyScanPrel(getCluster(), getTraitSet(), table, pluginId, tableMetadata, projection, observedRowcountAdjustment, filter);
+  }
+
+  @Override
+  public double getCostAdjustmentFactor() {
+    return filter != null ? filter.getCostAdjustment() : super.getCostAdjustmentFactor();
+  }
+
+  @Override
+  public RelWriter explainTerms(RelWriter pw) {
+    pw = super.explainTerms(pw);
+    if (filter != null) {
+      pw.item("filters", filter);
+    }
+    return pw;
   }
 
   @Override
@@ -72,8 +101,12 @@ public class EasyScanPrel extends ScanPrelBase {
     if (!(other instanceof EasyScanPrel)) {
       return false;
     }
-    return super.equals(other);
+    return Objects.equal(filter, ((EasyScanPrel) other).filter) && super.equals(other);
   }
 
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(super.hashCode(), filter);
+  }
 
 }
@@ -25,6 +25,7 @@ import com.dremio.exec.planner.fragment.MinorDataReader;
 import com.dremio.exec.planner.fragment.MinorDataWriter;
 import com.dremio.exec.planner.fragment.SplitNormalizer;
 import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.ScanFilter;
 import com.dremio.exec.store.SplitAndPartitionInfo;
 import com.dremio.service.namespace.file.proto.FileConfig;
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -46,6 +47,7 @@ public class EasySubScan extends SubScanWithProjection {
   private final StoragePluginId pluginId;
   private final ByteString extendedProperty;
   private final List<String> partitionColumns;
+  private final ScanFilter filter;
 
   @JsonIgnore
   private List<SplitAndPartitionInfo> splits;
@@ -60,12 +62,27 @@ public class EasySubScan extends SubScanWithProjection {
     List<SchemaPath> columns,
     List<String> partitionColumns,
     ByteString extendedProperty) {
+    this(props, config, splits, fullSchema, tablePath, pluginId, columns, partitionColumns, extendedProperty, null);
+  }
+
+  public EasySubScan(
+    OpProps props,
+    FileConfig config,
+    List<SplitAndPartitionInfo> splits,
+    BatchSchema fullSchema,
+    List<String> tablePath,
+    StoragePluginId pluginId,
+    List<SchemaPath> columns,
+    List<String> partitionColumns,
+    ByteString extendedProperty,
+    ScanFilter filter) {
     super(props, fullSchema, (tablePath == null) ? null : ImmutableList.of(tablePath), columns);
     this.fileConfig = config;
     this.splits = splits;
     this.pluginId = pluginId;
     this.extendedProperty = extendedProperty;
     this.partitionColumns = partitionColumns;
+    this.filter = filter;
   }
 
   @JsonCreator
@@ -77,9 +94,10 @@ public class EasySubScan extends SubScanWithProjection {
     @JsonProperty("pluginId") StoragePluginId pluginId,
     @JsonProperty("columns") List<SchemaPath> columns,
     @JsonProperty("partitionColumns") List<String> partitionColumns,
-    @JsonProperty("extendedProperty") ByteString extendedProperty) {
+    @JsonProperty("extendedProperty") ByteString extendedProperty,
+    @JsonProperty("filter") ScanFilter filter) {
 
-    this(props, config, null, fullSchema, tablePath, pluginId, columns, partitionColumns, extendedProperty);
+    this(props, config, null, fullSchema, tablePath, pluginId, columns, partitionColumns, extendedProperty, filter);
   }
 
   public List<SplitAndPartitionInfo> getSplits() {
@@ -102,6 +120,10 @@ public class EasySubScan extends SubScanWithProjection {
     return fileConfig;
   }
 
+  public ScanFilter getFilter() {
+    return filter;
+  }
+
   @Override
   public int getOperatorType() {
     return EasyGroupScan.getEasyScanOperatorType(fileConfig.getType());
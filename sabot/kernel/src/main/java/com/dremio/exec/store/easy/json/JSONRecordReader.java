@@ -30,7 +30,9 @@ import com.dremio.exec.catalog.CatalogOptions;
 import com.dremio.exec.store.AbstractRecordReader;
 import com.dremio.exec.store.easy.json.JsonProcessor.ReadState;
 import com.dremio.exec.store.easy.json.reader.CountingJsonReader;
+import com.dremio.exec.store.easy.json.reader.CountingTapeJsonReader;
 import com.dremio.exec.vector.complex.fn.JsonReader;
+import com.dremio.exec.vector.complex.fn.TapeJsonReader;
 import com.dremio.io.CompressionCodecFactory;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.FileSystemUtils;
@@ -151,13 +153,19 @@ public class JSONRecordReader extends AbstractRecordReader {
 
       this.writer = new VectorContainerWriter(output);
       this.writer.setInitialCapacity(context.getTargetBatchSize());
+      final boolean useTapeReader = fsPath != null && context.getOptions().getOption(ExecConstants.JSON_TAPE_READER);
+      final int sizeLimit = Math.toIntExact(this.context.getOptions().getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
       if (isSkipQuery()) {
-        this.jsonReader = new CountingJsonReader();
+        this.jsonReader = useTapeReader ? new CountingTapeJsonReader(sizeLimit) : new CountingJsonReader();
       } else {
-        final int sizeLimit = Math.toIntExact(this.context.getOptions().getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
         final int maxLeafLimit = Math.toIntExact(this.context.getOptions().getOption(CatalogOptions.METADATA_LEAF_COLUMN_MAX));
-        this.jsonReader = new JsonReader(
-          context.getManagedBuffer(), ImmutableList.copyOf(getColumns()), sizeLimit, maxLeafLimit, enableAllTextMode, true, readNumbersAsDouble);
+        if (useTapeReader) {
+          this.jsonReader = new TapeJsonReader(
+            context.getManagedBuffer(), ImmutableList.copyOf(getColumns()), sizeLimit, maxLeafLimit, enableAllTextMode, readNumbersAsDouble);
+        } else {
+          this.jsonReader = new JsonReader(
+            context.getManagedBuffer(), ImmutableList.copyOf(getColumns()), sizeLimit, maxLeafLimit, enableAllTextMode, true, readNumbersAsDouble);
+        }
       }
       setupParser();
     } catch(final Exception e) {
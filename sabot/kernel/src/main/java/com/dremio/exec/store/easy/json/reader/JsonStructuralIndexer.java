@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json.reader;
+
+import java.util.Arrays;
+
+/**
+ * Stage one of the tape based JSON reader.
+ *
+ * Classifies a buffer 64 bytes at a time into bitmasks (quotes, backslashes, structural characters and
+ * whitespace) and emits the offsets of every structural character, every opening quote and the first byte of
+ * every other scalar. Quotes inside strings are resolved with a prefix xor over the unescaped quote mask, so the
+ * content of strings never reaches stage two.
+ */
+public final class JsonStructuralIndexer {
+
+  private static final byte OTHER = 0;
+  private static final byte WHITESPACE = 1;
+  private static final byte STRUCTURAL = 2;
+  private static final byte QUOTE = 3;
+  private static final byte BACKSLASH = 4;
+
+  private static final byte[] CLASSES = new byte[256];
+
+  static {
+    CLASSES[' '] = WHITESPACE;
+    CLASSES['\t'] = WHITESPACE;
+    CLASSES['\n'] = WHITESPACE;
+    CLASSES['\r'] = WHITESPACE;
+    CLASSES['{'] = STRUCTURAL;
+    CLASSES['}'] = STRUCTURAL;
+    CLASSES['['] = STRUCTURAL;
+    CLASSES[']'] = STRUCTURAL;
+    CLASSES[':'] = STRUCTURAL;
+    CLASSES[','] = STRUCTURAL;
+    CLASSES['"'] = QUOTE;
+    CLASSES['\\'] = BACKSLASH;
+  }
+
+  private int[] positions = new int[4096];
+  private int count;
+  private boolean unterminatedString;
+
+  /**
+   * Index the first {@code length} bytes of the buffer. The buffer must start outside of any string.
+   *
+   * @return the number of structural positions found
+   */
+  public int index(byte[] buf, int length) {
+    count = 0;
+    long prevInString = 0;
+    long prevScalar = 0;
+    boolean prevEscaped = false;
+
+    for (int blockStart = 0; blockStart < length; blockStart += 64) {
+      final int blockLength = Math.min(64, length - blockStart);
+      long quote = 0;
+      long backslash = 0;
+      long structural = 0;
+      long whitespace = 0;
+
+      for (int i = 0; i < blockLength; i++) {
+        final long bit = 1L << i;
+        switch (CLASSES[buf[blockStart + i] & 0xFF]) {
+          case WHITESPACE:
+            whitespace |= bit;
+            break;
+          case STRUCTURAL:
+            structural |= bit;
+            break;
+          case QUOTE:
+            quote |= bit;
+            break;
+          case BACKSLASH:
+            backslash |= bit;
+            break;
+          default:
+            break;
+        }
+      }
+
+      if (blockLength < 64) {
+        // treat the tail of the last block as whitespace so that it never starts a scalar.
+        whitespace |= -1L << blockLength;
+      }
+
+      // escapes are rare, only walk the block when there is at least one backslash to resolve.
+      long escaped = 0;
+      if (backslash != 0 || prevEscaped) {
+        boolean escape = prevEscaped;
+        for (int i = 0; i < blockLength; i++) {
+          final long bit = 1L << i;
+          if (escape) {
+            escaped |= bit;
+            escape = false;
+          } else if ((backslash & bit) != 0) {
+            escape = true;
+          }
+        }
+        prevEscaped = escape;
+      }
+
+      quote &= ~escaped;
+      // an opening quote and the string content are set, the closing quote is not.
+      final long inString = prefixXor(quote) ^ prevInString;
+      prevInString = inString >> 63;
+
+      structural &= ~inString;
+      final long scalar = ~(structural | whitespace | quote | inString);
+      final long scalarStart = scalar & ~((scalar << 1) | prevScalar);
+      prevScalar = scalar >>> 63;
+
+      long bits = structural | (quote & inString) | scalarStart;
+      ensureCapacity(count + Long.bitCount(bits));
+      while (bits != 0) {
+        positions[count++] = blockStart + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+      }
+    }
+
+    unterminatedString = prevInString != 0;
+    return count;
+  }
+
+  /**
+   * Offsets of the structural characters found by the last call to {@link #index(byte[], int)}.
+   */
+  public int[] getPositions() {
+    return positions;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Whether the indexed buffer ended inside of a string.
+   */
+  public boolean isUnterminatedString() {
+    return unterminatedString;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > positions.length) {
+      positions = Arrays.copyOf(positions, Math.max(capacity, positions.length * 2));
+    }
+  }
+
+  private static long prefixXor(long bits) {
+    bits ^= bits << 1;
+    bits ^= bits << 2;
+    bits ^= bits << 4;
+    bits ^= bits << 8;
+    bits ^= bits << 16;
+    bits ^= bits << 32;
+    return bits;
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json.reader;
+
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+
+/**
+ * Stage two of the tape based JSON reader.
+ *
+ * Validates the structural positions produced by {@link JsonStructuralIndexer} against the JSON grammar and
+ * records one tape entry per value (object keys included). Every entry keeps the offset of its first byte in the
+ * source buffer, scalars are decoded lazily from that offset. Containers are linked to their closing entry so a
+ * reader can skip an unprojected subtree in constant time.
+ */
+public final class JsonTape {
+
+  public static final byte START_OBJECT = '{';
+  public static final byte END_OBJECT = '}';
+  public static final byte START_ARRAY = '[';
+  public static final byte END_ARRAY = ']';
+  public static final byte STRING = '"';
+  public static final byte NUMBER = '#';
+  public static final byte TRUE = 't';
+  public static final byte FALSE = 'f';
+  public static final byte NULL = 'n';
+
+  private static final int VALUE = 0;
+  private static final int FIRST_VALUE = 1;
+  private static final int KEY = 2;
+  private static final int FIRST_KEY = 3;
+  private static final int AFTER_VALUE = 4;
+
+  private byte[] types = new byte[4096];
+  private int[] offsets = new int[4096];
+  private int[] links = new int[4096];
+  private int[] stack = new int[64];
+  private int size;
+
+  public void reset() {
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public byte getType(int index) {
+    return types[index];
+  }
+
+  public int getOffset(int index) {
+    return offsets[index];
+  }
+
+  /**
+   * For container entries, the index of the matching closing (or opening) entry.
+   */
+  public int getLink(int index) {
+    return links[index];
+  }
+
+  /**
+   * The index of the entry following the value at {@code index}, skipping over its children if any.
+   */
+  public int skip(int index) {
+    final byte type = types[index];
+    if (type == START_OBJECT || type == START_ARRAY) {
+      return links[index] + 1;
+    }
+    return index + 1;
+  }
+
+  /**
+   * Append the value starting at structural position {@code from} to the tape.
+   *
+   * @param buf the indexed buffer
+   * @param positions the structural positions of the buffer
+   * @param from the first structural position of the value
+   * @param count the number of structural positions available
+   * @param baseOffset offset of the buffer in the whole stream, for error reporting
+   * @return the structural position following the value, or -1 if the positions ran out before the value ended,
+   *   in which case the tape is left unchanged.
+   * @throws JsonParseException if the value is not valid JSON
+   */
+  public int append(byte[] buf, int[] positions, int from, int count, long baseOffset) throws JsonParseException {
+    final int mark = size;
+    int depth = 0;
+    int state = VALUE;
+    int i = from;
+
+    while (i < count) {
+      final int offset = positions[i];
+      final byte c = buf[offset];
+
+      switch (state) {
+        case FIRST_VALUE:
+          if (c == ']') {
+            close(depth--, END_ARRAY, offset);
+            i++;
+            state = AFTER_VALUE;
+            break;
+          }
+          // fall through
+        case VALUE:
+          switch (c) {
+            case '{':
+              depth = push(depth, add(START_OBJECT, offset));
+              state = FIRST_KEY;
+              break;
+            case '[':
+              depth = push(depth, add(START_ARRAY, offset));
+              state = FIRST_VALUE;
+              break;
+            case '"':
+              add(STRING, offset);
+              state = AFTER_VALUE;
+              break;
+            case 't':
+              add(TRUE, offset);
+              state = AFTER_VALUE;
+              break;
+            case 'f':
+              add(FALSE, offset);
+              state = AFTER_VALUE;
+              break;
+            case 'n':
+              add(NULL, offset);
+              state = AFTER_VALUE;
+              break;
+            case '-':
+            case '0': case '1': case '2': case '3': case '4':
+            case '5': case '6': case '7': case '8': case '9':
+              add(NUMBER, offset);
+              state = AFTER_VALUE;
+              break;
+            default:
+              throw unexpected(c, "a value", baseOffset + offset);
+          }
+          i++;
+          break;
+
+        case FIRST_KEY:
+          if (c == '}') {
+            close(depth--, END_OBJECT, offset);
+            i++;
+            state = AFTER_VALUE;
+            break;
+          }
+          // fall through
+        case KEY:
+          if (c != '"') {
+            throw unexpected(c, "a field name", baseOffset + offset);
+          }
+          add(STRING, offset);
+          i++;
+          if (i == count) {
+            break;
+          }
+          final int colon = positions[i];
+          if (buf[colon] != ':') {
+            throw unexpected(buf[colon], "':'", baseOffset + colon);
+          }
+          i++;
+          state = VALUE;
+          break;
+
+        case AFTER_VALUE:
+          if (depth == 0) {
+            return i;
+          }
+          final byte container = types[stack[depth - 1]];
+          if (c == ',') {
+            state = container == START_OBJECT ? KEY : VALUE;
+          } else if (c == '}' && container == START_OBJECT) {
+            close(depth--, END_OBJECT, offset);
+          } else if (c == ']' && container == START_ARRAY) {
+            close(depth--, END_ARRAY, offset);
+          } else {
+            throw unexpected(c, container == START_OBJECT ? "',' or '}'" : "',' or ']'", baseOffset + offset);
+          }
+          i++;
+          break;
+
+        default:
+          throw new IllegalStateException("Unknown state " + state);
+      }
+    }
+
+    if (state == AFTER_VALUE && depth == 0) {
+      return i;
+    }
+
+    // ran out of structural positions in the middle of the value.
+    size = mark;
+    return -1;
+  }
+
+  private int add(byte type, int offset) {
+    if (size == types.length) {
+      final int capacity = size * 2;
+      types = Arrays.copyOf(types, capacity);
+      offsets = Arrays.copyOf(offsets, capacity);
+      links = Arrays.copyOf(links, capacity);
+    }
+    types[size] = type;
+    offsets[size] = offset;
+    links[size] = -1;
+    return size++;
+  }
+
+  private int push(int depth, int index) {
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+    stack[depth] = index;
+    return depth + 1;
+  }
+
+  private void close(int depth, byte type, int offset) {
+    final int open = stack[depth - 1];
+    final int close = add(type, offset);
+    links[open] = close;
+    links[close] = open;
+  }
+
+  static JsonParseException unexpected(byte c, String expected, long offset) {
+    return new JsonParseException(null,
+        String.format("Unexpected character ('%s') at byte offset %d: was expecting %s", (char) c, offset, expected),
+        new JsonLocation(null, offset, -1, -1));
+  }
+}
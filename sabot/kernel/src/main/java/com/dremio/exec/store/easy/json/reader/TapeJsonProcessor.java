@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json.reader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.store.easy.json.JsonProcessor;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+
+/**
+ * Base class for JSON processors that read their input in two stages instead of streaming it token by token.
+ *
+ * The input is read in large buffers. Each buffer is indexed by {@link JsonStructuralIndexer} and every complete
+ * top level record in it is appended to a {@link JsonTape}. Records are then handed out one by one through
+ * {@link #nextRecord()}. A record that straddles the end of a buffer is carried over to the next one, and the buffer
+ * grows for records that do not fit in it, up to the field size limit. Like the Jackson based readers, the input may
+ * either be a set of white space delimited maps or a single array of maps.
+ *
+ * Unlike the Jackson based readers, comments and unquoted field names are not supported.
+ */
+public abstract class TapeJsonProcessor implements JsonProcessor {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TapeJsonProcessor.class);
+
+  private static final int INITIAL_BUFFER_SIZE = 1 << 20;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  protected final JsonTape tape = new JsonTape();
+  private final JsonStructuralIndexer indexer = new JsonStructuralIndexer();
+
+  private final int maxBufferSize;
+
+  protected byte[] buffer;
+  protected int bufferLength;
+  private int consumed;
+  private long bufferOffset;
+  private InputStream stream;
+  private boolean endOfInput;
+
+  private int[] records = new int[1024];
+  private int recordCount;
+  private int nextRecord;
+
+  private boolean inOuterList;
+  private boolean outerListEmpty;
+  private boolean outerListClosed;
+  private boolean expectSeparator;
+
+  /**
+   * The tape entry currently being processed, used to report the location of errors.
+   */
+  protected int currentEntry = -1;
+
+  /**
+   * @param maxRecordSize size in bytes up to which the buffer may grow for records that do not fit in it
+   */
+  protected TapeJsonProcessor(int maxRecordSize) {
+    this(INITIAL_BUFFER_SIZE, maxRecordSize);
+  }
+
+  protected TapeJsonProcessor(int bufferSize, int maxRecordSize) {
+    this.buffer = new byte[bufferSize];
+    this.maxBufferSize = Math.max(bufferSize, maxRecordSize);
+  }
+
+  @Override
+  public void setSource(InputStream is) throws IOException {
+    this.stream = is;
+    this.endOfInput = false;
+    this.bufferLength = 0;
+    this.consumed = 0;
+    this.bufferOffset = 0;
+    this.recordCount = 0;
+    this.nextRecord = 0;
+    this.inOuterList = false;
+    this.outerListEmpty = false;
+    this.outerListClosed = false;
+    this.expectSeparator = false;
+    tape.reset();
+  }
+
+  @Override
+  public void setSource(JsonNode node) {
+    try {
+      setSource(MAPPER.writeValueAsBytes(node));
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+        .message("Failure while serializing embedded JSON content")
+        .build(logger);
+    }
+  }
+
+  public void setSource(byte[] bytes) throws IOException {
+    setSource(new ByteArrayInputStream(bytes));
+  }
+
+  public void setSource(String data) throws IOException {
+    setSource(data.getBytes(Charsets.UTF_8));
+  }
+
+  /**
+   * Move to the next top level record.
+   *
+   * @return the tape index of the record's {@link JsonTape#START_OBJECT} entry, or -1 at the end of the input
+   */
+  protected int nextRecord() throws IOException {
+    while (nextRecord == recordCount) {
+      if (!fill()) {
+        return -1;
+      }
+      tapeBuffer();
+    }
+    currentEntry = records[nextRecord];
+    return records[nextRecord++];
+  }
+
+  /**
+   * Compact the unconsumed tail of the buffer to its start and read more input after it.
+   *
+   * @return false if there is no more input.
+   */
+  private boolean fill() throws IOException {
+    if (endOfInput) {
+      if (hasContent(consumed, bufferLength) || inOuterList) {
+        throw new JsonParseException(null, String.format("Unexpected end of input at byte offset %d",
+            bufferOffset + bufferLength), new JsonLocation(null, bufferOffset + bufferLength, -1, -1));
+      }
+      return false;
+    }
+
+    final int tail = bufferLength - consumed;
+    if (tail == buffer.length) {
+      // a single record does not fit in the buffer.
+      if (buffer.length >= maxBufferSize) {
+        throw UserException.unsupportedError()
+          .message("JSON record at byte offset %d exceeds the size limit of %d bytes.", bufferOffset + consumed, maxBufferSize)
+          .addContext("limit", maxBufferSize)
+          .build(logger);
+      }
+      buffer = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, maxBufferSize));
+    } else {
+      System.arraycopy(buffer, consumed, buffer, 0, tail);
+    }
+    bufferOffset += consumed;
+    bufferLength = tail;
+    consumed = 0;
+
+    while (bufferLength < buffer.length) {
+      final int read = stream.read(buffer, bufferLength, buffer.length - bufferLength);
+      if (read < 0) {
+        endOfInput = true;
+        break;
+      }
+      bufferLength += read;
+    }
+    return true;
+  }
+
+  /**
+   * Run both stages over the current buffer, appending every complete record to the tape.
+   */
+  private void tapeBuffer() throws IOException {
+    tape.reset();
+    currentEntry = -1;
+    recordCount = 0;
+    nextRecord = 0;
+
+    final int count = indexer.index(buffer, bufferLength);
+    final int[] positions = indexer.getPositions();
+    int i = 0;
+    while (i < count) {
+      final int offset = positions[i];
+      final byte c = buffer[offset];
+
+      if (outerListClosed) {
+        throw illegalStructure("Dremio attempted to unwrap a toplevel list in your document.  However, it appears "
+          + "that there is trailing content after this top level list.  Dremio only supports querying a set of "
+          + "distinct maps or a single json array with multiple inner maps.");
+      }
+
+      if (inOuterList && expectSeparator) {
+        if (c == ',') {
+          expectSeparator = false;
+        } else if (c == ']') {
+          inOuterList = false;
+          outerListClosed = true;
+        } else {
+          throw JsonTape.unexpected(c, "',' or ']'", bufferOffset + offset);
+        }
+        consumed = offset + 1;
+        i++;
+        continue;
+      }
+
+      if (inOuterList && outerListEmpty && c == ']') {
+        // an empty toplevel list holds no record
+        inOuterList = false;
+        outerListClosed = true;
+        consumed = offset + 1;
+        i++;
+        continue;
+      }
+
+      if (c == '[' && !inOuterList && !outerListClosed) {
+        if (i + 1 < count && buffer[positions[i + 1]] != '{' && buffer[positions[i + 1]] != ']') {
+          throw illegalStructure("The top level of your document must either be a single array of maps or a set "
+            + "of white space delimited maps.");
+        }
+        inOuterList = true;
+        outerListEmpty = true;
+        consumed = offset + 1;
+        i++;
+        continue;
+      }
+
+      if (c != '{') {
+        throw illegalStructure("Failure while parsing JSON.  Found character '" + (char) c + "' at byte offset "
+          + (bufferOffset + offset) + ".  Dremio currently only supports parsing json strings that contain either "
+          + "lists or maps.  The root object cannot be a scalar.");
+      }
+
+      final int start = tape.size();
+      final int next = tape.append(buffer, positions, i, count, bufferOffset);
+      if (next < 0) {
+        break;
+      }
+      addRecord(start);
+      outerListEmpty = false;
+      consumed = positions[next - 1] + 1;
+      expectSeparator = inOuterList;
+      i = next;
+    }
+
+    if (i == count && !indexer.isUnterminatedString()) {
+      // only white space remains after the last structural character.
+      consumed = bufferLength;
+    }
+  }
+
+  private void addRecord(int tapeIndex) {
+    if (recordCount == records.length) {
+      records = Arrays.copyOf(records, recordCount * 2);
+    }
+    records[recordCount++] = tapeIndex;
+  }
+
+  private boolean hasContent(int from, int to) {
+    for (int i = from; i < to; i++) {
+      switch (buffer[i]) {
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          break;
+        default:
+          return true;
+      }
+    }
+    return false;
+  }
+
+  private UserException illegalStructure(String message) {
+    return getExceptionWithContext(UserException.dataReadError(), null, "%s", message).build(logger);
+  }
+
+  /**
+   * Absolute offset in the input of the given tape entry.
+   */
+  protected long getInputOffset(int tapeIndex) {
+    return bufferOffset + tape.getOffset(tapeIndex);
+  }
+
+  @Override
+  public UserException.Builder getExceptionWithContext(UserException.Builder exceptionBuilder,
+                                                       String field,
+                                                       String msg,
+                                                       Object... args) {
+    if (msg != null) {
+      exceptionBuilder.message(msg, args);
+    }
+    if (field != null) {
+      exceptionBuilder.pushContext("Field ", field);
+    }
+    if (currentEntry >= 0 && currentEntry < tape.size()) {
+      exceptionBuilder.pushContext("Byte offset ", getInputOffset(currentEntry));
+    }
+    return exceptionBuilder;
+  }
+
+  @Override
+  public UserException.Builder getExceptionWithContext(Throwable e,
+                                                       String field,
+                                                       String msg,
+                                                       Object... args) {
+    return getExceptionWithContext(UserException.dataReadError(e), field, msg, args);
+  }
+
+  @Override
+  public void resetDataSizeCounter() {
+    // no-op
+  }
+
+  @Override
+  public long getDataSizeCounter() {
+    return 0;
+  }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.storage.common.type.HiveDecimal;
+import org.apache.orc.storage.ql.exec.vector.BytesColumnVector;
+import org.apache.orc.storage.ql.exec.vector.ColumnVector;
+import org.apache.orc.storage.ql.exec.vector.DecimalColumnVector;
+import org.apache.orc.storage.ql.exec.vector.DoubleColumnVector;
+import org.apache.orc.storage.ql.exec.vector.LongColumnVector;
+import org.apache.orc.storage.ql.exec.vector.TimestampColumnVector;
+
+import com.dremio.common.exceptions.FieldSizeLimitExceptionHelper;
+import com.dremio.common.expression.CompleteType;
+
+/**
+ * Copiers from ORC {@link ColumnVector}s to Arrow vectors. Runs without nulls, which is the common case, are written
+ * directly into the data and validity buffers of fixed width vectors.
+ */
+final class OrcCopiers {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(OrcCopiers.class);
+
+  private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1L);
+
+  private OrcCopiers() {
+  }
+
+  /**
+   * Copies values from an ORC column vector into an Arrow vector.
+   */
+  interface OrcCopier {
+    /**
+     * Copy {@code count} values starting at {@code inputIdx} of the ORC vector to the Arrow vector, starting at
+     * {@code outputIdx}.
+     */
+    void copy(int inputIdx, int count, int outputIdx);
+  }
+
+  /**
+   * @return the type values of the given ORC type are read as, or null if the type is not supported
+   */
+  static CompleteType getType(TypeDescription type) {
+    switch (type.getCategory()) {
+      case BOOLEAN:
+        return CompleteType.BIT;
+      case BYTE:
+      case SHORT:
+      case INT:
+        return CompleteType.INT;
+      case LONG:
+        return CompleteType.BIGINT;
+      case FLOAT:
+        return CompleteType.FLOAT;
+      case DOUBLE:
+        return CompleteType.DOUBLE;
+      case STRING:
+      case VARCHAR:
+      case CHAR:
+        return CompleteType.VARCHAR;
+      case BINARY:
+        return CompleteType.VARBINARY;
+      case DATE:
+        return CompleteType.DATE;
+      case TIMESTAMP:
+        return CompleteType.TIMESTAMP;
+      case DECIMAL:
+        return CompleteType.fromDecimalPrecisionScale(type.getPrecision(), type.getScale());
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Creates the copier for a column of the given ORC type, whose Arrow type is given by {@link #getType}.
+   */
+  static OrcCopier createCopier(TypeDescription type, ColumnVector input, ValueVector output, int maxFieldSize) {
+    switch (type.getCategory()) {
+      case BOOLEAN:
+        return new BitCopier((LongColumnVector) input, (BitVector) output);
+      case BYTE:
+      case SHORT:
+      case INT:
+        return new IntCopier((LongColumnVector) input, (IntVector) output);
+      case LONG:
+        return new BigIntCopier((LongColumnVector) input, (BigIntVector) output);
+      case FLOAT:
+        return new Float4Copier((DoubleColumnVector) input, (Float4Vector) output);
+      case DOUBLE:
+        return new Float8Copier((DoubleColumnVector) input, (Float8Vector) output);
+      case STRING:
+      case VARCHAR:
+      case CHAR:
+      case BINARY:
+        return new BytesCopier((BytesColumnVector) input, (BaseVariableWidthVector) output, maxFieldSize);
+      case DATE:
+        return new DateMilliCopier((LongColumnVector) input, (DateMilliVector) output);
+      case TIMESTAMP:
+        return new TimeStampMilliCopier((TimestampColumnVector) input, (TimeStampMilliVector) output);
+      case DECIMAL:
+        return new DecimalCopier((DecimalColumnVector) input, (DecimalVector) output);
+      default:
+        throw new UnsupportedOperationException("Unsupported ORC type " + type);
+    }
+  }
+
+  /**
+   * Handles repeating and null values, leaving only the copy of a single value, or of a run of non null values, to
+   * the implementations.
+   */
+  private abstract static class BaseCopier<I extends ColumnVector, O extends ValueVector> implements OrcCopier {
+    protected final I input;
+    protected final O output;
+
+    BaseCopier(I input, O output) {
+      this.input = input;
+      this.output = output;
+    }
+
+    @Override
+    public final void copy(int inputIdx, int count, int outputIdx) {
+      while (outputIdx + count > output.getValueCapacity()) {
+        output.reAlloc();
+      }
+      if (input.isRepeating) {
+        if (!input.noNulls && input.isNull[0]) {
+          return; // If all repeating values are null, then there is no need to write anything to vector
+        }
+        for (int i = 0; i < count; i++) {
+          copyValue(0, outputIdx + i);
+        }
+      } else if (input.noNulls) {
+        copyNonNull(inputIdx, count, outputIdx);
+      } else {
+        final boolean[] isNull = input.isNull;
+        for (int i = 0; i < count; i++) {
+          if (!isNull[inputIdx + i]) {
+            copyValue(inputIdx + i, outputIdx + i);
+          }
+        }
+      }
+    }
+
+    protected void copyNonNull(int inputIdx, int count, int outputIdx) {
+      for (int i = 0; i < count; i++) {
+        copyValue(inputIdx + i, outputIdx + i);
+      }
+    }
+
+    protected abstract void copyValue(int inputIdx, int outputIdx);
+  }
+
+  /**
+   * Fixed width copiers write runs of non null values straight into the vector buffers.
+   */
+  private abstract static class FixedWidthCopier<I extends ColumnVector, O extends BaseFixedWidthVector> extends BaseCopier<I, O> {
+    FixedWidthCopier(I input, O output) {
+      super(input, output);
+    }
+
+    @Override
+    protected final void copyNonNull(int inputIdx, int count, int outputIdx) {
+      final ArrowBuf data = output.getDataBuffer();
+      final ArrowBuf validity = output.getValidityBuffer();
+      for (int i = 0; i < count; i++) {
+        write(data, outputIdx + i, inputIdx + i);
+        BitVectorHelper.setValidityBitToOne(validity, outputIdx + i);
+      }
+    }
+
+    protected abstract void write(ArrowBuf data, int outputIdx, int inputIdx);
+  }
+
+  private static final class BitCopier extends BaseCopier<LongColumnVector, BitVector> {
+    BitCopier(LongColumnVector input, BitVector output) {
+      super(input, output);
+    }
+
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      output.set(outputIdx, input.vector[inputIdx] == 0 ? 0 : 1);
+    }
+  }
+
+  private static final class IntCopier extends FixedWidthCopier<LongColumnVector, IntVector> {
+    IntCopier(LongColumnVector input, IntVector output) {
+      super(input, output);
+    }
+
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      output.set(outputIdx, (int) input.vector[inputIdx]);
+    }
+
+    @Override
+    protected void write(ArrowBuf data, int outputIdx, int inputIdx) {
+      data.setInt((long) outputIdx * IntVector.TYPE_WIDTH, (int) input.vector[inputIdx]);
+    }
+  }
+
+  private static final class BigIntCopier extends FixedWidthCopier<LongColumnVector, BigIntVector> {
+    BigIntCopier(LongColumnVector input, BigIntVector output) {
+      super(input, output);
+    }
+
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      output.set(outputIdx, input.vector[inputIdx]);
+    }
+
+    @Override
+    protected void write(ArrowBuf data, int outputIdx, int inputIdx) {
+      data.setLong((long) outputIdx * BigIntVector.TYPE_WIDTH, input.vector[inputIdx]);
+    }
+  }
+
+  private static final class Float4Copier extends FixedWidthCopier<DoubleColumnVector, Float4Vector> {
+    Float4Copier(DoubleColumnVector input, Float4Vector output) {
+      super(input, output);
+    }
+
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      output.set(outputIdx, (float) input.vector[inputIdx]);
+    }
+
+    @Override
+    protected void write(ArrowBuf data, int outputIdx, int inputIdx) {
+      data.setFloat((long) outputIdx * Float4Vector.TYPE_WIDTH, (float) input.vector[inputIdx]);
+    }
+  }
+
+  private static final class Float8Copier extends FixedWidthCopier<DoubleColumnVector, Float8Vector> {
+    Float8Copier(DoubleColumnVector input, Float8Vector output) {
+      super(input, output);
+    }
+
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      output.set(outputIdx, input.vector[inputIdx]);
+    }
+
+    @Override
+    protected void write(ArrowBuf data, int outputIdx, int inputIdx) {
+      data.setDouble((long) outputIdx * Float8Vector.TYPE_WIDTH, input.vector[inputIdx]);
+    }
+  }
+
+  private static final class DateMilliCopier extends FixedWidthCopier<LongColumnVector, DateMilliVector> {
+    DateMilliCopier(LongColumnVector input, DateMilliVector output) {
+      super(input, output);
+    }
+
+    // Date is given as number of days, we store as millis
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      output.set(outputIdx, input.vector[inputIdx] * MILLIS_PER_DAY);
+    }
+
+    @Override
+    protected void write(ArrowBuf data, int outputIdx, int inputIdx) {
+      data.setLong((long) outputIdx * DateMilliVector.TYPE_WIDTH, input.vector[inputIdx] * MILLIS_PER_DAY);
+    }
+  }
+
+  private static final class TimeStampMilliCopier extends FixedWidthCopier<TimestampColumnVector, TimeStampMilliVector> {
+    TimeStampMilliCopier(TimestampColumnVector input, TimeStampMilliVector output) {
+      super(input, output);
+    }
+
+    // Input is in milliseconds since epoch and output is expected in same format
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      output.set(outputIdx, input.time[inputIdx]);
+    }
+
+    @Override
+    protected void write(ArrowBuf data, int outputIdx, int inputIdx) {
+      data.setLong((long) outputIdx * TimeStampMilliVector.TYPE_WIDTH, input.time[inputIdx]);
+    }
+  }
+
+  private static final class DecimalCopier extends BaseCopier<DecimalColumnVector, DecimalVector> {
+    private final int precision;
+    private final int scale;
+
+    DecimalCopier(DecimalColumnVector input, DecimalVector output) {
+      super(input, output);
+      this.precision = ((ArrowType.Decimal) output.getField().getType()).getPrecision();
+      this.scale = output.getScale();
+    }
+
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      // values that don't fit the column precision and scale are read as null
+      final HiveDecimal value = input.vector[inputIdx].getHiveDecimal(precision, scale);
+      if (value != null) {
+        output.set(outputIdx, value.bigDecimalValue().setScale(scale));
+      }
+    }
+  }
+
+  private static final class BytesCopier extends BaseCopier<BytesColumnVector, BaseVariableWidthVector> {
+    private final int maxFieldSize;
+
+    BytesCopier(BytesColumnVector input, BaseVariableWidthVector output, int maxFieldSize) {
+      super(input, output);
+      this.maxFieldSize = maxFieldSize;
+    }
+
+    @Override
+    protected void copyValue(int inputIdx, int outputIdx) {
+      final int length = input.length[inputIdx];
+      FieldSizeLimitExceptionHelper.checkSizeLimit(length, maxFieldSize, logger);
+      output.setSafe(outputIdx, input.vector[inputIdx], input.start[inputIdx], length);
+    }
+  }
+}
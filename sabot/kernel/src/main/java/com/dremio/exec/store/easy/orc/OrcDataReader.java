@@ -0,0 +1,420 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.orc.CompressionCodec;
+import org.apache.orc.CompressionKind;
+import org.apache.orc.DataReader;
+import org.apache.orc.OrcFile;
+import org.apache.orc.OrcProto;
+import org.apache.orc.StripeInformation;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.impl.BufferChunk;
+import org.apache.orc.impl.DirectDecompressionCodec;
+import org.apache.orc.impl.InStream;
+import org.apache.orc.impl.OrcCodecPool;
+import org.apache.orc.impl.OrcIndex;
+import org.apache.orc.impl.OrcTail;
+import org.apache.orc.impl.ReaderImpl;
+import org.apache.orc.storage.common.io.DiskRange;
+import org.apache.orc.storage.common.io.DiskRangeList;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+import io.netty.buffer.NettyArrowBuf;
+
+/**
+ * {@link DataReader} that reads ORC stripes through an {@link AsyncByteReader} when the filesystem supports it, or
+ * through positional reads otherwise. Stripe data lands in buffers of the operator allocator so it is accounted
+ * for, and is handed over to the ORC decoders without going through the Hadoop filesystem.
+ *
+ * Adapted from RecordReaderUtils.DefaultDataReader of the ORC project.
+ */
+class OrcDataReader implements DataReader, Cloneable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(OrcDataReader.class);
+
+  // same guess the ORC reader uses when reading the file tail
+  private static final int TAIL_SIZE_GUESS = 16 * 1024;
+
+  private final BufferAllocator allocator;
+  private final AsyncByteReader asyncReader;
+  private final FSInputStream input;
+  private final CompressionKind compressionKind;
+  private final int bufferSize;
+  private final int typeCount;
+  private CompressionCodec codec;
+  private final boolean useDirectMemory;
+  private Map<ByteBuffer, ArrowBuf> buffers = new IdentityHashMap<>();
+
+  /**
+   * Creates a reader over the file bytes. The caller remains the owner of the byte source and closes it after this
+   * reader, and all its clones, are closed.
+   */
+  OrcDataReader(BufferAllocator allocator, AsyncByteReader asyncReader, FSInputStream input,
+                CompressionKind compressionKind, int bufferSize, int typeCount) {
+    Preconditions.checkArgument(asyncReader != null || input != null, "a byte source is required");
+    this.allocator = allocator;
+    this.asyncReader = asyncReader;
+    this.input = input;
+    this.compressionKind = compressionKind;
+    this.bufferSize = bufferSize;
+    this.typeCount = typeCount;
+    this.codec = OrcCodecPool.getCodec(compressionKind);
+    this.useDirectMemory = directReadAllowed(codec);
+  }
+
+  /**
+   * Reads the tail of the file, which holds the file metadata, footer and postscript.
+   */
+  static OrcTail readTail(BufferAllocator allocator, AsyncByteReader asyncReader, FSInputStream input,
+                          long fileLength, long modificationTime) throws IOException {
+    final int readSize = (int) Math.min(fileLength, TAIL_SIZE_GUESS);
+    ByteBuffer buffer = readHeap(allocator, asyncReader, input, fileLength - readSize, readSize);
+    final int psLen = buffer.get(readSize - 1) & 0xff;
+    final int psOffset = readSize - 1 - psLen;
+    if (psOffset < 0) {
+      throw new IOException("Malformed ORC file, invalid postscript length " + psLen);
+    }
+    final OrcProto.PostScript ps = OrcProto.PostScript.parseFrom(
+      Arrays.copyOfRange(buffer.array(), buffer.arrayOffset() + psOffset, buffer.arrayOffset() + psOffset + psLen));
+    final int tailSize = (int) (1 + psLen + ps.getFooterLength() + ps.getMetadataLength());
+    if (tailSize > readSize) {
+      buffer = readHeap(allocator, asyncReader, input, fileLength - tailSize, tailSize);
+    } else {
+      buffer.position(readSize - tailSize);
+      buffer = buffer.slice();
+    }
+    return ReaderImpl.extractFileTail(buffer, fileLength, modificationTime);
+  }
+
+  private static ByteBuffer readHeap(BufferAllocator allocator, AsyncByteReader asyncReader, FSInputStream input,
+                                     long offset, int length) throws IOException {
+    final byte[] bytes = new byte[length];
+    try (ArrowBuf buf = allocator.buffer(length)) {
+      readFully(asyncReader, input, offset, buf, length);
+      buf.getBytes(0, bytes, 0, length);
+    }
+    return ByteBuffer.wrap(bytes);
+  }
+
+  private static void readFully(AsyncByteReader asyncReader, FSInputStream input, long offset, ArrowBuf buf,
+                                int length) throws IOException {
+    if (asyncReader != null) {
+      try {
+        asyncReader.readFully(offset, NettyArrowBuf.unwrapBuffer(buf), 0, length).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while reading ORC file", e);
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), IOException.class);
+        throw new IOException(e.getCause());
+      }
+      return;
+    }
+
+    final ByteBuffer dst = buf.nioBuffer(0, length);
+    long position = offset;
+    while (dst.hasRemaining()) {
+      final int read = input.read(position, dst);
+      if (read < 0) {
+        throw new IOException(String.format("Reached end of file while reading %d bytes at offset %d", length, offset));
+      }
+      position += read;
+    }
+  }
+
+  /*
+   * check if file read can be done using direct memory or not
+   */
+  private static boolean directReadAllowed(CompressionCodec codec) {
+    return codec == null || (codec instanceof DirectDecompressionCodec && ((DirectDecompressionCodec) codec).isAvailable());
+  }
+
+  private static List<DiskRange> singleton(DiskRange item) {
+    final List<DiskRange> result = new ArrayList<>(1);
+    result.add(item);
+    return result;
+  }
+
+  @Override
+  public void open() {
+    // the byte source is opened by the owner of this reader
+  }
+
+  @Override
+  public OrcIndex readRowIndex(StripeInformation stripe,
+                               TypeDescription fileSchema,
+                               OrcProto.StripeFooter footer,
+                               boolean ignoreNonUtf8BloomFilter,
+                               boolean[] included,
+                               OrcProto.RowIndex[] indexes,
+                               boolean[] sargColumns,
+                               OrcFile.WriterVersion version,
+                               OrcProto.Stream.Kind[] bloomFilterKinds,
+                               OrcProto.BloomFilterIndex[] bloomFilterIndices) throws IOException {
+    if (footer == null) {
+      footer = readStripeFooter(stripe);
+    }
+    if (indexes == null) {
+      indexes = new OrcProto.RowIndex[typeCount];
+    }
+    if (bloomFilterKinds == null) {
+      bloomFilterKinds = new OrcProto.Stream.Kind[typeCount];
+    }
+    if (bloomFilterIndices == null) {
+      bloomFilterIndices = new OrcProto.BloomFilterIndex[typeCount];
+    }
+    final DiskRangeList ranges = readFileData(
+      planIndexReading(fileSchema, footer, ignoreNonUtf8BloomFilter, included, sargColumns, version, bloomFilterKinds),
+      stripe.getOffset(), false);
+    try {
+      long offset = 0;
+      DiskRangeList range = ranges;
+      for (OrcProto.Stream stream : footer.getStreamsList()) {
+        // advance to find the next range
+        while (range != null && range.getEnd() <= offset) {
+          range = range.next;
+        }
+        // no more ranges, so we are done
+        if (range == null) {
+          break;
+        }
+        final int column = stream.getColumn();
+        if (stream.hasKind() && range.getOffset() <= offset) {
+          switch (stream.getKind()) {
+            case ROW_INDEX:
+              if (included == null || included[column]) {
+                indexes[column] = OrcProto.RowIndex.parseFrom(
+                  InStream.createCodedInputStream("index", singleton(slice(range, offset, stream.getLength())),
+                    stream.getLength(), codec, bufferSize));
+              }
+              break;
+            case BLOOM_FILTER:
+            case BLOOM_FILTER_UTF8:
+              if (sargColumns != null && sargColumns[column]) {
+                bloomFilterIndices[column] = OrcProto.BloomFilterIndex.parseFrom(
+                  InStream.createCodedInputStream("bloom_filter", singleton(slice(range, offset, stream.getLength())),
+                    stream.getLength(), codec, bufferSize));
+              }
+              break;
+            default:
+              break;
+          }
+        }
+        offset += stream.getLength();
+      }
+    } finally {
+      // indexes are fully parsed, their buffers are not needed anymore
+      for (DiskRangeList range = ranges; range != null; range = range.next) {
+        if (range.hasData()) {
+          releaseBuffer(range.getData());
+        }
+      }
+    }
+    return new OrcIndex(indexes, bloomFilterKinds, bloomFilterIndices);
+  }
+
+  private static BufferChunk slice(DiskRangeList range, long offset, long length) {
+    final ByteBuffer bb = range.getData().duplicate();
+    bb.position((int) (bb.position() + offset - range.getOffset()));
+    bb.limit((int) (bb.position() + length));
+    return new BufferChunk(bb, 0);
+  }
+
+  /**
+   * Plans the list of disk ranges that the given stripe needs to read the indexes, picking the UTF-8 bloom filters
+   * when available. All of the positions are relative to the start of the stripe.
+   */
+  private static DiskRangeList planIndexReading(TypeDescription fileSchema,
+                                                OrcProto.StripeFooter footer,
+                                                boolean ignoreNonUtf8BloomFilter,
+                                                boolean[] fileIncluded,
+                                                boolean[] sargColumns,
+                                                OrcFile.WriterVersion version,
+                                                OrcProto.Stream.Kind[] bloomFilterKinds) {
+    final DiskRangeList.CreateHelper result = new DiskRangeList.CreateHelper();
+    final List<OrcProto.Stream> streams = footer.getStreamsList();
+    if (sargColumns != null) {
+      for (OrcProto.Stream stream : streams) {
+        if (stream.hasKind() && stream.hasColumn()) {
+          final int column = stream.getColumn();
+          if (sargColumns[column]) {
+            switch (stream.getKind()) {
+              case BLOOM_FILTER:
+                if (bloomFilterKinds[column] == null &&
+                  !(ignoreNonUtf8BloomFilter && hadBadBloomFilters(fileSchema.findSubtype(column).getCategory(), version))) {
+                  bloomFilterKinds[column] = OrcProto.Stream.Kind.BLOOM_FILTER;
+                }
+                break;
+              case BLOOM_FILTER_UTF8:
+                bloomFilterKinds[column] = OrcProto.Stream.Kind.BLOOM_FILTER_UTF8;
+                break;
+              default:
+                break;
+            }
+          }
+        }
+      }
+    }
+    long offset = 0;
+    for (OrcProto.Stream stream : streams) {
+      if (stream.hasKind() && stream.hasColumn()) {
+        final int column = stream.getColumn();
+        if (fileIncluded == null || fileIncluded[column]) {
+          boolean needStream = false;
+          switch (stream.getKind()) {
+            case ROW_INDEX:
+              needStream = true;
+              break;
+            case BLOOM_FILTER:
+              needStream = bloomFilterKinds[column] == OrcProto.Stream.Kind.BLOOM_FILTER;
+              break;
+            case BLOOM_FILTER_UTF8:
+              needStream = bloomFilterKinds[column] == OrcProto.Stream.Kind.BLOOM_FILTER_UTF8;
+              break;
+            default:
+              break;
+          }
+          if (needStream) {
+            result.addOrMerge(offset, offset + stream.getLength(), true, false);
+          }
+        }
+      }
+      offset += stream.getLength();
+    }
+    return result.get();
+  }
+
+  private static boolean hadBadBloomFilters(TypeDescription.Category category, OrcFile.WriterVersion version) {
+    switch (category) {
+      case STRING:
+      case CHAR:
+      case VARCHAR:
+        return !version.includes(OrcFile.WriterVersion.HIVE_12055);
+      case DECIMAL:
+        return true;
+      case TIMESTAMP:
+        return !version.includes(OrcFile.WriterVersion.ORC_135);
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public OrcProto.StripeFooter readStripeFooter(StripeInformation stripe) throws IOException {
+    final long offset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
+    final int tailLength = (int) stripe.getFooterLength();
+    final ByteBuffer tailBuf = readHeap(allocator, asyncReader, input, offset, tailLength);
+    return OrcProto.StripeFooter.parseFrom(
+      InStream.createCodedInputStream("footer", singleton(new BufferChunk(tailBuf, 0)), tailLength, codec, bufferSize));
+  }
+
+  @Override
+  public DiskRangeList readFileData(DiskRangeList range, long baseOffset, boolean doForceDirect) throws IOException {
+    if (range == null) {
+      return null;
+    }
+    DiskRangeList prev = range.prev;
+    if (prev == null) {
+      prev = new DiskRangeList.MutateHelper(range);
+    }
+    while (range != null) {
+      if (range.hasData()) {
+        range = range.next;
+        continue;
+      }
+      final int length = (int) (range.getEnd() - range.getOffset());
+      final ByteBuffer data;
+      if (useDirectMemory) {
+        final ArrowBuf buf = allocator.buffer(length);
+        try {
+          readFully(asyncReader, input, baseOffset + range.getOffset(), buf, length);
+        } catch (IOException | RuntimeException e) {
+          buf.close();
+          throw e;
+        }
+        data = buf.nioBuffer(0, length);
+        buffers.put(data, buf);
+      } else {
+        // the codec can only decompress heap buffers
+        data = readHeap(allocator, asyncReader, input, baseOffset + range.getOffset(), length);
+      }
+      range = range.replaceSelfWith(new BufferChunk(data, range.getOffset()));
+      range = range.next;
+    }
+    return prev.next;
+  }
+
+  @Override
+  public boolean isTrackingDiskRanges() {
+    return useDirectMemory;
+  }
+
+  @Override
+  public void releaseBuffer(ByteBuffer buffer) {
+    final ArrowBuf buf = buffers.remove(buffer);
+    if (buf != null) {
+      buf.close();
+    }
+  }
+
+  @Override
+  public DataReader clone() {
+    try {
+      final OrcDataReader clone = (OrcDataReader) super.clone();
+      // Make sure we don't share the same codec or buffers between two readers.
+      clone.codec = OrcCodecPool.getCodec(compressionKind);
+      clone.buffers = new IdentityHashMap<>();
+      return clone;
+    } catch (CloneNotSupportedException e) {
+      throw new UnsupportedOperationException("uncloneable", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    for (ArrowBuf buf : buffers.values()) {
+      buf.close();
+    }
+    if (!buffers.isEmpty()) {
+      logger.debug("Released {} ORC buffers not returned by the reader", buffers.size());
+    }
+    buffers.clear();
+    if (codec != null) {
+      OrcCodecPool.returnCodec(compressionKind, codec);
+      codec = null;
+    }
+  }
+
+  @Override
+  public CompressionCodec getCompressionCodec() {
+    return codec;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.orc.storage.ql.io.sarg.SearchArgument;
+
+import com.dremio.exec.catalog.conf.SourceType;
+import com.dremio.exec.planner.logical.FilterRel;
+import com.dremio.exec.planner.logical.RelOptHelper;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.dfs.FilesystemScanDrel;
+import com.dremio.service.namespace.file.proto.FileConfig;
+import com.dremio.service.namespace.file.proto.FileType;
+
+/**
+ * Pushes the filter into {@link OrcRecordReader} as a search argument. We still retain the filter in rel tree as the
+ * reader only uses it to skip stripes and row groups based on ORC indexes and bloom filters.
+ */
+public class OrcFilterPushDownRule extends RelOptRule {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(OrcFilterPushDownRule.class);
+
+  private final SourceType pluginType;
+
+  public OrcFilterPushDownRule(SourceType pluginType) {
+    super(RelOptHelper.some(FilterRel.class, RelOptHelper.any(FilesystemScanDrel.class)),
+      pluginType.value() + "OrcFilterPushDownRule");
+    this.pluginType = pluginType;
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    final FilesystemScanDrel scan = call.rel(1);
+    if (scan.getScanFilter() != null || !pluginType.equals(scan.getPluginId().getType())) {
+      return false;
+    }
+    final FileConfig formatSettings = scan.getTableMetadata().getFormatSettings();
+    return formatSettings != null && formatSettings.getType() == FileType.ORC;
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    final Filter filter = call.rel(0);
+    final FilesystemScanDrel scan = call.rel(1);
+    final RexBuilder rexBuilder = filter.getCluster().getRexBuilder();
+    final RexNode originalFilter = filter.getCondition();
+
+    try {
+      final OrcFindRelevantFilters filterFinder = new OrcFindRelevantFilters(rexBuilder, scan.getRowType());
+      RexNode filterThatCanBePushed = originalFilter.accept(filterFinder);
+      if (filterThatCanBePushed == null) {
+        return;
+      }
+
+      // Convert the filter expression that is just an input ref on bool column into a function call.
+      // SearchArgumentGenerator can only work on filter expressions where root is a function call.
+      filterThatCanBePushed =
+          OrcFindRelevantFilters.convertBooleanInputRefToFunctionCall(rexBuilder, filterThatCanBePushed);
+
+      final List<String> columnNames = scan.getRowType().getFieldNames();
+      final BatchSchema tableSchema = scan.getTableMetadata().getSchema();
+      final List<Field> fields = new ArrayList<>(columnNames.size());
+      for (String columnName : columnNames) {
+        final Field field = tableSchema.findFieldIgnoreCase(columnName).orElse(null);
+        if (field == null) {
+          // partition or other implicit columns, let the generator use the literal types
+          fields.clear();
+          break;
+        }
+        fields.add(field);
+      }
+
+      final OrcSearchArgumentGenerator sargGenerator = new OrcSearchArgumentGenerator(columnNames, fields);
+      filterThatCanBePushed.accept(sargGenerator);
+      final SearchArgument sarg = sargGenerator.get();
+
+      final RelNode newScan = scan.applyFilter(new OrcScanFilter(sarg, filterFinder.getColumns()));
+
+      // We still need the original filter in Filter operator as the ORC filtering is based only on the stripe and
+      // row group statistics and we could end up with values out of ORC reader that don't satisfy the filter.
+      call.transformTo(filter.copy(filter.getTraitSet(), newScan, originalFilter));
+    } catch (Exception e) {
+      logger.warn("Failed to push filter into ORC reader", e);
+      // ignore the exception and continue with planning
+    }
+  }
+}
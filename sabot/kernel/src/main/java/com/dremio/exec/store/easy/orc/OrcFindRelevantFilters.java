@@ -13,9 +13,11 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.dremio.exec.store.hive.orc;
+package com.dremio.exec.store.easy.orc;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rex.RexBuilder;
@@ -40,14 +42,15 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 /**
- * Go through the predicate expression and find the expression tree/sub tree that can be pushed into the ORC reader.
+ * Go through the predicate expression and find the expression tree/sub tree that can be pushed into an ORC reader,
+ * either the {@link OrcRecordReader} or the ORC readers of the Hive plugins.
  */
-class ORCFindRelevantFilters extends RexVisitorImpl<RexNode> {
+public class OrcFindRelevantFilters extends RexVisitorImpl<RexNode> {
   private final RexBuilder rexBuilder;
   private final RelDataType incomingRowType;
-  private SchemaPath column;
+  private final Set<SchemaPath> columns = new LinkedHashSet<>();
 
-  ORCFindRelevantFilters(final RexBuilder rexBuilder, RelDataType incomingRowType) {
+  public OrcFindRelevantFilters(final RexBuilder rexBuilder, RelDataType incomingRowType) {
     super(true);
     this.rexBuilder = rexBuilder;
     this.incomingRowType = incomingRowType;
@@ -56,7 +59,7 @@ class ORCFindRelevantFilters extends RexVisitorImpl<RexNode> {
   @Override
   public RexNode visitInputRef(RexInputRef inputRef) {
     if (incomingRowType != null) {
-      column = new SchemaPath(incomingRowType.getFieldNames().get(inputRef.getIndex()));
+      columns.add(SchemaPath.getSimplePath(incomingRowType.getFieldNames().get(inputRef.getIndex())));
     }
     return rexBuilder.copy(inputRef);
   }
@@ -69,7 +72,8 @@ class ORCFindRelevantFilters extends RexVisitorImpl<RexNode> {
   @Override
   public RexNode visitLiteral(RexLiteral literal) {
     if (RexToExpr.isLiteralNull(literal)) {
-      return null; // TODO: ORC predicate doesn't support null??
+      // comparisons with null are never true, and null checks are pushed as IS [NOT] NULL
+      return null;
     }
 
     switch (literal.getType().getSqlTypeName()) {
@@ -215,7 +219,7 @@ class ORCFindRelevantFilters extends RexVisitorImpl<RexNode> {
     return input;
   }
 
-  public SchemaPath getColumn() {
-    return column;
+  public List<SchemaPath> getColumns() {
+    return ImmutableList.copyOf(columns);
   }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import java.util.List;
+
+import com.dremio.common.logical.FormatPluginConfig;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * {@link FormatPluginConfig} for ORC format files.
+ */
+@JsonTypeName("orc") @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+public class OrcFormatPluginConfig implements FormatPluginConfig {
+
+  private static final List<String> DEFAULT_EXTENSIONS = ImmutableList.of("orc");
+
+  /**
+   * @return List of default extensions of ORC format files.
+   */
+  @JsonIgnore
+  public List<String> getDefaultExtensions() {
+    return DEFAULT_EXTENSIONS;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o != null && getClass() == o.getClass();
+  }
+
+  @Override
+  public int hashCode() {
+    return OrcFormatPluginConfig.class.hashCode();
+  }
+}
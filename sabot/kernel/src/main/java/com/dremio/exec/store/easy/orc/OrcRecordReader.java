@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.impl.OrcTail;
+import org.apache.orc.storage.ql.exec.vector.VectorizedRowBatch;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.TypeHelper;
+import com.dremio.exec.store.AbstractRecordReader;
+import com.dremio.exec.store.easy.orc.OrcCopiers.OrcCopier;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.store.easy.proto.EasyProtobuf.EasyDatasetSplitXAttr;
+import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+
+/**
+ * {@link com.dremio.exec.store.RecordReader} for ORC files on filesystem sources. Stripes of the split are decoded by
+ * the ORC column readers into {@link VectorizedRowBatch}es, which are then copied into Arrow vectors column by column.
+ *
+ * Only top level columns of primitive types are read. Columns of complex types are skipped when all columns are
+ * selected, and fail the query when they are explicitly projected.
+ */
+public class OrcRecordReader extends AbstractRecordReader {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(OrcRecordReader.class);
+
+  private final FileSystem dfs;
+  private final Path path;
+  private final EasyDatasetSplitXAttr splitAttributes;
+  private final OrcScanFilter filter;
+
+  private AsyncByteReader asyncReader;
+  private FSInputStream input;
+  private OrcDataReader dataReader;
+  private org.apache.orc.RecordReader recordReader;
+  private VectorizedRowBatch rowBatch;
+  private List<ValueVector> vectors;
+  private List<OrcCopier> copiers;
+  // index in the current row batch of the first row not yet copied
+  private int batchOffset;
+
+  public OrcRecordReader(OperatorContext context, FileSystem dfs, EasyDatasetSplitXAttr splitAttributes,
+                         List<SchemaPath> columns, OrcScanFilter filter) {
+    super(context, columns);
+    this.dfs = dfs;
+    this.path = Path.of(splitAttributes.getPath());
+    this.splitAttributes = splitAttributes;
+    this.filter = filter;
+  }
+
+  @Override
+  public void setup(OutputMutator output) throws ExecutionSetupException {
+    try {
+      final FileAttributes attributes = dfs.getFileAttributes(path);
+      final long modificationTime = attributes.lastModifiedTime().toMillis();
+      if (dfs.supportsAsync()) {
+        asyncReader = dfs.getAsyncByteReader(AsyncByteReader.FileKey.of(path, Long.toString(modificationTime),
+          AsyncByteReader.FileKey.FileType.ORC));
+      } else {
+        input = dfs.open(path);
+      }
+
+      final OrcTail tail = OrcDataReader.readTail(context.getAllocator(), asyncReader, input, attributes.size(),
+        modificationTime);
+      final Configuration conf = new Configuration(false);
+      // the file is only read through the data reader, the hadoop filesystem is never used
+      final Reader reader = OrcFile.createReader(new org.apache.hadoop.fs.Path(path.toURI()),
+        OrcFile.readerOptions(conf)
+          .filesystem(org.apache.hadoop.fs.FileSystem.getLocal(conf))
+          .orcTail(tail)
+          .maxLength(attributes.size())
+          .useUTCTimestamp(true));
+
+      final TypeDescription schema = reader.getSchema();
+      final boolean[] include = new boolean[schema.getMaximumId() + 1];
+      include[0] = true;
+      final List<TypeDescription> projected = new ArrayList<>();
+      final List<Field> fields = new ArrayList<>();
+      final List<Integer> projectedIndexes = new ArrayList<>();
+      if (!isSkipQuery()) {
+        final List<String> fieldNames = schema.getFieldNames();
+        final List<TypeDescription> children = schema.getChildren();
+        for (int i = 0; i < fieldNames.size(); i++) {
+          final String name = fieldNames.get(i);
+          if (!isStarQuery() && !isProjected(name)) {
+            continue;
+          }
+          final TypeDescription type = children.get(i);
+          final CompleteType completeType = OrcCopiers.getType(type);
+          if (completeType == null) {
+            if (isStarQuery()) {
+              logger.debug("Skipping column {} of unsupported type {} in ORC file {}", name, type, path);
+              continue;
+            }
+            throw UserException.unsupportedError()
+              .message("Reading column %s of type %s from ORC files is not supported", name, type)
+              .addContext("file", path.toString())
+              .build(logger);
+          }
+          includeSubtree(include, type);
+          projected.add(type);
+          fields.add(completeType.toField(name));
+          projectedIndexes.add(i);
+        }
+      }
+
+      final Reader.Options options = reader.options()
+        .range(splitAttributes.getStart(), splitAttributes.getLength());
+      if (filter != null) {
+        // columns of the search argument must be read for the row group indexes to be evaluated
+        for (SchemaPath column : filter.getColumns()) {
+          final int index = findField(schema, column.getRootSegment().getPath());
+          if (index >= 0) {
+            includeSubtree(include, schema.getChildren().get(index));
+          }
+        }
+        options.searchArgument(filter.getSarg(), schema.getFieldNames().toArray(new String[0]));
+        context.getStats().setLongStat(Metric.FILTER_EXISTS, 1);
+      }
+      options.include(include);
+
+      dataReader = new OrcDataReader(context.getAllocator(), asyncReader, input, reader.getCompressionKind(),
+        reader.getCompressionSize(), schema.getMaximumId() + 1);
+      options.dataReader(dataReader);
+      recordReader = reader.rows(options);
+      rowBatch = schema.createRowBatch(numRowsPerBatch);
+      batchOffset = rowBatch.size;
+
+      final int maxFieldSize = Math.toIntExact(context.getOptions().getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
+      vectors = new ArrayList<>(fields.size());
+      copiers = new ArrayList<>(fields.size());
+      for (int i = 0; i < fields.size(); i++) {
+        final Field field = fields.get(i);
+        final ValueVector vector = output.addField(field, TypeHelper.getValueVectorClass(field));
+        vectors.add(vector);
+        copiers.add(OrcCopiers.createCopier(projected.get(i), rowBatch.cols[projectedIndexes.get(i)], vector, maxFieldSize));
+      }
+
+      // Store the number of vectorized columns for stats/to find whether vectorized ORC reader is used or not
+      context.getStats().setLongStat(Metric.NUM_VECTORIZED_COLUMNS, vectors.size());
+    } catch (IOException e) {
+      throw new ExecutionSetupException(String.format("Failure while setting up ORC reader for file %s", path), e);
+    }
+  }
+
+  private boolean isProjected(String name) {
+    for (SchemaPath column : getColumns()) {
+      if (column.getRootSegment().getPath().equalsIgnoreCase(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int findField(TypeDescription schema, String name) {
+    final List<String> fieldNames = schema.getFieldNames();
+    for (int i = 0; i < fieldNames.size(); i++) {
+      if (fieldNames.get(i).equalsIgnoreCase(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static void includeSubtree(boolean[] include, TypeDescription type) {
+    for (int id = type.getId(); id <= type.getMaximumId(); id++) {
+      include[id] = true;
+    }
+  }
+
+  @Override
+  protected boolean supportsSkipAllQuery() {
+    return true;
+  }
+
+  @Override
+  public int next() {
+    try {
+      int outputIdx = 0;
+
+      // Consume the left over records from previous iteration
+      if (batchOffset < rowBatch.size) {
+        final int toRead = Math.min(rowBatch.size - batchOffset, numRowsPerBatch);
+        copy(batchOffset, toRead, outputIdx);
+        outputIdx += toRead;
+        batchOffset += toRead;
+      }
+
+      while (outputIdx < numRowsPerBatch && recordReader.nextBatch(rowBatch)) {
+        final int toRead = Math.min(rowBatch.size, numRowsPerBatch - outputIdx);
+        copy(0, toRead, outputIdx);
+        outputIdx += toRead;
+        batchOffset = toRead;
+      }
+
+      for (ValueVector vector : vectors) {
+        vector.setValueCount(outputIdx);
+      }
+      return outputIdx;
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+        .message("Failed to read data from ORC file")
+        .addContext("file", path.toString())
+        .build(logger);
+    }
+  }
+
+  private void copy(int inputIdx, int count, int outputIdx) {
+    for (OrcCopier copier : copiers) {
+      copier.copy(inputIdx, count, outputIdx);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    // the ORC record reader closes its own copy of the data reader, the byte source is closed last
+    AutoCloseables.close(recordReader, dataReader, asyncReader, input);
+  }
+}
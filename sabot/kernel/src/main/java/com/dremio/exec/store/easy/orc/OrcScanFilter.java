@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import java.util.Base64;
+import java.util.List;
+
+import org.apache.orc.storage.ql.io.sarg.SearchArgument;
+import org.apache.orc.storage.ql.io.sarg.SearchArgumentImpl;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.planner.common.ScanRelBase;
+import com.dremio.exec.store.ScanFilter;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Implementation of {@link ScanFilter} for filesystem ORC scans. The search argument is only used to skip stripes and
+ * row groups, so the filter is kept above the scan.
+ */
+@JsonTypeName("OrcScanFilter")
+public class OrcScanFilter implements ScanFilter {
+
+  private final String kryoBase64EncodedFilter;
+  private final List<SchemaPath> columns;
+  private final SearchArgument sarg;
+
+  @JsonCreator
+  public OrcScanFilter(@JsonProperty("kryoBase64EncodedFilter") String kryoBase64EncodedFilter,
+                       @JsonProperty("columns") List<SchemaPath> columns) {
+    this.kryoBase64EncodedFilter = kryoBase64EncodedFilter;
+    this.columns = columns == null ? ImmutableList.of() : ImmutableList.copyOf(columns);
+    this.sarg = decode(kryoBase64EncodedFilter);
+  }
+
+  public OrcScanFilter(SearchArgument sarg, List<SchemaPath> columns) {
+    Preconditions.checkNotNull(sarg, "expected a non-null filter expression");
+    this.kryoBase64EncodedFilter = encode(sarg);
+    this.columns = columns == null ? ImmutableList.of() : ImmutableList.copyOf(columns);
+    this.sarg = sarg;
+  }
+
+  @JsonProperty("kryoBase64EncodedFilter")
+  public String getKryoBase64EncodedFilter() {
+    return kryoBase64EncodedFilter;
+  }
+
+  @JsonProperty("columns")
+  public List<SchemaPath> getColumns() {
+    return columns;
+  }
+
+  @JsonIgnore
+  public SearchArgument getSarg() {
+    return sarg;
+  }
+
+  @Override
+  public double getCostAdjustment() {
+    return ScanRelBase.DEFAULT_COST_ADJUSTMENT;
+  }
+
+  @Override
+  public List<SchemaPath> getPaths() {
+    return columns;
+  }
+
+  private static Kryo newKryo() {
+    final Kryo kryo = new Kryo();
+    // search argument classes don't all have a no-arg constructor
+    kryo.setInstantiatorStrategy(new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+    return kryo;
+  }
+
+  static String encode(SearchArgument sarg) {
+    try (Output out = new Output(4 * 1024, 10 * 1024 * 1024)) {
+      newKryo().writeObject(out, sarg);
+      out.flush();
+      return Base64.getEncoder().encodeToString(out.toBytes());
+    }
+  }
+
+  static SearchArgument decode(String kryoBase64EncodedFilter) {
+    try (Input input = new Input(Base64.getDecoder().decode(kryoBase64EncodedFilter))) {
+      return newKryo().readObject(input, SearchArgumentImpl.class);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    OrcScanFilter that = (OrcScanFilter) o;
+    return Objects.equal(sarg, that.sarg);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(sarg);
+  }
+
+  @Override
+  public String toString() {
+    return "filterExpr = [" + sarg + "]";
+  }
+}
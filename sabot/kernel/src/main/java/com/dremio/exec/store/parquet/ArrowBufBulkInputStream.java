@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import org.apache.arrow.memory.ArrowBuf;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A {@link BulkInputStream} over a range of a file that has already been read into memory. Positions are file offsets.
+ * The buffer is owned by the creator of the stream, closing the stream doesn't release it.
+ */
+class ArrowBufBulkInputStream implements BulkInputStream {
+  private final ArrowBuf buf;
+  private final long fileOffset;
+  private long pos;
+
+  /**
+   * @param buf content of the range
+   * @param fileOffset offset in the file of the first byte of buf
+   */
+  ArrowBufBulkInputStream(ArrowBuf buf, long fileOffset) {
+    this.buf = buf;
+    this.fileOffset = fileOffset;
+    this.pos = fileOffset;
+  }
+
+  @Override
+  public void seek(long offset) throws IOException {
+    if (offset < fileOffset || offset > fileOffset + buf.capacity()) {
+      throw new EOFException(String.format("Offset %d is outside of the buffered range [%d, %d)",
+        offset, fileOffset, fileOffset + buf.capacity()));
+    }
+    pos = offset;
+  }
+
+  @Override
+  public void readFully(ByteBuf dst, int length) throws IOException {
+    final long index = pos - fileOffset;
+    if (index + length > buf.capacity()) {
+      throw new EOFException(String.format("Cannot read %d bytes at offset %d, only %d bytes are buffered",
+        length, pos, buf.capacity() - index));
+    }
+    final int initialWriterIndex = dst.writerIndex();
+    dst.setBytes(initialWriterIndex, buf.nioBuffer(index, length));
+    dst.writerIndex(initialWriterIndex + length);
+    pos += length;
+  }
+
+  @Override
+  public long getPos() {
+    return pos;
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Plans the reads of the column chunks of a row group: chunks which are adjacent or separated by at most maxGap bytes
+ * are merged into a single range, so that they can be fetched with a single request.
+ */
+public final class ColumnChunkReadPlanner {
+
+  private ColumnChunkReadPlanner() {
+  }
+
+  /**
+   * A contiguous range of a file covering one or more column chunks.
+   */
+  public static final class Range {
+    private final long start;
+    private long end;
+    private final List<ColumnChunkMetaData> chunks = new ArrayList<>();
+
+    private Range(ColumnChunkMetaData chunk) {
+      this.start = chunk.getStartingPos();
+      this.end = start + chunk.getTotalSize();
+      chunks.add(chunk);
+    }
+
+    private void add(ColumnChunkMetaData chunk) {
+      end = Math.max(end, chunk.getStartingPos() + chunk.getTotalSize());
+      chunks.add(chunk);
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getLength() {
+      return end - start;
+    }
+
+    public List<ColumnChunkMetaData> getChunks() {
+      return chunks;
+    }
+  }
+
+  /**
+   * @param chunks column chunks to read, in any order
+   * @param maxGap maximum number of unneeded bytes read between two chunks of the same range
+   * @param maxRangeLength maximum length of a range, a chunk larger than this gets its own range
+   * @return ranges ordered by their offset in the file
+   */
+  public static List<Range> plan(List<ColumnChunkMetaData> chunks, long maxGap, long maxRangeLength) {
+    Preconditions.checkArgument(maxGap >= 0, "maximum gap must not be negative");
+    if (chunks.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<ColumnChunkMetaData> sorted = new ArrayList<>(chunks);
+    sorted.sort(Comparator.comparingLong(ColumnChunkMetaData::getStartingPos));
+
+    final List<Range> ranges = new ArrayList<>();
+    Range current = null;
+    for (ColumnChunkMetaData chunk : sorted) {
+      final long chunkEnd = chunk.getStartingPos() + chunk.getTotalSize();
+      if (current != null
+        && chunk.getStartingPos() - current.end <= maxGap
+        && chunkEnd - current.start <= maxRangeLength) {
+        current.add(chunk);
+      } else {
+        current = new Range(chunk);
+        ranges.add(current);
+      }
+    }
+    return ranges;
+  }
+}
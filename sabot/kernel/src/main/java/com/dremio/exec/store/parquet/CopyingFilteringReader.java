@@ -16,7 +16,6 @@
 package com.dremio.exec.store.parquet;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -30,23 +29,21 @@ import org.apache.arrow.vector.util.TransferPair;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.exceptions.UserException;
-import com.dremio.common.expression.BasePath;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.exec.expr.ClassGenerator;
 import com.dremio.exec.expr.ReturnValueExpression;
 import com.dremio.exec.expr.TypeHelper;
-import com.dremio.exec.record.BatchSchema;
-import com.dremio.exec.record.TypedFieldId;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.record.selection.SelectionVector2;
-import com.dremio.exec.record.selection.SelectionVector4;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
+import com.dremio.sabot.op.filter.ContainerAndSV2;
 import com.dremio.sabot.op.filter.Filterer;
+import com.dremio.sabot.op.filter.SV2Holder;
 import com.dremio.sabot.op.filter.VectorContainerWithSV;
 import com.dremio.sabot.op.scan.MutatorSchemaChangeCallBack;
 import com.dremio.sabot.op.scan.OutputMutator;
@@ -193,95 +190,4 @@ public class CopyingFilteringReader implements RecordReader {
   public void close() throws Exception {
     AutoCloseables.close(copier, copyOutput, readerOutput, delegate);
   }
-
-  private static class ContainerAndSV2 implements VectorAccessible {
-    private final VectorAccessible inner;
-    private final SelectionVector2 sv2;
-    private final BatchSchema schema;
-
-    ContainerAndSV2(VectorAccessible inner, SelectionVector2 sv2) {
-      this.inner = inner;
-      this.sv2 = sv2;
-      schema = inner.getSchema().clone(BatchSchema.SelectionVectorMode.TWO_BYTE);
-    }
-
-    @Override
-    public <T extends ValueVector> VectorWrapper<T> getValueAccessorById(Class<T> clazz, int... fieldIds) {
-      return inner.getValueAccessorById(clazz, fieldIds);
-    }
-
-    @Override
-    public TypedFieldId getValueVectorId(BasePath path) {
-      return inner.getValueVectorId(path);
-    }
-
-    @Override
-    public BatchSchema getSchema() {
-      return schema;
-    }
-
-    @Override
-    public int getRecordCount() {
-      return sv2.getCount();
-    }
-
-    @Override
-    public SelectionVector2 getSelectionVector2() {
-      return sv2;
-    }
-
-    @Override
-    public SelectionVector4 getSelectionVector4() {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public Iterator<VectorWrapper<?>> iterator() {
-      return inner.iterator();
-    }
-  }
-
-  private static class SV2Holder implements VectorAccessible {
-
-    private final SelectionVector2 sv2;
-
-    SV2Holder(SelectionVector2 sv2) {
-      this.sv2 = sv2;
-    }
-
-    @Override
-    public Iterator<VectorWrapper<?>> iterator() {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public <T extends ValueVector> VectorWrapper<T> getValueAccessorById(Class<T> clazz, int... fieldIds) {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public TypedFieldId getValueVectorId(BasePath path) {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public BatchSchema getSchema() {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public int getRecordCount() {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public SelectionVector2 getSelectionVector2() {
-      return sv2;
-    }
-
-    @Override
-    public SelectionVector4 getSelectionVector4() {
-      throw new UnsupportedOperationException();
-    }
-  }
 }
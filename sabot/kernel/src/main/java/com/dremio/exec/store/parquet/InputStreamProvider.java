@@ -59,6 +59,15 @@ public interface InputStreamProvider extends AutoCloseable {
     return null;
   }
 
+  /**
+   * Announces the column chunks of a row group that are about to be read with {@link #getStream(ColumnChunkMetaData)},
+   * so that the provider can fetch them ahead. Does nothing by default.
+   * @param rowGroupIndex index of the row group in the footer, the streams of the previous row groups are no longer read
+   * @param columns column chunks of the row group
+   */
+  default void planColumnChunkReads(int rowGroupIndex, List<ColumnChunkMetaData> columns) throws IOException {
+  }
+
   /**
    * Obtains the boosted input stream for the given column.
    * @param column Given column
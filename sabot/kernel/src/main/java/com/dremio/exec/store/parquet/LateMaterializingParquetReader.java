@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.util.CallBack;
+import org.apache.arrow.vector.util.TransferPair;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ReturnValueExpression;
+import com.dremio.exec.expr.TypeHelper;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.store.RecordReader;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.copier.Copier;
+import com.dremio.sabot.op.copier.CopierOperator;
+import com.dremio.sabot.op.filter.ContainerAndSV2;
+import com.dremio.sabot.op.filter.Filterer;
+import com.dremio.sabot.op.filter.SV2Holder;
+import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.op.scan.MutatorSchemaChangeCallBack;
+import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.dremio.sabot.op.scan.ScanOperator.ScanMutator;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Maps;
+
+/**
+ * Implementation of {@link RecordReader} that reads a row group in two steps when a filter is pushed down into the
+ * scan. The columns referenced by the filter are read first and the filter is evaluated on them. The remaining
+ * projected columns are then read only for the rows that passed the filter: rows that don't match are skipped by the
+ * parquet column readers instead of being materialized and filtered out afterwards.
+ *
+ * Rows to skip are passed to the reader of the remaining columns as a deltas vector, where deltas[i] is the number of
+ * rows to skip before the i-th matching row.
+ */
+public class LateMaterializingParquetReader implements RecordReader {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(LateMaterializingParquetReader.class);
+
+  private final OperatorContext context;
+  private final RecordReader filterColumnsReader;
+  private final RecordReader remainingColumnsReader;
+  private final Set<String> filterColumns;
+  private final LogicalExpression filterCondition;
+  private final SimpleIntVector deltas;
+
+  private final Map<String, ValueVector> fieldVectorMap = Maps.newHashMap();
+  private final List<TransferPair> copierToOutputTransfers = new ArrayList<>();
+
+  // see CopyingFilteringReader, the filter columns reader reports its schema changes to an inner callback
+  private final MutatorSchemaChangeCallBack innerCallback = new MutatorSchemaChangeCallBack();
+  private CallBack externalCallback;
+
+  private VectorContainer readerOutput = new VectorContainer();
+  private VectorContainer copyOutput;
+  private SelectionVector2 filteredSV2;
+  private ScanMutator mutator;
+  private Filterer filter;
+  private Copier copier;
+
+  // rows read from the filter columns after the last matching row, they are skipped before the next matching row
+  private int pendingSkippedRows;
+
+  /**
+   * @param filterColumnsReader reader for the columns referenced by the filter condition
+   * @param remainingColumnsReaderFactory creates the reader for the other projected columns, given the deltas vector
+   *                                      it must use to skip rows
+   * @param filterColumns lower case names of the columns referenced by the filter condition
+   */
+  public LateMaterializingParquetReader(OperatorContext context,
+                                        RecordReader filterColumnsReader,
+                                        Function<SimpleIntVector, RecordReader> remainingColumnsReaderFactory,
+                                        Set<String> filterColumns,
+                                        LogicalExpression filterCondition) {
+    this.context = context;
+    this.filterColumnsReader = filterColumnsReader;
+    this.filterColumns = filterColumns;
+    this.filterCondition = filterCondition;
+    this.deltas = new SimpleIntVector("late-materialization-deltas", context.getAllocator());
+    this.remainingColumnsReader = remainingColumnsReaderFactory.apply(deltas);
+  }
+
+  @Override
+  public void setup(OutputMutator output) throws ExecutionSetupException {
+    this.externalCallback = output.getCallBack();
+
+    // the filter columns are read into an inner container, only the rows matching the filter are copied to the output
+    readerOutput = new VectorContainerWithSV(context.getAllocator(), new SelectionVector2(context.getAllocator()));
+    mutator = new ScanMutator(readerOutput, fieldVectorMap, context, innerCallback);
+    for (ValueVector v : output.getVectors()) {
+      final Field f = v.getField();
+      if (filterColumns.contains(f.getName().toLowerCase())) {
+        mutator.addField(f, (Class<? extends ValueVector>) TypeHelper.getValueVectorClass(f));
+      }
+    }
+    innerCallback.getSchemaChangedAndReset();
+    readerOutput.buildSchema();
+    Preconditions.checkState(readerOutput.getSchema().getFieldCount() == filterColumns.size(),
+      "All filter columns must be part of the output schema");
+
+    filterColumnsReader.setup(mutator);
+    // the remaining columns are written directly to the output
+    remainingColumnsReader.setup(output);
+
+    final ClassGenerator<Filterer> cg = context.getClassProducer().createGenerator(Filterer.TEMPLATE_DEFINITION2).getRoot();
+    final LogicalExpression expr = context.getClassProducer().materializeAndAllowComplex(filterCondition, readerOutput);
+    cg.addExpr(new ReturnValueExpression(expr), ClassGenerator.BlockCreateMode.MERGE);
+
+    filteredSV2 = new SelectionVector2(context.getAllocator());
+    this.filter = cg.getCodeGenerator().getImplementationClass();
+    filter.setup(context.getClassProducer().getFunctionContext(), readerOutput, new SV2Holder(filteredSV2));
+
+    final VectorAccessible copyInput = new ContainerAndSV2(readerOutput, filteredSV2);
+    copyOutput = VectorContainer.create(context.getAllocator(), readerOutput.getSchema());
+    copyOutput.setInitialCapacity(context.getTargetBatchSize());
+    copier = CopierOperator.getGenerated2Copier(context.getClassProducer(), copyInput, copyOutput);
+
+    for (VectorWrapper<?> wrapper : copyOutput) {
+      final Field field = wrapper.getField();
+      copierToOutputTransfers.add(wrapper.getValueVector().makeTransferPair(output.getVector(field.getName())));
+    }
+
+    deltas.allocateNew(context.getTargetBatchSize());
+  }
+
+  @Override
+  public void allocate(Map<String, ValueVector> vectorMap) throws OutOfMemoryException {
+    remainingColumnsReader.allocate(vectorMap);
+  }
+
+  @Override
+  public int next() {
+    final Stopwatch filterWatch = Stopwatch.createUnstarted();
+    final Stopwatch copyWatch = Stopwatch.createUnstarted();
+
+    filterColumnsReader.allocate(fieldVectorMap);
+
+    int recordCount;
+    int matchingCount = 0;
+    long skippedRows = 0;
+    while ((recordCount = filterColumnsReader.next()) > 0) {
+      if (mutator.getAndResetSchemaChanged()) {
+        externalCallback.doWork();
+      }
+
+      filterWatch.start();
+      matchingCount = filter.filterBatch(recordCount);
+      filterWatch.stop();
+      skippedRows += recordCount - matchingCount;
+      if (matchingCount > 0) {
+        break;
+      }
+
+      // no row matched, all of them are skipped before the next matching row
+      pendingSkippedRows += recordCount;
+      readerOutput.allocateNew();
+    }
+    context.getStats().addLongStat(ScanOperator.Metric.FILTER_NS, filterWatch.elapsed(TimeUnit.NANOSECONDS));
+    context.getStats().addLongStat(ScanOperator.Metric.LATE_MATERIALIZATION_SKIPPED_ROWS, skippedRows);
+
+    if (recordCount == 0) {
+      return 0;
+    }
+
+    setDeltas(recordCount, matchingCount);
+
+    copyOutput.allocateNew();
+    copyWatch.start();
+    final int copied = copier.copyRecords(0, matchingCount);
+    copyWatch.stop();
+    if (copied != matchingCount) { // copier may return earlier if it runs out of memory
+      throw UserException.memoryError().message("Ran out of memory while trying to copy the records.").build(logger);
+    }
+    for (TransferPair t : copierToOutputTransfers) {
+      t.transfer();
+    }
+    context.getStats().addLongStat(ScanOperator.Metric.COPY_NS, copyWatch.elapsed(TimeUnit.NANOSECONDS));
+
+    final int remainingCount = remainingColumnsReader.next();
+    if (remainingCount != matchingCount) {
+      throw new IllegalStateException(String.format("Inconsistent row count. Reader %s returned %d while " +
+        "%d rows matched the filter", remainingColumnsReader, remainingCount, matchingCount));
+    }
+    return matchingCount;
+  }
+
+  /**
+   * Converts the indexes of the matching rows of the current batch into the number of rows to skip before each of them
+   */
+  private void setDeltas(int recordCount, int matchingCount) {
+    int previous = -1 - pendingSkippedRows;
+    for (int i = 0; i < matchingCount; i++) {
+      final int index = filteredSV2.getIndex(i);
+      deltas.setSafe(i, index - previous - 1);
+      previous = index;
+    }
+    deltas.setValueCount(matchingCount);
+    pendingSkippedRows = recordCount - 1 - previous;
+  }
+
+  @Override
+  public List<SchemaPath> getColumnsToBoost() {
+    final List<SchemaPath> columnsToBoost = new ArrayList<>();
+    for (RecordReader reader : new RecordReader[] {filterColumnsReader, remainingColumnsReader}) {
+      final List<SchemaPath> columns = reader.getColumnsToBoost();
+      if (columns != null) {
+        columnsToBoost.addAll(columns);
+      }
+    }
+    return columnsToBoost;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(copier, copyOutput, filteredSV2, readerOutput, filterColumnsReader, remainingColumnsReader, deltas);
+  }
+}
@@ -126,7 +126,8 @@ public class ParquetFormatPlugin extends BaseFormatPlugin {
   public WriterOperator getWriterBatch(OperatorContext context, ParquetWriter writer)
           throws ExecutionSetupException {
     try {
-      return new WriterOperator(context, writer.getOptions(), getRecordWriter(context, writer));
+      return new WriterOperator(context, writer.getOptions(), getRecordWriter(context, writer),
+        ordinal -> new ParquetRecordWriter(context, writer, config, ordinal));
     } catch(IOException e) {
       throw new ExecutionSetupException(String.format("Failed to create the WriterRecordBatch. %s", e.getMessage()), e);
     }
@@ -27,12 +27,22 @@ import static org.apache.parquet.hadoop.ParquetWriter.MAX_PADDING_SIZE_DEFAULT;
 import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
+import org.apache.arrow.memory.AllocationReservation;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.complex.NonNullableStructVector;
@@ -110,6 +120,8 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -130,6 +142,8 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     MAX_IO_WRITE_TIME, // Maximum IO write time
     AVG_IO_WRITE_TIME, // Avg IO write time
     NUM_IO_WRITE,      // Total Number of IO writes
+    PIPELINED_WRITE_WAIT_NS, // Time spent waiting for files written in the background
+    PIPELINED_FILES,   // Number of files written in the background
     ;
 
     @Override
@@ -193,6 +207,17 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private final int parquetFileWriteTimeThresholdMilliSecs;
   private final double parquetFileWriteIoRateThresholdMbps;
 
+  // executor writing completed files in the background, null if files are written on the fragment thread. Pages are
+  // still compressed on the fragment thread as they fill, and a file is written through a single output stream, which
+  // decides how it is uploaded.
+  private final Executor writeExecutor;
+  private final int maxPendingFiles;
+  private final Deque<PendingFile> pendingFiles = new ArrayDeque<>();
+
+  // lower case names of the columns with a bloom filter
+  private final Set<String> bloomFilterColumns = new HashSet<>();
+  private final int maxBloomFilterBytes;
+
   // metrics workspace variables
   int numFilesWritten = 0;
   long minFileSize = Long.MAX_VALUE;
@@ -202,6 +227,14 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   long maxRecordCountInFile = Long.MIN_VALUE;
 
   public ParquetRecordWriter(OperatorContext context, ParquetWriter writer, ParquetFormatConfig config) throws OutOfMemoryException{
+    this(context, writer, config, null);
+  }
+
+  /**
+   * @param ordinal when set, added to the names of the files, so that several writers of a fragment can be open at once
+   */
+  public ParquetRecordWriter(OperatorContext context, ParquetWriter writer, ParquetFormatConfig config, Integer ordinal)
+      throws OutOfMemoryException{
     this.context = context;
     this.codecAllocator = context.getAllocator().newChildAllocator("ParquetCodecFactory", 0, Long.MAX_VALUE);
     this.columnEncoderAllocator = context.getAllocator().newChildAllocator("ParquetColEncoder", 0, Long.MAX_VALUE);
@@ -217,7 +250,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     String fragmentId = String.format("%d_%d", handle.getMajorFragmentId(), handle.getMinorFragmentId());
 
     this.location = writer.getLocation();
-    this.prefix = fragmentId;
+    this.prefix = ordinal == null ? fragmentId : fragmentId + "_" + ordinal;
     this.extension = config.outputExtension;
     if (writer.getOptions() != null) {
       this.partitionColumns = writer.getOptions().getPartitionColumns();
@@ -259,6 +292,32 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     minRecordsForFlush = context.getOptions().getOption(ExecConstants.PARQUET_MIN_RECORDS_FOR_FLUSH_VALIDATOR);
     parquetFileWriteTimeThresholdMilliSecs = (int)context.getOptions().getOption(ExecConstants.PARQUET_WRITE_TIME_THRESHOLD_MILLI_SECS_VALIDATOR);
     parquetFileWriteIoRateThresholdMbps = context.getOptions().getOption(ExecConstants.PARQUET_WRITE_IO_RATE_THRESHOLD_MBPS_VALIDATOR);
+    writeExecutor = getWriteExecutor(context);
+    maxPendingFiles = (int) context.getOptions().getOption(ExecConstants.PARQUET_WRITER_PIPELINED_MAX_PENDING);
+    maxBloomFilterBytes = (int) context.getOptions().getOption(ExecConstants.PARQUET_WRITER_BLOOM_FILTER_MAX_BYTES);
+    if (context.getOptions().getOption(ExecConstants.PARQUET_WRITER_BLOOM_FILTERS) && writer.getOptions() != null) {
+      // the sort and distribution columns of a table (or reflection) are the ones it is usually filtered on
+      addBloomFilterColumns(writer.getOptions().getSortColumns());
+      addBloomFilterColumns(writer.getOptions().getDistributionColumns());
+    }
+  }
+
+  private void addBloomFilterColumns(List<String> columns) {
+    if (columns != null) {
+      columns.forEach(c -> bloomFilterColumns.add(c.toLowerCase(Locale.ROOT)));
+    }
+  }
+
+  private static Executor getWriteExecutor(OperatorContext context) {
+    if (!context.getOptions().getOption(ExecConstants.PARQUET_WRITER_PIPELINED)) {
+      return null;
+    }
+    try {
+      return context.getExecutor();
+    } catch (UnsupportedOperationException e) {
+      logger.debug("No executor available, parquet files will be written synchronously");
+      return null;
+    }
   }
 
   @Override
@@ -349,7 +408,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     schema = getParquetMessageType(batchSchema, "root");
 
     int dictionarySize = (int)context.getOptions().getOption(ExecConstants.PARQUET_DICT_PAGE_SIZE_VALIDATOR);
-    final ParquetProperties parquetProperties = ParquetProperties.builder()
+    final ParquetProperties.Builder propertiesBuilder = ParquetProperties.builder()
       .withDictionaryPageSize(dictionarySize)
       .withWriterVersion(writerVersion)
       .withValuesWriterFactory(new DefaultV1ValuesWriterFactory())
@@ -358,16 +417,43 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
       .withPageSize(pageSize)
       .withAddPageHeadersToMetadata(true)
       .withEnableDictionarForBinaryType(enableDictionaryForBinary)
-      .withPageRowCountLimit(Integer.MAX_VALUE) // Bug 16118
-      .build();
+      .withPageRowCountLimit(Integer.MAX_VALUE); // Bug 16118
+    final boolean hasBloomFilters = enableBloomFilters(propertiesBuilder);
+    final ParquetProperties parquetProperties = propertiesBuilder.build();
     pageStore = ColumnChunkPageWriteStoreExposer.newColumnChunkPageWriteStore(
         toDeprecatedBytesCompressor(codecFactory.getCompressor(codec)), schema, parquetProperties);
-    store = new ColumnWriteStoreV1(pageStore, parquetProperties);
+    store = hasBloomFilters
+      ? ColumnChunkPageWriteStoreExposer.newColumnWriteStoreWithBloomFilters(schema, pageStore, parquetProperties)
+      : new ColumnWriteStoreV1(pageStore, parquetProperties);
     MessageColumnIO columnIO = new ColumnIOFactory(false).getColumnIO(this.schema);
     consumer = columnIO.getRecordWriter(store);
     setUp(schema, consumer);
   }
 
+  /**
+   * Enables the bloom filters of the top level primitive columns of the schema requested in the options.
+   * @return true if at least one column has a bloom filter
+   */
+  private boolean enableBloomFilters(ParquetProperties.Builder propertiesBuilder) {
+    if (bloomFilterColumns.isEmpty()) {
+      return false;
+    }
+    boolean enabled = false;
+    for (Type type : schema.getFields()) {
+      if (!type.isPrimitive()
+        || type.asPrimitiveType().getPrimitiveTypeName() == PrimitiveTypeName.BOOLEAN
+        || !bloomFilterColumns.contains(type.getName().toLowerCase(Locale.ROOT))) {
+        continue;
+      }
+      propertiesBuilder.withBloomFilterEnabled(type.getName(), true);
+      enabled = true;
+    }
+    if (enabled) {
+      propertiesBuilder.withMaxBloomFilterBytes(maxBloomFilterBytes);
+    }
+    return enabled;
+  }
+
   private PrimitiveType getPrimitiveType(Field field) {
     MajorType majorType = getMajorTypeForField(field);
     MinorType minorType = majorType.getMinorType();
@@ -572,33 +658,34 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     }
 
     if (recordCount > 0) {
-      long writeFileStartTimeMillis = System.currentTimeMillis();
       long memSize = store.getBufferedSize();
-      parquetFileWriter.startBlock(recordCount);
+      // encodes and compresses the remaining pages, writing the file then only copies them from the page store
       consumer.flush();
       store.flush();
-      ColumnChunkPageWriteStoreExposer.flushPageStore(pageStore, parquetFileWriter);
-      parquetFileWriter.endBlock();
-      long recordsWritten = recordCount;
-
-      long footerWriteAndFlushStartTimeMillis = System.currentTimeMillis();
-      // we are writing one single block per file
-      parquetFileWriter.end(extraMetaData);
-
-      long writeFileEndTimeMillis = System.currentTimeMillis();
-
-      logSlowIoWrite(writeFileStartTimeMillis, footerWriteAndFlushStartTimeMillis,  writeFileEndTimeMillis,
-        parquetFileWriter.getPos(), recordsWritten, path);
-
       byte[] metadata = this.trackingConverter == null ? null : trackingConverter.getMetadata();
-      final long fileSize = parquetFileWriter.getPos();
-      listener.recordsWritten(recordsWritten, fileSize, path.toString(), metadata /** TODO: add parquet footer **/,
-        partition.getBucketNumber(), getIcebergMetaData());
+      final PendingFile file = new PendingFile(parquetFileWriter, pageStore, path, partition, recordCount, memSize,
+        metadata, new HashMap<>(extraMetaData));
       parquetFileWriter = null;
-
-      updateStats(memSize, recordCount);
-
       recordCount = 0;
+
+      final AllocationReservation reservation = writeExecutor == null ? null : reservePendingBytes(memSize);
+      if (reservation == null) {
+        // also written on the fragment thread when the operator allocator cannot hold one more pending file
+        reportPendingFiles(0);
+        file.write();
+        file.report();
+      } else {
+        file.reservation = reservation;
+        file.future = CompletableFuture.runAsync(() -> {
+          try {
+            file.write();
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }, writeExecutor);
+        pendingFiles.addLast(file);
+        reportPendingFiles(maxPendingFiles);
+      }
     }
 
     if(store != null){
@@ -610,6 +697,66 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     index++;
   }
 
+  /**
+   * Charges the pages of a file written in the background to the operator allocator. They stay in the on-heap page
+   * store until the file is reported, so they are not otherwise accounted for.
+   *
+   * @return the reservation holding the charged bytes, or null if the operator allocator cannot hold them
+   */
+  private AllocationReservation reservePendingBytes(long bytes) {
+    if (bytes > Integer.MAX_VALUE) {
+      return null;
+    }
+    final AllocationReservation reservation = context.getAllocator().newReservation();
+    // a reservation rounds each added size up to a power of two, so the bytes are added one bit at a time
+    for (int bit = Integer.highestOneBit((int) bytes); bit > 0; bit >>>= 1) {
+      if ((bytes & bit) != 0 && !reservation.add(bit)) {
+        reservation.close();
+        return null;
+      }
+    }
+    return reservation;
+  }
+
+  /**
+   * Reports the files written in the background, in the order they were completed by the writer. Waits for the oldest
+   * files while more than maxPending files are still being written.
+   */
+  private void reportPendingFiles(int maxPending) throws IOException {
+    while (!pendingFiles.isEmpty()) {
+      final PendingFile file = pendingFiles.peekFirst();
+      if (!file.future.isDone() && pendingFiles.size() <= maxPending) {
+        return;
+      }
+      pendingFiles.pollFirst();
+      try {
+        file.await();
+        file.report();
+      } finally {
+        file.release();
+      }
+    }
+  }
+
+  /**
+   * Waits for the files still written in the background, without reporting them.
+   */
+  private void abandonPendingFiles() {
+    while (!pendingFiles.isEmpty()) {
+      final PendingFile file = pendingFiles.pollFirst();
+      try {
+        file.future.get();
+      } catch (InterruptedException e) {
+        // keeps releasing the remaining files
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        logger.debug("Failure while writing parquet file {}", file.path, e.getCause());
+      } finally {
+        file.release();
+      }
+    }
+  }
+
   private void logSlowIoWrite(long writeFileStartTimeMillis, long footerWriteAndFlushStartTimeMillis,
                              long writeFileEndTimeMillis, long size, long recordsWritten, Path path) {
 
@@ -628,30 +775,124 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     }
   }
 
-  private byte[] getIcebergMetaData() throws IOException {
+  private byte[] getIcebergMetaData(PendingFile file) throws IOException {
     if (!this.isIcebergWriter) {
       return null;
     }
 
-    final long fileSize = parquetFileWriter.getPos();
+    final long fileSize = file.writer.getPos();
     DataFiles.Builder dataFileBuilder =
       DataFiles.builder(IcebergCatalog.getIcebergPartitionSpec(this.batchSchema, this.partitionColumns))
-        .withPath(path.toString())
+        .withPath(file.path.toString())
         .withFileSizeInBytes(fileSize)
-        .withRecordCount(recordCount)
+        .withRecordCount(file.recordCount)
         .withFormat(FileFormat.PARQUET);
 
     // add partition info
     if (partitionColumns != null) {
-      dataFileBuilder = dataFileBuilder.withPartition(partition.getIcebergPartitionData());
+      dataFileBuilder = dataFileBuilder.withPartition(file.partition.getIcebergPartitionData());
     }
 
     // add column level metrics
-    Metrics metrics = ParquetToIcebergStatsConvertor.toMetrics(context, parquetFileWriter.getFooter(), icebergSchema);
+    Metrics metrics = ParquetToIcebergStatsConvertor.toMetrics(context, file.writer.getFooter(), icebergSchema);
     dataFileBuilder = dataFileBuilder.withMetrics(metrics);
     return IcebergSerDe.serializeDataFile(dataFileBuilder.build());
   }
 
+  /**
+   * A file whose single row group has been encoded and compressed, and which still needs to be written out.
+   */
+  private final class PendingFile {
+    private final ParquetFileWriter writer;
+    private final PageWriteStore pageStore;
+    private final Path path;
+    private final WritePartition partition;
+    private final long recordCount;
+    private final long memSize;
+    private final byte[] metadata;
+    private final Map<String, String> extraMetaData;
+    // set for the files written in the background
+    private CompletableFuture<Void> future;
+    private AllocationReservation reservation;
+
+    private PendingFile(ParquetFileWriter writer, PageWriteStore pageStore, Path path, WritePartition partition,
+                        long recordCount, long memSize, byte[] metadata, Map<String, String> extraMetaData) {
+      this.writer = writer;
+      this.pageStore = pageStore;
+      this.path = path;
+      this.partition = partition;
+      this.recordCount = recordCount;
+      this.memSize = memSize;
+      this.metadata = metadata;
+      this.extraMetaData = extraMetaData;
+    }
+
+    /**
+     * Writes the row group and the footer. May run outside of the fragment thread.
+     */
+    private void write() throws IOException {
+      try {
+        long writeFileStartTimeMillis = System.currentTimeMillis();
+        writer.startBlock(recordCount);
+        ColumnChunkPageWriteStoreExposer.flushPageStore(pageStore, writer);
+        writer.endBlock();
+
+        long footerWriteAndFlushStartTimeMillis = System.currentTimeMillis();
+        // we are writing one single block per file
+        writer.end(extraMetaData);
+
+        long writeFileEndTimeMillis = System.currentTimeMillis();
+
+        logSlowIoWrite(writeFileStartTimeMillis, footerWriteAndFlushStartTimeMillis,  writeFileEndTimeMillis,
+          writer.getPos(), recordCount, path);
+      } catch (IOException | RuntimeException e) {
+        NoExceptionAutoCloseables.close(writer);
+        throw e;
+      }
+    }
+
+    private void await() throws IOException {
+      final Stopwatch watch = Stopwatch.createStarted();
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while writing parquet file " + path, e);
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause() instanceof RuntimeException && e.getCause().getCause() instanceof IOException ?
+          e.getCause().getCause() : e.getCause();
+        Throwables.throwIfInstanceOf(cause, IOException.class);
+        Throwables.throwIfUnchecked(cause);
+        throw new IOException(cause);
+      } finally {
+        context.getStats().addLongStat(Metric.PIPELINED_WRITE_WAIT_NS, watch.elapsed(TimeUnit.NANOSECONDS));
+      }
+    }
+
+    /**
+     * Notifies the listener of the written file. Must run in the fragment thread.
+     */
+    private void report() throws IOException {
+      final long fileSize = writer.getPos();
+      listener.recordsWritten(recordCount, fileSize, path.toString(), metadata /** TODO: add parquet footer **/,
+        partition.getBucketNumber(), getIcebergMetaData(this));
+      updateStats(memSize, recordCount);
+      if (future != null) {
+        context.getStats().addLongStat(Metric.PIPELINED_FILES, 1);
+      }
+    }
+
+    /**
+     * Releases the bytes charged to the operator allocator for the pages of a file written in the background.
+     */
+    private void release() {
+      if (reservation != null) {
+        reservation.close();
+        reservation = null;
+      }
+    }
+  }
+
   private interface UpdateTrackingConverter {
     public byte[] getMetadata();
   }
@@ -1030,6 +1271,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   public void close() throws Exception {
     try {
       flushAndClose();
+      reportPendingFiles(0);
       OperatorStats operatorStats = context.getStats();
       OperatorStats.IOStats ioStats = operatorStats.getWriteIOStats();
 
@@ -1047,6 +1289,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
       }
     } finally {
       try {
+        abandonPendingFiles();
         NoExceptionAutoCloseables.close(store, pageStore, parquetFileWriter);
       } finally {
         AutoCloseables.close(new AutoCloseable() {
@@ -217,7 +217,7 @@ public class ParquetSplitReaderCreator extends SplitReaderCreator implements Aut
           Set<Integer> rowGroupsToRetain = pathToRowGroupsMap.get(splitXAttr.getPath());
           Preconditions.checkArgument(rowGroupsToRetain.size() != 0, "Parquet reader should read at least one row group");
           long numRowGroupsTrimmed = footer.removeUnusedRowGroups(rowGroupsToRetain);
-          context.getStats().addLongStat(ScanOperator.Metric.NUM_ROW_GROUPS_TRIMMED, numRowGroupsTrimmed);
+          parquetSplitReaderCreatorIterator.getStats().addLongStat(ScanOperator.Metric.NUM_ROW_GROUPS_TRIMMED, numRowGroupsTrimmed);
         }
 
         SchemaDerivationHelper.Builder schemaHelperBuilder = SchemaDerivationHelper.builder()
@@ -53,6 +53,7 @@ import com.dremio.exec.store.EmptyRecordReader;
 import com.dremio.exec.store.RuntimeFilter;
 import com.dremio.exec.store.RuntimeFilterEvaluator;
 import com.dremio.exec.store.SplitAndPartitionInfo;
+import com.dremio.exec.store.dfs.AsyncPrefetchingIterator;
 import com.dremio.exec.store.dfs.EmptySplitReaderCreator;
 import com.dremio.exec.store.dfs.FileSystemPlugin;
 import com.dremio.exec.store.dfs.PrefetchingIterator;
@@ -65,6 +66,7 @@ import com.dremio.io.file.FileAttributes;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.fragment.FragmentExecutionContext;
 import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf;
 import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf;
@@ -75,6 +77,7 @@ import com.dremio.service.namespace.file.proto.FileConfig;
 import com.dremio.service.namespace.file.proto.FileType;
 import com.dremio.service.namespace.file.proto.IcebergFileConfig;
 import com.dremio.service.namespace.file.proto.ParquetFileConfig;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -104,6 +107,8 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
   private final Map<String, GlobalDictionaryFieldInfo> globalDictionaryEncodedColumns;
   private final CompositeReaderConfig readerConfig;
   private final OperatorContext context;
+  // metrics of the splits, separate from the operator stats when the readers are created asynchronously
+  private OperatorStats stats;
   private final InputStreamProviderFactory factory;
   private final FragmentExecutionContext fragmentExecutionContext;
   private final List<List<String>> tablePath;
@@ -149,6 +154,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
     this.formatSettings = config.getFormatSettings();
     this.extendedProperty = config.getExtendedProperty();
     this.context = context;
+    this.stats = context.getStats();
     this.factory = context.getConfig().getInstance(InputStreamProviderFactory.KEY, InputStreamProviderFactory.class, InputStreamProviderFactory.DEFAULT);
     this.prefetchReader = context.getOptions().getOption(ExecConstants.PREFETCH_READER);
     this.numSplitsToPrefetch = (int) context.getOptions().getOption(ExecConstants.NUM_SPLITS_TO_PREFETCH);
@@ -207,6 +213,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
     this.formatSettings = config.getFunctionContext().getFormatSettings();
     this.extendedProperty = config.getFunctionContext().getExtendedProperty();
     this.context = context;
+    this.stats = context.getStats();
     this.factory = context.getConfig().getInstance(InputStreamProviderFactory.KEY, InputStreamProviderFactory.class, InputStreamProviderFactory.DEFAULT);
     this.prefetchReader = context.getOptions().getOption(ExecConstants.PREFETCH_READER);
     this.numSplitsToPrefetch = (int) context.getOptions().getOption(ExecConstants.NUM_SPLITS_TO_PREFETCH);
@@ -314,7 +321,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
   }
 
   public ScanOperator createScan() throws Exception {
-    PrefetchingIterator iterator = new PrefetchingIterator(this);
+    final RecordReaderIterator iterator = createReaderIterator();
     try {
       return new ScanOperator(config, context, iterator, globalDictionaries,
               fragmentExecutionContext.getForemanEndpoint(), fragmentExecutionContext.getQueryContextInformation());
@@ -324,6 +331,17 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
     }
   }
 
+  @VisibleForTesting
+  RecordReaderIterator createReaderIterator() {
+    final OperatorStats prefetchStats = new OperatorStats(context.getStats(), true);
+    final RecordReaderIterator iterator = AsyncPrefetchingIterator.wrapIfEnabled(context, new PrefetchingIterator(this), prefetchStats);
+    if (iterator instanceof AsyncPrefetchingIterator) {
+      // the next splits are opened by executor threads, the fragment thread merges their metrics
+      stats = prefetchStats;
+    }
+    return iterator;
+  }
+
   public RecordReaderIterator getReaders(List<SplitAndPartitionInfo> inputSplits) {
     this.inputSplits = inputSplits;
     processSplits();
@@ -391,6 +409,10 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
     return autoCorrect;
   }
 
+  OperatorStats getStats() {
+    return stats;
+  }
+
   public GlobalDictionaries getGlobalDictionaries() {
     return globalDictionaries;
   }
@@ -399,7 +421,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
   public void addRuntimeFilter(RuntimeFilter runtimeFilter) {
     if (runtimeFilter.getPartitionColumnFilter() != null) {
       final RuntimeFilterEvaluator filterEvaluator =
-              new RuntimeFilterEvaluator(context.getAllocator(), context.getStats(), context.getOptions(), runtimeFilter);
+              new RuntimeFilterEvaluator(context.getAllocator(), stats, context.getOptions(), runtimeFilter);
       this.runtimeFilterEvaluators.add(filterEvaluator);
       logger.debug("Runtime filter added to the iterator [{}]", runtimeFilter);
     }
@@ -468,7 +490,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
       isFirstRowGroup = false;
     }
     if (fromRowGroupBasedSplit) {
-      context.getStats().addLongStat(ScanOperator.Metric.NUM_ROW_GROUPS, 1);
+      stats.addLongStat(ScanOperator.Metric.NUM_ROW_GROUPS, 1);
       if (splitAndPartitionInfoIterator.hasNext()) {
         currentSplitInfo = splitAndPartitionInfoIterator.next();
       } else {
@@ -506,7 +528,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
           final Set<Integer> usedRowGroups = splitsPathRowGroupsMap.getPathRowGroups(blockSplit.getPath(), f);
           if (usedRowGroups != null && trimRowGroups) {
             long numRowGroupsTrimmed = f.removeUnusedRowGroups(usedRowGroups);
-            context.getStats().addLongStat(ScanOperator.Metric.NUM_ROW_GROUPS_TRIMMED, numRowGroupsTrimmed);
+            stats.addLongStat(ScanOperator.Metric.NUM_ROW_GROUPS_TRIMMED, numRowGroupsTrimmed);
           }
         }
       } catch (IOException e) {
@@ -534,7 +556,7 @@ public class ParquetSplitReaderCreatorIterator implements SplitReaderCreatorIter
 
     MutableParquetMetadata footer = safelyGetFooter();
     populateRowGroupNums.accept(footer);
-    context.getStats().addLongStat(ScanOperator.Metric.NUM_ROW_GROUPS, rowGroupNums.size());
+    stats.addLongStat(ScanOperator.Metric.NUM_ROW_GROUPS, rowGroupNums.size());
 
     List<ParquetProtobuf.ParquetDatasetSplitScanXAttr> rowGroupSplitAttrs = new LinkedList<>();
     for (int rowGroupNum : rowGroupNums) {
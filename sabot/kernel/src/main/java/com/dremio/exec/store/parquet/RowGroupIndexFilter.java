@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.format.BloomFilterHeader;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveComparator;
+import org.apache.parquet.schema.PrimitiveType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
+import com.dremio.exec.ExecConstants;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Eliminates row groups using the column indexes and bloom filters of a file. A row group is skipped when a pushed
+ * down filter compares a column with a literal, and either the bloom filter of the column chunk doesn't contain the
+ * literal, or none of the pages of the column index has a min/max range containing it.<br>
+ * Only the types for which the parquet value of the literal is unambiguous are considered, conditions on other types
+ * never eliminate a row group.
+ */
+final class RowGroupIndexFilter {
+  private static final Logger logger = LoggerFactory.getLogger(RowGroupIndexFilter.class);
+
+  private final OperatorContext context;
+  private final InputStreamProvider inputStreamProvider;
+  private final ParquetColumnResolver columnResolver;
+
+  // stream of the provider the bloom filters are read from, opened for the first one and closed with the provider
+  private BulkInputStream bloomFilterStream;
+
+  RowGroupIndexFilter(OperatorContext context, InputStreamProvider inputStreamProvider,
+                      ParquetColumnResolver columnResolver) {
+    this.context = context;
+    this.inputStreamProvider = inputStreamProvider;
+    this.columnResolver = columnResolver;
+  }
+
+  /**
+   * @return true if no record of the row group can match all the conditions
+   */
+  boolean canSkip(BlockMetaData block, List<ParquetFilterCondition> conditions) {
+    for (ParquetFilterCondition condition : conditions) {
+      final EqualityCondition equality = EqualityCondition.from(condition.getExpr());
+      if (equality == null) {
+        continue;
+      }
+      final ColumnChunkMetaData column = findColumn(block, equality.column);
+      if (column == null) {
+        continue;
+      }
+      final Object value = toParquetValue(equality.literal, column.getPrimitiveType());
+      if (value == null) {
+        continue;
+      }
+      if (!columnIndexMightContain(column, value) || !bloomFilterMightContain(column, value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private ColumnChunkMetaData findColumn(BlockMetaData block, SchemaPath column) {
+    final String name = columnResolver.getParquetColumnName(column.getRootSegment().getPath());
+    if (name == null) {
+      return null;
+    }
+    for (ColumnChunkMetaData chunk : block.getColumns()) {
+      if (chunk.getPath().size() == 1 && chunk.getPath().toDotString().equalsIgnoreCase(name)) {
+        return chunk;
+      }
+    }
+    return null;
+  }
+
+  private boolean columnIndexMightContain(ColumnChunkMetaData column, Object value) {
+    if (column.getColumnIndexReference() == null) {
+      return true;
+    }
+    // returns null if reading column indexes is disabled
+    try (ColumnIndexProvider provider = inputStreamProvider.getColumnIndexProvider(Collections.singletonList(column))) {
+      final ColumnIndex columnIndex = provider == null ? null : provider.getColumnIndex(column);
+      return columnIndex == null || mightContain(columnIndex, column.getPrimitiveType(), value);
+    }
+  }
+
+  private boolean bloomFilterMightContain(ColumnChunkMetaData column, Object value) {
+    if (column.getBloomFilterOffset() < 0 || !context.getOptions().getOption(ExecConstants.READ_BLOOM_FILTERS)) {
+      return true;
+    }
+    try {
+      if (bloomFilterStream == null) {
+        bloomFilterStream = inputStreamProvider.getStream(null);
+      }
+      final BloomFilter bloomFilter = readBloomFilter(bloomFilterStream, column.getBloomFilterOffset());
+      context.getStats().addLongStat(Metric.BLOOM_FILTER_READ, 1);
+      return bloomFilter == null || bloomFilter.findHash(bloomFilter.hash(value));
+    } catch (IOException e) {
+      logger.debug("Failed to read the bloom filter of column {} in {}", column.getPath(),
+        inputStreamProvider.getStreamPath(), e);
+      return true;
+    }
+  }
+
+  /**
+   * @return the bloom filter at the given offset, or null if its format is not supported
+   */
+  private static BloomFilter readBloomFilter(BulkInputStream is, long offset) throws IOException {
+    is.seek(offset);
+    final BloomFilterHeader header = Util.readBloomFilterHeader(asInputStream(is));
+    final int numBytes = header.getNumBytes();
+    if (numBytes <= 0 || numBytes > BlockSplitBloomFilter.UPPER_BOUND_BYTES
+      || !header.getHash().isSetXXHASH()
+      || !header.getAlgorithm().isSetBLOCK()
+      || !header.getCompression().isSetUNCOMPRESSED()) {
+      return null;
+    }
+    final byte[] bitset = new byte[numBytes];
+    is.readFully(bitset);
+    return new BlockSplitBloomFilter(bitset);
+  }
+
+  /**
+   * @return an input stream reading the bulk input stream from its current position
+   */
+  private static InputStream asInputStream(BulkInputStream is) {
+    if (is instanceof InputStream) {
+      return (InputStream) is;
+    }
+    // only used for the few bytes of a header
+    return new InputStream() {
+      private final byte[] single = new byte[1];
+
+      @Override
+      public int read() throws IOException {
+        is.readFully(single, 0, 1);
+        return single[0] & 0xFF;
+      }
+    };
+  }
+
+  /**
+   * @return true if a non null page of the column index has a min/max range containing the value
+   */
+  @VisibleForTesting
+  @SuppressWarnings("unchecked")
+  static boolean mightContain(ColumnIndex columnIndex, PrimitiveType type, Object value) {
+    final PrimitiveComparator<Object> comparator = (PrimitiveComparator<Object>) type.comparator();
+    final List<Boolean> nullPages = columnIndex.getNullPages();
+    final List<ByteBuffer> minValues = columnIndex.getMinValues();
+    final List<ByteBuffer> maxValues = columnIndex.getMaxValues();
+    for (int i = 0; i < nullPages.size(); i++) {
+      if (nullPages.get(i)) {
+        continue;
+      }
+      final Object min = decode(minValues.get(i), type);
+      final Object max = decode(maxValues.get(i), type);
+      if (comparator.compare(min, value) <= 0 && comparator.compare(value, max) <= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Object decode(ByteBuffer buffer, PrimitiveType type) {
+    final ByteBuffer value = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    switch (type.getPrimitiveTypeName()) {
+    case INT32:
+      return value.getInt(value.position());
+    case INT64:
+      return value.getLong(value.position());
+    case FLOAT:
+      return value.getFloat(value.position());
+    case DOUBLE:
+      return value.getDouble(value.position());
+    default:
+      return Binary.fromConstantByteBuffer(value);
+    }
+  }
+
+  /**
+   * Converts a literal to the value written in the file for a column of the given type.
+   * @return the value, or null if the row groups of this column can't be filtered on the literal
+   */
+  @VisibleForTesting
+  static Object toParquetValue(LogicalExpression literal, PrimitiveType type) {
+    final OriginalType originalType = type.getOriginalType();
+    switch (type.getPrimitiveTypeName()) {
+    case INT32:
+      if (originalType != null && originalType != OriginalType.INT_32) {
+        return null;
+      }
+      if (literal instanceof ValueExpressions.IntExpression) {
+        return ((ValueExpressions.IntExpression) literal).getInt();
+      }
+      if (literal instanceof ValueExpressions.LongExpression) {
+        final long value = ((ValueExpressions.LongExpression) literal).getLong();
+        return value == (int) value ? (int) value : null;
+      }
+      return null;
+    case INT64:
+      if (originalType != null && originalType != OriginalType.INT_64) {
+        return null;
+      }
+      if (literal instanceof ValueExpressions.IntExpression) {
+        return (long) ((ValueExpressions.IntExpression) literal).getInt();
+      }
+      if (literal instanceof ValueExpressions.LongExpression) {
+        return ((ValueExpressions.LongExpression) literal).getLong();
+      }
+      return null;
+    case FLOAT:
+      if (literal instanceof ValueExpressions.FloatExpression) {
+        final float value = ((ValueExpressions.FloatExpression) literal).getFloat();
+        // NaN and signed zeros may not be ordered consistently in the statistics
+        return Float.isNaN(value) || value == 0 ? null : value;
+      }
+      return null;
+    case DOUBLE:
+      if (literal instanceof ValueExpressions.DoubleExpression) {
+        final double value = ((ValueExpressions.DoubleExpression) literal).getDouble();
+        return Double.isNaN(value) || value == 0 ? null : value;
+      }
+      return null;
+    case BINARY:
+      if (originalType == OriginalType.UTF8 && literal instanceof ValueExpressions.QuotedString) {
+        return Binary.fromString(((ValueExpressions.QuotedString) literal).getString());
+      }
+      return null;
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * A comparison of a top level column with a literal.
+   */
+  @VisibleForTesting
+  static final class EqualityCondition {
+    private final SchemaPath column;
+    private final LogicalExpression literal;
+
+    private EqualityCondition(SchemaPath column, LogicalExpression literal) {
+      this.column = column;
+      this.literal = literal;
+    }
+
+    SchemaPath getColumn() {
+      return column;
+    }
+
+    LogicalExpression getLiteral() {
+      return literal;
+    }
+
+    /**
+     * @return the condition, or null if the expression is not an equality between a column and a literal
+     */
+    static EqualityCondition from(LogicalExpression expr) {
+      if (!(expr instanceof FunctionCall)) {
+        return null;
+      }
+      final FunctionCall call = (FunctionCall) expr;
+      if (!"equal".equals(call.getName()) || call.args.size() != 2) {
+        return null;
+      }
+      final LogicalExpression left = call.args.get(0);
+      final LogicalExpression right = call.args.get(1);
+      if (isTopLevelColumn(left)) {
+        return new EqualityCondition((SchemaPath) left, right);
+      }
+      if (isTopLevelColumn(right)) {
+        return new EqualityCondition((SchemaPath) right, left);
+      }
+      return null;
+    }
+
+    private static boolean isTopLevelColumn(LogicalExpression expr) {
+      return expr instanceof SchemaPath && ((SchemaPath) expr).isSimplePath()
+        && ((SchemaPath) expr).getRootSegment().isLastPath();
+    }
+  }
+}
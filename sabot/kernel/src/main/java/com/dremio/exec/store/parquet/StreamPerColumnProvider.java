@@ -15,22 +15,41 @@
  */
 package com.dremio.exec.store.parquet;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.exec.ExecConstants;
+import com.dremio.io.AsyncByteReader;
 import com.dremio.io.FSInputStream;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.scan.ScanOperator;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+import io.netty.buffer.NettyArrowBuf;
 
 /**
  * An InputStreamProvider that opens a separate stream for each column.
+ *
+ * When coalescing is enabled, the column chunks of a row group announced through
+ * {@link #planColumnChunkReads(int, List)} are grouped by {@link ColumnChunkReadPlanner} and each group is fetched
+ * with a single request. The requests are issued concurrently, and each column reads its chunk from a slice of the
+ * group's buffer instead of opening its own stream.
  */
 
 public class StreamPerColumnProvider implements InputStreamProvider {
@@ -43,9 +62,24 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   private final BufferAllocator allocator;
   private final OperatorContext context;
 
+  private final long mTime;
+  private final List<String> dataset;
+
   private final List<BulkInputStream> streams = new ArrayList<>();
 
+  // buffered column chunks of the current row group, by starting position
+  private final Map<Long, ArrowBuf> bufferedChunks = new HashMap<>();
+  private final List<ArrowBuf> bufferedRanges = new ArrayList<>();
+  private long bufferedBytes;
+  private int bufferedRowGroup = -1;
+  private long maxCoalescedReadTime;
+
   public StreamPerColumnProvider(FileSystem fs, Path path, long length, long maxFooterLen, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes) {
+    this(fs, path, length, maxFooterLen, footer, context, readColumnOffsetIndexes, 0, null);
+  }
+
+  public StreamPerColumnProvider(FileSystem fs, Path path, long length, long maxFooterLen, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes,
+                                 long mTime, List<String> dataset) {
     this.fs = fs;
     this.path = path;
     this.length = length;
@@ -58,6 +92,8 @@ public class StreamPerColumnProvider implements InputStreamProvider {
       this.allocator = null;
     }
     this.context = context;
+    this.mTime = mTime;
+    this.dataset = dataset;
   }
 
   @Override
@@ -67,12 +103,137 @@ public class StreamPerColumnProvider implements InputStreamProvider {
 
   @Override
   public BulkInputStream getStream(ColumnChunkMetaData column) throws IOException {
+    final ArrowBuf buffered = column == null ? null : bufferedChunks.remove(column.getStartingPos());
+    if (buffered != null) {
+      return new ArrowBufBulkInputStream(buffered, column.getStartingPos());
+    }
     FSInputStream is = fs.open(path);
     BulkInputStream stream = BulkInputStream.wrap(Streams.wrap(is));
     streams.add(stream);
     return stream;
   }
 
+  @Override
+  public void planColumnChunkReads(int rowGroupIndex, List<ColumnChunkMetaData> columns) throws IOException {
+    if (context == null || !context.getOptions().getOption(ExecConstants.PARQUET_COALESCE_READS)) {
+      return;
+    }
+    if (rowGroupIndex != bufferedRowGroup) {
+      // the readers of the previous row group are closed before the next row group is read
+      releaseBufferedRanges();
+      bufferedRowGroup = rowGroupIndex;
+    }
+
+    final OptionManager options = context.getOptions();
+    final long maxGap = options.getOption(ExecConstants.PARQUET_COALESCE_READS_MAX_GAP);
+    final long maxRange = options.getOption(ExecConstants.PARQUET_COALESCE_READS_MAX_RANGE);
+    final long maxBuffered = options.getOption(ExecConstants.PARQUET_COALESCE_READS_MAX_BUFFERED);
+
+    final List<ColumnChunkMetaData> chunks = new ArrayList<>();
+    for (ColumnChunkMetaData column : columns) {
+      if (column != null && column.getTotalSize() <= maxRange && !bufferedChunks.containsKey(column.getStartingPos())) {
+        chunks.add(column);
+      }
+    }
+
+    final List<ColumnChunkReadPlanner.Range> ranges = new ArrayList<>();
+    for (ColumnChunkReadPlanner.Range range : ColumnChunkReadPlanner.plan(chunks, maxGap, maxRange)) {
+      // a range with a single chunk doesn't save any request, the chunk is streamed as before
+      if (range.getChunks().size() > 1 && bufferedBytes + range.getLength() <= maxBuffered) {
+        ranges.add(range);
+        bufferedBytes += range.getLength();
+      }
+    }
+    if (!ranges.isEmpty()) {
+      readRanges(ranges);
+    }
+  }
+
+  private void readRanges(List<ColumnChunkReadPlanner.Range> ranges) throws IOException {
+    final List<ArrowBuf> buffers = new ArrayList<>(ranges.size());
+    try {
+      for (ColumnChunkReadPlanner.Range range : ranges) {
+        final ArrowBuf buf = allocator.buffer(range.getLength());
+        // keep track of the buffer right away so that it is released if a later allocation or read fails
+        bufferedRanges.add(buf);
+        buffers.add(buf);
+      }
+      final long[] latencies = fs.supportsAsync() ? readRangesAsync(ranges, buffers) : readRangesSync(ranges, buffers);
+      for (int i = 0; i < ranges.size(); i++) {
+        maxCoalescedReadTime = Math.max(maxCoalescedReadTime, latencies[i]);
+        context.getStats().addLongStat(ScanOperator.Metric.NUM_COALESCED_READS, 1);
+        context.getStats().addLongStat(ScanOperator.Metric.COALESCED_READ_BYTES, ranges.get(i).getLength());
+      }
+      context.getStats().setLongStat(ScanOperator.Metric.MAX_COALESCED_READ_TIME_NS, maxCoalescedReadTime);
+    } catch (IOException | RuntimeException e) {
+      releaseBufferedRanges();
+      throw e;
+    }
+
+    for (int i = 0; i < ranges.size(); i++) {
+      final ColumnChunkReadPlanner.Range range = ranges.get(i);
+      for (ColumnChunkMetaData chunk : range.getChunks()) {
+        bufferedChunks.put(chunk.getStartingPos(),
+          buffers.get(i).slice(chunk.getStartingPos() - range.getStart(), chunk.getTotalSize()));
+      }
+    }
+  }
+
+  private long[] readRangesAsync(List<ColumnChunkReadPlanner.Range> ranges, List<ArrowBuf> buffers) throws IOException {
+    final long[] latencies = new long[ranges.size()];
+    final List<CompletableFuture<Void>> futures = new ArrayList<>(ranges.size());
+    try (AsyncByteReader reader = fs.getAsyncByteReader(
+      AsyncByteReader.FileKey.of(path, Long.toString(mTime), AsyncByteReader.FileKey.FileType.PARQUET, dataset))) {
+      for (int i = 0; i < ranges.size(); i++) {
+        final int index = i;
+        final long start = System.nanoTime();
+        futures.add(reader.readFully(ranges.get(i).getStart(), NettyArrowBuf.unwrapBuffer(buffers.get(i)), 0,
+            (int) ranges.get(i).getLength())
+          .thenRun(() -> latencies[index] = System.nanoTime() - start));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading column chunks of " + path, e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+    return latencies;
+  }
+
+  private long[] readRangesSync(List<ColumnChunkReadPlanner.Range> ranges, List<ArrowBuf> buffers) throws IOException {
+    final long[] latencies = new long[ranges.size()];
+    try (FSInputStream is = fs.open(path)) {
+      for (int i = 0; i < ranges.size(); i++) {
+        final long start = System.nanoTime();
+        final ByteBuffer dst = buffers.get(i).nioBuffer(0, (int) ranges.get(i).getLength());
+        long position = ranges.get(i).getStart();
+        while (dst.hasRemaining()) {
+          final int read = is.read(position, dst);
+          if (read < 0) {
+            throw new EOFException(String.format("Reached end of file %s while reading %d bytes at offset %d",
+              path, ranges.get(i).getLength(), ranges.get(i).getStart()));
+          }
+          position += read;
+        }
+        latencies[i] = System.nanoTime() - start;
+      }
+    }
+    return latencies;
+  }
+
+  private void releaseBufferedRanges() {
+    bufferedChunks.clear();
+    AutoCloseables.close(RuntimeException.class, bufferedRanges);
+    bufferedRanges.clear();
+    bufferedBytes = 0;
+  }
+
   @Override
   public boolean isSingleStream() {
     return false;
@@ -137,6 +298,7 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   @Override
   public void close() throws IOException {
     try {
+      releaseBufferedRanges();
       AutoCloseables.close(streams);
     } catch (IOException | RuntimeException e) {
       throw e;
@@ -20,6 +20,7 @@ import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -186,7 +187,7 @@ public class UnifiedParquetReader implements RecordReader {
       this.validityBuf = context.getAllocator().buffer(maxValidityBufSize);
     }
 
-    final ExecutionPath execPath = getExecutionPath();
+    final ExecutionPath execPath = canSkipRowGroup() ? ExecutionPath.SKIP_ALL : getExecutionPath();
     delegates = execPath.getReaders(this);
 
     Preconditions.checkArgument(!delegates.isEmpty(), "There should be at least one delegated RecordReader");
@@ -251,6 +252,23 @@ public class UnifiedParquetReader implements RecordReader {
     }
   }
 
+  /**
+   * @return true if the column indexes or bloom filters of the row group show that no record matches the filters
+   */
+  private boolean canSkipRowGroup() {
+    if (filterConditions == null || filterConditions.isEmpty() || filterCreator.filterMayChange()) {
+      return false;
+    }
+    final BlockMetaData block = footer.getBlocks().get(readEntry.getRowGroupIndex());
+    final RowGroupIndexFilter indexFilter = new RowGroupIndexFilter(context, inputStreamProvider,
+      columnResolver);
+    if (!indexFilter.canSkip(block, filterConditions)) {
+      return false;
+    }
+    context.getStats().addLongStat(Metric.NUM_ROW_GROUPS_PRUNED, 1);
+    return true;
+  }
+
   private RecordReader addFilterIfNecessary(RecordReader delegate) {
     if (filterConditions == null || filterConditions.isEmpty()) {
       return delegate;
@@ -273,6 +291,76 @@ public class UnifiedParquetReader implements RecordReader {
     return new CopyingFilteringReader(delegate, context, filterExpr);
   }
 
+  /**
+   * Creates a reader that reads the filter columns first, and the other projected columns only for the rows matching
+   * the filter.
+   *
+   * @return the reader, or null if late materialization does not apply to this row group
+   */
+  private RecordReader newLateMaterializingReader() {
+    if (!context.getOptions().getOption(ExecConstants.PARQUET_LATE_MATERIALIZATION)
+      || filterConditions == null || filterConditions.isEmpty() || filterCreator.filterMayChange()) {
+      return null;
+    }
+
+    final List<ParquetFilterCondition> exactConditions = filterConditions.stream()
+      .filter(c -> c.getFilter().exact())
+      .collect(Collectors.toList());
+    if (exactConditions.isEmpty()) {
+      return null;
+    }
+
+    final Set<String> filterColumnNames = new HashSet<>();
+    for (ParquetFilterCondition condition : exactConditions) {
+      final SchemaPath path = condition.getPath();
+      if (!path.isSimplePath() || !path.getRootSegment().isLastPath()) {
+        return null;
+      }
+      filterColumnNames.add(path.getRootSegment().getPath().toLowerCase());
+    }
+
+    // filter columns must be read from the file and copied to the output
+    final Set<String> outputColumnNames = outputMutator.getVectors().stream()
+      .map(v -> v.getField().getName().toLowerCase())
+      .collect(Collectors.toSet());
+    if (!outputColumnNames.containsAll(filterColumnNames)) {
+      return null;
+    }
+    final List<SchemaPath> fileColumns = columnResolver.getBatchSchemaColumns(nonVectorizableReaderColumns);
+    final List<SchemaPath> filterColumns = fileColumns.stream()
+      .filter(c -> filterColumnNames.contains(c.getRootSegment().getPath().toLowerCase()))
+      .collect(Collectors.toList());
+    if (filterColumns.size() != filterColumnNames.size()) {
+      return null;
+    }
+
+    // projected columns missing from the file are null filled by the reader of the remaining columns
+    final List<SchemaPath> projected = ColumnUtils.isStarQuery(columnResolver.getBatchSchemaProjectedColumns())
+      ? fileColumns : columnResolver.getBatchSchemaProjectedColumns();
+    final List<SchemaPath> remainingColumns = projected.stream()
+      .filter(c -> !filterColumnNames.contains(c.getRootSegment().getPath().toLowerCase()))
+      .collect(Collectors.toList());
+    if (remainingColumns.isEmpty()) {
+      // nothing to gain, all columns are needed to evaluate the filter
+      return null;
+    }
+
+    final RecordReader filterColumnsReader = new ParquetRowiseReader(context, footer, readEntry.getRowGroupIndex(),
+      readEntry.getPath(), projectedColumns.cloneForSchemaPaths(filterColumns), fs, schemaHelper, inputStreamProvider,
+      codecFactory);
+    final List<LogicalExpression> logicalExpressions = exactConditions.stream()
+      .map(ParquetFilterCondition::getExpr)
+      .collect(Collectors.toList());
+    final LogicalExpression filterExpr = logicalExpressions.size() == 1 ? logicalExpressions.get(0)
+      : FunctionCallFactory.createBooleanOperator("and", logicalExpressions);
+
+    return new LateMaterializingParquetReader(context, filterColumnsReader,
+      deltas -> new ParquetRowiseReader(context, footer, readEntry.getRowGroupIndex(), readEntry.getPath(),
+        projectedColumns.cloneForSchemaPaths(remainingColumns), fs, schemaHelper, deltas, inputStreamProvider,
+        codecFactory),
+      filterColumnNames, filterExpr);
+  }
+
   @Override
   public void allocate(Map<String, ValueVector> vectorMap) throws OutOfMemoryException {
     for(ValueVector v : vectorMap.values()){
@@ -591,6 +679,11 @@ public class UnifiedParquetReader implements RecordReader {
     ROWWISE {
       @Override
       public List<RecordReader> getReaders(UnifiedParquetReader unifiedReader) {
+        final RecordReader lateMaterializingReader = unifiedReader.newLateMaterializingReader();
+        if (lateMaterializingReader != null) {
+          return Collections.singletonList(lateMaterializingReader);
+        }
+
         List<RecordReader> returnList = new ArrayList<>();
         returnList.add(unifiedReader.addFilterIfNecessary(
           new ParquetRowiseReader(
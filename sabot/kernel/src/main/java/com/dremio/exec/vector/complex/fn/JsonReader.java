@@ -108,6 +108,10 @@ public class JsonReader extends BaseJsonProcessor {
 
   @Override
   public void ensureAtLeastOneField(ComplexWriter writer) {
+    ensureAtLeastOneField(writer, columns, allTextMode);
+  }
+
+  static void ensureAtLeastOneField(ComplexWriter writer, List<SchemaPath> columns, boolean allTextMode) {
     List<BaseWriter.StructWriter> writerList = Lists.newArrayList();
     List<PathSegment> fieldPathList = Lists.newArrayList();
     BitSet emptyStatus = new BitSet(columns.size());
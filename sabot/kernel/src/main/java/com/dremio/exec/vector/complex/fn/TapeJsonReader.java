@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.vector.complex.fn;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.complex.writer.BaseWriter.ComplexWriter;
+import org.apache.arrow.vector.complex.writer.BaseWriter.ListWriter;
+import org.apache.arrow.vector.complex.writer.BaseWriter.StructWriter;
+
+import com.dremio.common.exceptions.FieldSizeLimitExceptionHelper;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.catalog.ColumnCountTooLargeException;
+import com.dremio.exec.store.easy.json.reader.JsonTape;
+import com.dremio.exec.store.easy.json.reader.TapeJsonProcessor;
+import com.dremio.exec.vector.complex.fn.VectorOutput.ListVectorOutput;
+import com.dremio.exec.vector.complex.fn.VectorOutput.MapVectorOutput;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+
+/**
+ * JSON reader that materializes records from a {@link JsonTape} instead of a streaming parser.
+ *
+ * Produces the same vectors as {@link JsonReader} with a root array of maps unwrapped. Only the projected paths
+ * are decoded: unprojected values are skipped using the links of the tape, so their strings and numbers are
+ * never parsed. Extended type maps (e.g. <code>{"$date": ...}</code>) are handed over to the Jackson based
+ * {@link VectorOutput}s.
+ */
+public class TapeJsonReader extends TapeJsonProcessor {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TapeJsonReader.class);
+
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private final WorkingBuffer workingBuffer;
+  private final List<SchemaPath> columns;
+  private final FieldSelection selection;
+  private final boolean allTextMode;
+  private final boolean readNumbersAsDouble;
+  private final MapVectorOutput mapOutput;
+  private final ListVectorOutput listOutput;
+  private final int maxFieldSize;
+  private final int maxLeafLimit;
+  private int currentLeafCount;
+
+  private long dataSizeReadSoFar;
+
+  /**
+   * The name of the current field being parsed. For Error messages.
+   */
+  private String currentFieldName = "<none>";
+
+  /**
+   * Set by {@link #stringEnd(int)} when the string contains escape sequences.
+   */
+  private boolean stringHasEscapes;
+
+  public TapeJsonReader(ArrowBuf managedBuf, List<SchemaPath> columns, int maxFieldSize, int maxLeafLimit,
+                        boolean allTextMode, boolean readNumbersAsDouble) {
+    super(maxFieldSize);
+    assert Preconditions.checkNotNull(columns).size() > 0 : "JSON record reader requires at least one column";
+    this.selection = FieldSelection.getFieldSelection(columns);
+    this.workingBuffer = new WorkingBuffer(managedBuf);
+    this.columns = columns;
+    this.allTextMode = allTextMode;
+    this.readNumbersAsDouble = readNumbersAsDouble;
+    this.mapOutput = new MapVectorOutput(workingBuffer);
+    this.listOutput = new ListVectorOutput(workingBuffer);
+    this.maxFieldSize = maxFieldSize;
+    this.maxLeafLimit = maxLeafLimit;
+  }
+
+  @Override
+  public void resetDataSizeCounter() {
+    dataSizeReadSoFar = 0;
+  }
+
+  @Override
+  public long getDataSizeCounter() {
+    return dataSizeReadSoFar;
+  }
+
+  @Override
+  public void ensureAtLeastOneField(ComplexWriter writer) {
+    JsonReader.ensureAtLeastOneField(writer, columns, allTextMode);
+  }
+
+  @Override
+  public ReadState write(ComplexWriter writer) throws IOException {
+    final int record = nextRecord();
+    if (record < 0) {
+      return ReadState.END_OF_STREAM;
+    }
+
+    currentLeafCount = 0;
+    writeStructData(writer.rootAsStruct(), selection, record);
+    return ReadState.WRITE_SUCCEED;
+  }
+
+  private void writeStructData(StructWriter map, FieldSelection selection, int index) throws IOException {
+    map.start();
+    try {
+      int i = index + 1;
+      while (tape.getType(i) != JsonTape.END_OBJECT) {
+        currentEntry = i;
+        final String fieldName = readString(i);
+        final int value = i + 1;
+        i = tape.skip(value);
+
+        this.currentFieldName = fieldName;
+        final FieldSelection childSelection = selection.getChild(fieldName);
+        if (childSelection.isNeverValid()) {
+          continue;
+        }
+
+        currentEntry = value;
+        final byte type = tape.getType(value);
+        switch (type) {
+          case JsonTape.START_ARRAY:
+            writeListData(map.list(fieldName), childSelection, value);
+            break;
+          case JsonTape.START_OBJECT:
+            if (!writeMapDataIfTyped(map, fieldName, value)) {
+              writeStructData(map.struct(fieldName), childSelection, value);
+            }
+            break;
+          case JsonTape.NULL:
+            // do nothing as we don't have a type.
+            break;
+          case JsonTape.STRING:
+            handleString(map, fieldName, value);
+            break;
+          default:
+            if (allTextMode) {
+              handleAtomAsString(map, fieldName, value);
+            } else {
+              writeScalar(map, fieldName, type, value);
+            }
+            break;
+        }
+      }
+    } finally {
+      map.end();
+    }
+  }
+
+  private void writeScalar(StructWriter map, String fieldName, byte type, int index) throws IOException {
+    incrementLeafCount();
+    switch (type) {
+      case JsonTape.TRUE:
+        checkAtom(index, "true");
+        map.bit(fieldName).writeBit(1);
+        break;
+      case JsonTape.FALSE:
+        checkAtom(index, "false");
+        map.bit(fieldName).writeBit(0);
+        break;
+      case JsonTape.NUMBER:
+        dataSizeReadSoFar += 8;
+        if (readNumbersAsDouble || isFloat(index)) {
+          map.float8(fieldName).writeFloat8(readDouble(index));
+        } else {
+          map.bigInt(fieldName).writeBigInt(readLong(index));
+        }
+        break;
+      default:
+        throw getExceptionWithContext(UserException.dataReadError(), currentFieldName, null)
+          .message("Unexpected token %s", (char) type)
+          .build(logger);
+    }
+  }
+
+  private void writeListData(ListWriter list, FieldSelection selection, int index) throws IOException {
+    list.startList();
+    final int originalLeafCount = currentLeafCount;
+    int maxArrayLeafCount = 0;
+    int i = index + 1;
+    while (tape.getType(i) != JsonTape.END_ARRAY) {
+      currentLeafCount = originalLeafCount;
+      currentEntry = i;
+      final int value = i;
+      i = tape.skip(value);
+      try {
+        final byte type = tape.getType(value);
+        switch (type) {
+          case JsonTape.START_ARRAY:
+            writeListData(list.list(), selection, value);
+            break;
+          case JsonTape.START_OBJECT:
+            if (!writeListDataIfTyped(list, value)) {
+              writeStructData(list.struct(), selection, value);
+            }
+            break;
+          case JsonTape.STRING:
+            handleString(list, value);
+            break;
+          case JsonTape.NULL:
+            if (allTextMode) {
+              handleAtomAsString(list, value);
+              break;
+            }
+            throw UserException.unsupportedError()
+              .message("Null values are not supported in lists by default. " +
+                "Please set `store.json.all_text_mode` to true to read lists containing nulls. " +
+                "Be advised that this will treat JSON null values as a string containing the word 'null'.")
+              .build(logger);
+          default:
+            if (allTextMode) {
+              handleAtomAsString(list, value);
+            } else {
+              writeScalar(list, type, value);
+            }
+            break;
+        }
+
+        // Take the maximum number of leaves from the current and the calculated for this array entry.
+        maxArrayLeafCount = Math.max(maxArrayLeafCount, currentLeafCount);
+      } catch (Exception e) {
+        throw getExceptionWithContext(e, this.currentFieldName, null).build(logger);
+      }
+    }
+
+    // Take the maximum calculated leaf count from the array.
+    currentLeafCount = maxArrayLeafCount;
+    list.endList();
+  }
+
+  private void writeScalar(ListWriter list, byte type, int index) throws IOException {
+    incrementLeafCount();
+    switch (type) {
+      case JsonTape.TRUE:
+        checkAtom(index, "true");
+        list.bit().writeBit(1);
+        break;
+      case JsonTape.FALSE:
+        checkAtom(index, "false");
+        list.bit().writeBit(0);
+        break;
+      case JsonTape.NUMBER:
+        dataSizeReadSoFar += 8;
+        if (readNumbersAsDouble || isFloat(index)) {
+          list.float8().writeFloat8(readDouble(index));
+        } else {
+          list.bigInt().writeBigInt(readLong(index));
+        }
+        break;
+      default:
+        throw UserException.dataReadError()
+          .message("Unexpected token %s", (char) type)
+          .build(logger);
+    }
+  }
+
+  /**
+   * Extended types are only recognized when the first field name of the map starts with '$', in which case the
+   * map is replayed through a Jackson parser over its bytes.
+   */
+  private boolean writeMapDataIfTyped(StructWriter writer, String fieldName, int index) throws IOException {
+    if (!isExtendedTypeCandidate(index)) {
+      return false;
+    }
+    mapOutput.setParser(parserFor(index));
+    return mapOutput.run(writer, fieldName);
+  }
+
+  private boolean writeListDataIfTyped(ListWriter writer, int index) throws IOException {
+    if (!isExtendedTypeCandidate(index)) {
+      return false;
+    }
+    listOutput.setParser(parserFor(index));
+    return listOutput.run(writer);
+  }
+
+  private boolean isExtendedTypeCandidate(int index) {
+    final int firstKey = index + 1;
+    return tape.getType(firstKey) == JsonTape.STRING && buffer[tape.getOffset(firstKey) + 1] == '$';
+  }
+
+  private JsonParser parserFor(int index) throws IOException {
+    final int start = tape.getOffset(index);
+    final int end = tape.getOffset(tape.getLink(index));
+    final JsonParser parser = FACTORY.createParser(buffer, start, end - start + 1);
+    parser.nextToken();
+    return parser;
+  }
+
+  private void handleString(StructWriter writer, String fieldName, int index) throws IOException {
+    incrementLeafCount();
+    final int size = prepareString(index);
+    writer.varChar(fieldName).writeVarChar(0, size, workingBuffer.getBuf());
+  }
+
+  private void handleString(ListWriter writer, int index) throws IOException {
+    incrementLeafCount();
+    final int size = prepareString(index);
+    writer.varChar().writeVarChar(0, size, workingBuffer.getBuf());
+  }
+
+  private void handleAtomAsString(StructWriter writer, String fieldName, int index) {
+    incrementLeafCount();
+    final int size = prepareAtom(index);
+    writer.varChar(fieldName).writeVarChar(0, size, workingBuffer.getBuf());
+  }
+
+  private void handleAtomAsString(ListWriter writer, int index) {
+    incrementLeafCount();
+    final int size = prepareAtom(index);
+    writer.varChar().writeVarChar(0, size, workingBuffer.getBuf());
+  }
+
+  /**
+   * Copy the string at the given tape entry to the working buffer, without decoding it if it has no escapes.
+   */
+  private int prepareString(int index) throws IOException {
+    final int start = tape.getOffset(index) + 1;
+    final int end = stringEnd(start);
+    final int size;
+    if (stringHasEscapes) {
+      size = workingBuffer.prepareVarCharHolder(unescape(start, end));
+    } else {
+      size = workingBuffer.prepareBinary(buffer, start, end - start);
+    }
+    FieldSizeLimitExceptionHelper.checkSizeLimit(size, maxFieldSize, currentFieldName, logger);
+    dataSizeReadSoFar += size;
+    return size;
+  }
+
+  private int prepareAtom(int index) {
+    final int start = tape.getOffset(index);
+    final int size = atomEnd(start) - start;
+    FieldSizeLimitExceptionHelper.checkSizeLimit(size, maxFieldSize, currentFieldName, logger);
+    workingBuffer.prepareBinary(buffer, start, size);
+    dataSizeReadSoFar += size;
+    return size;
+  }
+
+  private String readString(int index) throws IOException {
+    final int start = tape.getOffset(index) + 1;
+    final int end = stringEnd(start);
+    return stringHasEscapes ? unescape(start, end) : new String(buffer, start, end - start, Charsets.UTF_8);
+  }
+
+  /**
+   * Find the closing quote of the string whose content starts at {@code start}.
+   */
+  private int stringEnd(int start) {
+    stringHasEscapes = false;
+    int i = start;
+    while (true) {
+      final byte b = buffer[i];
+      if (b == '"') {
+        return i;
+      }
+      if (b == '\\') {
+        stringHasEscapes = true;
+        i += 2;
+      } else {
+        i++;
+      }
+    }
+  }
+
+  private String unescape(int start, int end) throws IOException {
+    final StringBuilder sb = new StringBuilder(end - start);
+    int run = start;
+    int i = start;
+    while (i < end) {
+      if (buffer[i] != '\\') {
+        i++;
+        continue;
+      }
+
+      sb.append(new String(buffer, run, i - run, Charsets.UTF_8));
+      final byte escaped = buffer[i + 1];
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          sb.append((char) escaped);
+          break;
+        case 'b':
+          sb.append('\b');
+          break;
+        case 'f':
+          sb.append('\f');
+          break;
+        case 'n':
+          sb.append('\n');
+          break;
+        case 'r':
+          sb.append('\r');
+          break;
+        case 't':
+          sb.append('\t');
+          break;
+        case 'u':
+          if (i + 6 > end) {
+            throw invalidValue("Truncated unicode escape");
+          }
+          try {
+            sb.append((char) Integer.parseInt(new String(buffer, i + 2, 4, Charsets.US_ASCII), 16));
+          } catch (NumberFormatException e) {
+            throw invalidValue("Invalid unicode escape");
+          }
+          i += 4;
+          break;
+        default:
+          throw invalidValue("Unrecognized character escape '" + (char) escaped + "'");
+      }
+      i += 2;
+      run = i;
+    }
+    sb.append(new String(buffer, run, end - run, Charsets.UTF_8));
+    return sb.toString();
+  }
+
+  /**
+   * Find the end of the unquoted scalar starting at {@code start}.
+   */
+  private int atomEnd(int start) {
+    int i = start;
+    while (i < bufferLength) {
+      switch (buffer[i]) {
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+        case ',':
+        case '}':
+        case ']':
+          return i;
+        default:
+          i++;
+      }
+    }
+    return i;
+  }
+
+  private void checkAtom(int index, String expected) {
+    final int start = tape.getOffset(index);
+    final int end = atomEnd(start);
+    boolean valid = end - start == expected.length();
+    for (int i = 0; valid && i < expected.length(); i++) {
+      valid = buffer[start + i] == expected.charAt(i);
+    }
+    if (!valid) {
+      throw invalidValue("Unrecognized token '" + new String(buffer, start, end - start, Charsets.UTF_8) + "'");
+    }
+  }
+
+  private boolean isFloat(int index) {
+    final int start = tape.getOffset(index);
+    final int end = atomEnd(start);
+    for (int i = start; i < end; i++) {
+      final byte b = buffer[i];
+      if (b == '.' || b == 'e' || b == 'E') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private long readLong(int index) {
+    final int start = tape.getOffset(index);
+    final int end = atomEnd(start);
+    final boolean negative = buffer[start] == '-';
+    int i = negative ? start + 1 : start;
+    if (i == end || end - i > 18) {
+      // too long to be accumulated without overflow checks.
+      try {
+        return Long.parseLong(new String(buffer, start, end - start, Charsets.US_ASCII));
+      } catch (NumberFormatException e) {
+        throw invalidValue("Numeric value (" + new String(buffer, start, end - start, Charsets.US_ASCII)
+          + ") out of range of long");
+      }
+    }
+
+    long value = 0;
+    for (; i < end; i++) {
+      final int digit = buffer[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw invalidValue("Invalid numeric value '" + new String(buffer, start, end - start, Charsets.US_ASCII) + "'");
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  private double readDouble(int index) {
+    final int start = tape.getOffset(index);
+    final String text = new String(buffer, start, atomEnd(start) - start, Charsets.US_ASCII);
+    try {
+      return Double.parseDouble(text);
+    } catch (NumberFormatException e) {
+      throw invalidValue("Invalid numeric value '" + text + "'");
+    }
+  }
+
+  private UserException invalidValue(String message) {
+    return getExceptionWithContext(UserException.dataReadError(), currentFieldName, "%s", message).build(logger);
+  }
+
+  /**
+   * Increment the current leaf count and throw ColumnCountTooLargeException if the max limit is exceeded.
+   */
+  private void incrementLeafCount() {
+    if (++currentLeafCount > maxLeafLimit) {
+      throw new ColumnCountTooLargeException(maxLeafLimit);
+    }
+  }
+}
@@ -51,6 +51,12 @@ public class WorkingBuffer {
     return b.length;
   }
 
+  public int prepareBinary(byte[] b, int start, int length){
+    ensure(length);
+    workBuf.setBytes(0, b, start, length);
+    return length;
+  }
+
   public int prepareVarCharHolder(String value) throws IOException {
     byte[] b = value.getBytes(Charsets.UTF_8);
     ensure(b.length);
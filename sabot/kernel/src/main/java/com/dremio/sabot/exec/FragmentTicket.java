@@ -45,6 +45,10 @@ public class FragmentTicket implements AutoCloseable {
 
   public FragmentHandle getHandle() { return handle; }
 
+  public PhaseTicket getPhaseTicket() {
+    return phaseTicket;
+  }
+
   public SchedulingGroup<AsyncTaskWrapper> getSchedulingGroup() {
     return schedulingGroup;
   }
@@ -18,6 +18,8 @@ package com.dremio.sabot.exec;
 import java.util.Collection;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 import org.apache.arrow.memory.BufferAllocator;
 
@@ -36,11 +38,15 @@ import com.google.common.collect.ImmutableList;
  *
  *  The PhaseTicket tracks the child FragmentTickets. When the last FragmentTicket is closed, the PhaseTicket closes the
  *  phase-level allocator. Any further operations on the phase-level allocator will throw an {@link IllegalStateException}
+ *
+ *  The fragments of the phase can also share objects through the PhaseTicket, for instance a join table built once for
+ *  all of them. Those objects are responsible for releasing their memory before the last fragment completes.
  */
 public class PhaseTicket extends TicketWithChildren {
   private final QueryTicket queryTicket;
   private final int majorFragmentId;
   private final Set<FragmentTicket> fragmentTickets = ConcurrentHashMap.newKeySet();
+  private final ConcurrentMap<String, Object> sharedObjects = new ConcurrentHashMap<>();
 
   public PhaseTicket(QueryTicket queryTicket, int majorFragmentId, BufferAllocator allocator) {
     super(allocator);
@@ -66,6 +72,14 @@ public class PhaseTicket extends TicketWithChildren {
     return super.release();
   }
 
+  /**
+   * @return the object shared by the fragments of this phase under the given key, created if it doesn't exist yet
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getOrCreateSharedObject(String key, Function<BufferAllocator, T> factory) {
+    return (T) sharedObjects.computeIfAbsent(key, k -> factory.apply(getAllocator()));
+  }
+
   public Collection<FragmentTicket> getFragmentTickets() {
     return ImmutableList.copyOf(fragmentTickets);
   }
@@ -139,6 +139,14 @@ public abstract class OperatorContext {
 
   public abstract Provider<CoordinationProtos.NodeEndpoint> getNodeEndpointProvider();
 
+  /**
+   * @return the objects shared with the other fragments of the same phase on this node, or null if the operator is
+   * not running in a fragment
+   */
+  public PhaseSharedContext getPhaseSharedContext() {
+    return null;
+  }
+
   public interface Creator {
     public OperatorContext newOperatorContext(PhysicalOperator popConfig) throws Exception;
   }
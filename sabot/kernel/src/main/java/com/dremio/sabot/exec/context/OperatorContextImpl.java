@@ -86,6 +86,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
   private final SpillService spillService;
   private final EndpointsIndex endpointsIndex;
   private final Map<Integer, MajorFragmentAssignment> majorFragmentAssignments;
+  private PhaseSharedContext phaseSharedContext;
 
   public OperatorContextImpl(
     SabotConfig config,
@@ -240,6 +241,15 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     return nodeEndpointProvider;
   }
 
+  @Override
+  public PhaseSharedContext getPhaseSharedContext() {
+    return phaseSharedContext;
+  }
+
+  public void setPhaseSharedContext(PhaseSharedContext phaseSharedContext) {
+    this.phaseSharedContext = phaseSharedContext;
+  }
+
   @Override
   public VectorContainer createOutputVectorContainer() {
     return new VectorContainer(fragmentOutputAllocator);
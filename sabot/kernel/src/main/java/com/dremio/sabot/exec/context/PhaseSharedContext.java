@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.context;
+
+import java.util.function.Function;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+
+/**
+ * Gives the operators of a fragment access to the objects shared by all the fragments of the same phase (major
+ * fragment) running on this node.
+ */
+public interface PhaseSharedContext {
+
+  /**
+   * Returns the object registered under the given key, creating it if this is the first fragment asking for it. The
+   * object must manage its own lifetime, it is not closed by the phase.
+   *
+   * @param key key of the object, usually derived from the operator id
+   * @param factory creates the object, given the phase level allocator
+   */
+  <T> T getOrCreate(String key, Function<BufferAllocator, T> factory);
+
+  /**
+   * Creates a resource of the fragment pipeline. The fragment is not scheduled while the resource is blocked.
+   */
+  SharedResource newPipelineResource(String name, SharedResourceType type);
+}
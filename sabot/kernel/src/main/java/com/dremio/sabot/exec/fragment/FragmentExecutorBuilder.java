@@ -296,7 +296,8 @@ public class FragmentExecutorBuilder {
             major.getAllAssignmentList(),
             cachedReader.getPlanFragmentsIndex().getEndpointsIndex(),
             nodeEndpointProvider,
-            major.getExtFragmentAssignmentsList()
+            major.getExtFragmentAssignmentsList(),
+            new PhaseSharedContextImpl(ticket.getPhaseTicket(), sharedResources.getGroup(PIPELINE_RES_GRP))
           );
 
         final FragmentStatusReporter statusReporter = new FragmentStatusReporter(fragment.getHandle(), stats,
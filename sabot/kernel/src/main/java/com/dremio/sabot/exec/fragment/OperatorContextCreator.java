@@ -48,6 +48,7 @@ import com.dremio.sabot.exec.context.OpProfileDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorContextImpl;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.context.PhaseSharedContext;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.spill.SpillService;
@@ -78,6 +79,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
   private Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider;
   private final List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments;
   private List<MinorFragmentEndpoint> minorFragmentEndpoints;
+  private final PhaseSharedContext phaseSharedContext;
 
   public OperatorContextCreator(FragmentStats stats, BufferAllocator allocator, CodeCompiler compiler,
                                 SabotConfig config, FragmentHandle handle, ExecutionControls executionControls,
@@ -87,7 +89,8 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
                                 NodeDebugContextProvider nodeDebugContextProvider, TunnelProvider tunnelProvider,
                                 List<FragmentAssignment> assignments, EndpointsIndex endpointsIndex,
                                 Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
-                                List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments) {
+                                List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments,
+                                PhaseSharedContext phaseSharedContext) {
     super();
     this.stats = stats;
     this.allocator = allocator;
@@ -110,6 +113,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
     this.assignments = assignments;
     this.endpointsIndex = endpointsIndex;
     this.extFragmentAssignments = extFragmentAssignments;
+    this.phaseSharedContext = phaseSharedContext;
   }
 
   public void setFragmentOutputAllocator(BufferAllocator fragmentOutputAllocator) {
@@ -163,6 +167,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
         nodeEndpointProvider,
         endpointsIndex,
         minorFragmentEndpoints);
+      context.setPhaseSharedContext(phaseSharedContext);
       operatorContexts.add(context);
       closeable.commit();
       return context;
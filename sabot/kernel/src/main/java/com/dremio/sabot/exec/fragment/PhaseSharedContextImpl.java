@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.fragment;
+
+import java.util.function.Function;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.sabot.exec.PhaseTicket;
+import com.dremio.sabot.exec.context.PhaseSharedContext;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+
+/**
+ * {@link PhaseSharedContext} of a fragment, backed by the ticket of its phase.
+ */
+class PhaseSharedContextImpl implements PhaseSharedContext {
+  private final PhaseTicket phaseTicket;
+  private final SharedResourceGroup pipelineResources;
+
+  PhaseSharedContextImpl(PhaseTicket phaseTicket, SharedResourceGroup pipelineResources) {
+    this.phaseTicket = phaseTicket;
+    this.pipelineResources = pipelineResources;
+  }
+
+  @Override
+  public <T> T getOrCreate(String key, Function<BufferAllocator, T> factory) {
+    return phaseTicket.getOrCreateSharedObject(key, factory);
+  }
+
+  @Override
+  public SharedResource newPipelineResource(String name, SharedResourceType type) {
+    return pipelineResources.createResource(name, type);
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.streaming;
+
+import org.apache.arrow.vector.AllocationHelper;
+import org.apache.arrow.vector.FieldVector;
+
+import com.dremio.common.expression.CompleteType;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Finds the group boundaries of a batch sorted on a group key, by comparing each key with the key of the previous
+ * record. The key of the last record of a batch is kept to compare it with the first key of the next batch.
+ *
+ * Nulls are equal to each other, as are 0.0 and -0.0, and all the NaNs.
+ */
+abstract class KeyComparator implements AutoCloseable {
+  protected final FieldVector incoming;
+  private final FieldVector last;
+
+  private KeyComparator(FieldVector incoming, FieldVector last) {
+    this.incoming = incoming;
+    this.last = last;
+  }
+
+  /**
+   * @param incoming key vector of the incoming batches
+   * @param last empty vector of the same type, to keep the key of the last record of a batch
+   */
+  static KeyComparator create(FieldVector incoming, FieldVector last) {
+    switch (CompleteType.fromField(incoming.getField()).toMinorType()) {
+    case BIT:
+      return new BitComparator(incoming, last);
+    case INT:
+    case TIME:
+    case INTERVALYEAR:
+      return new IntComparator(incoming, last);
+    case BIGINT:
+    case DATE:
+    case TIMESTAMP:
+    case INTERVALDAY:
+      return new BigIntComparator(incoming, last);
+    case FLOAT4:
+      return new Float4Comparator(incoming, last);
+    case FLOAT8:
+      return new Float8Comparator(incoming, last);
+    case DECIMAL:
+      return new DecimalComparator(incoming, last);
+    case VARCHAR:
+    case VARBINARY:
+      return new VariableComparator(incoming, last);
+    default:
+      throw new UnsupportedOperationException("Unsupported streaming aggregate key type " + incoming.getField());
+    }
+  }
+
+  /**
+   * Marks the records of the current batch whose key differs from the key of the previous record in the batch.
+   */
+  final void markBoundaries(int records, boolean[] boundaries) {
+    final long validityAddr = incoming.getValidityBufferAddress();
+    final long dataAddr = incoming.getDataBufferAddress();
+    final long offsetAddr = getOffsetAddr(incoming);
+    boolean previousSet = isSet(validityAddr, 0);
+    for (int i = 1; i < records; i++) {
+      final boolean set = isSet(validityAddr, i);
+      if (set != previousSet || (set && !valueEquals(dataAddr, offsetAddr, i - 1, dataAddr, offsetAddr, i))) {
+        boundaries[i] = true;
+      }
+      previousSet = set;
+    }
+  }
+
+  /**
+   * @return true if the key of the first record of the current batch is equal to the last key of the previous batch
+   */
+  final boolean equalsLast() {
+    final boolean lastSet = isSet(last.getValidityBufferAddress(), 0);
+    final boolean set = isSet(incoming.getValidityBufferAddress(), 0);
+    return lastSet == set
+        && (!set || valueEquals(last.getDataBufferAddress(), getOffsetAddr(last), 0,
+                                incoming.getDataBufferAddress(), getOffsetAddr(incoming), 0));
+  }
+
+  /**
+   * Keeps the key of a record of the current batch, to compare it with the next batch.
+   */
+  final void keepLast(int index) {
+    if (last.getValueCapacity() == 0) {
+      AllocationHelper.allocateNew(last, 1);
+    }
+    last.copyFromSafe(index, 0, incoming);
+    last.setValueCount(1);
+  }
+
+  long getOffsetAddr(FieldVector vector) {
+    return 0;
+  }
+
+  /**
+   * @return true if the non null values at the given indices are equal
+   */
+  abstract boolean valueEquals(long leftDataAddr, long leftOffsetAddr, int leftIndex,
+                               long rightDataAddr, long rightOffsetAddr, int rightIndex);
+
+  private static boolean isSet(long validityAddr, int index) {
+    return ((PlatformDependent.getByte(validityAddr + (index >>> 3)) >>> (index & 7)) & 1) == 1;
+  }
+
+  @Override
+  public void close() {
+    last.close();
+  }
+
+  private static final class BitComparator extends KeyComparator {
+    BitComparator(FieldVector incoming, FieldVector last) {
+      super(incoming, last);
+    }
+
+    @Override
+    boolean valueEquals(long leftDataAddr, long leftOffsetAddr, int leftIndex,
+                        long rightDataAddr, long rightOffsetAddr, int rightIndex) {
+      return isSet(leftDataAddr, leftIndex) == isSet(rightDataAddr, rightIndex);
+    }
+  }
+
+  private static final class IntComparator extends KeyComparator {
+    IntComparator(FieldVector incoming, FieldVector last) {
+      super(incoming, last);
+    }
+
+    @Override
+    boolean valueEquals(long leftDataAddr, long leftOffsetAddr, int leftIndex,
+                        long rightDataAddr, long rightOffsetAddr, int rightIndex) {
+      return PlatformDependent.getInt(leftDataAddr + leftIndex * 4) == PlatformDependent.getInt(rightDataAddr + rightIndex * 4);
+    }
+  }
+
+  private static final class BigIntComparator extends KeyComparator {
+    BigIntComparator(FieldVector incoming, FieldVector last) {
+      super(incoming, last);
+    }
+
+    @Override
+    boolean valueEquals(long leftDataAddr, long leftOffsetAddr, int leftIndex,
+                        long rightDataAddr, long rightOffsetAddr, int rightIndex) {
+      return PlatformDependent.getLong(leftDataAddr + leftIndex * 8) == PlatformDependent.getLong(rightDataAddr + rightIndex * 8);
+    }
+  }
+
+  private static final class Float4Comparator extends KeyComparator {
+    Float4Comparator(FieldVector incoming, FieldVector last) {
+      super(incoming, last);
+    }
+
+    @Override
+    boolean valueEquals(long leftDataAddr, long leftOffsetAddr, int leftIndex,
+                        long rightDataAddr, long rightOffsetAddr, int rightIndex) {
+      final float left = Float.intBitsToFloat(PlatformDependent.getInt(leftDataAddr + leftIndex * 4));
+      final float right = Float.intBitsToFloat(PlatformDependent.getInt(rightDataAddr + rightIndex * 4));
+      return left == right || (Float.isNaN(left) && Float.isNaN(right));
+    }
+  }
+
+  private static final class Float8Comparator extends KeyComparator {
+    Float8Comparator(FieldVector incoming, FieldVector last) {
+      super(incoming, last);
+    }
+
+    @Override
+    boolean valueEquals(long leftDataAddr, long leftOffsetAddr, int leftIndex,
+                        long rightDataAddr, long rightOffsetAddr, int rightIndex) {
+      final double left = Double.longBitsToDouble(PlatformDependent.getLong(leftDataAddr + leftIndex * 8));
+      final double right = Double.longBitsToDouble(PlatformDependent.getLong(rightDataAddr + rightIndex * 8));
+      return left == right || (Double.isNaN(left) && Double.isNaN(right));
+    }
+  }
+
+  private static final class DecimalComparator extends KeyComparator {
+    DecimalComparator(FieldVector incoming, FieldVector last) {
+      super(incoming, last);
+    }
+
+    @Override
+    boolean valueEquals(long leftDataAddr, long leftOffsetAddr, int leftIndex,
+                        long rightDataAddr, long rightOffsetAddr, int rightIndex) {
+      final long leftAddr = leftDataAddr + leftIndex * 16;
+      final long rightAddr = rightDataAddr + rightIndex * 16;
+      return PlatformDependent.getLong(leftAddr) == PlatformDependent.getLong(rightAddr)
+          && PlatformDependent.getLong(leftAddr + 8) == PlatformDependent.getLong(rightAddr + 8);
+    }
+  }
+
+  private static final class VariableComparator extends KeyComparator {
+    VariableComparator(FieldVector incoming, FieldVector last) {
+      super(incoming, last);
+    }
+
+    @Override
+    long getOffsetAddr(FieldVector vector) {
+      return vector.getOffsetBufferAddress();
+    }
+
+    @Override
+    boolean valueEquals(long leftDataAddr, long leftOffsetAddr, int leftIndex,
+                        long rightDataAddr, long rightOffsetAddr, int rightIndex) {
+      final int leftStart = PlatformDependent.getInt(leftOffsetAddr + leftIndex * 4);
+      final int leftLength = PlatformDependent.getInt(leftOffsetAddr + leftIndex * 4 + 4) - leftStart;
+      final int rightStart = PlatformDependent.getInt(rightOffsetAddr + rightIndex * 4);
+      final int rightLength = PlatformDependent.getInt(rightOffsetAddr + rightIndex * 4 + 4) - rightStart;
+      if (leftLength != rightLength) {
+        return false;
+      }
+
+      final long leftAddr = leftDataAddr + leftStart;
+      final long rightAddr = rightDataAddr + rightStart;
+      int i = 0;
+      for (; i + 8 <= leftLength; i += 8) {
+        if (PlatformDependent.getLong(leftAddr + i) != PlatformDependent.getLong(rightAddr + i)) {
+          return false;
+        }
+      }
+      for (; i < leftLength; i++) {
+        if (PlatformDependent.getByte(leftAddr + i) != PlatformDependent.getByte(rightAddr + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
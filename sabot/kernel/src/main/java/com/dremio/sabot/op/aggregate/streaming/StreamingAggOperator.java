@@ -420,7 +420,11 @@ public class StreamingAggOperator implements SingleInputOperator  {
 
     @Override
     public SingleInputOperator create(OperatorContext context, StreamingAggregate operator) throws ExecutionSetupException {
-      return new StreamingAggOperator(context, operator);
+      if (operator.isVectorize()) {
+        return new VectorizedStreamingAggOperator(context, operator);
+      } else {
+        return new StreamingAggOperator(context, operator);
+      }
     }
 
   }
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.streaming;
+
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.HTORDINAL_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.KEYINDEX_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.AllocationHelper;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Field;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.logical.data.NamedExpression;
+import com.dremio.exec.expr.TypeHelper;
+import com.dremio.exec.expr.ValueVectorReadExpression;
+import com.dremio.exec.physical.config.StreamingAggregate;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.aggregate.vectorized.AccumulatorBuilder;
+import com.dremio.sabot.op.aggregate.vectorized.AccumulatorBuilder.MaterializedAggExpressionsResult;
+import com.dremio.sabot.op.aggregate.vectorized.AccumulatorSet;
+import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
+import com.dremio.sabot.op.copier.FieldBufferCopier.Cursor;
+import com.dremio.sabot.op.spi.SingleInputOperator;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Implements aggregation of inputs sorted or clustered on the group keys, a batch at a time.
+ *
+ * For each incoming batch, the group boundaries are found by comparing the keys of consecutive records, column by
+ * column (see {@link KeyComparator}). Each record is then assigned the ordinal of its group in the current outgoing
+ * batch, and the values are accumulated with the accumulators of the vectorized hash aggregate, using a single
+ * accumulator batch. The keys of the groups are copied from the first record of each group.
+ *
+ * Only the group of the last record is still open after a batch is consumed. Once the outgoing batch is full, it is
+ * output when the next group starts, so the memory used does not depend on the number of groups.
+ */
+public class VectorizedStreamingAggOperator implements SingleInputOperator {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectorizedStreamingAggOperator.class);
+
+  // all the groups are in the first (and only) batch of the accumulators
+  private static final int BITS_IN_CHUNK = 31;
+  private static final int CHUNK_OFFSET_MASK = Integer.MAX_VALUE;
+  private static final int SV2_WIDTH = 2;
+
+  private final OperatorContext context;
+  private final StreamingAggregate config;
+  private final VectorContainer outgoing;
+  private final int maxGroups;
+
+  private State state = State.NEEDS_SETUP;
+  private boolean done = false;
+
+  private final List<FieldVector> keyOutputs = new ArrayList<>();
+  private final List<KeyComparator> comparators = new ArrayList<>();
+  private List<FieldBufferCopier> keyCopiers;
+  private Cursor[] keyCursors;
+  private AccumulatorSet accumulators;
+
+  // for each record of the current batch, (group ordinal, record index) as expected by the accumulators
+  private ArrowBuf ordinals;
+  // indices of the first records of the groups started in the current batch
+  private ArrowBuf groupStarts;
+  // true for the records of the current batch that start a new group
+  private boolean[] boundaries = new boolean[0];
+  private int capacity;
+
+  private int records;
+  private int nextRecord;
+  // groups of the current outgoing batch, the last one being still open
+  private int groups;
+  private long consumedCount;
+
+  public VectorizedStreamingAggOperator(OperatorContext context, StreamingAggregate config) {
+    this.context = context;
+    this.config = config;
+    this.outgoing = context.createOutputVectorContainer();
+    this.maxGroups = context.getTargetBatchSize();
+  }
+
+  @Override
+  public VectorAccessible setup(VectorAccessible incoming) throws Exception {
+    state.is(State.NEEDS_SETUP);
+
+    final List<FieldVector> keyInputs = new ArrayList<>();
+    for (NamedExpression ne : config.getGroupByExprs()) {
+      final LogicalExpression expr = context.getClassProducer().materialize(ne.getExpr(), incoming);
+      if (!(expr instanceof ValueVectorReadExpression)) {
+        throw UserException.unsupportedError()
+          .message("Streaming aggregate key is not a field reference: %s", ne.getExpr())
+          .build(logger);
+      }
+      final FieldVector input = incoming.getValueAccessorById(FieldVector.class,
+        ((ValueVectorReadExpression) expr).getFieldId().getFieldIds()).getValueVector();
+      final Field outputField = expr.getCompleteType().toField(ne.getRef());
+      final FieldVector output = outgoing.addOrGet(outputField);
+      keyInputs.add(input);
+      keyOutputs.add(output);
+      comparators.add(KeyComparator.create(input, TypeHelper.getNewVector(input.getField(), context.getAllocator())));
+    }
+    keyCopiers = FieldBufferCopier.getCopiers(keyInputs, keyOutputs);
+    keyCursors = new Cursor[keyCopiers.size()];
+
+    final OptionManager options = context.getOptions();
+    final MaterializedAggExpressionsResult aggExprs =
+      AccumulatorBuilder.getAccumulatorTypesFromExpressions(context.getClassProducer(), config.getAggrExprs(), incoming);
+    accumulators = AccumulatorBuilder.getAccumulator(context.getAllocator(),
+      context.getFragmentOutputAllocator(),
+      aggExprs,
+      outgoing,
+      maxGroups,
+      options.getOption(VectorizedHashAggOperator.VECTORIZED_HASHAGG_JOINT_ALLOCATION_MIN),
+      options.getOption(VectorizedHashAggOperator.VECTORIZED_HASHAGG_JOINT_ALLOCATION_MAX),
+      options.getOption(PlannerSettings.ENABLE_DECIMAL_V2));
+    accumulators.addBatch();
+
+    ensureCapacity(maxGroups);
+
+    outgoing.buildSchema(SelectionVectorMode.NONE);
+    state = State.CAN_CONSUME;
+    return outgoing;
+  }
+
+  private void ensureCapacity(int records) {
+    if (records <= capacity) {
+      return;
+    }
+    AutoCloseables.closeNoChecked(ordinals);
+    AutoCloseables.closeNoChecked(groupStarts);
+    ordinals = null;
+    groupStarts = null;
+    ordinals = context.getAllocator().buffer(records * PARTITIONINDEX_HTORDINAL_WIDTH);
+    groupStarts = context.getAllocator().buffer(records * SV2_WIDTH);
+    boundaries = new boolean[records];
+    capacity = records;
+  }
+
+  @Override
+  public void consumeData(int records) throws Exception {
+    state.is(State.CAN_CONSUME);
+    assert records > 0;
+
+    ensureCapacity(records);
+    Arrays.fill(boundaries, 0, records, false);
+
+    // the first record starts a group, unless its key is equal to the last key of the previous batch
+    boolean sameAsLast = consumedCount > 0;
+    for (KeyComparator comparator : comparators) {
+      if (!sameAsLast) {
+        break;
+      }
+      sameAsLast = comparator.equalsLast();
+    }
+    boundaries[0] = !sameAsLast;
+
+    for (KeyComparator comparator : comparators) {
+      comparator.markBoundaries(records, boundaries);
+      comparator.keepLast(records - 1);
+    }
+
+    this.records = records;
+    this.nextRecord = 0;
+    consumedCount += records;
+    state = State.CAN_PRODUCE;
+  }
+
+  @Override
+  public void noMoreToConsume() throws Exception {
+    state.is(State.CAN_CONSUME);
+    state = State.CAN_PRODUCE;
+    done = true;
+  }
+
+  @Override
+  public int outputData() throws Exception {
+    state.is(State.CAN_PRODUCE);
+
+    if (done) {
+      state = State.DONE;
+      if (consumedCount == 0) {
+        if (!comparators.isEmpty()) {
+          // group by but no records.
+          return 0;
+        }
+        // without group by, empty inputs still have a single group: count is 0 and the other aggregates are null, as
+        // the accumulators are initialized.
+        groups = 1;
+      }
+      return flush();
+    }
+
+    final long ordinalsAddr = ordinals.memoryAddress();
+    final long groupStartsAddr = groupStarts.memoryAddress();
+    final boolean[] boundaries = this.boundaries;
+    final int records = this.records;
+    int groups = this.groups;
+    int newGroups = 0;
+    int index = nextRecord;
+    long ordinalAddr = ordinalsAddr;
+    for (; index < records; index++, ordinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+      if (boundaries[index]) {
+        if (groups == maxGroups) {
+          // the outgoing batch is full, and all its groups are closed.
+          break;
+        }
+        PlatformDependent.putShort(groupStartsAddr + newGroups * SV2_WIDTH, (short) index);
+        newGroups++;
+        groups++;
+      }
+      PlatformDependent.putInt(ordinalAddr + HTORDINAL_OFFSET, groups - 1);
+      PlatformDependent.putInt(ordinalAddr + KEYINDEX_OFFSET, index);
+    }
+
+    accumulators.accumulate(ordinalsAddr, index - nextRecord, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+    if (newGroups > 0) {
+      if (this.groups == 0) {
+        for (FieldVector keyOutput : keyOutputs) {
+          AllocationHelper.allocateNew(keyOutput, maxGroups);
+        }
+      }
+      for (int i = 0; i < keyCopiers.size(); i++) {
+        keyCursors[i] = keyCopiers.get(i).copy(groupStartsAddr, newGroups, keyCursors[i]);
+      }
+    }
+    this.groups = groups;
+    nextRecord = index;
+
+    if (index < records) {
+      return flush();
+    }
+
+    state = State.CAN_CONSUME;
+    return 0;
+  }
+
+  /**
+   * Outputs the groups of the current outgoing batch, and resets the accumulators for the next one.
+   */
+  private int flush() {
+    accumulators.output(0);
+    final int outputCount = groups;
+    groups = 0;
+    Arrays.fill(keyCursors, null);
+    return outgoing.setAllCount(outputCount);
+  }
+
+  @Override
+  public State getState() {
+    return state;
+  }
+
+  @Override
+  public <OUT, IN, EXCEP extends Throwable> OUT accept(OperatorVisitor<OUT, IN, EXCEP> visitor, IN value) throws EXCEP {
+    return visitor.visitSingleInput(this, value);
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>(comparators);
+    closeables.add(accumulators);
+    closeables.add(ordinals);
+    closeables.add(groupStarts);
+    closeables.add(outgoing);
+    AutoCloseables.close(closeables);
+  }
+}
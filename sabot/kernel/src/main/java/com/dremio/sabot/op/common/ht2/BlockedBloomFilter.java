@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A register blocked bloom filter over the 32 bit key hashes of a hash table. All the bits of a key are set in a single
+ * 64 bit word, so a lookup costs one memory access. Meant to be small enough to stay in cache, so that probe keys
+ * which have no match can be rejected without walking the hash table.
+ */
+public final class BlockedBloomFilter implements AutoCloseable {
+  private static final int WORD_BYTES = 8;
+  private static final int BITS_PER_KEY = 16;
+  private static final long MIX = 0x9E3779B97F4A7C15L;
+
+  private ArrowBuf buf;
+  private final long addr;
+  private final int wordMask;
+
+  private BlockedBloomFilter(BufferAllocator allocator, int numWords) {
+    Preconditions.checkArgument(Integer.bitCount(numWords) == 1, "number of words must be a power of two");
+    this.buf = allocator.buffer(numWords * WORD_BYTES);
+    buf.setZero(0, buf.capacity());
+    this.addr = buf.memoryAddress();
+    this.wordMask = numWords - 1;
+  }
+
+  /**
+   * @param allocator allocator of the filter
+   * @param expectedKeys number of keys which will be added
+   * @param maxBytes maximum size of the filter
+   * @return a filter, or null if a filter for this many keys would be larger than maxBytes
+   */
+  public static BlockedBloomFilter create(BufferAllocator allocator, int expectedKeys, long maxBytes) {
+    final long minWords = Math.max(1L, (long) expectedKeys * BITS_PER_KEY / 64);
+    final long numWords = minWords == 1 ? 1 : Long.highestOneBit(minWords - 1) << 1;
+    if (numWords * WORD_BYTES > maxBytes || numWords > Integer.MAX_VALUE / WORD_BYTES) {
+      return null;
+    }
+    return new BlockedBloomFilter(allocator, (int) numWords);
+  }
+
+  public void put(int keyHash) {
+    final long mixed = keyHash * MIX;
+    final long wordAddr = addr + (((int) (mixed >>> 32)) & wordMask) * WORD_BYTES;
+    PlatformDependent.putLong(wordAddr, PlatformDependent.getLong(wordAddr) | mask(mixed));
+  }
+
+  /**
+   * @return false if the key hash was definitely not added to the filter
+   */
+  public boolean mightContain(int keyHash) {
+    final long mixed = keyHash * MIX;
+    final long mask = mask(mixed);
+    return (PlatformDependent.getLong(addr + (((int) (mixed >>> 32)) & wordMask) * WORD_BYTES) & mask) == mask;
+  }
+
+  // four bits of the word, picked from the bits of the hash that don't select the word
+  private static long mask(long mixed) {
+    return (1L << mixed) | (1L << (mixed >>> 6)) | (1L << (mixed >>> 12)) | (1L << (mixed >>> 18));
+  }
+
+  public long getSizeInBytes() {
+    return buf.capacity();
+  }
+
+  @Override
+  public void close() {
+    if (buf != null) {
+      buf.release();
+      buf = null;
+    }
+  }
+}
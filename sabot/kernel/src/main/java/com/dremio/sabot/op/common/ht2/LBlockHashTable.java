@@ -1300,6 +1300,36 @@ public final class LBlockHashTable implements AutoCloseable {
     }
   }
 
+  /**
+   * Prepares a {@link BlockedBloomFilter} from the key hashes stored in the control blocks, so the keys don't have to
+   * be read again. Since this is an optimisation, errors are not propagated to the consumer.
+   * @param maxBytes maximum size of the filter
+   * @return the filter, or empty if the table has too many entries for a filter of this size
+   */
+  public Optional<BlockedBloomFilter> prepareHashFilter(long maxBytes) {
+    try (RollbackCloseable closeOnError = new RollbackCloseable()) {
+      final BlockedBloomFilter filter = BlockedBloomFilter.create(allocator, size(), maxBytes);
+      if (filter == null) {
+        return Optional.empty();
+      }
+      closeOnError.add(filter);
+      for (long controlAddr : tableControlAddresses) {
+        final long max = controlAddr + MAX_VALUES_PER_BATCH * CONTROL_WIDTH;
+        for (long addr = controlAddr; addr < max; addr += CONTROL_WIDTH) {
+          final long control = PlatformDependent.getLong(addr);
+          if (control != LFREE) {
+            filter.put((int) (control >>> 32));
+          }
+        }
+      }
+      closeOnError.commit();
+      return Optional.of(filter);
+    } catch (Exception e) {
+      logger.warn("Unable to prepare the probe filter of the hash table", e);
+      return Optional.empty();
+    }
+  }
+
   public Optional<ValueListFilter> prepareValueListFilter(String fieldName, int maxElements) {
     if (StringUtils.isEmpty(fieldName)) {
       return Optional.empty();
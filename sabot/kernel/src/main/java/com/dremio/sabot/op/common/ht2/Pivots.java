@@ -45,9 +45,13 @@ public class Pivots {
       final FixedBlockVector targetFixed,
       final VariableBlockVector targetVariable,
       final int count) {
+    if (count == 0) {
+      return;
+    }
     final int dataWidth = targetFixed.getBlockWidth() - LBlockHashTable.VAR_OFFSET_SIZE;
     final int fieldCount = fields.size();
     final long[] bitAddresses = new long[fieldCount];
+    final long[] validityWords = new long[fieldCount];
     final long[] offsetAddresses = new long[fieldCount];
     final long[] dataAddresses = new long[fieldCount];
     final int[] nullByteOffset = new int[fieldCount];
@@ -64,19 +68,18 @@ public class Pivots {
       List<ArrowBuf> buffers = vpd.getIncomingVector().getFieldBuffers();
       Preconditions.checkArgument(buffers.size() == 3, "A variable length vector should have three field buffers. %s has %s buffers.", Describer.describe(vpd.getIncomingVector().getField()), buffers.size());
 
-      // convert to bit offsets. Overflows shouldn't exist since no system (yet) has memory of Long.MAX_VALUE / 8
-      bitAddresses[i] = buffers.get(0).memoryAddress() * 8;
-
+      bitAddresses[i] = buffers.get(0).memoryAddress();
       offsetAddresses[i] = buffers.get(1).memoryAddress();
+      dataAddresses[i] = buffers.get(2).memoryAddress();
 
-      ArrowBuf dataBuf = buffers.get(2);
-      totalData += dataBuf.writerIndex();
-      dataAddresses[i] = dataBuf.memoryAddress();
+      // size the variable block from the offsets of the records being pivoted, the data buffer may hold more
+      totalData += PlatformDependent.getInt(offsetAddresses[i] + count * 4L) - PlatformDependent.getInt(offsetAddresses[i]);
       i++;
     }
 
-    Preconditions.checkArgument(totalData < Integer.MAX_VALUE);
-    targetVariable.ensureAvailableDataSpace(((int) totalData) + 4 * fields.size() * count + (LBlockHashTable.VAR_LENGTH_SIZE * count));
+    final long requiredSpace = totalData + (4L * fieldCount + LBlockHashTable.VAR_LENGTH_SIZE) * count;
+    Preconditions.checkArgument(requiredSpace < Integer.MAX_VALUE);
+    targetVariable.ensureAvailableDataSpace((int) requiredSpace);
 
     final int blockWidth = targetFixed.getBlockWidth();
 
@@ -87,6 +90,15 @@ public class Pivots {
 
     for(int record = 0; record < count; record++){
 
+      final int bitIndex = record & (WORD_BITS - 1);
+      if (bitIndex == 0) {
+        // validity bits are read a word at a time
+        for (int field = 0; field < fieldCount; field++) {
+          validityWords[field] = PlatformDependent.getLong(bitAddresses[field]);
+          bitAddresses[field] += WORD_BYTES;
+        }
+      }
+
       int varLen = 0;
 
       // write the starting position of the variable width data.
@@ -102,9 +114,8 @@ public class Pivots {
         final int secondOffset = (int) (startAndEnd >> 32);
         final long len = secondOffset - firstOffset;
 
-        // update bit address.
-        final long bitAddress = bitAddresses[field];
-        final int bitVal = (PlatformDependent.getByte(bitAddress >>> 3) >>> (bitAddress & 7)) & 1;
+        // update null bit.
+        final int bitVal = (int) (validityWords[field] >>> bitIndex) & 1;
         long targetNullByteAddress = targetFixedAddress + nullByteOffset[field];
         PlatformDependent.putInt(targetNullByteAddress, PlatformDependent.getInt(targetNullByteAddress) | (bitVal << nullBitOffset[field]));
 
@@ -115,15 +126,14 @@ public class Pivots {
         varLen += 4;
 
         // copy data
-        final long dataAddress = dataAddresses[field];
-        final long srcDataStart = dataAddress + firstOffset;
-        Copier.copy(srcDataStart, targetVariableAddr, copyLength);
+        if (copyLength > 0) {
+          Copier.copy(dataAddresses[field] + firstOffset, targetVariableAddr, copyLength);
+        }
 
         // update pointers.
         targetVariableAddr += copyLength;
         varLen += copyLength;
         offsetAddresses[field] += 4;
-        bitAddresses[field]++;
       }
 
       // set total varlen in fixed block.
@@ -33,18 +33,37 @@ public class Unpivots {
 
   private Unpivots(){}
 
+  private static final int WORD_BITS = 64;
+
   private static void unpivotBits1(long srcFixedAddr, int blockWidth, final long target,
       final int bitByteOffset, final int bitOffset, final int start, final int count){
 
-    final long startAddr = srcFixedAddr + (start * blockWidth) + bitByteOffset;
-    long maxAddr = startAddr + (count * blockWidth);
-    int targetIndex = 0;
+    long srcAddr = srcFixedAddr + ((long) start * blockWidth) + bitByteOffset;
+    long targetAddr = target;
+
+    // gather the bits of 64 records and write them at once.
+    final int wordCount = count / WORD_BITS;
+    for (int word = 0; word < wordCount; word++, targetAddr += 8) {
+      long bits = 0;
+      for (int i = 0; i < WORD_BITS; i++, srcAddr += blockWidth) {
+        bits |= ((long) ((PlatformDependent.getInt(srcAddr) >>> bitOffset) & 1)) << i;
+      }
+      if (bits != 0) {
+        PlatformDependent.putLong(targetAddr, PlatformDependent.getLong(targetAddr) | bits);
+      }
+    }
 
-    for(long srcAddr = startAddr; srcAddr < maxAddr; srcAddr += blockWidth, targetIndex++){
-      final int byteValue = PlatformDependent.getInt(srcAddr);
-      int bitVal = ((byteValue >>> bitOffset) & 1) << (targetIndex & 31);
-      final long addr = target + ((targetIndex >>> 5) * 4);
-      PlatformDependent.putInt(addr, PlatformDependent.getInt(addr) | bitVal);
+    // the remaining records a byte at a time, the target may not have room for a whole word.
+    final int remainCount = count % WORD_BITS;
+    for (int i = 0; i < remainCount; i += 8, targetAddr++) {
+      final int byteCount = Math.min(8, remainCount - i);
+      int bits = 0;
+      for (int j = 0; j < byteCount; j++, srcAddr += blockWidth) {
+        bits |= ((PlatformDependent.getInt(srcAddr) >>> bitOffset) & 1) << j;
+      }
+      if (bits != 0) {
+        PlatformDependent.putByte(targetAddr, (byte) (PlatformDependent.getByte(targetAddr) | bits));
+      }
     }
   }
 
@@ -92,18 +111,31 @@ public class Unpivots {
     final long srcVarAddrBase = srcVarAddr;
     final int fieldCount = targets.length;
 
+    if (fieldCount == 0) {
+      return;
+    }
+
     final long[] targetAddrs = new long[fieldCount];
     final long[] offsetAddrs = new long[fieldCount];
-    final long[] maxTargetAddrs = new long[fieldCount];
+    final long[] dataLengths = new long[fieldCount];
     final Reallocator[] reallocs = new Reallocator[fieldCount];
 
+    // sum the lengths of each field first, so that the data buffers are sized once for the whole range.
+    for(long varOffsetAddr = startVarOffset; varOffsetAddr < maxAddr; varOffsetAddr += blockWidth){
+      long varPos = srcVarAddrBase + PlatformDependent.getInt(varOffsetAddr) + LBlockHashTable.VAR_LENGTH_SIZE;
+      for(int i = 0; i < fieldCount; i++){
+        final int len = PlatformDependent.getInt(varPos);
+        dataLengths[i] += len;
+        varPos += 4 + len;
+      }
+    }
+
     for(int i = 0; i < fieldCount; i++){
       FieldVector vect = targets[i];
       offsetAddrs[i] = vect.getOffsetBufferAddress();
       Reallocator realloc = Reallocators.getReallocator(vect);
       reallocs[i] = realloc;
-      targetAddrs[i] = realloc.addr();
-      maxTargetAddrs[i] = realloc.max();
+      targetAddrs[i] = realloc.ensure(Math.toIntExact(dataLengths[i]));
     }
 
     // loop per record.
@@ -117,14 +149,6 @@ public class Unpivots {
         varPos+=4;
 
         long target = targetAddrs[i];
-        // resize as necessary.
-        if(maxTargetAddrs[i] < target + len){
-          Reallocator realloc = reallocs[i];
-          final int shift = (int) (target - realloc.addr());
-          target = realloc.ensure(shift + len) + shift;
-          targetAddrs[i] = target;
-          maxTargetAddrs[i] = realloc.max();
-        }
 
         // copy variable data.
         long offsetAddr = offsetAddrs[i];
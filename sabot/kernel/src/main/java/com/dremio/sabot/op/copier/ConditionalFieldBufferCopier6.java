@@ -325,8 +325,9 @@ public class ConditionalFieldBufferCopier6 {
         if(batchIndex != SKIP){
           final int batchOffset = Short.toUnsignedInt(PlatformDependent.getShort(addr + 4));
           transfer[batchIndex].copyValueSafe(batchOffset, target);
-          target++;
         }
+        // skipped records (unmatched probe records of outer joins) are left null, but still take their position
+        target++;
       }
     }
 
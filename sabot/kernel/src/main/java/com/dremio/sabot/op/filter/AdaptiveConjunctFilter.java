@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.ExpressionStringBuilder;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ReturnValueExpression;
+import com.dremio.exec.proto.UserBitShared.ConjunctInfo;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Evaluates a conjunction one conjunct at a time, each conjunct only looking at the rows selected by the previous
+ * ones and evaluation stopping as soon as no row is left.
+ *
+ * The selectivity and the cost per row of every conjunct is measured on every batch. Every {@code reorderInterval}
+ * batches the conjuncts are sorted by decreasing {@code (1 - selectivity) / cost}, so that cheap conjuncts that
+ * discard many rows run first. Measurements are reset after every reordering so that the order follows changes in
+ * the data. Selectivities are measured on the rows a conjunct actually sees, hence are conditional on the
+ * conjuncts preceding it.
+ */
+class AdaptiveConjunctFilter implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AdaptiveConjunctFilter.class);
+
+  private final Conjunct[] conjuncts;
+  private final SelectionVector2 candidates;
+  private final SelectionVector2 selected;
+  private final SelectionVector2 output;
+  private final int reorderInterval;
+
+  private int batchesSinceReorder;
+  private int reorders;
+
+  AdaptiveConjunctFilter(OperatorContext context, List<LogicalExpression> expressions, VectorAccessible incoming,
+                         SelectionVector2 output, int reorderInterval) throws Exception {
+    final BufferAllocator allocator = context.getFragmentOutputAllocator();
+    this.candidates = new SelectionVector2(allocator);
+    this.selected = new SelectionVector2(allocator);
+    this.output = output;
+    this.reorderInterval = reorderInterval;
+
+    final VectorAccessible selectedInput = new ContainerAndSV2(incoming, candidates);
+    final VectorAccessible selectedOutput = new SV2Holder(selected);
+    this.conjuncts = new Conjunct[expressions.size()];
+    for (int i = 0; i < conjuncts.length; i++) {
+      final LogicalExpression expr = expressions.get(i);
+      final ClassGenerator<Filterer> cg = context.getClassProducer().createGenerator(Filterer.TEMPLATE_DEFINITION2).getRoot();
+      cg.addExpr(new ReturnValueExpression(expr), ClassGenerator.BlockCreateMode.MERGE, true);
+      final List<Filterer> filterers = cg.getCodeGenerator().getImplementationClass(2);
+
+      // the first instance reads the whole incoming batch, the second one only the candidate rows
+      filterers.get(0).setup(context.getClassProducer().getFunctionContext(), incoming, selectedOutput);
+      filterers.get(1).setup(context.getClassProducer().getFunctionContext(), selectedInput, selectedOutput);
+      conjuncts[i] = new Conjunct(ExpressionStringBuilder.toString(expr), filterers.get(0), filterers.get(1));
+    }
+  }
+
+  /**
+   * Flatten nested ANDs into their conjuncts.
+   */
+  static List<LogicalExpression> getConjuncts(LogicalExpression expr) {
+    final List<LogicalExpression> conjuncts = new ArrayList<>();
+    addConjuncts(expr, conjuncts);
+    return conjuncts;
+  }
+
+  private static void addConjuncts(LogicalExpression expr, List<LogicalExpression> conjuncts) {
+    if (expr instanceof BooleanOperator && ((BooleanOperator) expr).isAnd()) {
+      for (LogicalExpression arg : (BooleanOperator) expr) {
+        addConjuncts(arg, conjuncts);
+      }
+    } else {
+      conjuncts.add(expr);
+    }
+  }
+
+  /**
+   * Filter the incoming batch, leaving the selected rows in the output selection vector.
+   *
+   * @return number of selected rows
+   */
+  int filterBatch(int records) {
+    int count = records;
+    for (int i = 0; i < conjuncts.length && count > 0; i++) {
+      final Conjunct conjunct = conjuncts[i];
+      final long start = System.nanoTime();
+      final int selectedCount = i == 0 ? conjunct.all.filterBatch(count) : conjunct.candidates.filterBatch(count);
+      conjunct.record(count, selectedCount, System.nanoTime() - start);
+
+      candidates.clear();
+      candidates.referTo(selected);
+      count = selectedCount;
+    }
+
+    output.clear();
+    output.referTo(candidates);
+
+    if (++batchesSinceReorder >= reorderInterval) {
+      reorder();
+    }
+    return count;
+  }
+
+  @VisibleForTesting
+  void reorder() {
+    batchesSinceReorder = 0;
+    for (Conjunct conjunct : conjuncts) {
+      conjunct.updateRank();
+    }
+
+    final Conjunct[] previous = conjuncts.clone();
+    // stable sort, conjuncts with equal ranks keep their relative order
+    Arrays.sort(conjuncts, Comparator.comparingDouble((Conjunct c) -> c.rank).reversed());
+    if (!Arrays.equals(previous, conjuncts)) {
+      reorders++;
+      logger.debug("Reordered filter conjuncts to {}", Arrays.toString(conjuncts));
+    }
+  }
+
+  int getConjunctCount() {
+    return conjuncts.length;
+  }
+
+  int getReorderCount() {
+    return reorders;
+  }
+
+  List<ConjunctInfo> getConjunctInfos() {
+    final List<ConjunctInfo> infos = new ArrayList<>(conjuncts.length);
+    for (int i = 0; i < conjuncts.length; i++) {
+      final Conjunct conjunct = conjuncts[i];
+      infos.add(ConjunctInfo.newBuilder()
+        .setExpression(conjunct.expression)
+        .setFinalPosition(i)
+        .setRecordsIn(conjunct.totalRecordsIn)
+        .setRecordsOut(conjunct.totalRecordsOut)
+        .setEvalNanos(conjunct.totalNanos)
+        .build());
+    }
+    return infos;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(candidates, selected);
+  }
+
+  private static final class Conjunct {
+    private final String expression;
+    private final Filterer all;
+    private final Filterer candidates;
+
+    private long recordsIn;
+    private long recordsOut;
+    private long nanos;
+    private double rank;
+
+    private long totalRecordsIn;
+    private long totalRecordsOut;
+    private long totalNanos;
+
+    private Conjunct(String expression, Filterer all, Filterer candidates) {
+      this.expression = expression;
+      this.all = all;
+      this.candidates = candidates;
+    }
+
+    private void record(int in, int out, long elapsed) {
+      recordsIn += in;
+      recordsOut += out;
+      nanos += elapsed;
+      totalRecordsIn += in;
+      totalRecordsOut += out;
+      totalNanos += elapsed;
+    }
+
+    private void updateRank() {
+      if (recordsIn == 0) {
+        // not evaluated since the last reordering, keep the previous rank.
+        return;
+      }
+      final double selectivity = (double) recordsOut / recordsIn;
+      final double costPerRecord = Math.max(1d, nanos) / recordsIn;
+      rank = (1d - selectivity) / costPerRecord;
+      recordsIn = 0;
+      recordsOut = 0;
+      nanos = 0;
+    }
+
+    @Override
+    public String toString() {
+      return expression;
+    }
+  }
+}
@@ -58,6 +58,7 @@ public class FilterOperator implements SingleInputOperator {
   private Stopwatch javaCodeGenWatch = Stopwatch.createUnstarted();
   private Stopwatch gandivaCodeGenWatch = Stopwatch.createUnstarted();
   private ExpressionSplitter splitter;
+  private AdaptiveConjunctFilter adaptiveFilter;
 
   public FilterOperator(Filter pop, OperatorContext context) throws OutOfMemoryException {
     this.config = pop;
@@ -97,7 +98,13 @@ public class FilterOperator implements SingleInputOperator {
       return;
     }
 
-    recordCount = splitter.filterData(records, javaCodeGenWatch, gandivaCodeGenWatch);
+    if (adaptiveFilter != null) {
+      javaCodeGenWatch.start();
+      recordCount = adaptiveFilter.filterBatch(records);
+      javaCodeGenWatch.stop();
+    } else {
+      recordCount = splitter.filterData(records, javaCodeGenWatch, gandivaCodeGenWatch);
+    }
 
     doTransfers();
     state = State.CAN_PRODUCE;
@@ -129,7 +136,15 @@ public class FilterOperator implements SingleInputOperator {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(output, splitter);
+    if (adaptiveFilter != null) {
+      context.getStats().addLongStat(Metric.ADAPTIVE_REORDERS, adaptiveFilter.getReorderCount());
+      context.getStats().setProfileDetails(OperatorProfileDetails
+        .newBuilder()
+        .addAllConjunctInfos(adaptiveFilter.getConjunctInfos())
+        .build()
+      );
+    }
+    AutoCloseables.close(output, splitter, adaptiveFilter);
     context.getStats().addLongStat(Metric.JAVA_EXECUTE_TIME, javaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
     context.getStats().addLongStat(Metric.GANDIVA_EXECUTE_TIME, gandivaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
     javaCodeGenWatch.reset();
@@ -138,7 +153,16 @@ public class FilterOperator implements SingleInputOperator {
 
   protected void generateSV2Filterer(VectorAccessible accessible) throws Exception {
     setupTransfers();
-    setupSplitter(accessible);
+    final LogicalExpression expr = context.getClassProducer().materializeAndAllowComplex(filterOptions,
+      config.getExpr(), input);
+    if (context.getOptions().getOption(ExecConstants.FILTER_ADAPTIVE_REORDER)) {
+      final List<LogicalExpression> conjuncts = AdaptiveConjunctFilter.getConjuncts(expr);
+      if (conjuncts.size() > 1) {
+        setupAdaptiveFilter(accessible, conjuncts);
+        return;
+      }
+    }
+    setupSplitter(accessible, expr);
 
     OperatorStats stats = context.getStats();
     stats.addLongStat(Metric.JAVA_EXPRESSIONS, splitter.getNumExprsInJava());
@@ -165,9 +189,21 @@ public class FilterOperator implements SingleInputOperator {
     tx = transfers.toArray(new TransferPair[transfers.size()]);
   }
 
-  private void setupSplitter(VectorAccessible accessible) throws Exception {
-    final LogicalExpression expr = context.getClassProducer().materializeAndAllowComplex(filterOptions,
-      config.getExpr(), input);
+  private void setupAdaptiveFilter(VectorAccessible accessible, List<LogicalExpression> conjuncts) throws Exception {
+    // conjuncts are evaluated one at a time on the rows selected so far, which requires the java filterer
+    javaCodeGenWatch.start();
+    adaptiveFilter = new AdaptiveConjunctFilter(context, conjuncts, accessible, output.getSelectionVector2(),
+      (int) Math.min(Integer.MAX_VALUE, context.getOptions().getOption(ExecConstants.FILTER_ADAPTIVE_REORDER_INTERVAL)));
+    javaCodeGenWatch.stop();
+
+    OperatorStats stats = context.getStats();
+    stats.addLongStat(Metric.ADAPTIVE_CONJUNCTS, adaptiveFilter.getConjunctCount());
+    stats.addLongStat(Metric.JAVA_EXPRESSIONS, adaptiveFilter.getConjunctCount());
+    stats.addLongStat(Metric.JAVA_BUILD_TIME, javaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
+    javaCodeGenWatch.reset();
+  }
+
+  private void setupSplitter(VectorAccessible accessible, LogicalExpression expr) throws Exception {
     splitter = new ExpressionSplitter(context, accessible, filterOptions,
       context.getClassProducer().getFunctionLookupContext().isDecimalV2Enabled());
     splitter.setupFilter(output, new NamedExpression(expr, new FieldReference("_filter_")), javaCodeGenWatch, gandivaCodeGenWatch);
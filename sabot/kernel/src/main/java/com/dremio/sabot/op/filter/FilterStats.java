@@ -25,7 +25,9 @@ public class FilterStats {
     GANDIVA_EXECUTE_TIME,
     JAVA_EXPRESSIONS,
     GANDIVA_EXPRESSIONS,
-    MIXED_SPLITS;
+    MIXED_SPLITS,
+    ADAPTIVE_CONJUNCTS,   // number of conjuncts evaluated separately in adaptive mode
+    ADAPTIVE_REORDERS;    // number of times the evaluation order of the conjuncts changed
 
     @Override
     public int metricId() {
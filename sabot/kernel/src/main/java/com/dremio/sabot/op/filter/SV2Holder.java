@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.filter;
+
+import java.util.Iterator;
+
+import org.apache.arrow.vector.ValueVector;
+
+import com.dremio.common.expression.BasePath;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.record.selection.SelectionVector4;
+
+/**
+ * Outgoing side of a {@link Filterer} that only needs to fill a selection vector.
+ */
+public class SV2Holder implements VectorAccessible {
+
+  private final SelectionVector2 sv2;
+
+  public SV2Holder(SelectionVector2 sv2) {
+    this.sv2 = sv2;
+  }
+
+  @Override
+  public Iterator<VectorWrapper<?>> iterator() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends ValueVector> VectorWrapper<T> getValueAccessorById(Class<T> clazz, int... fieldIds) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public TypedFieldId getValueVectorId(BasePath path) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public BatchSchema getSchema() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getRecordCount() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public SelectionVector2 getSelectionVector2() {
+    return sv2;
+  }
+
+  @Override
+  public SelectionVector4 getSelectionVector4() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.merge;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.CompleteType;
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Encodes the join keys of a batch into {@link NormalizedKeys}. Each key column is written as a null byte (nulls are
+ * high) followed by the value, if not null:
+ * <ul>
+ *   <li>integers, dates and times big endian with the sign bit flipped</li>
+ *   <li>floating point numbers big endian, with the sign bit flipped for positive numbers and all the bits flipped for
+ *   negative numbers</li>
+ *   <li>decimals as a 128 bits big endian integer with the sign bit flipped</li>
+ *   <li>strings and binaries with each zero byte followed by 0xFF, and terminated by two zero bytes</li>
+ * </ul>
+ * so that the keys can be compared without looking at their types.
+ */
+public final class KeyNormalizer {
+  private static final byte NOT_NULL = 0;
+  private static final byte NULL = 1;
+
+  private final KeyWriter[] writers;
+
+  /**
+   * @param keys key vectors of the incoming batches
+   * @param nullsMatch for each key, true if null keys are equal to each other
+   */
+  KeyNormalizer(List<FieldVector> keys, boolean[] nullsMatch) {
+    Preconditions.checkArgument(keys.size() == nullsMatch.length);
+    this.writers = new KeyWriter[keys.size()];
+    for (int i = 0; i < writers.length; i++) {
+      writers[i] = newWriter(keys.get(i), nullsMatch[i]);
+    }
+  }
+
+  /**
+   * @return true if keys of this type can be normalized
+   */
+  public static boolean isSupported(CompleteType type) {
+    switch (type.toMinorType()) {
+    case BIT:
+    case INT:
+    case TIME:
+    case BIGINT:
+    case DATE:
+    case TIMESTAMP:
+    case FLOAT4:
+    case FLOAT8:
+    case DECIMAL:
+    case VARCHAR:
+    case VARBINARY:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static KeyWriter newWriter(FieldVector vector, boolean nullsMatch) {
+    switch (CompleteType.fromField(vector.getField()).toMinorType()) {
+    case BIT:
+      return new BitWriter(vector, nullsMatch);
+    case INT:
+    case TIME:
+      return new IntWriter(vector, nullsMatch);
+    case BIGINT:
+    case DATE:
+    case TIMESTAMP:
+      return new BigIntWriter(vector, nullsMatch);
+    case FLOAT4:
+      return new Float4Writer(vector, nullsMatch);
+    case FLOAT8:
+      return new Float8Writer(vector, nullsMatch);
+    case DECIMAL:
+      return new DecimalWriter(vector, nullsMatch);
+    case VARCHAR:
+    case VARBINARY:
+      return new VariableWriter(vector, nullsMatch);
+    default:
+      throw new UnsupportedOperationException("Unsupported merge join key type " + vector.getField());
+    }
+  }
+
+  /**
+   * Normalizes the keys of the first records of the current batch.
+   */
+  NormalizedKeys normalize(BufferAllocator allocator, int records) {
+    long maxBytes = 0;
+    for (KeyWriter writer : writers) {
+      writer.prepare();
+      maxBytes += writer.getMaxBytes(records);
+    }
+    Preconditions.checkState(maxBytes <= Integer.MAX_VALUE, "Join keys of the batch are too large");
+
+    final ArrowBuf offsets = allocator.buffer((records + 1) * 4);
+    ArrowBuf data = null;
+    try {
+      data = allocator.buffer((int) Math.max(maxBytes, 1));
+      final long offsetsAddr = offsets.memoryAddress();
+      final long dataAddr = data.memoryAddress();
+      BitSet unmatchable = null;
+      int offset = 0;
+      PlatformDependent.putInt(offsetsAddr, 0);
+      for (int i = 0; i < records; i++) {
+        boolean matchable = true;
+        for (KeyWriter writer : writers) {
+          final int written = writer.write(i, dataAddr + offset);
+          if (written == 1 && !writer.nullsMatch) {
+            matchable = false;
+          }
+          offset += written;
+        }
+        if (!matchable) {
+          if (unmatchable == null) {
+            unmatchable = new BitSet(records);
+          }
+          unmatchable.set(i);
+        }
+        PlatformDependent.putInt(offsetsAddr + (i + 1) * 4, offset);
+      }
+      return new NormalizedKeys(offsets, data, records, unmatchable);
+    } catch (RuntimeException e) {
+      AutoCloseables.close(e, offsets, data);
+      throw e;
+    }
+  }
+
+  /**
+   * Writes the normalized values of a key vector.
+   */
+  private abstract static class KeyWriter {
+    protected final FieldVector vector;
+    private final boolean nullsMatch;
+    private long validityAddr;
+
+    KeyWriter(FieldVector vector, boolean nullsMatch) {
+      this.vector = vector;
+      this.nullsMatch = nullsMatch;
+    }
+
+    /**
+     * Called before writing the keys of a batch, as the buffers of the vector change from batch to batch.
+     */
+    void prepare() {
+      validityAddr = vector.getValidityBufferAddress();
+    }
+
+    /**
+     * @return the maximum number of bytes written for the first records of the batch
+     */
+    abstract long getMaxBytes(int records);
+
+    /**
+     * Writes the key of a record.
+     * @return the number of bytes written, 1 if the key is null
+     */
+    final int write(int index, long addr) {
+      if (((PlatformDependent.getByte(validityAddr + (index >>> 3)) >>> (index & 7)) & 1) == 0) {
+        PlatformDependent.putByte(addr, NULL);
+        return 1;
+      }
+      PlatformDependent.putByte(addr, NOT_NULL);
+      return 1 + writeValue(index, addr + 1);
+    }
+
+    abstract int writeValue(int index, long addr);
+  }
+
+  private abstract static class FixedWriter extends KeyWriter {
+    private final int width;
+    protected long dataAddr;
+
+    FixedWriter(FieldVector vector, boolean nullsMatch, int width) {
+      super(vector, nullsMatch);
+      this.width = width;
+    }
+
+    @Override
+    void prepare() {
+      super.prepare();
+      dataAddr = vector.getDataBufferAddress();
+    }
+
+    @Override
+    long getMaxBytes(int records) {
+      return (long) records * (1 + width);
+    }
+  }
+
+  private static final class BitWriter extends FixedWriter {
+    BitWriter(FieldVector vector, boolean nullsMatch) {
+      super(vector, nullsMatch, 1);
+    }
+
+    @Override
+    int writeValue(int index, long addr) {
+      PlatformDependent.putByte(addr, (byte) ((PlatformDependent.getByte(dataAddr + (index >>> 3)) >>> (index & 7)) & 1));
+      return 1;
+    }
+  }
+
+  private static final class IntWriter extends FixedWriter {
+    IntWriter(FieldVector vector, boolean nullsMatch) {
+      super(vector, nullsMatch, 4);
+    }
+
+    @Override
+    int writeValue(int index, long addr) {
+      final int value = PlatformDependent.getInt(dataAddr + index * 4);
+      PlatformDependent.putInt(addr, Integer.reverseBytes(value ^ Integer.MIN_VALUE));
+      return 4;
+    }
+  }
+
+  private static final class BigIntWriter extends FixedWriter {
+    BigIntWriter(FieldVector vector, boolean nullsMatch) {
+      super(vector, nullsMatch, 8);
+    }
+
+    @Override
+    int writeValue(int index, long addr) {
+      final long value = PlatformDependent.getLong(dataAddr + index * 8);
+      PlatformDependent.putLong(addr, Long.reverseBytes(value ^ Long.MIN_VALUE));
+      return 8;
+    }
+  }
+
+  private static final class Float4Writer extends FixedWriter {
+    Float4Writer(FieldVector vector, boolean nullsMatch) {
+      super(vector, nullsMatch, 4);
+    }
+
+    @Override
+    int writeValue(int index, long addr) {
+      final float value = Float.intBitsToFloat(PlatformDependent.getInt(dataAddr + index * 4));
+      // -0.0 is equal to 0.0, and all the NaNs are the same
+      final int bits = Float.floatToIntBits(value == 0.0f ? 0.0f : value);
+      PlatformDependent.putInt(addr, Integer.reverseBytes(bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE));
+      return 4;
+    }
+  }
+
+  private static final class Float8Writer extends FixedWriter {
+    Float8Writer(FieldVector vector, boolean nullsMatch) {
+      super(vector, nullsMatch, 8);
+    }
+
+    @Override
+    int writeValue(int index, long addr) {
+      final double value = Double.longBitsToDouble(PlatformDependent.getLong(dataAddr + index * 8));
+      // -0.0 is equal to 0.0, and all the NaNs are the same
+      final long bits = Double.doubleToLongBits(value == 0.0d ? 0.0d : value);
+      PlatformDependent.putLong(addr, Long.reverseBytes(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE));
+      return 8;
+    }
+  }
+
+  private static final class DecimalWriter extends FixedWriter {
+    DecimalWriter(FieldVector vector, boolean nullsMatch) {
+      super(vector, nullsMatch, 16);
+    }
+
+    @Override
+    int writeValue(int index, long addr) {
+      // stored as a 128 bits little endian two's complement integer
+      final long low = PlatformDependent.getLong(dataAddr + index * 16);
+      final long high = PlatformDependent.getLong(dataAddr + index * 16 + 8);
+      PlatformDependent.putLong(addr, Long.reverseBytes(high ^ Long.MIN_VALUE));
+      PlatformDependent.putLong(addr + 8, Long.reverseBytes(low));
+      return 16;
+    }
+  }
+
+  private static final class VariableWriter extends KeyWriter {
+    private long offsetAddr;
+    private long dataAddr;
+
+    VariableWriter(FieldVector vector, boolean nullsMatch) {
+      super(vector, nullsMatch);
+    }
+
+    @Override
+    void prepare() {
+      super.prepare();
+      offsetAddr = vector.getOffsetBufferAddress();
+      dataAddr = vector.getDataBufferAddress();
+    }
+
+    @Override
+    long getMaxBytes(int records) {
+      final long dataBytes = PlatformDependent.getInt(offsetAddr + records * 4) - PlatformDependent.getInt(offsetAddr);
+      // every byte may be escaped, and every value has a null byte and a terminator
+      return 2 * dataBytes + 3L * records;
+    }
+
+    @Override
+    int writeValue(int index, long addr) {
+      final int start = PlatformDependent.getInt(offsetAddr + index * 4);
+      final int end = PlatformDependent.getInt(offsetAddr + index * 4 + 4);
+      long dst = addr;
+      for (long src = dataAddr + start, max = dataAddr + end; src < max; src++) {
+        final byte value = PlatformDependent.getByte(src);
+        PlatformDependent.putByte(dst++, value);
+        if (value == 0) {
+          PlatformDependent.putByte(dst++, (byte) 0xFF);
+        }
+      }
+      PlatformDependent.putByte(dst++, (byte) 0);
+      PlatformDependent.putByte(dst++, (byte) 0);
+      return (int) (dst - addr);
+    }
+  }
+}
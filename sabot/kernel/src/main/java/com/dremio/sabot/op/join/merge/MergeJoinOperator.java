@@ -434,7 +434,11 @@ public class MergeJoinOperator implements DualInputOperator {
   public static class Creator implements DualInputOperator.Creator<MergeJoinPOP>{
     @Override
     public DualInputOperator create(OperatorContext context, MergeJoinPOP config) throws ExecutionSetupException {
-      return new MergeJoinOperator(context, config);
+      if (config.isVectorize()) {
+        return new VectorizedMergeJoinOperator(context, config);
+      } else {
+        return new MergeJoinOperator(context, config);
+      }
     }
 
   }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.merge;
+
+import java.util.BitSet;
+
+import org.apache.arrow.memory.ArrowBuf;
+
+import com.dremio.common.AutoCloseables;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * The join keys of a batch, normalized by {@link KeyNormalizer} so that the order of two keys is the unsigned
+ * lexicographic order of their bytes. Keys of the same batch are sorted, which allows finding the boundaries of runs
+ * of equal keys with a galloping search.
+ */
+final class NormalizedKeys implements AutoCloseable {
+  private final ArrowBuf offsets;
+  private final ArrowBuf data;
+  private final long offsetsAddr;
+  private final long dataAddr;
+  private final int records;
+  // rows with a null key in a column which is not compared with IS NOT DISTINCT FROM, null if there are none
+  private final BitSet unmatchable;
+
+  NormalizedKeys(ArrowBuf offsets, ArrowBuf data, int records, BitSet unmatchable) {
+    this.offsets = offsets;
+    this.data = data;
+    this.offsetsAddr = offsets.memoryAddress();
+    this.dataAddr = data.memoryAddress();
+    this.records = records;
+    this.unmatchable = unmatchable;
+  }
+
+  int getRecordCount() {
+    return records;
+  }
+
+  /**
+   * @return false if the key can't be equal to any other key because of its nulls
+   */
+  boolean isMatchable(int index) {
+    return unmatchable == null || !unmatchable.get(index);
+  }
+
+  /**
+   * Compares the key at leftIndex in left with the key at rightIndex in right.
+   */
+  static int compare(NormalizedKeys left, int leftIndex, NormalizedKeys right, int rightIndex) {
+    final int leftStart = PlatformDependent.getInt(left.offsetsAddr + leftIndex * 4);
+    final int leftLength = PlatformDependent.getInt(left.offsetsAddr + leftIndex * 4 + 4) - leftStart;
+    final int rightStart = PlatformDependent.getInt(right.offsetsAddr + rightIndex * 4);
+    final int rightLength = PlatformDependent.getInt(right.offsetsAddr + rightIndex * 4 + 4) - rightStart;
+    return compare(left.dataAddr + leftStart, leftLength, right.dataAddr + rightStart, rightLength);
+  }
+
+  private static int compare(long leftAddr, int leftLength, long rightAddr, int rightLength) {
+    final int length = Math.min(leftLength, rightLength);
+    int i = 0;
+    for (; i + 8 <= length; i += 8) {
+      final long leftWord = PlatformDependent.getLong(leftAddr + i);
+      final long rightWord = PlatformDependent.getLong(rightAddr + i);
+      if (leftWord != rightWord) {
+        // the words are read little endian, swap them to compare the first bytes first
+        return Long.compareUnsigned(Long.reverseBytes(leftWord), Long.reverseBytes(rightWord));
+      }
+    }
+    for (; i < length; i++) {
+      final int leftByte = PlatformDependent.getByte(leftAddr + i) & 0xFF;
+      final int rightByte = PlatformDependent.getByte(rightAddr + i) & 0xFF;
+      if (leftByte != rightByte) {
+        return leftByte < rightByte ? -1 : 1;
+      }
+    }
+    return Integer.compare(leftLength, rightLength);
+  }
+
+  /**
+   * @return the index of the first key in [from, to) which is greater or equal to the key at index in keys, or to
+   */
+  int findStart(int from, int to, NormalizedKeys keys, int index) {
+    return gallop(from, to, keys, index, 0);
+  }
+
+  /**
+   * @return the index of the first key in [from, to) which is greater than the key at index in keys, or to
+   */
+  int findEnd(int from, int to, NormalizedKeys keys, int index) {
+    return gallop(from, to, keys, index, 1);
+  }
+
+  /**
+   * Finds the first key in [from, to) that compares to the searched key with a result of at least minCompare. Probes
+   * at exponentially growing distances from the start before doing a binary search, so that the cost depends on the
+   * distance to the result rather than on the size of the batch.
+   */
+  private int gallop(int from, int to, NormalizedKeys keys, int index, int minCompare) {
+    if (from >= to || compare(this, from, keys, index) >= minCompare) {
+      return from;
+    }
+    // the key at low is smaller than the searched key, the key at high is not or high is the end
+    int low = from;
+    int step = 1;
+    while (from + step < to && compare(this, from + step, keys, index) < minCompare) {
+      low = from + step;
+      step <<= 1;
+    }
+    int high = Math.min(from + step, to);
+    while (high - low > 1) {
+      final int mid = (low + high) >>> 1;
+      if (compare(this, mid, keys, index) >= minCompare) {
+        high = mid;
+      } else {
+        low = mid;
+      }
+    }
+    return high;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(offsets, data);
+  }
+}
@@ -0,0 +1,561 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.merge;
+
+import static com.dremio.sabot.op.common.hashtable.HashTable.BUILD_RECORD_LINK_SIZE;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.calcite.rel.core.JoinRelType;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.expr.ValueVectorReadExpression;
+import com.dremio.exec.physical.config.MergeJoinPOP;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.common.hashtable.Comparator;
+import com.dremio.sabot.op.copier.ConditionalFieldBufferCopier6;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
+import com.dremio.sabot.op.join.JoinUtils;
+import com.dremio.sabot.op.spi.DualInputOperator;
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Merge join of inputs sorted by the join keys, ascending with nulls high, which works on whole batches rather than
+ * record by record.<br>
+ * The keys of each incoming batch are normalized into byte comparable keys, and the boundaries of runs of equal keys
+ * are found with galloping searches over them. Each output record is described by a link to a left record and a link
+ * to a right record (or no record for non matching rows of outer joins), and the output is copied column by column
+ * from the links with {@link ConditionalFieldBufferCopier6}.<br>
+ * Incoming batches are kept until they are fully joined. A run of equal right keys is kept in memory until all the
+ * left records with the same key have been joined with it.
+ */
+public class VectorizedMergeJoinOperator implements DualInputOperator {
+  private static final int SKIP = -1;
+  // number of joined batches kept for pending output before the output is flushed
+  private static final int MAX_PENDING_BATCHES = 8;
+
+  /**
+   * Why the join stopped.
+   */
+  private enum Progress {
+    OUTPUT_FULL,
+    NEEDS_LEFT,
+    NEEDS_RIGHT,
+    FINISHED
+  }
+
+  private final OperatorContext context;
+  private final List<JoinCondition> conditions;
+  private final boolean projectUnmatchedLeft;
+  private final boolean projectUnmatchedRight;
+  private final int targetBatchSize;
+  private final VectorContainer outgoing;
+
+  private State state = State.NEEDS_SETUP;
+
+  private Input left;
+  private Input right;
+  private List<FieldVector> leftOutputs;
+  private List<FieldVector> rightOutputs;
+  private ArrowBuf leftLinks;
+  private ArrowBuf rightLinks;
+  private int outputCount;
+
+  // right records with the key of the left cursor: [runStart, runEnd), complete once a greater key is found
+  private boolean inRun;
+  private boolean runComplete;
+  private int runStartBatch;
+  private int runStartRecord;
+  private int runEndBatch;
+  private int runEndRecord;
+
+  // left records of the current left batch being joined with the run, up to emitLeftEnd, and position in the run
+  private boolean emitting;
+  private int emitLeftEnd;
+  private int emitRightBatch;
+  private int emitRightRecord;
+
+  public VectorizedMergeJoinOperator(OperatorContext context, MergeJoinPOP popConfig) {
+    this.context = context;
+    this.conditions = popConfig.getConditions();
+    final JoinRelType joinType = popConfig.getJoinType();
+    this.projectUnmatchedLeft = joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL;
+    this.projectUnmatchedRight = joinType == JoinRelType.RIGHT || joinType == JoinRelType.FULL;
+    this.targetBatchSize = context.getTargetBatchSize();
+    this.outgoing = context.createOutputVectorContainer();
+  }
+
+  @Override
+  public VectorAccessible setup(VectorAccessible left, VectorAccessible right) throws Exception {
+    state.is(State.NEEDS_SETUP);
+
+    final List<FieldVector> leftKeys = new ArrayList<>();
+    final List<FieldVector> rightKeys = new ArrayList<>();
+    final boolean[] nullsMatch = new boolean[conditions.size()];
+    for (int i = 0; i < conditions.size(); i++) {
+      final JoinCondition condition = conditions.get(i);
+      final FieldVector leftKey = getField(left, condition.getLeft());
+      final FieldVector rightKey = getField(right, condition.getRight());
+      final CompleteType type = CompleteType.fromField(leftKey.getField());
+      Preconditions.checkState(KeyNormalizer.isSupported(type) && type.equals(CompleteType.fromField(rightKey.getField())),
+          "Unsupported merge join keys %s and %s", leftKey.getField(), rightKey.getField());
+      leftKeys.add(leftKey);
+      rightKeys.add(rightKey);
+      nullsMatch[i] = JoinUtils.checkAndReturnSupportedJoinComparator(condition) == Comparator.IS_NOT_DISTINCT_FROM;
+    }
+
+    final BufferAllocator allocator = context.getAllocator();
+    this.left = new Input(left, new KeyNormalizer(leftKeys, nullsMatch), allocator);
+    this.right = new Input(right, new KeyNormalizer(rightKeys, nullsMatch), allocator);
+
+    outgoing.addSchema(right.getSchema());
+    outgoing.addSchema(left.getSchema());
+    outgoing.buildSchema(SelectionVectorMode.NONE);
+    outgoing.setInitialCapacity(targetBatchSize);
+
+    final List<FieldVector> outputs = VectorContainer.getFieldVectors(outgoing);
+    final int rightFieldCount = right.getSchema().getFieldCount();
+    this.rightOutputs = outputs.subList(0, rightFieldCount);
+    this.leftOutputs = outputs.subList(rightFieldCount, outputs.size());
+
+    this.leftLinks = allocator.buffer(targetBatchSize * BUILD_RECORD_LINK_SIZE);
+    this.rightLinks = allocator.buffer(targetBatchSize * BUILD_RECORD_LINK_SIZE);
+
+    state = State.CAN_CONSUME_L;
+    return outgoing;
+  }
+
+  private FieldVector getField(VectorAccessible accessible, LogicalExpression expr) {
+    final LogicalExpression materialized = context.getClassProducer().materialize(expr, accessible);
+    if (!(materialized instanceof ValueVectorReadExpression)) {
+      throw new IllegalStateException("Only direct references allowed.");
+    }
+    final int[] fieldIds = ((ValueVectorReadExpression) materialized).getFieldId().getFieldIds();
+    return accessible.getValueAccessorById(FieldVector.class, fieldIds).getValueVector();
+  }
+
+  @Override
+  public State getState() {
+    return state;
+  }
+
+  @Override
+  public void consumeDataLeft(int records) throws Exception {
+    state.is(State.CAN_CONSUME_L);
+    left.add(records);
+    state = nextState(join());
+  }
+
+  @Override
+  public void consumeDataRight(int records) throws Exception {
+    state.is(State.CAN_CONSUME_R);
+    right.add(records);
+    state = nextState(join());
+  }
+
+  @Override
+  public void noMoreToConsumeLeft() throws Exception {
+    state.is(State.CAN_CONSUME_L);
+    left.noMore = true;
+    state = nextState(join());
+  }
+
+  @Override
+  public void noMoreToConsumeRight() throws Exception {
+    state.is(State.CAN_CONSUME_R);
+    right.noMore = true;
+    state = nextState(join());
+  }
+
+  /**
+   * State after consuming a batch. Keeps consuming while the output is not full, unless too many batches are kept
+   * only because the pending output refers to them.
+   */
+  private State nextState(Progress progress) {
+    switch (progress) {
+    case NEEDS_LEFT:
+      return canConsume(left) ? State.CAN_CONSUME_L : State.CAN_PRODUCE;
+    case NEEDS_RIGHT:
+      return canConsume(right) ? State.CAN_CONSUME_R : State.CAN_PRODUCE;
+    default:
+      return State.CAN_PRODUCE;
+    }
+  }
+
+  private boolean canConsume(Input input) {
+    if (outputCount == 0) {
+      releaseJoinedBatches();
+      return true;
+    }
+    return input.batch < MAX_PENDING_BATCHES;
+  }
+
+  @Override
+  public int outputData() throws Exception {
+    state.is(State.CAN_PRODUCE);
+    final Progress progress = join();
+    final int records = outputCount;
+
+    project(left, leftOutputs, leftLinks.memoryAddress(), records);
+    project(right, rightOutputs, rightLinks.memoryAddress(), records);
+    outputCount = 0;
+    releaseJoinedBatches();
+
+    switch (progress) {
+    case NEEDS_LEFT:
+      state = State.CAN_CONSUME_L;
+      break;
+    case NEEDS_RIGHT:
+      state = State.CAN_CONSUME_R;
+      break;
+    case OUTPUT_FULL:
+      state = State.CAN_PRODUCE;
+      break;
+    case FINISHED:
+      state = State.DONE;
+      break;
+    default:
+      throw new IllegalStateException("Unexpected progress " + progress);
+    }
+    return outgoing.setAllCount(records);
+  }
+
+  private static void project(Input input, List<FieldVector> outputs, long linksAddr, int records) {
+    if (input.batches.isEmpty()) {
+      // no data on this side, all the records are null
+      for (FieldVector output : outputs) {
+        output.allocateNew();
+      }
+      return;
+    }
+    for (FieldBufferCopier copier : input.getCopiers(outputs)) {
+      copier.copy(linksAddr, records);
+    }
+  }
+
+  /**
+   * Joins the buffered batches until the output is full or more input is needed.
+   */
+  private Progress join() {
+    while (outputCount < targetBatchSize) {
+      if (emitting) {
+        emitRun();
+        continue;
+      }
+
+      if (inRun) {
+        if (!runComplete && !extendRun()) {
+          return Progress.NEEDS_RIGHT;
+        }
+        if (!left.hasNext()) {
+          if (!left.noMore) {
+            return Progress.NEEDS_LEFT;
+          }
+          endRun();
+          continue;
+        }
+        // left records with the key of the run
+        final NormalizedKeys leftKeys = left.currentKeys();
+        final int end = leftKeys.findEnd(left.record, leftKeys.getRecordCount(), right.keys.get(runStartBatch), runStartRecord);
+        if (end == left.record) {
+          endRun();
+          continue;
+        }
+        emitting = true;
+        emitLeftEnd = end;
+        emitRightBatch = runStartBatch;
+        emitRightRecord = runStartRecord;
+        continue;
+      }
+
+      final boolean hasLeft = left.hasNext();
+      final boolean hasRight = right.hasNext();
+      if ((!hasLeft && left.noMore && !projectUnmatchedRight) || (!hasRight && right.noMore && !projectUnmatchedLeft)) {
+        return Progress.FINISHED;
+      }
+      if (!hasLeft && !left.noMore) {
+        return Progress.NEEDS_LEFT;
+      }
+      if (!hasRight && !right.noMore) {
+        return Progress.NEEDS_RIGHT;
+      }
+      if (!hasLeft && !hasRight) {
+        return Progress.FINISHED;
+      }
+      if (!hasRight) {
+        skipLeft(left.currentKeys().getRecordCount());
+        continue;
+      }
+      if (!hasLeft) {
+        skipRight(right.currentKeys().getRecordCount());
+        continue;
+      }
+
+      final NormalizedKeys leftKeys = left.currentKeys();
+      final NormalizedKeys rightKeys = right.currentKeys();
+      final int compare = NormalizedKeys.compare(leftKeys, left.record, rightKeys, right.record);
+      if (compare < 0) {
+        skipLeft(leftKeys.findStart(left.record, leftKeys.getRecordCount(), rightKeys, right.record));
+      } else if (compare > 0) {
+        skipRight(rightKeys.findStart(right.record, rightKeys.getRecordCount(), leftKeys, left.record));
+      } else if (!leftKeys.isMatchable(left.record)) {
+        // equal keys with nulls which don't match
+        skipLeft(leftKeys.findEnd(left.record, leftKeys.getRecordCount(), leftKeys, left.record));
+      } else {
+        inRun = true;
+        runComplete = false;
+        runStartBatch = runEndBatch = right.batch;
+        runStartRecord = runEndRecord = right.record;
+      }
+    }
+    return Progress.OUTPUT_FULL;
+  }
+
+  /**
+   * Looks for the end of the run in the buffered right batches.
+   * @return false if the end of the run is not known until the next right batch is consumed
+   */
+  private boolean extendRun() {
+    final NormalizedKeys runKeys = right.keys.get(runStartBatch);
+    while (runEndBatch < right.keys.size()) {
+      final NormalizedKeys keys = right.keys.get(runEndBatch);
+      runEndRecord = keys.findEnd(runEndRecord, keys.getRecordCount(), runKeys, runStartRecord);
+      if (runEndRecord < keys.getRecordCount()) {
+        runComplete = true;
+        return true;
+      }
+      runEndBatch++;
+      runEndRecord = 0;
+    }
+    runComplete = right.noMore;
+    return runComplete;
+  }
+
+  /**
+   * Outputs the cross product of the left records [left cursor, emitLeftEnd) and of the run.
+   */
+  private void emitRun() {
+    while (outputCount < targetBatchSize) {
+      if (emitRightBatch < runEndBatch && emitRightRecord == right.keys.get(emitRightBatch).getRecordCount()) {
+        emitRightBatch++;
+        emitRightRecord = 0;
+        continue;
+      }
+      if (emitRightBatch == runEndBatch && emitRightRecord == runEndRecord) {
+        // joined the left record with the whole run
+        left.record++;
+        if (left.record == emitLeftEnd) {
+          emitting = false;
+          return;
+        }
+        emitRightBatch = runStartBatch;
+        emitRightRecord = runStartRecord;
+        continue;
+      }
+
+      final int end = emitRightBatch == runEndBatch ? runEndRecord : right.keys.get(emitRightBatch).getRecordCount();
+      final int count = Math.min(end - emitRightRecord, targetBatchSize - outputCount);
+      long leftAddr = leftLinks.memoryAddress() + outputCount * BUILD_RECORD_LINK_SIZE;
+      long rightAddr = rightLinks.memoryAddress() + outputCount * BUILD_RECORD_LINK_SIZE;
+      for (int i = 0; i < count; i++) {
+        PlatformDependent.putInt(leftAddr, left.batch);
+        PlatformDependent.putShort(leftAddr + 4, (short) left.record);
+        PlatformDependent.putInt(rightAddr, emitRightBatch);
+        PlatformDependent.putShort(rightAddr + 4, (short) (emitRightRecord + i));
+        leftAddr += BUILD_RECORD_LINK_SIZE;
+        rightAddr += BUILD_RECORD_LINK_SIZE;
+      }
+      emitRightRecord += count;
+      outputCount += count;
+    }
+  }
+
+  private void endRun() {
+    inRun = false;
+    right.batch = runEndBatch;
+    right.record = runEndRecord;
+  }
+
+  /**
+   * Skips the left records up to end in the current batch, which have no match.
+   */
+  private void skipLeft(int end) {
+    final int count = projectUnmatchedLeft ? Math.min(end - left.record, targetBatchSize - outputCount) : end - left.record;
+    if (projectUnmatchedLeft) {
+      outputUnmatched(leftLinks, rightLinks, left.batch, left.record, count);
+    }
+    left.record += count;
+  }
+
+  /**
+   * Skips the right records up to end in the current batch, which have no match.
+   */
+  private void skipRight(int end) {
+    final int count = projectUnmatchedRight ? Math.min(end - right.record, targetBatchSize - outputCount) : end - right.record;
+    if (projectUnmatchedRight) {
+      outputUnmatched(rightLinks, leftLinks, right.batch, right.record, count);
+    }
+    right.record += count;
+  }
+
+  private void outputUnmatched(ArrowBuf links, ArrowBuf otherLinks, int batch, int record, int count) {
+    long addr = links.memoryAddress() + outputCount * BUILD_RECORD_LINK_SIZE;
+    long otherAddr = otherLinks.memoryAddress() + outputCount * BUILD_RECORD_LINK_SIZE;
+    for (int i = 0; i < count; i++) {
+      PlatformDependent.putInt(addr, batch);
+      PlatformDependent.putShort(addr + 4, (short) (record + i));
+      PlatformDependent.putInt(otherAddr, SKIP);
+      addr += BUILD_RECORD_LINK_SIZE;
+      otherAddr += BUILD_RECORD_LINK_SIZE;
+    }
+    outputCount += count;
+  }
+
+  /**
+   * Releases the batches before the cursors. Only called when there is no pending output, as links refer to batches
+   * by position.
+   */
+  private void releaseJoinedBatches() {
+    Preconditions.checkState(outputCount == 0);
+    left.release(left.batch);
+    // the right cursor stays at the start of the run while it is joined
+    final int released = right.release(right.batch);
+    runStartBatch -= released;
+    runEndBatch -= released;
+    emitRightBatch -= released;
+  }
+
+  @Override
+  public <OUT, IN, EXCEP extends Throwable> OUT accept(OperatorVisitor<OUT, IN, EXCEP> visitor, IN value) throws EXCEP {
+    return visitor.visitDualInput(this, value);
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(outgoing, left, right, leftLinks, rightLinks);
+  }
+
+  /**
+   * Sorted incoming batches which are not fully joined yet, with their normalized keys.
+   */
+  private static final class Input implements AutoCloseable {
+    private final VectorAccessible incoming;
+    private final KeyNormalizer normalizer;
+    private final BufferAllocator allocator;
+    private final List<VectorContainer> batches = new ArrayList<>();
+    private final List<NormalizedKeys> keys = new ArrayList<>();
+    private List<FieldBufferCopier> copiers;
+
+    // cursor, next record to join
+    private int batch;
+    private int record;
+    private boolean noMore;
+
+    Input(VectorAccessible incoming, KeyNormalizer normalizer, BufferAllocator allocator) {
+      this.incoming = incoming;
+      this.normalizer = normalizer;
+      this.allocator = allocator;
+    }
+
+    void add(int records) {
+      if (records == 0) {
+        return;
+      }
+      final NormalizedKeys batchKeys = normalizer.normalize(allocator, records);
+      try {
+        batches.add(VectorContainer.getTransferClone(incoming, allocator));
+      } catch (RuntimeException e) {
+        AutoCloseables.close(e, batchKeys);
+        throw e;
+      }
+      keys.add(batchKeys);
+      copiers = null;
+    }
+
+    /**
+     * @return true if there is a record at the cursor, moving the cursor to the next batch if the current one is done
+     */
+    boolean hasNext() {
+      while (batch < keys.size() && record == keys.get(batch).getRecordCount()) {
+        batch++;
+        record = 0;
+      }
+      return batch < keys.size();
+    }
+
+    NormalizedKeys currentKeys() {
+      return keys.get(batch);
+    }
+
+    /**
+     * Releases the first batches.
+     * @return the number of batches released
+     */
+    int release(int count) {
+      if (count == 0) {
+        return 0;
+      }
+      final List<AutoCloseable> released = new ArrayList<>();
+      released.addAll(batches.subList(0, count));
+      released.addAll(keys.subList(0, count));
+      batches.subList(0, count).clear();
+      keys.subList(0, count).clear();
+      batch -= count;
+      copiers = null;
+      AutoCloseables.closeNoChecked(AutoCloseables.all(released));
+      return count;
+    }
+
+    List<FieldBufferCopier> getCopiers(List<FieldVector> outputs) {
+      if (copiers == null) {
+        final List<FieldVector[]> inputs = new ArrayList<>();
+        for (int i = 0; i < outputs.size(); i++) {
+          inputs.add(new FieldVector[batches.size()]);
+        }
+        for (int b = 0; b < batches.size(); b++) {
+          final List<FieldVector> vectors = VectorContainer.getFieldVectors(batches.get(b));
+          for (int i = 0; i < vectors.size(); i++) {
+            inputs.get(i)[b] = vectors.get(i);
+          }
+        }
+        copiers = ConditionalFieldBufferCopier6.getFourByteCopiers(inputs, outputs);
+      }
+      return copiers;
+    }
+
+    @Override
+    public void close() throws Exception {
+      final List<AutoCloseable> closeables = new ArrayList<>();
+      closeables.addAll(batches);
+      closeables.addAll(keys);
+      batches.clear();
+      keys.clear();
+      AutoCloseables.close(closeables);
+    }
+  }
+}
@@ -66,6 +66,7 @@ public class NLJEOperator implements DualInputOperator {
   private final static Map<String, String> VECTOR_MAP = ImmutableMap.<String, String>builder()
       .put("geo_nearby", "com.dremio.joust.geo.NearbyBeyond")
       .put("geo_beyond", "com.dremio.joust.geo.NearbyBeyond")
+      .put("range_join", "com.dremio.sabot.op.join.nlje.RangeJoinFunction")
       .put("all", "com.dremio.sabot.op.join.nlje.AllVectorFunction").build();
 
   private final OperatorContext context;
@@ -0,0 +1,522 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.nlje;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.hadoop.util.IndexedSortable;
+import org.apache.hadoop.util.QuickSort;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.AutoCloseables.RollbackCloseable;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.InputReference;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A DualRange vector function for range joins, range_join(value, low, high), which generates the pairs of records
+ * where the value of one side is between the low and high bounds of the other side. The build side is sorted once,
+ * so that each probe record only visits the build records it matches:
+ * <ul>
+ *   <li>if the bounds are on the build side, the build intervals are sorted by low bound and indexed by a tree of their
+ *   maximum high bounds. The intervals containing a probe value are found in O(log n) per match.</li>
+ *   <li>if the value is on the build side, the build values are sorted and the values within a probe interval are
+ *   found with two binary searches.</li>
+ * </ul>
+ * Bounds are inclusive and compared as doubles. Null and NaN values never match. The conversion can only add
+ * candidates for large numbers, and the join condition is still evaluated on every generated pair.
+ */
+public class RangeJoinFunction implements DualRangeFunctionFactory {
+
+  private static final int PROBE_INPUT = 0;
+
+  @Override
+  public DualRange create(BufferAllocator allocator, VectorAccessible left, VectorAccessible right,
+      int targetOutputSize, int targetGeneratedAtOnce, int[] buildCounts, LogicalExpression vectorExpression) throws Exception {
+    final FunctionCall call = (FunctionCall) vectorExpression;
+    Preconditions.checkArgument(call.args.size() == 3, "Range join expects a value and two bounds, got %s.", call);
+    final InputReference value = getReference(call, 0);
+    final InputReference low = getReference(call, 1);
+    final InputReference high = getReference(call, 2);
+    Preconditions.checkArgument(low.getInputOrdinal() == high.getInputOrdinal() && low.getInputOrdinal() != value.getInputOrdinal(),
+        "Range join expects the value and the bounds on different sides of the join, got %s.", call);
+
+    final VectorRange vectorRange = new VectorRange(targetGeneratedAtOnce, targetOutputSize);
+    try (RollbackCloseable rbc = new RollbackCloseable()) {
+      final InputRangeIterator iter;
+      if (value.getInputOrdinal() == PROBE_INPUT) {
+        iter = rbc.add(new IntervalIterator(allocator, vectorRange, getProbeReader(left, value),
+            getBuildReaders(right, low), getBuildReaders(right, high), buildCounts));
+      } else {
+        iter = rbc.add(new PointIterator(allocator, vectorRange, getProbeReader(left, low), getProbeReader(left, high),
+            getBuildReaders(right, value), buildCounts));
+      }
+      vectorRange.allocate(allocator);
+      vectorRange.provideIterator(iter);
+      rbc.commit();
+    }
+    return vectorRange;
+  }
+
+  private static InputReference getReference(FunctionCall call, int arg) {
+    final LogicalExpression expr = call.args.get(arg);
+    Preconditions.checkArgument(expr instanceof InputReference, "Range join expects field arguments, got %s.", call);
+    return (InputReference) expr;
+  }
+
+  private static TypedFieldId getFieldId(VectorAccessible accessible, InputReference reference) {
+    final TypedFieldId id = accessible.getValueVectorId(reference.getReference());
+    if (id == null) {
+      throw UserException.validationError().message("Unable to find the referenced field: [%s].", reference.getReference().getAsUnescapedPath()).buildSilently();
+    }
+    return id;
+  }
+
+  private static ValueReader getProbeReader(VectorAccessible probe, InputReference reference) {
+    return newReader(probe.getValueAccessorById(ValueVector.class, getFieldId(probe, reference).getFieldIds()).getValueVector());
+  }
+
+  private static ValueReader[] getBuildReaders(VectorAccessible build, InputReference reference) {
+    final ValueVector[] vectors = build.getValueAccessorById(ValueVector.class, getFieldId(build, reference).getFieldIds()).getValueVectors();
+    final ValueReader[] readers = new ValueReader[vectors.length];
+    for (int i = 0; i < vectors.length; i++) {
+      readers[i] = newReader(vectors[i]);
+    }
+    return readers;
+  }
+
+  /**
+   * Reads the values of a vector as doubles, NaN if null. Vectors are read through their current buffers, so the
+   * reader of a probe vector can be used for all the probe batches.
+   */
+  @FunctionalInterface
+  private interface ValueReader {
+    double read(int index);
+  }
+
+  private static ValueReader newReader(ValueVector vector) {
+    switch (CompleteType.fromField(vector.getField()).toMinorType()) {
+    case INT: {
+      final IntVector v = (IntVector) vector;
+      return i -> v.isNull(i) ? Double.NaN : v.get(i);
+    }
+    case BIGINT: {
+      final BigIntVector v = (BigIntVector) vector;
+      return i -> v.isNull(i) ? Double.NaN : v.get(i);
+    }
+    case FLOAT4: {
+      final Float4Vector v = (Float4Vector) vector;
+      return i -> v.isNull(i) ? Double.NaN : v.get(i);
+    }
+    case FLOAT8: {
+      final Float8Vector v = (Float8Vector) vector;
+      return i -> v.isNull(i) ? Double.NaN : v.get(i);
+    }
+    case DATE: {
+      final DateMilliVector v = (DateMilliVector) vector;
+      return i -> v.isNull(i) ? Double.NaN : v.get(i);
+    }
+    case TIME: {
+      final TimeMilliVector v = (TimeMilliVector) vector;
+      return i -> v.isNull(i) ? Double.NaN : v.get(i);
+    }
+    case TIMESTAMP: {
+      final TimeStampMilliVector v = (TimeStampMilliVector) vector;
+      return i -> v.isNull(i) ? Double.NaN : v.get(i);
+    }
+    case DECIMAL: {
+      final DecimalVector v = (DecimalVector) vector;
+      return i -> v.isNull(i) ? Double.NaN : v.getObject(i).doubleValue();
+    }
+    default:
+      throw new UnsupportedOperationException("Unsupported range join type " + vector.getField());
+    }
+  }
+
+  /**
+   * @return the index of the first of the count sorted doubles at addr which is greater or equal to value, or count
+   */
+  private static int lowerBound(long addr, int count, double value) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (Double.longBitsToDouble(PlatformDependent.getLong(addr + mid * 8L)) < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @return the index of the first of the count sorted doubles at addr which is greater than value, or count
+   */
+  private static int upperBound(long addr, int count, double value) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (Double.longBitsToDouble(PlatformDependent.getLong(addr + mid * 8L)) <= value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Sorts build records by key, moving their compound index and an optional second value along.
+   */
+  private static final class SortableRecords implements IndexedSortable {
+    private final long keysAddr;
+    private final long valuesAddr;
+    private final long indicesAddr;
+
+    SortableRecords(ArrowBuf keys, ArrowBuf values, ArrowBuf indices) {
+      this.keysAddr = keys.memoryAddress();
+      this.valuesAddr = values == null ? 0 : values.memoryAddress();
+      this.indicesAddr = indices.memoryAddress();
+    }
+
+    @Override
+    public int compare(int i, int j) {
+      return Double.compare(Double.longBitsToDouble(PlatformDependent.getLong(keysAddr + i * 8L)),
+          Double.longBitsToDouble(PlatformDependent.getLong(keysAddr + j * 8L)));
+    }
+
+    @Override
+    public void swap(int i, int j) {
+      swapLong(keysAddr, i, j);
+      if (valuesAddr != 0) {
+        swapLong(valuesAddr, i, j);
+      }
+      final int index = PlatformDependent.getInt(indicesAddr + i * 4L);
+      PlatformDependent.putInt(indicesAddr + i * 4L, PlatformDependent.getInt(indicesAddr + j * 4L));
+      PlatformDependent.putInt(indicesAddr + j * 4L, index);
+    }
+
+    private static void swapLong(long addr, int i, int j) {
+      final long value = PlatformDependent.getLong(addr + i * 8L);
+      PlatformDependent.putLong(addr + i * 8L, PlatformDependent.getLong(addr + j * 8L));
+      PlatformDependent.putLong(addr + j * 8L, value);
+    }
+  }
+
+  /**
+   * Generates the pairs for the records of a probe batch, one probe record at a time. The next pair is always looked
+   * up ahead, so that hasNext() is only true if next() generates some pairs.
+   */
+  private abstract static class ProbeIterator implements InputRangeIterator {
+    private final VectorRange output;
+    private int probeRecords;
+    private boolean hasPending;
+    private int pendingBuild;
+    protected int probeIndex;
+
+    ProbeIterator(VectorRange output) {
+      this.output = output;
+    }
+
+    /**
+     * Finds the next build record matching the current probe record.
+     * @return its compound index, or -1 if there are no more matches for the probe record
+     */
+    abstract int nextBuild();
+
+    /**
+     * Starts matching the probe record at probeIndex.
+     */
+    abstract void startProbeRecord();
+
+    private void advance() {
+      while (true) {
+        if (probeIndex >= 0) {
+          final int build = nextBuild();
+          if (build != -1) {
+            pendingBuild = build;
+            hasPending = true;
+            return;
+          }
+        }
+        if (++probeIndex >= probeRecords) {
+          hasPending = false;
+          return;
+        }
+        startProbeRecord();
+      }
+    }
+
+    @Override
+    public void startNextProbe(int probeRecords) {
+      this.probeRecords = probeRecords;
+      this.probeIndex = -1;
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return hasPending;
+    }
+
+    @Override
+    public int next() {
+      final long probeOutputAddr = output.getProbeOffsets2();
+      final long buildOutputAddr = output.getBuildOffsets4();
+      final int maxOutput = output.getMaxOutputCount();
+      int outputIndex = 0;
+      while (hasPending && outputIndex < maxOutput) {
+        VectorRange.set(probeOutputAddr, buildOutputAddr, outputIndex, (short) probeIndex, pendingBuild);
+        outputIndex++;
+        advance();
+      }
+      return outputIndex;
+    }
+  }
+
+  /**
+   * Probe values matched against build intervals. The intervals are sorted by low bound, and a complete binary tree
+   * holds the maximum high bound of the intervals below each node. The intervals containing a value are the ones
+   * before the first low bound greater than the value with a high bound not smaller than the value, found by
+   * descending only the nodes whose maximum high bound is large enough.
+   */
+  private static final class IntervalIterator extends ProbeIterator {
+    private final ValueReader probeValues;
+    private final ArrowBuf lows;
+    private final ArrowBuf indices;
+    private final ArrowBuf maxHighs;
+    private final long lowsAddr;
+    private final long indicesAddr;
+    private final long maxHighsAddr;
+    private final int count;
+    private final int leaves;
+    private final int depth;
+    // nodes left to visit for the current probe record, the tree depth is at most 31
+    private final int[] stack = new int[64];
+    private int stackSize;
+    private double probeValue;
+    // number of intervals whose low bound is not greater than the probe value
+    private int probeEnd;
+
+    IntervalIterator(BufferAllocator allocator, VectorRange output, ValueReader probeValues, ValueReader[] buildLows,
+                     ValueReader[] buildHighs, int[] buildCounts) {
+      super(output);
+      this.probeValues = probeValues;
+      int total = 0;
+      for (int records : buildCounts) {
+        total += records;
+      }
+
+      try (RollbackCloseable rbc = new RollbackCloseable();
+           ArrowBuf highs = allocator.buffer(total * 8L)) {
+        this.lows = rbc.add(allocator.buffer(total * 8L));
+        this.indices = rbc.add(allocator.buffer(total * 4L));
+        this.lowsAddr = lows.memoryAddress();
+        this.indicesAddr = indices.memoryAddress();
+        final long highsAddr = highs.memoryAddress();
+
+        // collect the non empty intervals
+        int count = 0;
+        for (int batch = 0; batch < buildCounts.length; batch++) {
+          for (int record = 0; record < buildCounts[batch]; record++) {
+            final double low = buildLows[batch].read(record);
+            final double high = buildHighs[batch].read(record);
+            // also false if any of them is NaN
+            if (low <= high) {
+              PlatformDependent.putLong(lowsAddr + count * 8L, Double.doubleToLongBits(low));
+              PlatformDependent.putLong(highsAddr + count * 8L, Double.doubleToLongBits(high));
+              PlatformDependent.putInt(indicesAddr + count * 4L, (batch << 16) | (record & 65535));
+              count++;
+            }
+          }
+        }
+        new QuickSort().sort(new SortableRecords(lows, highs, indices), 0, count);
+        this.count = count;
+
+        int leaves = 1;
+        while (leaves < count) {
+          leaves <<= 1;
+        }
+        this.leaves = leaves;
+        this.depth = Integer.numberOfTrailingZeros(leaves);
+        this.maxHighs = rbc.add(allocator.buffer(2L * leaves * 8));
+        this.maxHighsAddr = maxHighs.memoryAddress();
+        for (int i = 0; i < leaves; i++) {
+          final double high = i < count ? Double.longBitsToDouble(PlatformDependent.getLong(highsAddr + i * 8L)) : Double.NEGATIVE_INFINITY;
+          setMaxHigh(leaves + i, high);
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+          setMaxHigh(node, Math.max(getMaxHigh(2 * node), getMaxHigh(2 * node + 1)));
+        }
+        rbc.commit();
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    private double getMaxHigh(int node) {
+      return Double.longBitsToDouble(PlatformDependent.getLong(maxHighsAddr + node * 8L));
+    }
+
+    private void setMaxHigh(int node, double value) {
+      PlatformDependent.putLong(maxHighsAddr + node * 8L, Double.doubleToLongBits(value));
+    }
+
+    /**
+     * @return the index of the first interval below the node
+     */
+    private int firstLeaf(int node) {
+      final int level = 31 - Integer.numberOfLeadingZeros(node);
+      return (node << (depth - level)) - leaves;
+    }
+
+    @Override
+    void startProbeRecord() {
+      stackSize = 0;
+      final double value = probeValues.read(probeIndex);
+      if (Double.isNaN(value)) {
+        return;
+      }
+      probeValue = value;
+      probeEnd = upperBound(lowsAddr, count, value);
+      if (probeEnd > 0) {
+        stack[stackSize++] = 1;
+      }
+    }
+
+    @Override
+    int nextBuild() {
+      while (stackSize > 0) {
+        final int node = stack[--stackSize];
+        if (getMaxHigh(node) < probeValue || firstLeaf(node) >= probeEnd) {
+          continue;
+        }
+        if (node >= leaves) {
+          return PlatformDependent.getInt(indicesAddr + (node - leaves) * 4L);
+        }
+        stack[stackSize++] = 2 * node + 1;
+        stack[stackSize++] = 2 * node;
+      }
+      return -1;
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(lows, indices, maxHighs);
+    }
+  }
+
+  /**
+   * Probe intervals matched against build values. The values are sorted, and the values within an interval are found
+   * with two binary searches.
+   */
+  private static final class PointIterator extends ProbeIterator {
+    private final ValueReader probeLows;
+    private final ValueReader probeHighs;
+    private final ArrowBuf values;
+    private final ArrowBuf indices;
+    private final long valuesAddr;
+    private final long indicesAddr;
+    private final int count;
+    // range of the values within the current probe interval
+    private int cursor;
+    private int end;
+
+    PointIterator(BufferAllocator allocator, VectorRange output, ValueReader probeLows, ValueReader probeHighs,
+                  ValueReader[] buildValues, int[] buildCounts) {
+      super(output);
+      this.probeLows = probeLows;
+      this.probeHighs = probeHighs;
+      int total = 0;
+      for (int records : buildCounts) {
+        total += records;
+      }
+
+      try (RollbackCloseable rbc = new RollbackCloseable()) {
+        this.values = rbc.add(allocator.buffer(total * 8L));
+        this.indices = rbc.add(allocator.buffer(total * 4L));
+        this.valuesAddr = values.memoryAddress();
+        this.indicesAddr = indices.memoryAddress();
+
+        int count = 0;
+        for (int batch = 0; batch < buildCounts.length; batch++) {
+          for (int record = 0; record < buildCounts[batch]; record++) {
+            final double value = buildValues[batch].read(record);
+            if (!Double.isNaN(value)) {
+              PlatformDependent.putLong(valuesAddr + count * 8L, Double.doubleToLongBits(value));
+              PlatformDependent.putInt(indicesAddr + count * 4L, (batch << 16) | (record & 65535));
+              count++;
+            }
+          }
+        }
+        new QuickSort().sort(new SortableRecords(values, null, indices), 0, count);
+        this.count = count;
+        rbc.commit();
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    void startProbeRecord() {
+      final double low = probeLows.read(probeIndex);
+      final double high = probeHighs.read(probeIndex);
+      // also false if any of them is NaN
+      if (low <= high) {
+        cursor = lowerBound(valuesAddr, count, low);
+        end = upperBound(valuesAddr, count, high);
+      } else {
+        cursor = 0;
+        end = 0;
+      }
+    }
+
+    @Override
+    int nextBuild() {
+      if (cursor < end) {
+        return PlatformDependent.getInt(indicesAddr + (cursor++) * 4L);
+      }
+      return -1;
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(values, indices);
+    }
+  }
+}
@@ -24,9 +24,11 @@ import java.util.concurrent.TimeUnit;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.SimpleBigIntVector;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.exec.util.BloomFilter;
 import com.dremio.exec.util.ValueListFilter;
 import com.dremio.sabot.op.common.ht2.BlockChunk;
+import com.dremio.sabot.op.common.ht2.BlockedBloomFilter;
 import com.dremio.sabot.op.common.ht2.FixedBlockVector;
 import com.dremio.sabot.op.common.ht2.HashComputation;
 import com.dremio.sabot.op.common.ht2.LBlockHashTable;
@@ -34,6 +36,7 @@ import com.dremio.sabot.op.common.ht2.PivotDef;
 import com.dremio.sabot.op.common.ht2.Pivots;
 import com.dremio.sabot.op.common.ht2.ResizeListener;
 import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.koloboke.collect.hash.HashConfig;
 
@@ -55,6 +58,14 @@ public class BlockJoinTable implements JoinTable {
   private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
   private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
   private boolean fixedOnly;
+  private BlockedBloomFilter probeFilter;
+  private double probeFilterMaxMatchRate;
+  // fraction of the keys of the previous probe batch which had a match
+  private double lastMatchRate;
+  private long probeFilterHits;
+  private long probeFilterMisses;
+  // true if this instance only probes the table of another one, see newProbeView()
+  private final boolean view;
 
   public BlockJoinTable(PivotDef buildPivot, PivotDef probePivot, BufferAllocator allocator, NullComparator nullMask, int minSize, int varFieldAverageSize) {
     super();
@@ -66,6 +77,29 @@ public class BlockJoinTable implements JoinTable {
     this.nullMask = nullMask;
     this.tableTracing = false;
     this.fixedOnly = buildPivot.getVariableCount() == 0;
+    this.view = false;
+  }
+
+  private BlockJoinTable(BlockJoinTable source, PivotDef probePivot, BufferAllocator allocator, NullComparator nullMask) {
+    this.table = source.table;
+    this.buildPivot = source.buildPivot;
+    this.probePivot = probePivot;
+    this.allocator = allocator;
+    this.nullMask = nullMask;
+    this.fixedOnly = source.fixedOnly;
+    this.probeFilter = source.probeFilter;
+    this.probeFilterMaxMatchRate = source.probeFilterMaxMatchRate;
+    this.view = true;
+  }
+
+  /**
+   * Creates a table probing the keys of this one, so that several fragments can probe the same keys concurrently. The
+   * view has its own probe pivot, allocator and stats, and can't insert keys. This table must not be modified and must
+   * outlive the view.
+   */
+  public BlockJoinTable newProbeView(PivotDef probePivot, BufferAllocator allocator, NullComparator nullMask) {
+    Preconditions.checkState(!view, "Cannot create a view of a view");
+    return new BlockJoinTable(this, probePivot, allocator, nullMask);
   }
 
   /* Copy the keys of the records specified in keyOffsetAddr to destination memory
@@ -130,8 +164,26 @@ public class BlockJoinTable implements JoinTable {
     return table.prepareValueListFilter(fieldName, maxElements);
   }
 
+  @Override
+  public void prepareProbeFilter(long maxBytes, double maxMatchRate) {
+    Preconditions.checkState(!view, "Probe filter of a table view");
+    this.probeFilter = table.prepareHashFilter(maxBytes).orElse(null);
+    this.probeFilterMaxMatchRate = maxMatchRate;
+  }
+
+  @Override
+  public long getProbeFilterHitCount() {
+    return probeFilterHits;
+  }
+
+  @Override
+  public long getProbeFilterMissCount() {
+    return probeFilterMisses;
+  }
+
   @Override
   public void insert(long findAddr, int records) {
+    Preconditions.checkState(!view, "Insertion into a table view");
     try(FixedBlockVector fbv = new FixedBlockVector(allocator, buildPivot.getBlockWidth());
         VariableBlockVector var = new VariableBlockVector(allocator, buildPivot.getVariableCount());
         ){
@@ -200,14 +252,16 @@ public class BlockJoinTable implements JoinTable {
       HashComputation.computeHash(blockChunk);
       probeHashComputationWatch.stop();
 
-      // STEP 3: then we probe hash table.
+      // STEP 3: then we probe hash table, skipping the keys rejected by the filter when few keys are expected to match.
       probeFindWatch.start();
+      final BlockedBloomFilter filter = lastMatchRate <= probeFilterMaxMatchRate ? probeFilter : null;
+      final long startOffsetAddr = offsetAddr;
       final NullComparator compare = nullMask;
       switch(compare.getMode()){
       case NONE:
         for(int keyIndex = 0; keyIndex < records; keyIndex++, offsetAddr += 4) {
           final int keyHash = (int)hashValues.get(keyIndex);
-          PlatformDependent.putInt(offsetAddr, table.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
+          PlatformDependent.putInt(offsetAddr, find(table, filter, keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
         }
         break;
 
@@ -219,7 +273,7 @@ public class BlockJoinTable implements JoinTable {
           if((PlatformDependent.getInt(bitsAddr) & nullMask) == nullMask){
             // the nulls are not comparable. as such, this doesn't match.
             final int keyHash = (int)hashValues.get(keyIndex);
-            PlatformDependent.putInt(offsetAddr, table.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
+            PlatformDependent.putInt(offsetAddr, find(table, filter, keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
           } else {
             PlatformDependent.putInt(offsetAddr, SKIP);
           }
@@ -234,7 +288,7 @@ public class BlockJoinTable implements JoinTable {
         for(int keyIndex = 0; keyIndex < records; keyIndex++, offsetAddr += 4, bitsAddr += blockWidth){
           if((PlatformDependent.getLong(bitsAddr) & nullMask) == nullMask){
             final int keyHash = (int)hashValues.get(keyIndex);
-            PlatformDependent.putInt(offsetAddr, table.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
+            PlatformDependent.putInt(offsetAddr, find(table, filter, keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
           } else {
             // the nulls are not comparable. as such, this doesn't match.
             PlatformDependent.putInt(offsetAddr, SKIP);
@@ -249,7 +303,7 @@ public class BlockJoinTable implements JoinTable {
         for(int keyIndex = 0; keyIndex < records; keyIndex++, offsetAddr += 4, bitsAddr += blockWidth){
           if(compare.isComparableBigBits(bitsAddr)){
             final int keyHash = (int)hashValues.get(keyIndex);
-            PlatformDependent.putInt(offsetAddr, table.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
+            PlatformDependent.putInt(offsetAddr, find(table, filter, keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
           } else {
             // the nulls are not comparable. as such, this doesn't match.
             PlatformDependent.putInt(offsetAddr, SKIP);
@@ -263,11 +317,37 @@ public class BlockJoinTable implements JoinTable {
         throw new IllegalStateException();
       }
 
+      if (probeFilter != null && records > 0) {
+        lastMatchRate = (double) countMatches(startOffsetAddr, records) / records;
+      }
 
     }
     probeFindWatch.stop();
   }
 
+  private int find(final LBlockHashTable table, final BlockedBloomFilter filter, final long keyFixedVectorAddr,
+                   final long keyVarVectorAddr, final int keyIndex, final int keyHash) {
+    if (filter != null) {
+      if (!filter.mightContain(keyHash)) {
+        probeFilterMisses++;
+        return SKIP;
+      }
+      probeFilterHits++;
+    }
+    return table.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash);
+  }
+
+  private static int countMatches(long offsetAddr, final int records) {
+    int matches = 0;
+    final long maxAddr = offsetAddr + records * 4L;
+    for (; offsetAddr < maxAddr; offsetAddr += 4) {
+      if (PlatformDependent.getInt(offsetAddr) != SKIP) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+
 
   @Override
   public int capacity() {
@@ -286,7 +366,9 @@ public class BlockJoinTable implements JoinTable {
 
   @Override
   public void close() throws Exception {
-    table.close();
+    if (!view) {
+      AutoCloseables.close(probeFilter, table);
+    }
   }
 
   @Override
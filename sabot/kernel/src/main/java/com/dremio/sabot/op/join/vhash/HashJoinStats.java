@@ -54,7 +54,9 @@ public class HashJoinStats {
     HASHCOMPUTATION_TIME_NANOS,  /* used by hash agg and build side of hash join */
     PROBE_HASHCOMPUTATION_TIME_NANOS, /* used by probe side of hash join */
     RUNTIME_FILTER_DROP_COUNT,
-    RUNTIME_COL_FILTER_DROP_COUNT;
+    RUNTIME_COL_FILTER_DROP_COUNT,
+    PROBE_BLOOM_FILTER_HITS,    /* probe keys which passed the bloom filter of the build keys */
+    PROBE_BLOOM_FILTER_MISSES;  /* probe keys rejected by the bloom filter, without a hash table lookup */
 
 
     @Override
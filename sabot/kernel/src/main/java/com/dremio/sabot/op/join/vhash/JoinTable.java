@@ -76,4 +76,29 @@ public interface JoinTable extends AutoCloseable {
   default Optional<ValueListFilter> prepareValueListFilter(String fieldName, int maxElements) {
     return Optional.empty();
   }
+
+  /**
+   * Prepares a bloom filter from the keys of the table, used by {@link #find(long, int)} to skip the table lookup of
+   * probe keys which have no match. The filter is only applied while the fraction of probe keys having a match stays
+   * low, otherwise it would only add work.
+   *
+   * @param maxBytes maximum size of the filter, no filter is used if the table has too many keys for it
+   * @param maxMatchRate the filter is applied to a probe batch if at most this fraction of the previous batch matched
+   */
+  default void prepareProbeFilter(long maxBytes, double maxMatchRate) {
+  }
+
+  /**
+   * @return number of probe keys which passed the probe filter
+   */
+  default long getProbeFilterHitCount() {
+    return 0;
+  }
+
+  /**
+   * @return number of probe keys rejected by the probe filter, without a table lookup
+   */
+  default long getProbeFilterMissCount() {
+    return 0;
+  }
 }
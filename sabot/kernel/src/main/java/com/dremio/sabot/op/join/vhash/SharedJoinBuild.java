@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.ExpandableHyperContainer;
+import com.dremio.sabot.op.join.hash.BuildInfo;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.google.common.base.Preconditions;
+import com.google.common.math.LongMath;
+
+/**
+ * A join table built once and probed by all the fragments of a phase running on the same node. Used when the build
+ * side is broadcast, as every fragment would otherwise build an identical table.<br>
+ * The first fragment to claim the build inserts the build batches, the others ignore their copy of the build side and
+ * wait until the table is published. The table is read only once published, each fragment probes it through its own
+ * view. Its memory is accounted to a phase level allocator, bounded by the sum of the memory limits of the operators
+ * using the build, and released when the last fragment releases the build.
+ */
+final class SharedJoinBuild {
+  private final BufferAllocator allocator;
+  private final List<SharedResource> waiters = new ArrayList<>();
+
+  private int references;
+  private boolean claimed;
+  private boolean published;
+  private boolean abandoned;
+  private boolean released;
+
+  private BlockJoinTable table;
+  private ExpandableHyperContainer hyperContainer;
+  private List<ArrowBuf> startIndices = Collections.emptyList();
+  private List<BuildInfo> buildInfos = Collections.emptyList();
+  private int maxHashTableIndex;
+
+  /**
+   * @param allocator allocator of the build, its limit is raised by the limit of each operator acquiring the build
+   */
+  SharedJoinBuild(BufferAllocator allocator) {
+    this.allocator = allocator;
+  }
+
+  /**
+   * Allocator of the table and of the build batches
+   */
+  BufferAllocator getAllocator() {
+    return allocator;
+  }
+
+  /**
+   * Registers a fragment using the build, which must call {@link #release(boolean)} when done.
+   * @param memoryLimit memory limit of the operator of the fragment, added to the limit of the build
+   * @return false if the build has already been released by all the fragments, and can't be used anymore
+   */
+  synchronized boolean acquire(long memoryLimit) {
+    if (released) {
+      return false;
+    }
+    references++;
+    allocator.setLimit(LongMath.saturatedAdd(allocator.getLimit(), memoryLimit));
+    return true;
+  }
+
+  /**
+   * @return true if the calling fragment is the one building the table
+   */
+  synchronized boolean claim() {
+    if (claimed) {
+      return false;
+    }
+    claimed = true;
+    return true;
+  }
+
+  /**
+   * Makes the table available to the other fragments, which then own it. Called by the fragment that built it.
+   */
+  synchronized void publish(BlockJoinTable table, ExpandableHyperContainer hyperContainer, List<ArrowBuf> startIndices,
+                            List<BuildInfo> buildInfos, int maxHashTableIndex) {
+    Preconditions.checkState(claimed && !published, "Shared join table published more than once");
+    this.table = table;
+    this.hyperContainer = hyperContainer;
+    this.startIndices = new ArrayList<>(startIndices);
+    this.buildInfos = new ArrayList<>(buildInfos);
+    this.maxHashTableIndex = maxHashTableIndex;
+    this.published = true;
+    wakeUpWaiters();
+  }
+
+  /**
+   * Checks if the table was published. If not, the resource is blocked until it is, so that the fragment of the caller
+   * is not scheduled in the meantime.
+   */
+  synchronized boolean isPublished(SharedResource waiter) {
+    if (published) {
+      return true;
+    }
+    if (abandoned) {
+      throw new IllegalStateException("The fragment building the shared join table failed before completing it");
+    }
+    waiter.markBlocked();
+    waiters.add(waiter);
+    return false;
+  }
+
+  BlockJoinTable getTable() {
+    return table;
+  }
+
+  ExpandableHyperContainer getHyperContainer() {
+    return hyperContainer;
+  }
+
+  List<ArrowBuf> getStartIndices() {
+    return startIndices;
+  }
+
+  List<BuildInfo> getBuildInfos() {
+    return buildInfos;
+  }
+
+  int getMaxHashTableIndex() {
+    return maxHashTableIndex;
+  }
+
+  /**
+   * Releases the build for the calling fragment. The last fragment releasing it closes the table.
+   * @param builder true if the calling fragment is the one that claimed the build
+   */
+  synchronized void release(boolean builder) throws Exception {
+    Preconditions.checkState(references > 0, "Shared join table released more than acquired");
+    if (builder && !published) {
+      abandoned = true;
+      wakeUpWaiters();
+    }
+    if (--references == 0) {
+      released = true;
+      final List<AutoCloseable> closeables = new ArrayList<>();
+      closeables.add(hyperContainer);
+      closeables.add(table);
+      closeables.addAll(buildInfos);
+      closeables.addAll(startIndices);
+      closeables.add(allocator);
+      AutoCloseables.close(closeables);
+    }
+  }
+
+  private void wakeUpWaiters() {
+    for (SharedResource waiter : waiters) {
+      waiter.markAvailable();
+    }
+    waiters.clear();
+  }
+}
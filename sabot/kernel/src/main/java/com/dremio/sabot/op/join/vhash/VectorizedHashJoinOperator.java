@@ -30,6 +30,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VarBinaryVector;
@@ -65,6 +66,7 @@ import com.dremio.exec.util.ValueListFilter;
 import com.dremio.exec.util.ValueListFilterBuilder;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.context.PhaseSharedContext;
 import com.dremio.sabot.exec.fragment.OutOfBandMessage;
 import com.dremio.sabot.op.aggregate.vectorized.VariableLengthValidator;
 import com.dremio.sabot.op.common.hashtable.Comparator;
@@ -76,6 +78,8 @@ import com.dremio.sabot.op.join.JoinUtils;
 import com.dremio.sabot.op.join.hash.BuildInfo;
 import com.dremio.sabot.op.join.vhash.HashJoinStats.Metric;
 import com.dremio.sabot.op.spi.DualInputOperator;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
@@ -163,6 +167,18 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   private long outputRecords = 0;
   private int runtimeValFilterCap;
 
+  // allocator of the hash table and the build batches
+  private BufferAllocator buildAllocator;
+  // set if the table is shared with the other fragments of this phase on this node
+  private SharedJoinBuild sharedBuild;
+  // true if this fragment builds the shared table
+  private boolean sharedBuilder;
+  // false once the table and build batches are owned by the shared build
+  private boolean ownsBuild = true;
+  // blocks this fragment until the shared table is built by another fragment
+  private SharedResource sharedBuildWait;
+  private boolean waitingForSharedBuild;
+
   public VectorizedHashJoinOperator(OperatorContext context, HashJoinPOP popConfig) throws OutOfMemoryException {
     this.context = context;
     this.config = popConfig;
@@ -318,6 +334,21 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     Preconditions.checkArgument(probePivot.getBitCount() == buildPivot.getBitCount(), "Bit width of build [%s] and probe pivots are not equal [%s].", buildPivot.getBitCount(), probePivot.getBitCount());
 
     this.mode = mode;
+    debugInsertion = context.getOptions().getOption(ExecConstants.DEBUG_HASHJOIN_INSERTION);
+    this.buildAllocator = context.getAllocator();
+    if (mode == Mode.VECTORIZED_GENERIC) {
+      this.sharedBuild = acquireSharedBuild();
+      if (sharedBuild != null) {
+        this.sharedBuilder = sharedBuild.claim();
+        if (sharedBuilder) {
+          this.buildAllocator = sharedBuild.getAllocator();
+        } else {
+          this.sharedBuildWait = context.getPhaseSharedContext().newPipelineResource(
+            "shared-join-build-" + config.getProps().getLocalOperatorId(), SharedResourceType.SHARED_JOIN_BUILD);
+        }
+      }
+    }
+
     switch(mode){
       case VECTORIZED_BIGINT:
         // For only one eight byte key, we keep key in hyper container, so we don't need to unpivot the key
@@ -331,20 +362,43 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
         // Create the PivotDef for unpivot in projectBuildNonMatches
         this.buildUnpivot = PivotBuilder.getBlockDefinition(buildOutputFields);
         // Create the hyper container with isKeyBits that indicates which field is key and will not be added to hyper container
-        hyperContainer = new ExpandableHyperContainer(context.getAllocator(), right.getSchema(), isKeyBits);
+        if (sharedBuild != null && !sharedBuilder) {
+          // the table and the hyper container come from the fragment building the shared table
+          break;
+        }
+        hyperContainer = new ExpandableHyperContainer(buildAllocator, right.getSchema(), isKeyBits);
         // Create generic hash table
-        this.table = new BlockJoinTable(buildPivot, probePivot, context.getAllocator(), comparator, (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE);
+        this.table = new BlockJoinTable(buildPivot, probePivot, buildAllocator, comparator, (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE);
         break;
       default:
         throw new UnsupportedOperationException();
     }
 
-    debugInsertion = context.getOptions().getOption(ExecConstants.DEBUG_HASHJOIN_INSERTION);
-
     state = State.CAN_CONSUME_R;
     return outgoing;
   }
 
+  /**
+   * Joins whose build side is broadcast build identical tables in all the fragments of a node. In that case, a single
+   * table is built and shared by the fragments of the node.
+   * @return the shared build, or null if this fragment builds its own table
+   */
+  private SharedJoinBuild acquireSharedBuild() {
+    final PhaseSharedContext phaseSharedContext = context.getPhaseSharedContext();
+    if (!config.isBroadcastBuild()
+      || phaseSharedContext == null
+      || debugInsertion
+      || !(joinType == JoinRelType.INNER || joinType == JoinRelType.LEFT)
+      || !context.getOptions().getOption(ExecConstants.ENABLE_HASHJOIN_SHARED_BUILD)) {
+      return null;
+    }
+    final String key = "shared-join-build-" + config.getProps().getLocalOperatorId();
+    final SharedJoinBuild build = phaseSharedContext.getOrCreate(key,
+      allocator -> new SharedJoinBuild(allocator.newChildAllocator(key, 0, 0)));
+    // the fragments which used the build may already be done with it
+    return build.acquire(context.getAllocator().getLimit()) ? build : null;
+  }
+
   // Get ids for a field
   private int[] getFieldIds(VectorAccessible accessible, LogicalExpression expr){
     final LogicalExpression materialized = context.getClassProducer().materialize(expr, accessible);
@@ -369,6 +423,11 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void consumeDataRight(int records) throws Exception {
     state.is(State.CAN_CONSUME_R);
 
+    if (sharedBuild != null && !sharedBuilder) {
+      // another fragment of this node builds the table from its copy of the same batches
+      return;
+    }
+
     // ensure that none of the variable length vectors are corrupt so we can avoid doing bounds checking later.
     for(FieldVector v : buildVectorsToValidate){
       VariableLengthValidator.validateVariable(v, records);
@@ -400,7 +459,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
      * to the hyper vector container. Will be used when we want to retrieve
      * records that have matching keys on the probe side.
      */
-    hyperContainer.addBatch(VectorContainer.getTransferClone(right, context.getAllocator()));
+    hyperContainer.addBatch(VectorContainer.getTransferClone(right, buildAllocator));
     // completed processing a batch, increment batch index
 
     buildBatchIndex++;
@@ -528,6 +587,8 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
       stats.setLongStat(Metric.UNMATCHED_PROBE_COUNT, probe.getUnmatchedProbeCount());
       stats.setLongStat(Metric.OUTPUT_RECORDS, outputRecords);
       stats.setLongStat(Metric.PROBE_HASHCOMPUTATION_TIME_NANOS, table.getProbeHashComputationTime(ns));
+      stats.setLongStat(Metric.PROBE_BLOOM_FILTER_HITS, table.getProbeFilterHitCount());
+      stats.setLongStat(Metric.PROBE_BLOOM_FILTER_MISSES, table.getProbeFilterMissCount());
     }
   }
 
@@ -535,6 +596,41 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void noMoreToConsumeRight() throws Exception {
     state.is(State.CAN_CONSUME_R);
 
+    if (sharedBuild != null && !sharedBuilder) {
+      // wait in outputData() until the fragment building the table is done
+      waitingForSharedBuild = true;
+      state = State.CAN_PRODUCE;
+      return;
+    }
+
+    if (table.size() > 0 && context.getOptions().getOption(ExecConstants.ENABLE_HASHJOIN_PROBE_BLOOM_FILTER)) {
+      table.prepareProbeFilter(context.getOptions().getOption(ExecConstants.HASHJOIN_PROBE_BLOOM_FILTER_MAX_BYTES),
+        context.getOptions().getOption(ExecConstants.HASHJOIN_PROBE_BLOOM_FILTER_MAX_MATCH_RATE));
+    }
+    if (sharedBuilder) {
+      sharedBuild.publish((BlockJoinTable) table, hyperContainer, startIndices, buildInfoList, maxHashTableIndex);
+      ownsBuild = false;
+    }
+    startProbe();
+  }
+
+  /**
+   * Uses the table published by the fragment that built the shared table.
+   */
+  private void useSharedBuild() {
+    ownsBuild = false;
+    table = sharedBuild.getTable().newProbeView(probePivot, context.getAllocator(), comparator);
+    hyperContainer = sharedBuild.getHyperContainer();
+    startIndices.addAll(sharedBuild.getStartIndices());
+    buildInfoList.addAll(sharedBuild.getBuildInfos());
+    maxHashTableIndex = sharedBuild.getMaxHashTableIndex();
+    // matches are tracked by each fragment
+    for (int i = 0; i < startIndices.size(); i++) {
+      keyMatchBitVectors.add(new MatchBitSet(HashTable.BATCH_SIZE, context.getAllocator()));
+    }
+  }
+
+  private void startProbe() throws Exception {
     if ((table.size() == 0) && !(joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL)) {
       // nothing needs to be read on the left side as right side is empty
       state = State.DONE;
@@ -583,6 +679,17 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
 
     updateStats();
 
+    if (waitingForSharedBuild) {
+      if (!sharedBuild.isPublished(sharedBuildWait)) {
+        // the fragment isn't scheduled again until the shared table is published
+        return 0;
+      }
+      waitingForSharedBuild = false;
+      useSharedBuild();
+      startProbe();
+      return 0;
+    }
+
     if(!finishedProbe){
       final int probedRecords = probe.probeBatch(left.getRecordCount());
       outputRecords += Math.abs(probedRecords);
@@ -612,6 +719,8 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     state.is(State.CAN_CONSUME_L);
 
     finishedProbe = true;
+    // the stats were last updated before the final probe batch
+    updateStats();
     if(joinType == JoinRelType.FULL || joinType == JoinRelType.RIGHT){
       // if we need to project build records that didn't match, make sure we do so.
       state = State.CAN_PRODUCE;
@@ -624,7 +733,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public ArrowBuf newLinksBuffer(int recordCount) {
     // Each link is 6 bytes.
     // First 4 bytes are used to identify the batch and remaining 2 bytes for record within the batch.
-    final ArrowBuf linkBuf = context.getAllocator().buffer(recordCount * HashTable.BUILD_RECORD_LINK_SIZE);
+    final ArrowBuf linkBuf = buildAllocator.buffer(recordCount * HashTable.BUILD_RECORD_LINK_SIZE);
 
     // Initialize the buffer. Write -1 (int) in the first four bytes.
     long bufOffset = linkBuf.memoryAddress();
@@ -955,15 +1064,24 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     updateStats();
     List<AutoCloseable> autoCloseables = new ArrayList<>();
     autoCloseables.add(filterManager);
-    autoCloseables.add(hyperContainer);
-    autoCloseables.add(table);
+    if (ownsBuild) {
+      autoCloseables.add(hyperContainer);
+      autoCloseables.add(table);
+      autoCloseables.addAll(buildInfoList);
+      autoCloseables.addAll(startIndices);
+    } else if (!sharedBuilder) {
+      // a view of the shared table
+      autoCloseables.add(table);
+    }
     autoCloseables.add(probe);
     autoCloseables.add(outgoing);
-    autoCloseables.addAll(buildInfoList);
     autoCloseables.addAll(probeIncomingKeys);
     autoCloseables.addAll(buildOutputKeys);
-    autoCloseables.addAll(startIndices);
     autoCloseables.addAll(keyMatchBitVectors);
+    if (sharedBuild != null) {
+      // released last, the shared build closes its allocator when no fragment uses it anymore
+      autoCloseables.add(() -> sharedBuild.release(sharedBuilder));
+    }
     AutoCloseables.close(autoCloseables);
   }
 }
@@ -161,7 +161,13 @@ public class ScanOperator implements ProducerOperator {
     MIN_METADATA_IO_READ_TIME_NS,  // Minimum IO read time for metadata operations
     MAX_METADATA_IO_READ_TIME_NS,   // Maximum IO read time for metadata operations
     AVG_METADATA_IO_READ_TIME_NS,  // Average IO read time for metadata operations
-    NUM_METADATA_IO_READ
+    NUM_METADATA_IO_READ,
+    LATE_MATERIALIZATION_SKIPPED_ROWS, // Number of rows skipped without reading the non filter columns
+    PREFETCH_WAIT_NS, // Time spent waiting for readers of the next splits opened in the background
+    NUM_COALESCED_READS, // Number of requests reading several parquet column chunks at once
+    COALESCED_READ_BYTES, // Bytes read by coalesced requests, including the gaps between column chunks
+    MAX_COALESCED_READ_TIME_NS, // Maximum latency of a coalesced request
+    BLOOM_FILTER_READ // Number of parquet bloom filters read
     ;
 
     @Override
@@ -27,6 +27,7 @@ import com.dremio.exec.ExecConstants;
 import com.dremio.exec.exception.SchemaChangeException;
 import com.dremio.exec.expr.ClassGenerator;
 import com.dremio.exec.physical.config.HashPartitionSender;
+import com.dremio.exec.physical.config.HashPartitionSender.HotKeyRouting;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
@@ -92,7 +93,11 @@ public class PartitionSenderOperator extends BaseSender {
     PRECOPY_NS,
     FLUSH_NS,
     NUM_FLUSHES,
-    BUCKET_SIZE;
+    BUCKET_SIZE,
+    HOT_KEYS,        // number of hot keys found in the batches sampled by the vectorized sender
+    HOT_KEY_ROWS,    // number of sampled rows of the hot keys
+    SPREAD_ROWS,     // number of rows of hot keys sent round-robin to several receivers
+    REPLICATED_ROWS; // number of rows sent to other receivers in addition to the one their hash maps to
 
     @Override
     public int metricId() {
@@ -305,7 +310,9 @@ public class PartitionSenderOperator extends BaseSender {
     @Override
     public TerminalOperator create(TunnelProvider tunnelProvider, OperatorContext context, HashPartitionSender operator)
         throws ExecutionSetupException {
-      if (context.getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_PARTITIONER)) {
+      // only the vectorized sender routes hot keys, and senders planned with hot key routing always get a hash column
+      if (context.getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_PARTITIONER)
+        || operator.getHotKeyRouting() != HotKeyRouting.NONE) {
         return new VectorizedPartitionSenderOperator(context, tunnelProvider, operator);
       } else {
       return new PartitionSenderOperator(context, tunnelProvider, operator);
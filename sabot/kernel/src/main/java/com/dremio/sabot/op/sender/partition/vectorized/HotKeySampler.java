@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender.partition.vectorized;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.cursors.IntIntCursor;
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Counts the hash values of the first batches consumed by a partition sender to find the hot keys, i.e. the keys
+ * frequent enough to overload the receiver they hash to. Hot keys are reported in the sender metrics, and spread
+ * across receivers by senders whose consumers do not need all the rows of a key on the same receiver.<br>
+ * A key is hot when its share of the sampled rows is at least minShare times the fair share of a single receiver.
+ * Distinct keys that share the same hash value are treated as a single key.
+ */
+class HotKeySampler {
+  // a single row is never enough to consider a key as hot
+  private static final int MIN_HOT_KEY_ROWS = 2;
+
+  private final int numReceivers;
+  private final int batchesToSample;
+  private final double minShare;
+
+  private IntIntHashMap counts = new IntIntHashMap();
+  private int sampledBatches;
+  private long sampledRows;
+  private IntHashSet hotKeys;
+  private long hotKeyRows;
+
+  HotKeySampler(int numReceivers, int batchesToSample, double minShare) {
+    Preconditions.checkArgument(batchesToSample > 0, "at least one batch must be sampled");
+    this.numReceivers = numReceivers;
+    this.batchesToSample = batchesToSample;
+    this.minShare = minShare;
+  }
+
+  /**
+   * @return true until enough batches have been sampled to decide which keys are hot
+   */
+  boolean isSampling() {
+    return hotKeys == null;
+  }
+
+  /**
+   * Counts the hash values of a batch
+   *
+   * @param hashAddr address of the first 4-byte hash value
+   * @param records number of hash values
+   */
+  void sample(long hashAddr, int records) {
+    Preconditions.checkState(isSampling(), "sampling already finished");
+    final IntIntHashMap counts = this.counts;
+    final long max = hashAddr + records * 4L;
+    for (long addr = hashAddr; addr < max; addr += 4) {
+      counts.addTo(PlatformDependent.getInt(addr), 1);
+    }
+    sampledRows += records;
+    if (++sampledBatches >= batchesToSample) {
+      finish();
+    }
+  }
+
+  private void finish() {
+    final double threshold = Math.max(MIN_HOT_KEY_ROWS, minShare * sampledRows / numReceivers);
+    hotKeys = new IntHashSet();
+    for (IntIntCursor cursor : counts) {
+      if (cursor.value >= threshold) {
+        hotKeys.add(cursor.key);
+        hotKeyRows += cursor.value;
+      }
+    }
+    // counts are no longer needed once the hot keys are known
+    counts = null;
+  }
+
+  /**
+   * @return hash values of the hot keys, empty if no key is hot. Only valid once sampling finished
+   */
+  IntHashSet getHotKeys() {
+    Preconditions.checkState(!isSampling(), "sampling not finished yet");
+    return hotKeys;
+  }
+
+  long getSampledRows() {
+    return sampledRows;
+  }
+
+  /**
+   * @return number of sampled rows of the hot keys. Only valid once sampling finished
+   */
+  long getHotKeyRows() {
+    Preconditions.checkState(!isSampling(), "sampling not finished yet");
+    return hotKeyRows;
+  }
+}
@@ -29,10 +29,13 @@ import org.apache.arrow.vector.types.pojo.ArrowType.ArrowTypeID;
 import org.apache.arrow.vector.types.pojo.Field;
 
 import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntHashSet;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.util.Numbers;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.HashPartitionSender;
+import com.dremio.exec.physical.config.HashPartitionSender.HotKeyRouting;
 import com.dremio.exec.physical.config.MinorFragmentEndpoint;
 import com.dremio.exec.proto.ExecProtos;
 import com.dremio.exec.proto.ExecRPC;
@@ -130,6 +133,29 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
    */
   private volatile boolean nobodyListening = false;
 
+  /**
+   * samples the first incoming batches to find the hot keys, which overload the receiver they hash to. Null if
+   * sampling is disabled, or once sampling finished
+   */
+  private HotKeySampler hotKeySampler;
+
+  /**
+   * number of receivers the rows of a hot key are sent to, starting with the receiver their hash maps to. 1 if rows
+   * are only routed by hash
+   */
+  private final int hotKeyReceivers;
+
+  /**
+   * hash values of the hot keys to spread round-robin over hotKeyReceivers receivers. Null unless the sender spreads
+   * hot keys and sampling found some
+   */
+  private IntHashSet hotKeys;
+
+  /** offset from the receiver its hash maps to of the receiver that gets the next row of a hot key */
+  private int nextSpreadOffset;
+
+  private long spreadRows;
+
   public VectorizedPartitionSenderOperator(final OperatorContext context,
                                            final TunnelProvider tunnelProvider,
                                            final HashPartitionSender config) {
@@ -145,6 +171,9 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
 
     stats.setLongStat(N_RECEIVERS, numReceivers);
 
+    hotKeyReceivers = config.getHotKeyRouting() == HotKeyRouting.NONE ? 1
+      : Math.min(config.getHotKeyReceivers(), numReceivers);
+
     modSize = PARTITION_MULTIPLE * Numbers.nextPowerOfTwo(numReceivers);
     modLookup = new OutgoingBatch[modSize];
     batches = new OutgoingBatch[2 * numReceivers];
@@ -189,6 +218,12 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
 
     initHashVector(incoming);
 
+    final int batchesToSample = (int) context.getOptions().getOption(ExecConstants.PARTITIONER_HOT_KEYS_SAMPLE_BATCHES);
+    if (batchesToSample > 0 && numReceivers > 1) {
+      hotKeySampler = new HotKeySampler(numReceivers, batchesToSample,
+        context.getOptions().getOption(ExecConstants.PARTITIONER_HOT_KEYS_MIN_SHARE));
+    }
+
     state = State.CAN_CONSUME;
   }
 
@@ -235,39 +270,53 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
       return;
     }
 
-    int start = 0;
+    if (hotKeySampler != null) {
+      sampleHotKeys(records);
+    }
+
     int numPasses = 0;
 
     final OutgoingBatch[] batches = this.batches;
     final int numBatches = batches.length;
     final List<MultiDestCopier> copiers = this.copiers;
 
-    while (start < records) {
-      preCopyWatch.start();
-      // copy at most numRecordsBeforeFlush, this way we'll need at most 2 batches per destination
-      // to allow delaying the flushing until after all rows for this pass have been copied
-      int numRowsToCopy = Math.min(records - start, numRecordsBeforeFlush);
-      generateCopyIndices(start, numRowsToCopy);
-      preCopyWatch.stop();
-
-      // copy
-      final long addr = copyIndices.getDataBufferAddress();
-      for (MultiDestCopier copier : copiers) {
-        copier.copy(addr, start, numRowsToCopy);
-      }
+    // a replicating sender copies the whole batch once more for each additional receiver of a row
+    final int replicas = config.getHotKeyRouting() == HotKeyRouting.REPLICATE ? hotKeyReceivers : 1;
+    for (int replica = 0; replica < replicas; replica++) {
+      int start = 0;
+      while (start < records) {
+        preCopyWatch.start();
+        // copy at most numRecordsBeforeFlush, this way we'll need at most 2 batches per destination
+        // to allow delaying the flushing until after all rows for this pass have been copied
+        int numRowsToCopy = Math.min(records - start, numRecordsBeforeFlush);
+        generateCopyIndices(start, numRowsToCopy, replica);
+        preCopyWatch.stop();
+
+        // copy
+        final long addr = copyIndices.getDataBufferAddress();
+        for (MultiDestCopier copier : copiers) {
+          copier.copy(addr, start, numRowsToCopy);
+        }
 
-      // flush
-      flushWatch.start();
-      for (int b = 0; b < numBatches; b++) {
-        final OutgoingBatch batch = batches[b];
-        if (batch.isFull()) {
-          batch.flush();
+        // flush
+        flushWatch.start();
+        for (int b = 0; b < numBatches; b++) {
+          final OutgoingBatch batch = batches[b];
+          if (batch.isFull()) {
+            batch.flush();
+          }
         }
-      }
-      flushWatch.stop();
+        flushWatch.stop();
 
-      start += numRowsToCopy;
-      numPasses++;
+        start += numRowsToCopy;
+        numPasses++;
+      }
+    }
+    if (replicas > 1) {
+      stats.addLongStat(Metric.REPLICATED_ROWS, (long) records * (replicas - 1));
+    }
+    if (hotKeys != null) {
+      stats.setLongStat(Metric.SPREAD_ROWS, spreadRows);
     }
     stats.addLongStat(Metric.NUM_COPIES, numPasses);
     stats.setLongStat(Metric.PRECOPY_NS, preCopyWatch.elapsed(NANOSECONDS));
@@ -275,6 +324,21 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     copyWatches.updateStats(stats);
   }
 
+  private void sampleHotKeys(int records) {
+    preCopyWatch.start();
+    hotKeySampler.sample(partitionIndices.getDataBufferAddress(), records);
+    if (!hotKeySampler.isSampling()) {
+      final IntHashSet sampledHotKeys = hotKeySampler.getHotKeys();
+      stats.setLongStat(Metric.HOT_KEYS, sampledHotKeys.size());
+      stats.setLongStat(Metric.HOT_KEY_ROWS, hotKeySampler.getHotKeyRows());
+      if (config.getHotKeyRouting() == HotKeyRouting.SPREAD && hotKeyReceivers > 1 && !sampledHotKeys.isEmpty()) {
+        hotKeys = sampledHotKeys;
+      }
+      hotKeySampler = null;
+    }
+    preCopyWatch.stop();
+  }
+
   @Override
   public void noMoreToConsume() throws Exception {
     state.is(State.CAN_CONSUME);
@@ -338,19 +402,37 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     stats.stopWait();
   }
 
-  private void generateCopyIndices(final int start, final int numRowsToCopy) {
+  /**
+   * @param replica the rows go to the replica-th receiver after the one their hash maps to. Only a replicating sender
+   *                passes anything but 0
+   */
+  private void generateCopyIndices(final int start, final int numRowsToCopy, final int replica) {
     long srcAddr = partitionIndices.getDataBufferAddress() + start*4;
     long dstAddr = copyIndices.getDataBufferAddress();
 
     final int mod = modSize - 1;
     final OutgoingBatch[] modLookup = this.modLookup;
     final OutgoingBatch[] batches = this.batches;
+    final IntHashSet hotKeys = this.hotKeys;
 
     //populate using the destination (batchIdx, rowIdx) for each incoming row
     final long max = srcAddr + numRowsToCopy*4;
     for (; srcAddr < max; srcAddr+=4, dstAddr+=4) {
-      final int partition = (PlatformDependent.getInt(srcAddr) & 0x7FFFFFFF) & mod; // abs(hash) % modSize
-      final OutgoingBatch batch = modLookup[partition];
+      final int hash = PlatformDependent.getInt(srcAddr);
+      final int partition = (hash & 0x7FFFFFFF) & mod; // abs(hash) % modSize
+      // modLookup[r] holds the current batch of receiver r for r < #receivers. Receivers other than the one the hash
+      // maps to are always counted from it, so that a spreading sender and a replicating sender with the same number
+      // of receivers agree on the receivers of a key
+      final OutgoingBatch batch;
+      if (replica > 0) {
+        batch = modLookup[(partition + replica) % numReceivers];
+      } else if (hotKeys != null && hotKeys.contains(hash)) {
+        batch = modLookup[(partition + nextSpreadOffset) % numReceivers];
+        nextSpreadOffset = (nextSpreadOffset + 1) % hotKeyReceivers;
+        spreadRows++;
+      } else {
+        batch = modLookup[partition];
+      }
       final int compound = batch.preCopyRow();
       PlatformDependent.putInt(dstAddr, compound);
 
@@ -17,6 +17,7 @@ package com.dremio.sabot.op.writer;
 
 import static java.lang.String.format;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -127,7 +128,30 @@ class PartitionWriteManager {
     return partition;
   }
 
-  private WritePartition getPartition(int offset){
+  /**
+   * @return true if the partition values of the record at offset differ from the ones of the previous record
+   */
+  public boolean isNewPartition(int offset) {
+    return changeVector.get(offset) == 1;
+  }
+
+  /**
+   * @return the partition values of the record at offset, comparable with the values of other records
+   */
+  public List<Object> getPartitionKey(int offset) {
+    final List<Object> key = new ArrayList<>(partitions.size() + 1);
+    for (ValueVector partition : partitions) {
+      final Object value = partition.getObject(offset);
+      // arrays don't implement equals and hashCode
+      key.add(value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : value);
+    }
+    if (bucketNumber != null) {
+      key.add(bucketNumber.get(offset));
+    }
+    return key;
+  }
+
+  WritePartition getPartition(int offset){
     IcebergPartitionData icebergPartitionData = null;
     if (isIcebergWriter && icebergPartitionSpec != null) {
       icebergPartitionData = new IcebergPartitionData(this.icebergPartitionSpec.partitionType());
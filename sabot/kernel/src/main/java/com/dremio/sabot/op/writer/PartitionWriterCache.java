@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.writer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.store.RecordWriter;
+import com.dremio.exec.store.RecordWriter.OutputEntryListener;
+import com.dremio.exec.store.RecordWriter.WriteStatsListener;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Keeps a record writer open for each partition, so that records can be written without being sorted by partition.
+ * At most maxOpenWriters partitions are open at once. The least recently used writer is closed when a new partition
+ * needs to be opened beyond that, or when the operator allocator runs low on memory. A closed partition gets a new
+ * writer, and so a new file, if its values show up again.
+ */
+class PartitionWriterCache implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PartitionWriterCache.class);
+
+  private final Map<List<Object>, RecordWriter> writers = new LinkedHashMap<>(16, 0.75f, true);
+  private final VectorAccessible incoming;
+  private final RecordWriter.Factory factory;
+  private final OutputEntryListener listener;
+  private final WriteStatsListener statsListener;
+  private final BufferAllocator allocator;
+  private final OperatorStats stats;
+  private final int maxOpenWriters;
+  private final long memoryThreshold;
+  private final long maxPartitions;
+
+  // writer created along with the operator, used for the first partition
+  private RecordWriter initialWriter;
+  private int nextOrdinal;
+  private long opened;
+  private int maxOpen;
+  private long evicted;
+
+  PartitionWriterCache(VectorAccessible incoming, RecordWriter initialWriter, RecordWriter.Factory factory,
+                       OutputEntryListener listener, WriteStatsListener statsListener, BufferAllocator allocator,
+                       OperatorStats stats, int maxOpenWriters, long memoryThreshold, long maxPartitions) {
+    this.incoming = incoming;
+    this.initialWriter = initialWriter;
+    this.factory = factory;
+    this.listener = listener;
+    this.statsListener = statsListener;
+    this.allocator = allocator;
+    this.stats = stats;
+    this.maxOpenWriters = maxOpenWriters;
+    this.memoryThreshold = memoryThreshold;
+    this.maxPartitions = maxPartitions;
+  }
+
+  /**
+   * @param key partition values, see {@link PartitionWriteManager#getPartitionKey(int)}
+   * @param partitionManager used to create the partition of a new writer
+   * @param offset record the key was taken from
+   * @return the open writer of the partition, opening one if needed
+   */
+  RecordWriter getWriter(List<Object> key, PartitionWriteManager partitionManager, int offset) throws Exception {
+    RecordWriter writer = writers.get(key);
+    if (writer != null) {
+      return writer;
+    }
+
+    if (opened >= maxPartitions) {
+      throw UserException.dataWriteError()
+        .message("Materialization cancelled due to excessive partition creation. A single thread can only generate %d partitions. " +
+          "Typically, this is a problem if you configure a partition or distribution column that has high cardinality. " +
+          "If you want to increase this limit, you can change the \"store.max_partitions\" system option.", maxPartitions)
+        .build(logger);
+    }
+
+    evictIfNeeded();
+    opened++;
+    if (initialWriter != null) {
+      writer = initialWriter;
+      initialWriter = null;
+    } else {
+      writer = factory.create(nextOrdinal++);
+    }
+    writers.put(key, writer);
+    writer.setup(incoming, listener, statsListener);
+    writer.startPartition(partitionManager.getPartition(offset));
+
+    maxOpen = Math.max(maxOpen, writers.size());
+    stats.setLongStat(WriterOperator.Metric.MAX_OPEN_PARTITION_WRITERS, maxOpen);
+    return writer;
+  }
+
+  private void evictIfNeeded() throws Exception {
+    while (!writers.isEmpty() && (writers.size() >= maxOpenWriters || allocator.getHeadroom() < memoryThreshold)) {
+      final Iterator<RecordWriter> iterator = writers.values().iterator();
+      final RecordWriter leastRecentlyUsed = iterator.next();
+      iterator.remove();
+      // flushes the partition's current file
+      leastRecentlyUsed.close();
+      evicted++;
+      stats.setLongStat(WriterOperator.Metric.PARTITION_WRITERS_EVICTED, evicted);
+    }
+  }
+
+  @VisibleForTesting
+  int getOpenWriterCount() {
+    return writers.size();
+  }
+
+  /**
+   * Closes all the writers, flushing the files of the open partitions.
+   */
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>(writers.values());
+    closeables.add(initialWriter);
+    writers.clear();
+    initialWriter = null;
+    AutoCloseables.close(closeables);
+  }
+}
@@ -26,6 +26,7 @@ import org.apache.arrow.vector.VarBinaryVector;
 import org.apache.arrow.vector.VarCharVector;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.base.WriterOptions;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.record.VectorAccessible;
@@ -66,6 +67,10 @@ public class WriterOperator implements SingleInputOperator {
   private IntVector partitionNumberVector;
 
   private PartitionWriteManager partitionManager;
+  // set when partitions are written from unsorted input
+  private final RecordWriter.Factory recordWriterFactory;
+  private PartitionWriterCache partitionWriters;
+  private RecordWriter currentWriter;
 
   private WritePartition partition = null;
 
@@ -75,7 +80,9 @@ public class WriterOperator implements SingleInputOperator {
 
   public enum Metric implements MetricDef {
     BYTES_WRITTEN,    // Number of bytes written to the output file(s)
-    OUTPUT_LIMITED;   // 1, if the output limit was reached; 0, if not
+    OUTPUT_LIMITED,   // 1, if the output limit was reached; 0, if not
+    MAX_OPEN_PARTITION_WRITERS, // Maximum number of partitions open at once, when writing unsorted partitions
+    PARTITION_WRITERS_EVICTED;  // Number of partitions closed before the end of the input to open other partitions
 
     @Override
     public int metricId() {
@@ -84,6 +91,15 @@ public class WriterOperator implements SingleInputOperator {
   }
 
   public WriterOperator(OperatorContext context, WriterOptions options, RecordWriter recordWriter) throws OutOfMemoryException {
+    this(context, options, recordWriter, null);
+  }
+
+  /**
+   * @param recordWriterFactory creates additional writers, so that partitions can be written from unsorted input if
+   *                            {@link ExecConstants#PARQUET_HASH_PARTITIONED_WRITER} is enabled
+   */
+  public WriterOperator(OperatorContext context, WriterOptions options, RecordWriter recordWriter,
+                        RecordWriter.Factory recordWriterFactory) throws OutOfMemoryException {
     this.context = context;
     this.stats = context.getStats();
     this.output = context.createOutputVectorContainer(RecordWriter.SCHEMA);
@@ -92,6 +108,9 @@ public class WriterOperator implements SingleInputOperator {
     this.fragmentUniqueId = String.format("%d_%d", handle.getMajorFragmentId(), handle.getMinorFragmentId());
     this.recordWriter = recordWriter;
     this.writtenRecordLimit = options.getRecordLimit();
+    // must match the plan, see WriterUpdater
+    this.recordWriterFactory = recordWriterFactory != null && options.canWritePartitionsUnsorted()
+      && context.getOptions().getOption(ExecConstants.PARQUET_HASH_PARTITIONED_WRITER) ? recordWriterFactory : null;
   }
 
   @Override
@@ -102,7 +121,15 @@ public class WriterOperator implements SingleInputOperator {
       partitionManager = new PartitionWriteManager(options, incoming,
         options.getIcebergWriterOperation() != WriterOptions.IcebergWriterOperation.NONE);
       this.maskedContainer = partitionManager.getMaskedContainer();
-      recordWriter.setup(maskedContainer, listener, statsListener);
+      if (recordWriterFactory != null) {
+        partitionWriters = new PartitionWriterCache(maskedContainer, recordWriter, recordWriterFactory, listener,
+          statsListener, context.getAllocator(), stats,
+          (int) context.getOptions().getOption(ExecConstants.PARQUET_HASH_PARTITIONED_WRITER_MAX_OPEN),
+          context.getOptions().getOption(ExecConstants.PARQUET_MEMORY_THRESHOLD_VALIDATOR),
+          context.getOptions().getOption(ExecConstants.PARQUET_MAXIMUM_PARTITIONS_VALIDATOR));
+      } else {
+        recordWriter.setup(maskedContainer, listener, statsListener);
+      }
     } else {
       recordWriter.setup(incoming, listener, statsListener);
     }
@@ -148,6 +175,11 @@ public class WriterOperator implements SingleInputOperator {
     // always need to keep the masked container in alignment.
     maskedContainer.setRecordCount(records);
 
+    if (partitionWriters != null) {
+      consumeUnsortedPartitions(records);
+      return;
+    }
+
     int pointer = 0;
     int start = 0;
     while(pointer < records){
@@ -171,6 +203,28 @@ public class WriterOperator implements SingleInputOperator {
     moveToCanProduceStateIfOutputExists();
   }
 
+  /**
+   * Writes each run of records with the same partition values to the writer of the partition.
+   */
+  private void consumeUnsortedPartitions(final int records) throws Exception {
+    int start = 0;
+    for (int pointer = 0; pointer < records; pointer++) {
+      if (currentWriter == null || partitionManager.isNewPartition(pointer)) {
+        if (pointer > start) {
+          currentWriter.writeBatch(start, pointer - start);
+        }
+        start = pointer;
+        currentWriter = partitionWriters.getWriter(partitionManager.getPartitionKey(pointer), partitionManager, pointer);
+      }
+    }
+
+    if (records > start) {
+      currentWriter.writeBatch(start, records - start);
+    }
+    // files are written when a writer reaches its block size, or when a partition is closed
+    moveToCanProduceStateIfOutputExists();
+  }
+
   @Override
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
@@ -220,7 +274,11 @@ public class WriterOperator implements SingleInputOperator {
   @Override
   public void noMoreToConsume() throws Exception {
     state.is(State.CAN_CONSUME);
-    recordWriter.close();
+    if (partitionWriters != null) {
+      partitionWriters.close();
+    } else {
+      recordWriter.close();
+    }
     this.completedInput = true;
     state = State.CAN_PRODUCE;
   }
@@ -237,7 +295,7 @@ public class WriterOperator implements SingleInputOperator {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(recordWriter, output);
+    AutoCloseables.close(partitionWriters != null ? partitionWriters : recordWriter, output);
   }
 
   private void moveToCanProduceStateIfOutputExists() {
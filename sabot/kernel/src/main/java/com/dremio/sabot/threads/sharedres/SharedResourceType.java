@@ -28,6 +28,7 @@ public enum SharedResourceType {
   NWAY_RECV_SPOOL_BUFFER(SharedResourceCategory.UPSTREAM),
   OUTGOING_MSG_ACK(SharedResourceCategory.DOWNSTREAM),
   FRAGMENT_ACTIVATE_SIGNAL(SharedResourceCategory.OTHER),
+  SHARED_JOIN_BUILD(SharedResourceCategory.OTHER),
   TEST(SharedResourceCategory.OTHER);
 
   SharedResourceType(SharedResourceCategory category) {
@@ -17,7 +17,9 @@ package org.apache.parquet.hadoop;
 
 import java.io.IOException;
 
+import org.apache.parquet.column.ColumnWriteStore;
 import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.impl.ColumnWriteStoreV1;
 import org.apache.parquet.column.page.PageWriteStore;
 import org.apache.parquet.hadoop.CodecFactory.BytesCompressor;
 import org.apache.parquet.schema.MessageType;
@@ -32,6 +34,17 @@ public class ColumnChunkPageWriteStoreExposer {
     return new ColumnChunkPageWriteStore(compressor, schema, parquetProperties);
   }
 
+  /**
+   * Creates a column write store which also writes the bloom filters enabled in the properties to the page store.
+   */
+  public static ColumnWriteStore newColumnWriteStoreWithBloomFilters(
+      MessageType schema,
+      PageWriteStore pageStore,
+      ParquetProperties parquetProperties
+      ) {
+    return new ColumnWriteStoreV1(schema, pageStore, (ColumnChunkPageWriteStore) pageStore, parquetProperties);
+  }
+
   public static void flushPageStore(PageWriteStore pageStore, ParquetFileWriter w) throws IOException {
     ((ColumnChunkPageWriteStore) pageStore).flushToFileWriter(w);
   }
@@ -30,6 +30,7 @@ import com.dremio.BaseTestQuery;
 import com.dremio.PlanTestBase;
 import com.dremio.common.AutoCloseables;
 import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.util.GlobalDictionaryBuilder;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
@@ -123,6 +124,17 @@ public class TestGlobalDictionaryPlan extends PlanTestBase {
     validateResults(query, "testFilterWithDictionaryColumn");
   }
 
+  @Test
+  public void testNullFilterWithDictionaryColumn() throws Exception {
+    final String query = "select * from dfs_test.globaldictionary where state is not null";
+    disableGlobalDictionary();
+    testPlanOneExcludedPattern(query, "DictionaryLookup");
+    enableGlobalDictionary();
+    // null checks are evaluated on dictionary ids
+    testPlanSubstrPatternsInOrder(query, ALL_COLUMNS, new String[] {"DictionaryLookup(decoded fields=[[state]])"});
+    validateResults(query, "testNullFilterWithDictionaryColumn");
+  }
+
   @Test
   public void testSimpleGroupBy() throws Exception {
     final String query = "select city, state from dfs_test.globaldictionary group by city, state";
@@ -176,6 +188,25 @@ public class TestGlobalDictionaryPlan extends PlanTestBase {
     validateResults(query, "testSelfJoin");
   }
 
+  @Test
+  public void testSelfJoinOnSameColumn() throws Exception {
+    final String query = "select t1.city, t2.state from dfs_test.globaldictionary t1 inner join dfs_test.globaldictionary t2 on t1.city = t2.city";
+    disableGlobalDictionary();
+    testPlanOneExcludedPattern(query, "DictionaryLookup");
+    enableGlobalDictionary();
+    // both sides are encoded with the same dictionary, join keys are decoded after the join
+    testPlanSubstrPatternsInOrder(query, new String[] {"DictionaryLookup(decoded fields=[[city, state]])"},
+      new String[] {"DictionaryLookup(decoded fields=[[city]])"});
+    validateResultsOutOfOrder(query, "testSelfJoinOnSameColumn");
+
+    try {
+      testNoResult("alter session set \"%s\"=false", PlannerSettings.ENABLE_GLOBAL_DICTIONARY_ENCODED_KEYS.getOptionName());
+      testPlanSubstrPatternsInOrder(query, new String[] {"DictionaryLookup(decoded fields=[[city]])"}, null);
+    } finally {
+      testNoResult("alter session reset \"%s\"", PlannerSettings.ENABLE_GLOBAL_DICTIONARY_ENCODED_KEYS.getOptionName());
+    }
+  }
+
   @Test
   public void testSimpleInnerJoin() throws Exception {
     final String query = "select * from dfs_test.globaldictionary t1 inner join dfs_test.places t2 on t1.employee_id = t2.employee_id";
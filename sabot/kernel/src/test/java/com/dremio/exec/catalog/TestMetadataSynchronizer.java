@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.dremio.connector.metadata.DatasetHandle;
+import com.dremio.connector.metadata.DatasetHandleListing;
+import com.dremio.connector.metadata.EntityPath;
+import com.dremio.exec.proto.UserBitShared.PlanPhaseProfile;
+import com.dremio.exec.store.DatasetRetrievalOptions;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.source.proto.MetadataPolicy;
+import com.dremio.service.namespace.source.proto.UpdateMode;
+import com.google.common.collect.ImmutableList;
+
+public class TestMetadataSynchronizer {
+  private static final int NUM_DATASETS = 100;
+
+  @Test
+  public void addNewDatasetsSequentially() throws Exception {
+    verifyNewDatasetsAdded(1);
+  }
+
+  @Test
+  public void addNewDatasetsInParallel() throws Exception {
+    verifyNewDatasetsAdded(8);
+  }
+
+  private void verifyNewDatasetsAdded(int parallelism) throws Exception {
+    final NamespaceKey sourceKey = new NamespaceKey("source");
+    final Set<NamespaceKey> added = ConcurrentHashMap.newKeySet();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    final NamespaceService ns = mock(NamespaceService.class);
+    when(ns.getAllDatasets(eq(sourceKey))).thenReturn(Collections.emptyList());
+    doAnswer(invocation -> {
+      final int current = inFlight.incrementAndGet();
+      maxInFlight.accumulateAndGet(current, Math::max);
+      Thread.sleep(1);
+      added.add(invocation.getArgumentAt(0, NamespaceKey.class));
+      inFlight.decrementAndGet();
+      return null;
+    }).when(ns).addOrUpdateDataset(any(NamespaceKey.class), any(DatasetConfig.class));
+
+    final List<DatasetHandle> handles = new ArrayList<>();
+    for (int i = 0; i < NUM_DATASETS; i++) {
+      final EntityPath path = new EntityPath(ImmutableList.of("source", "table" + i));
+      handles.add(() -> path);
+    }
+    final ExtendedStoragePlugin sp = mock(ExtendedStoragePlugin.class);
+    when(sp.listDatasetHandles(anyVararg())).thenReturn((DatasetHandleListing) handles::iterator);
+
+    final ManagedStoragePlugin.MetadataBridge bridge = mock(ManagedStoragePlugin.MetadataBridge.class);
+    when(bridge.getMetadata()).thenReturn(sp);
+
+    final MetadataSynchronizer synchronizer = new MetadataSynchronizer(ns, sourceKey, bridge,
+        new MetadataPolicy().setDatasetUpdateMode(UpdateMode.PREFETCH_QUERIED), null,
+        DatasetRetrievalOptions.DEFAULT, parallelism);
+    synchronizer.setup();
+    final SyncStatus status = synchronizer.go();
+
+    assertTrue(status.isRefreshed());
+    assertEquals(NUM_DATASETS, added.size());
+    assertTrue(maxInFlight.get() <= parallelism);
+
+    final List<PlanPhaseProfile> phases = synchronizer.getMetadataStatsCollector().getPlanPhaseProfiles();
+    assertTrue(phases.stream().anyMatch(phase -> phase.getPhaseName().endsWith("add new datasets")));
+  }
+}
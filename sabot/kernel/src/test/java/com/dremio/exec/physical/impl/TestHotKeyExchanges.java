@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.physical.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+import com.dremio.exec.ExecConstants;
+
+/**
+ * Test the hash exchanges spreading hot keys, see {@link com.dremio.exec.planner.physical.visitor.HotKeyExchangeVisitor}.
+ * l_linestatus only has 2 values, so both are hot keys.
+ */
+public class TestHotKeyExchanges extends PlanTestBase {
+
+  private static final String SPREAD = "alter session set \"exec.operator.partitioner.hot_keys.spread\" = true";
+  private static final String STRICT = "alter session set \"exec.operator.partitioner.hot_keys.spread\" = false";
+
+  private static final String STATUS_BY_NATION = "(select n_name, case when n_nationkey < 2 then 'O' " +
+    "when n_nationkey < 3 then 'F' else 'X' end as status from cp.\"tpch/nation.parquet\")";
+
+  private static final String INNER_JOIN = "select l.l_orderkey, l.l_linenumber, l.l_linestatus, n.n_name " +
+    "from cp.\"tpch/lineitem.parquet\" l join " + STATUS_BY_NATION + " n on l.l_linestatus = n.status";
+
+  private static final String LEFT_JOIN = "select l.l_orderkey, l.l_linenumber, l.l_linestatus, n.n_name " +
+    "from cp.\"tpch/lineitem.parquet\" l left join (select n_name, case when n_nationkey < 2 then 'O' else 'X' end " +
+    "as status from cp.\"tpch/nation.parquet\") n on l.l_linestatus = n.status";
+
+  private static final String AGG = "select l_linestatus, count(*) as cnt, sum(l_quantity) as qty, " +
+    "min(l_shipdate) as first_ship, max(l_extendedprice) as max_price " +
+    "from cp.\"tpch/lineitem.parquet\" group by l_linestatus";
+
+  @Before
+  public void setup() throws Exception {
+    testNoResult("alter session set \"planner.slice_target\" = 1");
+    testNoResult("alter session set \"planner.enable_broadcast_join\" = false");
+    testNoResult("alter session set \"planner.enable_multiphase_agg\" = false");
+    testNoResult("alter session set \"%s\" = 1", ExecConstants.PARTITIONER_HOT_KEYS_SAMPLE_BATCHES.getOptionName());
+  }
+
+  @After
+  public void done() throws Exception {
+    testNoResult("alter session set \"planner.slice_target\" = " + ExecConstants.SLICE_TARGET_DEFAULT);
+    testNoResult("alter session reset \"planner.enable_broadcast_join\"");
+    testNoResult("alter session reset \"planner.enable_multiphase_agg\"");
+    testNoResult("alter session reset \"%s\"", ExecConstants.PARTITIONER_HOT_KEYS_SAMPLE_BATCHES.getOptionName());
+    testNoResult(STRICT);
+  }
+
+  @Test
+  public void joinPlan() throws Exception {
+    testNoResult(SPREAD);
+    testPlanMatchingPatterns(INNER_JOIN,
+      new String[] {
+        "HashJoin",
+        "HashToRandomExchange\\(.*hotKeyRouting=\\[SPREAD\\], hotKeyReceivers=\\[4\\]\\)",
+        "HashToRandomExchange\\(.*hotKeyRouting=\\[REPLICATE\\], hotKeyReceivers=\\[4\\]\\)"},
+      null);
+
+    testNoResult(STRICT);
+    testPlanMatchingPatterns(INNER_JOIN, new String[] {"HashJoin"}, "hotKeyRouting");
+  }
+
+  @Test
+  public void innerJoinResults() throws Exception {
+    testBuilder()
+      .unOrdered()
+      .optionSettingQueriesForTestQuery(SPREAD)
+      .sqlQuery(INNER_JOIN)
+      .optionSettingQueriesForBaseline(STRICT)
+      .sqlBaselineQuery(INNER_JOIN)
+      .go();
+  }
+
+  @Test
+  public void leftJoinResults() throws Exception {
+    // 'F' rows have no match, they must show up once each
+    testBuilder()
+      .unOrdered()
+      .optionSettingQueriesForTestQuery(SPREAD)
+      .sqlQuery(LEFT_JOIN)
+      .optionSettingQueriesForBaseline(STRICT)
+      .sqlBaselineQuery(LEFT_JOIN)
+      .go();
+  }
+
+  @Test
+  public void aggregationPlan() throws Exception {
+    testNoResult(SPREAD);
+    final String plan = testPlanMatchingPatterns(AGG,
+      new String[] {"HashToRandomExchange\\(.*hotKeyRouting=\\[SPREAD\\]"},
+      "hotKeyRouting=\\[REPLICATE\\]");
+    // the groups split by the spreading exchange are merged by a second aggregation
+    assertEquals(2, plan.split("HashAgg\\(").length - 1);
+    assertEquals(2, plan.split("HashToRandomExchange\\(").length - 1);
+  }
+
+  @Test
+  public void aggregationResults() throws Exception {
+    testBuilder()
+      .unOrdered()
+      .optionSettingQueriesForTestQuery(SPREAD)
+      .sqlQuery(AGG)
+      .optionSettingQueriesForBaseline(STRICT)
+      .sqlBaselineQuery(AGG)
+      .go();
+  }
+}
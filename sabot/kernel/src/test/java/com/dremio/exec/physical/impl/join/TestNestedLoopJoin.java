@@ -20,6 +20,7 @@ import org.junit.Test;
 
 import com.dremio.PlanTestBase;
 import com.dremio.common.util.TestTools;
+import com.dremio.exec.planner.physical.NestedLoopJoinPrel;
 
 public class TestNestedLoopJoin extends PlanTestBase {
 
@@ -202,6 +203,46 @@ public class TestNestedLoopJoin extends PlanTestBase {
         .go();
   }
 
+  @Test
+  public void testRangeJoin_planning() throws Exception {
+    final String query = "select a.n_name, b.n_name from cp.\"tpch/nation.parquet\" a "
+      + " inner join cp.\"tpch/nation.parquet\" b on a.n_nationkey between b.n_regionkey and b.n_nationkey";
+    testPlanMatchingPatterns(query, new String[]{"NestedLoopJoin.*vectorCondition=\\[RANGE_JOIN\\("});
+
+    // the same bounds written as expressions are not a range, the join is still the same
+    testBuilder()
+      .sqlQuery("select count(*) cnt from cp.\"tpch/nation.parquet\" a "
+        + " inner join cp.\"tpch/nation.parquet\" b on a.n_nationkey between b.n_regionkey and b.n_nationkey")
+      .unOrdered()
+      .sqlBaselineQuery("select count(*) cnt from cp.\"tpch/nation.parquet\" a "
+        + " inner join cp.\"tpch/nation.parquet\" b on a.n_nationkey - b.n_regionkey >= 0 and b.n_nationkey - a.n_nationkey >= 0")
+      .go();
+  }
+
+  @Test
+  public void testRangeJoinNotApplicable_planning() throws Exception {
+    // a single bound
+    testPlanMatchingPatterns("select a.n_name, b.n_name from cp.\"tpch/nation.parquet\" a "
+        + " inner join cp.\"tpch/nation.parquet\" b on a.n_nationkey >= b.n_regionkey",
+      new String[]{nlpattern}, "RANGE_JOIN");
+
+    // both bounds don't come from the same side
+    testPlanMatchingPatterns("select a.n_name, b.n_name from cp.\"tpch/nation.parquet\" a "
+        + " inner join cp.\"tpch/nation.parquet\" b on a.n_nationkey between b.n_regionkey and a.n_regionkey + b.n_nationkey",
+      new String[]{nlpattern}, "RANGE_JOIN");
+
+    // not a supported type
+    testPlanMatchingPatterns("select a.n_name, b.n_name from cp.\"tpch/nation.parquet\" a "
+        + " inner join cp.\"tpch/nation.parquet\" b on a.n_name between b.n_comment and b.n_name",
+      new String[]{nlpattern}, "RANGE_JOIN");
+
+    try (AutoCloseable rangeJoin = withOption(NestedLoopJoinPrel.RANGE_JOIN, false)) {
+      testPlanMatchingPatterns("select a.n_name, b.n_name from cp.\"tpch/nation.parquet\" a "
+          + " inner join cp.\"tpch/nation.parquet\" b on a.n_nationkey between b.n_regionkey and b.n_nationkey",
+        new String[]{nlpattern}, "RANGE_JOIN");
+    }
+  }
+
   @Test
   public void testNLJWithEmptyBatch() throws Exception {
     Long result = 0l;
@@ -16,14 +16,17 @@
 package com.dremio.exec.physical.impl.writer;
 
 import static com.dremio.exec.store.parquet.ParquetRecordWriter.DREMIO_VERSION_PROPERTY;
+import static org.apache.parquet.format.converter.ParquetMetadataConverter.NO_FILTER;
 import static org.apache.parquet.format.converter.ParquetMetadataConverter.SKIP_ROW_GROUPS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.notNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
@@ -33,14 +36,21 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.BigIntVector;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.hadoop.util.PageHeaderUtil;
 import org.joda.time.Period;
@@ -439,6 +449,44 @@ public class TestParquetWriter extends BaseTestQuery {
   }
 
 
+  @Test
+  public void testPipelinedWrite() throws Exception {
+    try (AutoCloseable ac = withOption(ExecConstants.PARQUET_WRITER_PIPELINED, true);
+         AutoCloseable ac2 = withOption(ExecConstants.PARQUET_MIN_RECORDS_FOR_FLUSH_VALIDATOR, 100);
+         AutoCloseable ac3 = withOption(ExecConstants.PARQUET_BLOCK_SIZE_VALIDATOR, 64 * 1024)) {
+      String selection = "*";
+      String inputTable = "cp.\"customer.json\"";
+      runTestAndValidate(selection, selection, inputTable, "foodmart_customer_parquet_pipelined", false);
+    }
+  }
+
+  @Test
+  public void testBloomFiltersWritten() throws Exception {
+    final String outputFile = "nation_bloom_filters";
+    try (AutoCloseable ac = withOption(ExecConstants.PARQUET_WRITER_BLOOM_FILTERS, true)) {
+      test("use dfs_test");
+      test(String.format("create table %s LOCALSORT BY (n_name) as select * from cp.\"tpch/nation.parquet\"", outputFile));
+
+      final Configuration hadoopConf = new Configuration();
+      final Path output = new Path(getDfsTestTmpSchemaLocation(), outputFile);
+      final FileSystem fs = output.getFileSystem(hadoopConf);
+      for (FileStatus file : fs.listStatus(output)) {
+        final ParquetMetadata footer = ParquetFileReader.readFooter(hadoopConf, file, NO_FILTER);
+        for (BlockMetaData block : footer.getBlocks()) {
+          for (ColumnChunkMetaData column : block.getColumns()) {
+            final boolean sortColumn = column.getPath().toDotString().equals("n_name");
+            assertEquals(sortColumn, column.getBloomFilterOffset() >= 0);
+            if (sortColumn) {
+              assertNotNull(column.getColumnIndexReference());
+            }
+          }
+        }
+      }
+    } finally {
+      deleteTableIfExists(outputFile);
+    }
+  }
+
   @Test
   public void testDate() throws Exception {
     String selection = "cast(hire_date as DATE) as hire_date";
@@ -890,6 +938,115 @@ public class TestParquetWriter extends BaseTestQuery {
     ALLOCATOR.close();
   }
 
+  @Test
+  public void testPipelinedWriteMultipleFiles() throws Exception {
+    final Path tmpSchemaPath = new Path(getDfsTestTmpSchemaLocation());
+    final Path targetPath = new Path(tmpSchemaPath, "testPipelinedWriteMultipleFiles");
+
+    final Configuration hadoopConf = new Configuration();
+    final FileSystem newFs = targetPath.getFileSystem(hadoopConf);
+    assertTrue(newFs.mkdirs(targetPath));
+
+    final BufferAllocator ALLOCATOR = allocatorRule.newAllocator("test-parquet-writer", 0, Long.MAX_VALUE);
+
+    OptionManager optionManager = mock(OptionManager.class);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_COMPRESSION_TYPE_VALIDATOR)).thenReturn("none"); //compression shouldn't matter
+    when(optionManager.getOption(ExecConstants.PARQUET_PAGE_SIZE_VALIDATOR)).thenReturn(256L);
+    when(optionManager.getOption(ExecConstants.PARQUET_MAXIMUM_PARTITIONS_VALIDATOR)).thenReturn(3L);
+    when(optionManager.getOption(ExecConstants.PARQUET_DICT_PAGE_SIZE_VALIDATOR)).thenReturn(4096L);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_PIPELINED)).thenReturn(true);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_PIPELINED_MAX_PENDING)).thenReturn(2L);
+
+    // background writes are blocked until the gate is opened
+    final CountDownLatch gate = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.submit(() -> {
+      gate.await();
+      return null;
+    });
+
+    OperatorStats operatorStats = mock(OperatorStats.class);
+
+    OperatorContext opContext = mock(OperatorContext.class);
+    when(opContext.getFragmentHandle()).thenReturn(ExecProtos.FragmentHandle.newBuilder().setMajorFragmentId(2323).setMinorFragmentId(234236).build());
+    when(opContext.getAllocator()).thenReturn(ALLOCATOR);
+    when(opContext.getOptions()).thenReturn(optionManager);
+    when(opContext.getStats()).thenReturn(operatorStats);
+    when(opContext.getExecutor()).thenReturn(executor);
+
+    ParquetWriter writerConf = mock(ParquetWriter.class);
+    when(writerConf.getLocation()).thenReturn(targetPath.toUri().toString());
+    OpProps props = mock(OpProps.class);
+    when(writerConf.getProps()).thenReturn(props);
+    when(writerConf.getProps().getUserName()).thenReturn("testuser");
+
+    ParquetFormatPlugin formatPlugin = mock(ParquetFormatPlugin.class);
+    FileSystemPlugin fsPlugin = mock(FileSystemPlugin.class);
+    when(fsPlugin.createFS((String) notNull(), (OperatorContext) notNull())).thenReturn(HadoopFileSystem.getLocal(hadoopConf));
+    when(writerConf.getFormatPlugin()).thenReturn(formatPlugin);
+    when(formatPlugin.getFsPlugin()).thenReturn(fsPlugin);
+
+    ParquetRecordWriter writer = new ParquetRecordWriter(opContext, writerConf, new ParquetFormatConfig());
+
+    RecordWriter.OutputEntryListener outputEntryListener = mock(RecordWriter.OutputEntryListener.class);
+    RecordWriter.WriteStatsListener writeStatsListener = mock(RecordWriter.WriteStatsListener.class);
+    ArgumentCaptor<Long> recordWrittenCaptor = ArgumentCaptor.forClass(long.class);
+    ArgumentCaptor<Long> fileSizeCaptor = ArgumentCaptor.forClass(long.class);
+    ArgumentCaptor<String> pathCaptor = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<byte[]> metadataCaptor = ArgumentCaptor.forClass(byte[].class);
+    ArgumentCaptor<Integer> partitionCaptor = ArgumentCaptor.forClass(Integer.class);
+    ArgumentCaptor<byte[]> icebergMetadataCaptor = ArgumentCaptor.forClass(byte[].class);
+
+    BigIntVector bigIntVector = new BigIntVector("key", ALLOCATOR);
+    bigIntVector.allocateNew(2);
+    bigIntVector.set(0, 52459253098448904L);
+    bigIntVector.set(1, 1116675951L);
+
+    VectorContainer container = new VectorContainer();
+    container.add(bigIntVector);
+    container.setRecordCount(2);
+    container.buildSchema(BatchSchema.SelectionVectorMode.NONE);
+
+    writer.setup(container, outputEntryListener, writeStatsListener);
+    // each partition is a file, the files of p0 and p1 are handed to the blocked executor while the next ones are
+    // encoded, without waiting for them as at most 2 files can be pending
+    for (int i = 0; i < 3; i++) {
+      writer.startPartition(new WritePartition(new String[] {"p" + i}));
+      writer.writeBatch(0, container.getRecordCount());
+    }
+    verifyZeroInteractions(outputEntryListener);
+
+    gate.countDown();
+    container.clear();
+    writer.close();
+
+    verify(outputEntryListener, times(3)).recordsWritten(recordWrittenCaptor.capture(),
+      fileSizeCaptor.capture(), pathCaptor.capture(), metadataCaptor.capture(),
+      partitionCaptor.capture(), icebergMetadataCaptor.capture());
+    verify(operatorStats, times(3)).addLongStat(ParquetRecordWriter.Metric.PIPELINED_FILES, 1);
+
+    // files are reported in the order they were completed
+    final List<String> paths = pathCaptor.getAllValues();
+    for (int i = 0; i < 3; i++) {
+      assertTrue(paths.get(i), paths.get(i).contains("/p" + i + "/"));
+      assertEquals(Long.valueOf(2), recordWrittenCaptor.getAllValues().get(i));
+    }
+
+    int numFiles = 0;
+    RemoteIterator<LocatedFileStatus> files = newFs.listFiles(targetPath, true);
+    while (files.hasNext()) {
+      if (files.next().getPath().getName().endsWith(".parquet")) {
+        numFiles++;
+      }
+    }
+    assertEquals(3, numFiles);
+
+    executor.shutdown();
+    container.close();
+    // fails if the bytes charged for the pending files were not released
+    ALLOCATOR.close();
+  }
+
   /*
   Test the reading of a binary field as varbinary where data is in dictionary _and_ non-dictionary encoded pages
    */
@@ -171,6 +171,24 @@ public class TestPartitionCreation extends BaseTestQuery {
     }
   }
 
+  @Test
+  public void testUnsortedPartitions() throws Exception {
+    // a single open partition forces writers to be closed and reopened when values are interleaved
+    try (AutoCloseable ac = withOption(ExecConstants.PARQUET_HASH_PARTITIONED_WRITER, true);
+         AutoCloseable ac2 = withOption(ExecConstants.PARQUET_HASH_PARTITIONED_WRITER_MAX_OPEN, 1)) {
+      final String input = "sys.options";
+      final String tableName = "dfs_test.unsorted_partitions";
+
+      runSQL("CREATE TABLE " + tableName + " PARTITION BY (TYPE, KIND) as SELECT * FROM " + input);
+
+      testBuilder()
+        .unOrdered()
+        .sqlQuery("SELECT name, kind, type, status, num_val, string_val FROM " + tableName)
+        .sqlBaselineQuery("SELECT name, kind, type, status, num_val, string_val FROM " + input)
+        .go();
+    }
+  }
+
   @Test
   public void testPartitionCreation() throws Exception {
     test("create table dfs_test.mypart0 PARTITION BY (TYPE, KIND) STORE AS (type => 'TEXT', fieldDelimiter => ',') as select * from sys.options");
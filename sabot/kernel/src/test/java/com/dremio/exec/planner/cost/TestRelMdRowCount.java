@@ -17,6 +17,8 @@ package com.dremio.exec.planner.cost;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -82,6 +84,7 @@ public class TestRelMdRowCount {
   private static final RexBuilder rexBuilder = new RexBuilder(typeFactory);
   private LegacyKVStoreProvider storeProvider;
   private RelOptCluster cluster;
+  private PlannerSettings plannerSettings;
 
   @Before
   public void setup() throws Exception {
@@ -114,7 +117,7 @@ public class TestRelMdRowCount {
 
     ClusterResourceInformation info = mock(ClusterResourceInformation.class);
     when(info.getExecutorNodeCount()).thenReturn(1);
-    PlannerSettings plannerSettings =
+    plannerSettings =
       new PlannerSettings(DremioTest.DEFAULT_SABOT_CONFIG, optionManager, () -> info);
     cluster = RelOptCluster.create(new VolcanoPlanner(plannerSettings), rexBuilder);
     cluster.setMetadataProvider(DefaultRelMetadataProvider.INSTANCE);
@@ -214,6 +217,38 @@ public class TestRelMdRowCount {
     verifyCount(2_500d /* max rowCount from */, input);
   }
 
+  @Test
+  public void joinEqualityWithStatistics() throws Exception {
+    Prel left = newScan(rowType(), 2_000, 1.0d, "t1");
+    Prel right = newScan(rowType(), 5_000, 1.0d, "t2");
+    plannerSettings.setStatisticsService(newStatisticsService(
+      newTableStatistics(left, 2_000, 1_000),
+      newTableStatistics(right, 5_000, 1_000)));
+
+    RexNode joinExpr = rexBuilder.makeCall(
+        SqlStdOperatorTable.EQUALS,
+        rexBuilder.makeInputRef(left, 1),
+        rexBuilder.makeInputRef(right.getRowType().getFieldList().get(1).getType(), left.getRowType().getFieldCount() + 1)
+    );
+
+    verifyCount(10_000d /* 2000 * 5000 / 1000 distinct keys */, newJoin(left, right, joinExpr));
+  }
+
+  private static TableStatistics newTableStatistics(Prel scan, long rowCount, long ndv) {
+    final TableStatistics.Builder builder = TableStatistics.newBuilder().setRowCount(rowCount);
+    for (String name : scan.getRowType().getFieldNames()) {
+      builder.addColumn(ColumnStatistics.newBuilder().setName(name).setNdv(ndv));
+    }
+    return builder.build();
+  }
+
+  private static StatisticsService newStatisticsService(TableStatistics t1, TableStatistics t2) {
+    final StatisticsService service = mock(StatisticsService.class);
+    when(service.getTableStatistics(eq(new NamespaceKey("t1")), any())).thenReturn(t1);
+    when(service.getTableStatistics(eq(new NamespaceKey("t2")), any())).thenReturn(t2);
+    return service;
+  }
+
   private void verifyCount(Double expected, Prel input) {
     final RelMetadataQuery metadataQuery = input.getCluster().getMetadataQuery();
     Double rowCountFromGet = metadataQuery.getRowCount(input);
@@ -232,6 +267,10 @@ public class TestRelMdRowCount {
   }
 
   private Prel newScan(RelDataType rowType, double rowCount, double splitRatio) throws Exception {
+    return newScan(rowType, rowCount, splitRatio, "version");
+  }
+
+  private Prel newScan(RelDataType rowType, double rowCount, double splitRatio, String tableName) throws Exception {
     TableMetadata metadata = Mockito.mock(TableMetadata.class);
     when(metadata.getName()).thenReturn(new NamespaceKey(ImmutableList.of("sys", "version")));
     when(metadata.getSchema()).thenReturn(SystemTable.VERSION.getRecordSchema());
@@ -241,7 +280,10 @@ public class TestRelMdRowCount {
     List<SchemaPath> columns = FluentIterable.from(SystemTable.VERSION.getRecordSchema()).transform(input -> SchemaPath.getSimplePath(input.getName())).toList();
     final RelOptTable relOptTable = Mockito.mock(RelOptTable.class);
     when(relOptTable.getRowCount()).thenReturn(rowCount);
-    return new SystemScanPrel(cluster, traits, relOptTable, metadata, columns, 1.0d, rowType);
+    when(relOptTable.getQualifiedName()).thenReturn(ImmutableList.of(tableName));
+    final Prel scan = new SystemScanPrel(cluster, traits, relOptTable, metadata, columns, 1.0d, rowType);
+    when(relOptTable.getRowType()).thenReturn(scan.getRowType());
+    return scan;
   }
 
   private RelDataType rowType() {
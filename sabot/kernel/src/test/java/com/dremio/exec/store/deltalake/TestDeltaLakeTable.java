@@ -36,6 +36,7 @@ import com.dremio.BaseTestQuery;
 import com.dremio.connector.metadata.BytesOutput;
 import com.dremio.connector.metadata.DatasetSplit;
 import com.dremio.datastore.LegacyProtobufSerializer;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.hadoop.HadoopFileSystem;
 import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.store.dfs.FileSelection;
@@ -158,6 +159,22 @@ public class TestDeltaLakeTable extends BaseTestQuery {
     assertEquals(snap.getNetBytesAdded(), 14663);
   }
 
+  @Test
+  public void testCheckpointAppendOnlySince() throws Exception {
+    f = new File("src/test/resources/deltalake/ending_with_checkpoint_dataset");
+    selection = FileSelection.create(fs, Path.of(f.getAbsolutePath()));
+
+    // all the commits folded in the checkpoint are blind appends
+    DeltaLakeTable table = new DeltaLakeTable(sabotContext, fs, selection);
+    assertEquals(1608800722341L, table.buildDatasetXattr().getAppendOnlySince());
+
+    // only the commit info of the last commits is read, changes made before are unknown
+    try (AutoCloseable ignored = withSystemOption(ExecConstants.INCREMENTAL_REFRESH_MAX_SNAPSHOTS, 3)) {
+      table = new DeltaLakeTable(sabotContext, fs, selection);
+      assertEquals(1608800727535L, table.buildDatasetXattr().getAppendOnlySince());
+    }
+  }
+
   private String getPath(DatasetSplit datasetSplit) {
     try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
       datasetSplit.getExtraInfo().writeTo(baos);
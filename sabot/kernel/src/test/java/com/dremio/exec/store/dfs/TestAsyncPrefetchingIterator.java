@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.store.RecordReader;
+import com.dremio.exec.store.parquet.RecordReaderIterator;
+import com.dremio.sabot.exec.context.OperatorStats;
+
+/**
+ * Tests for {@link AsyncPrefetchingIterator}
+ */
+public class TestAsyncPrefetchingIterator {
+  private ExecutorService executor;
+  private OperatorStats stats;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+    stats = mock(OperatorStats.class);
+  }
+
+  @After
+  public void cleanup() {
+    executor.shutdownNow();
+  }
+
+  private static List<RecordReader> readers(int count) {
+    final List<RecordReader> readers = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      readers.add(mock(RecordReader.class));
+    }
+    return readers;
+  }
+
+  @Test
+  public void testReadersReturnedInOrder() throws Exception {
+    final List<RecordReader> readers = readers(10);
+    try (RecordReaderIterator iterator = new AsyncPrefetchingIterator(RecordReaderIterator.from(readers.iterator()), executor, 3, stats)) {
+      for (RecordReader reader : readers) {
+        assertTrue(iterator.hasNext());
+        assertSame(reader, iterator.next());
+      }
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testPrefetchedReadersClosed() throws Exception {
+    final List<RecordReader> readers = readers(5);
+    final RecordReaderIterator iterator = new AsyncPrefetchingIterator(RecordReaderIterator.from(readers.iterator()), executor, 2, stats);
+    assertSame(readers.get(0), iterator.next());
+    iterator.close();
+
+    // the first reader is owned by the caller, the two prefetched ones are closed with the iterator
+    verify(readers.get(0), times(0)).close();
+    verify(readers.get(1)).close();
+    verify(readers.get(2)).close();
+    verify(readers.get(3), times(0)).close();
+  }
+
+  @Test
+  public void testFailureSurfacedOnNext() throws Exception {
+    final List<RecordReader> readers = readers(1);
+    final Iterator<RecordReader> failing = new Iterator<RecordReader>() {
+      private int returned;
+
+      @Override
+      public boolean hasNext() {
+        return true;
+      }
+
+      @Override
+      public RecordReader next() {
+        if (returned++ == 0) {
+          return readers.get(0);
+        }
+        throw new IllegalStateException("cannot open split");
+      }
+    };
+
+    try (RecordReaderIterator iterator = new AsyncPrefetchingIterator(RecordReaderIterator.from(failing), executor, 1, stats)) {
+      assertSame(readers.get(0), iterator.next());
+      try {
+        iterator.next();
+        fail("expected the prefetch failure to be rethrown");
+      } catch (IllegalStateException e) {
+        assertEquals("cannot open split", e.getMessage());
+      }
+    }
+  }
+}
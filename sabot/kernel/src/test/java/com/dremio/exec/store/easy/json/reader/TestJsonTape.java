@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.store.easy.json.JsonProcessor.ReadState;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+
+/**
+ * Tests for {@link JsonStructuralIndexer}, {@link JsonTape} and {@link CountingTapeJsonReader}.
+ */
+public class TestJsonTape {
+  private static final int MAX_RECORD_SIZE = 32000;
+
+  private static int[] index(String json) {
+    final JsonStructuralIndexer indexer = new JsonStructuralIndexer();
+    final byte[] bytes = json.getBytes(Charsets.UTF_8);
+    final int count = indexer.index(bytes, bytes.length);
+    return Arrays.copyOf(indexer.getPositions(), count);
+  }
+
+  @Test
+  public void testStructuralPositions() {
+    // {"a":[1,23],"b":true}
+    assertArrayEquals(new int[] {0, 1, 4, 5, 6, 7, 8, 10, 11, 12, 15, 16, 20},
+        index("{\"a\":[1,23],\"b\":true}"));
+  }
+
+  @Test
+  public void testEscapedQuotesAcrossBlocks() {
+    // push the escaped quote so that the backslash and the quote fall in different 64 byte blocks.
+    final String padding = Strings.repeat(" ", 58);
+    final String json = padding + "{\"a\":\"x\\\"}\"}";
+    final int[] positions = index(json);
+    // '{', opening quote of the key, ':', opening quote of the value and the final '}'
+    assertArrayEquals(new int[] {58, 59, 62, 63, 69}, positions);
+  }
+
+  @Test
+  public void testEscapedBackslashBeforeQuote() {
+    assertArrayEquals(new int[] {0, 1, 4, 5, 10}, index("{\"a\":\"x\\\\\"}"));
+  }
+
+  @Test
+  public void testTapeLinks() throws Exception {
+    final byte[] json = "{\"a\":{\"b\":[1,2,{\"c\":null}]},\"d\":\"e\"}".getBytes(Charsets.UTF_8);
+    final JsonStructuralIndexer indexer = new JsonStructuralIndexer();
+    final int count = indexer.index(json, json.length);
+    final JsonTape tape = new JsonTape();
+
+    assertEquals(count, tape.append(json, indexer.getPositions(), 0, count, 0));
+    assertEquals(JsonTape.START_OBJECT, tape.getType(0));
+    assertEquals(tape.size() - 1, tape.getLink(0));
+    assertEquals(JsonTape.END_OBJECT, tape.getType(tape.size() - 1));
+
+    // key "a" at 1, its value at 2; skipping the value lands on key "d".
+    assertEquals(JsonTape.STRING, tape.getType(1));
+    assertEquals(JsonTape.START_OBJECT, tape.getType(2));
+    final int d = tape.skip(2);
+    assertEquals(JsonTape.STRING, tape.getType(d));
+    assertEquals('d', json[tape.getOffset(d) + 1]);
+    assertEquals(JsonTape.STRING, tape.getType(d + 1));
+  }
+
+  @Test
+  public void testIncompleteValue() throws Exception {
+    final byte[] json = "{\"a\":[1,2".getBytes(Charsets.UTF_8);
+    final JsonStructuralIndexer indexer = new JsonStructuralIndexer();
+    final int count = indexer.index(json, json.length);
+    final JsonTape tape = new JsonTape();
+    assertEquals(-1, tape.append(json, indexer.getPositions(), 0, count, 0));
+    assertEquals(0, tape.size());
+  }
+
+  @Test
+  public void testInvalidValue() throws Exception {
+    final byte[] json = "{\"a\" 1}".getBytes(Charsets.UTF_8);
+    final JsonStructuralIndexer indexer = new JsonStructuralIndexer();
+    final int count = indexer.index(json, json.length);
+    try {
+      new JsonTape().append(json, indexer.getPositions(), 0, count, 0);
+      fail();
+    } catch (JsonParseException e) {
+      assertTrue(e.getMessage().contains("was expecting ':'"));
+    }
+  }
+
+  @Test
+  public void testCountAcrossBuffers() throws Exception {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append("{\"id\":").append(i).append(",\"s\":\"va\\\"l}").append(i).append("\",\"l\":[{},[]]}\n");
+    }
+
+    // small buffer so that records straddle buffers and some do not fit at all.
+    final CountingTapeJsonReader reader = new CountingTapeJsonReader(16, 64);
+    reader.setSource(new ByteArrayInputStream(sb.toString().getBytes(Charsets.UTF_8)));
+    assertEquals(1000, count(reader));
+  }
+
+  @Test
+  public void testCountOuterList() throws Exception {
+    final CountingTapeJsonReader reader = new CountingTapeJsonReader(8, 64);
+    reader.setSource(new ByteArrayInputStream("[{\"a\":1}, {\"a\":2},\n{\"a\":3}]  ".getBytes(Charsets.UTF_8)));
+    assertEquals(3, count(reader));
+  }
+
+  @Test
+  public void testEmptyOuterList() throws Exception {
+    CountingTapeJsonReader reader = new CountingTapeJsonReader(MAX_RECORD_SIZE);
+    reader.setSource(" [ ]\n");
+    assertEquals(0, count(reader));
+
+    // the closing bracket is only seen in the next buffer
+    reader = new CountingTapeJsonReader(8, 64);
+    reader.setSource("[       ]");
+    assertEquals(0, count(reader));
+
+    reader = new CountingTapeJsonReader(MAX_RECORD_SIZE);
+    reader.setSource("[] {\"a\":1}");
+    try {
+      count(reader);
+      fail();
+    } catch (UserException e) {
+      assertTrue(e.getMessage().contains("trailing content"));
+    }
+  }
+
+  @Test
+  public void testTrailingContentAfterOuterList() throws Exception {
+    final CountingTapeJsonReader reader = new CountingTapeJsonReader(MAX_RECORD_SIZE);
+    reader.setSource("[{\"a\":1}] {\"a\":2}");
+    try {
+      count(reader);
+      fail();
+    } catch (UserException e) {
+      assertTrue(e.getMessage().contains("trailing content"));
+    }
+  }
+
+  @Test
+  public void testTruncatedInput() throws Exception {
+    final CountingTapeJsonReader reader = new CountingTapeJsonReader(MAX_RECORD_SIZE);
+    reader.setSource("{\"a\":1} {\"a\":");
+    assertEquals(ReadState.WRITE_SUCCEED, reader.write(null));
+    try {
+      reader.write(null);
+      fail();
+    } catch (JsonParseException e) {
+      assertTrue(e.getMessage().contains("Unexpected end of input"));
+    }
+  }
+
+  @Test
+  public void testUnterminatedOuterList() throws Exception {
+    final CountingTapeJsonReader reader = new CountingTapeJsonReader(MAX_RECORD_SIZE);
+    reader.setSource("[{\"a\":1}, {\"a\":2}");
+    try {
+      count(reader);
+      fail();
+    } catch (JsonParseException e) {
+      assertTrue(e.getMessage().contains("Unexpected end of input"));
+    }
+  }
+
+  @Test
+  public void testRecordLargerThanLimit() throws Exception {
+    final CountingTapeJsonReader reader = new CountingTapeJsonReader(16, 64);
+    reader.setSource("{\"a\":1} {\"s\":\"" + Strings.repeat("x", 100) + "\"}");
+    assertEquals(ReadState.WRITE_SUCCEED, reader.write(null));
+    try {
+      reader.write(null);
+      fail();
+    } catch (UserException e) {
+      assertTrue(e.getMessage().contains("exceeds the size limit of 64 bytes"));
+    }
+  }
+
+  @Test
+  public void testEmptyInput() throws Exception {
+    final CountingTapeJsonReader reader = new CountingTapeJsonReader(MAX_RECORD_SIZE);
+    reader.setSource(" \n ");
+    assertEquals(0, count(reader));
+    assertFalse(reader.write(null) == ReadState.WRITE_SUCCEED);
+  }
+
+  private static int count(CountingTapeJsonReader reader) throws Exception {
+    int count = 0;
+    while (reader.write(null) == ReadState.WRITE_SUCCEED) {
+      count++;
+    }
+    return count;
+  }
+}
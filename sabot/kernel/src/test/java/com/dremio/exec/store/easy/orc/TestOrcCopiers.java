@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.storage.common.type.HiveDecimal;
+import org.apache.orc.storage.ql.exec.vector.BytesColumnVector;
+import org.apache.orc.storage.ql.exec.vector.DecimalColumnVector;
+import org.apache.orc.storage.ql.exec.vector.DoubleColumnVector;
+import org.apache.orc.storage.ql.exec.vector.LongColumnVector;
+import org.apache.orc.storage.ql.exec.vector.TimestampColumnVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.exec.store.easy.orc.OrcCopiers.OrcCopier;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests copying ORC column vectors into Arrow vectors.
+ */
+public class TestOrcCopiers {
+  private static final int MAX_FIELD_SIZE = 32;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-orc-copiers", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testTypes() {
+    assertEquals(CompleteType.BIT, OrcCopiers.getType(TypeDescription.createBoolean()));
+    assertEquals(CompleteType.INT, OrcCopiers.getType(TypeDescription.createByte()));
+    assertEquals(CompleteType.INT, OrcCopiers.getType(TypeDescription.createShort()));
+    assertEquals(CompleteType.INT, OrcCopiers.getType(TypeDescription.createInt()));
+    assertEquals(CompleteType.BIGINT, OrcCopiers.getType(TypeDescription.createLong()));
+    assertEquals(CompleteType.FLOAT, OrcCopiers.getType(TypeDescription.createFloat()));
+    assertEquals(CompleteType.DOUBLE, OrcCopiers.getType(TypeDescription.createDouble()));
+    assertEquals(CompleteType.VARCHAR, OrcCopiers.getType(TypeDescription.createString()));
+    assertEquals(CompleteType.VARCHAR, OrcCopiers.getType(TypeDescription.createVarchar().withMaxLength(10)));
+    assertEquals(CompleteType.VARCHAR, OrcCopiers.getType(TypeDescription.createChar().withMaxLength(10)));
+    assertEquals(CompleteType.VARBINARY, OrcCopiers.getType(TypeDescription.createBinary()));
+    assertEquals(CompleteType.DATE, OrcCopiers.getType(TypeDescription.createDate()));
+    assertEquals(CompleteType.TIMESTAMP, OrcCopiers.getType(TypeDescription.createTimestamp()));
+    assertEquals(CompleteType.fromDecimalPrecisionScale(10, 2),
+      OrcCopiers.getType(TypeDescription.createDecimal().withPrecision(10).withScale(2)));
+
+    // complex types are not supported
+    assertNull(OrcCopiers.getType(TypeDescription.fromString("struct<a:int>")));
+    assertNull(OrcCopiers.getType(TypeDescription.fromString("array<int>")));
+    assertNull(OrcCopiers.getType(TypeDescription.fromString("map<string,int>")));
+  }
+
+  @Test
+  public void testBigIntWithNulls() {
+    final LongColumnVector input = new LongColumnVector(4);
+    input.vector[0] = 1;
+    input.vector[2] = 3;
+    input.vector[3] = 4;
+    input.noNulls = false;
+    input.isNull[1] = true;
+
+    try (BigIntVector output = new BigIntVector("l", allocator)) {
+      output.allocateNew(2);
+      final OrcCopier copier = OrcCopiers.createCopier(TypeDescription.createLong(), input, output, MAX_FIELD_SIZE);
+      // copies past the initial capacity of the output
+      copier.copy(1, 3, 2);
+      output.setValueCount(5);
+
+      assertTrue(output.isNull(0));
+      assertTrue(output.isNull(1));
+      assertTrue(output.isNull(2));
+      assertEquals(3L, output.get(3));
+      assertEquals(4L, output.get(4));
+    }
+  }
+
+  @Test
+  public void testIntWithoutNulls() {
+    final LongColumnVector input = new LongColumnVector(3);
+    input.vector[0] = 1;
+    input.vector[1] = -2;
+    input.vector[2] = Integer.MAX_VALUE;
+
+    try (IntVector output = new IntVector("i", allocator)) {
+      output.allocateNew(3);
+      final OrcCopier copier = OrcCopiers.createCopier(TypeDescription.createInt(), input, output, MAX_FIELD_SIZE);
+      copier.copy(0, 3, 0);
+      output.setValueCount(3);
+
+      assertEquals(1, output.get(0));
+      assertEquals(-2, output.get(1));
+      assertEquals(Integer.MAX_VALUE, output.get(2));
+    }
+  }
+
+  @Test
+  public void testRepeating() {
+    final LongColumnVector input = new LongColumnVector(3);
+    input.isRepeating = true;
+    input.vector[0] = 7;
+
+    try (IntVector output = new IntVector("i", allocator)) {
+      output.allocateNew(3);
+      final OrcCopier copier = OrcCopiers.createCopier(TypeDescription.createShort(), input, output, MAX_FIELD_SIZE);
+      copier.copy(1, 2, 0);
+
+      // a repeating null leaves the values unset
+      input.noNulls = false;
+      input.isNull[0] = true;
+      copier.copy(0, 1, 2);
+      output.setValueCount(3);
+
+      assertEquals(7, output.get(0));
+      assertEquals(7, output.get(1));
+      assertTrue(output.isNull(2));
+    }
+  }
+
+  @Test
+  public void testBit() {
+    final LongColumnVector input = new LongColumnVector(3);
+    input.vector[0] = 1;
+    input.vector[1] = 0;
+    input.noNulls = false;
+    input.isNull[2] = true;
+
+    try (BitVector output = new BitVector("b", allocator)) {
+      output.allocateNew(3);
+      final OrcCopier copier = OrcCopiers.createCopier(TypeDescription.createBoolean(), input, output, MAX_FIELD_SIZE);
+      copier.copy(0, 3, 0);
+      output.setValueCount(3);
+
+      assertEquals(1, output.get(0));
+      assertEquals(0, output.get(1));
+      assertTrue(output.isNull(2));
+    }
+  }
+
+  @Test
+  public void testFloatingPoint() {
+    final DoubleColumnVector input = new DoubleColumnVector(2);
+    input.vector[0] = 1.5d;
+    input.vector[1] = Double.NaN;
+
+    try (Float4Vector float4 = new Float4Vector("f", allocator);
+         Float8Vector float8 = new Float8Vector("d", allocator)) {
+      float4.allocateNew(2);
+      float8.allocateNew(2);
+      OrcCopiers.createCopier(TypeDescription.createFloat(), input, float4, MAX_FIELD_SIZE).copy(0, 2, 0);
+      OrcCopiers.createCopier(TypeDescription.createDouble(), input, float8, MAX_FIELD_SIZE).copy(0, 2, 0);
+      float4.setValueCount(2);
+      float8.setValueCount(2);
+
+      assertEquals(1.5f, float4.get(0), 0f);
+      assertTrue(Float.isNaN(float4.get(1)));
+      assertEquals(1.5d, float8.get(0), 0d);
+      assertTrue(Double.isNaN(float8.get(1)));
+    }
+  }
+
+  @Test
+  public void testDateAndTimestamp() {
+    // dates are stored as days since epoch, timestamps as milliseconds since epoch
+    final LongColumnVector dates = new LongColumnVector(2);
+    dates.vector[0] = 18000;
+    dates.vector[1] = -1;
+    final TimestampColumnVector timestamps = new TimestampColumnVector(2);
+    timestamps.time[0] = 1555000000123L;
+    timestamps.noNulls = false;
+    timestamps.isNull[1] = true;
+
+    try (DateMilliVector dateOutput = new DateMilliVector("dt", allocator);
+         TimeStampMilliVector timestampOutput = new TimeStampMilliVector("ts", allocator)) {
+      dateOutput.allocateNew(2);
+      timestampOutput.allocateNew(2);
+      OrcCopiers.createCopier(TypeDescription.createDate(), dates, dateOutput, MAX_FIELD_SIZE).copy(0, 2, 0);
+      OrcCopiers.createCopier(TypeDescription.createTimestamp(), timestamps, timestampOutput, MAX_FIELD_SIZE)
+        .copy(0, 2, 0);
+      dateOutput.setValueCount(2);
+      timestampOutput.setValueCount(2);
+
+      assertEquals(TimeUnit.DAYS.toMillis(18000), dateOutput.get(0));
+      assertEquals(TimeUnit.DAYS.toMillis(-1), dateOutput.get(1));
+      assertEquals(1555000000123L, timestampOutput.get(0));
+      assertTrue(timestampOutput.isNull(1));
+    }
+  }
+
+  @Test
+  public void testDecimal() {
+    final DecimalColumnVector input = new DecimalColumnVector(3, 10, 2);
+    input.vector[0].set(HiveDecimal.create("12.34"));
+    input.vector[1].set(HiveDecimal.create("-0.5"));
+    // doesn't fit decimal(10,2)
+    input.vector[2].set(HiveDecimal.create("123456789012.5"));
+
+    try (DecimalVector output = new DecimalVector("dec", allocator, 10, 2)) {
+      output.allocateNew(3);
+      final OrcCopier copier = OrcCopiers.createCopier(TypeDescription.createDecimal().withPrecision(10).withScale(2),
+        input, output, MAX_FIELD_SIZE);
+      copier.copy(0, 3, 0);
+      output.setValueCount(3);
+
+      assertEquals(new BigDecimal("12.34"), output.getObject(0));
+      assertEquals(new BigDecimal("-0.50"), output.getObject(1));
+      assertTrue(output.isNull(2));
+    }
+  }
+
+  @Test
+  public void testBytes() {
+    final BytesColumnVector input = new BytesColumnVector(3);
+    input.initBuffer();
+    input.setVal(0, bytes("hello"));
+    input.noNulls = false;
+    input.isNull[1] = true;
+    input.setVal(2, bytes(""));
+
+    try (VarCharVector output = new VarCharVector("s", allocator)) {
+      output.allocateNew(4, 1);
+      final OrcCopier copier = OrcCopiers.createCopier(TypeDescription.createString(), input, output, MAX_FIELD_SIZE);
+      copier.copy(0, 3, 1);
+      output.setValueCount(4);
+
+      assertTrue(output.isNull(0));
+      assertArrayEquals(bytes("hello"), output.get(1));
+      assertTrue(output.isNull(2));
+      assertArrayEquals(bytes(""), output.get(3));
+    }
+  }
+
+  @Test
+  public void testBytesLargerThanFieldSizeLimit() {
+    final BytesColumnVector input = new BytesColumnVector(1);
+    input.initBuffer();
+    input.setVal(0, new byte[MAX_FIELD_SIZE + 1]);
+
+    try (VarCharVector output = new VarCharVector("s", allocator)) {
+      output.allocateNew();
+      final OrcCopier copier = OrcCopiers.createCopier(TypeDescription.createString(), input, output, MAX_FIELD_SIZE);
+      copier.copy(0, 1, 0);
+      fail("values larger than the field size limit should fail the query");
+    } catch (UserException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("Field exceeds the size limit of " + MAX_FIELD_SIZE + " bytes"));
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
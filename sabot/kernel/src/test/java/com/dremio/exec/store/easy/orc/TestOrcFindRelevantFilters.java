@@ -13,7 +13,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.dremio.exec.store.hive.orc;
+package com.dremio.exec.store.easy.orc;
 
 import static java.util.Arrays.asList;
 import static org.apache.calcite.sql.fun.SqlStdOperatorTable.AND;
@@ -43,10 +43,10 @@ import com.dremio.common.util.TestTools;
 import com.dremio.exec.planner.RexBuilderTestBase;
 
 /**
- * Unit tests for {@link ORCFindRelevantFilters}
+ * Unit tests for {@link OrcFindRelevantFilters}
  */
-public class TestORCFindRelevantFilters extends RexBuilderTestBase {
-  private final ORCFindRelevantFilters finder = new ORCFindRelevantFilters(builder, null);
+public class TestOrcFindRelevantFilters extends RexBuilderTestBase {
+  private final OrcFindRelevantFilters finder = new OrcFindRelevantFilters(builder, null);
 
   @ClassRule
   public static final TestRule CLASS_TIMEOUT = TestTools.getTimeoutRule(100000, TimeUnit.SECONDS);
@@ -179,6 +179,17 @@ public class TestORCFindRelevantFilters extends RexBuilderTestBase {
     assertEqualsDigest(outputOrExpr, inputOrExpr.accept(finder));
   }
 
+  @Test
+  public void nullLiteral() {
+    // comparisons with null are never true, they are left to the filter
+    RexNode eqNull = builder.makeCall(EQUALS, asList(input(0), builder.makeNullLiteral(input(0).getType())));
+    assertNull(eqNull.accept(finder));
+
+    RexNode isNullExpr = builder.makeCall(IS_NULL, asList(input(0)));
+    RexNode orExpr = builder.makeCall(OR, asList(isNullExpr, eqNull));
+    assertNull(orExpr.accept(finder));
+  }
+
   private void singleOpTest(SqlOperator op) {
     RexNode eqInt = builder.makeCall(op, asList(input(0), intLit(0, 23)));
     assertEqualsDigest(eqInt, eqInt.accept(finder));
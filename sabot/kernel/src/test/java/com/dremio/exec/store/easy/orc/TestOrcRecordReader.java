@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.apache.orc.storage.common.type.HiveDecimal;
+import org.apache.orc.storage.ql.exec.vector.BytesColumnVector;
+import org.apache.orc.storage.ql.exec.vector.ColumnVector;
+import org.apache.orc.storage.ql.exec.vector.DecimalColumnVector;
+import org.apache.orc.storage.ql.exec.vector.DoubleColumnVector;
+import org.apache.orc.storage.ql.exec.vector.LongColumnVector;
+import org.apache.orc.storage.ql.exec.vector.StructColumnVector;
+import org.apache.orc.storage.ql.exec.vector.TimestampColumnVector;
+import org.apache.orc.storage.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.storage.ql.io.sarg.PredicateLeaf;
+import org.apache.orc.storage.ql.io.sarg.SearchArgument;
+import org.apache.orc.storage.ql.io.sarg.SearchArgumentFactory;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.BaseTestQuery;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.store.SampleMutator;
+import com.dremio.io.file.FileSystem;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OpProfileDef;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.store.easy.proto.EasyProtobuf.EasyDatasetSplitXAttr;
+import com.dremio.test.AllocatorRule;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests the {@link OrcRecordReader} against ORC files written with the ORC writer: every supported type, unsupported
+ * columns, splits, and stripes and row groups pruned by a search argument.
+ */
+public class TestOrcRecordReader extends BaseTestQuery {
+  private static final String ALL_TYPES_SCHEMA = "struct<b:boolean,ti:tinyint,si:smallint,i:int,l:bigint,f:float," +
+    "d:double,s:string,vc:varchar(10),c:char(3),bin:binary,dt:date,ts:timestamp,dec:decimal(10,2),st:struct<x:int>>";
+
+  // ids 0 to 9999 in 4 stripes of 2500 rows, with row groups of 1000 rows
+  private static final int NUM_IDS = 10_000;
+  private static final int STRIPE_SIZE = 2_500;
+  private static final int ROW_INDEX_STRIDE = 1_000;
+
+  private static File allTypesFile;
+  private static File idsFile;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @BeforeClass
+  public static void writeFiles() throws Exception {
+    final File dir = new File(getTempDir("orc_reader"));
+    dir.mkdirs();
+    allTypesFile = new File(dir, "all_types.orc");
+    idsFile = new File(dir, "ids.orc");
+    writeAllTypes(allTypesFile);
+    writeIds(idsFile);
+  }
+
+  private static Writer createWriter(File file, TypeDescription schema) throws Exception {
+    file.delete();
+    return OrcFile.createWriter(new org.apache.hadoop.fs.Path(file.getAbsolutePath()),
+      OrcFile.writerOptions(new Configuration())
+        .setSchema(schema)
+        .rowIndexStride(ROW_INDEX_STRIDE)
+        .useUTCTimestamp(true));
+  }
+
+  private static void writeAllTypes(File file) throws Exception {
+    final TypeDescription schema = TypeDescription.fromString(ALL_TYPES_SCHEMA);
+    final VectorizedRowBatch batch = schema.createRowBatch();
+    final ColumnVector[] cols = batch.cols;
+    ((LongColumnVector) cols[0]).vector[0] = 1;
+    ((LongColumnVector) cols[1]).vector[0] = 1;
+    ((LongColumnVector) cols[2]).vector[0] = 2;
+    ((LongColumnVector) cols[3]).vector[0] = 3;
+    ((LongColumnVector) cols[4]).vector[0] = 4;
+    ((DoubleColumnVector) cols[5]).vector[0] = 1.5d;
+    ((DoubleColumnVector) cols[6]).vector[0] = 2.5d;
+    ((BytesColumnVector) cols[7]).setVal(0, bytes("abc"));
+    ((BytesColumnVector) cols[8]).setVal(0, bytes("varchar"));
+    ((BytesColumnVector) cols[9]).setVal(0, bytes("chr"));
+    ((BytesColumnVector) cols[10]).setVal(0, bytes("bin"));
+    ((LongColumnVector) cols[11]).vector[0] = 18000;
+    ((TimestampColumnVector) cols[12]).set(0, new Timestamp(1555000000123L));
+    ((DecimalColumnVector) cols[13]).vector[0].set(HiveDecimal.create("12.34"));
+    ((LongColumnVector) ((StructColumnVector) cols[14]).fields[0]).vector[0] = 1;
+
+    // second row is all nulls
+    for (ColumnVector col : cols) {
+      col.noNulls = false;
+      col.isNull[1] = true;
+    }
+    batch.size = 2;
+
+    try (Writer writer = createWriter(file, schema)) {
+      writer.addRowBatch(batch);
+    }
+  }
+
+  private static void writeIds(File file) throws Exception {
+    final TypeDescription schema = TypeDescription.fromString("struct<id:bigint,val:string>");
+    final VectorizedRowBatch batch = schema.createRowBatch(500);
+    final LongColumnVector ids = (LongColumnVector) batch.cols[0];
+    final BytesColumnVector vals = (BytesColumnVector) batch.cols[1];
+
+    try (Writer writer = createWriter(file, schema)) {
+      for (int id = 0; id < NUM_IDS; id++) {
+        ids.vector[batch.size] = id;
+        vals.setVal(batch.size, bytes("v" + id));
+        if (++batch.size == batch.getMaxSize()) {
+          writer.addRowBatch(batch);
+          batch.reset();
+        }
+        if ((id + 1) % STRIPE_SIZE == 0) {
+          // flushes the current stripe
+          writer.writeIntermediateFooter();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAllTypes() throws Exception {
+    // complex columns are skipped on select *
+    testBuilder()
+      .sqlQuery("SELECT * FROM dfs.\"%s\"", allTypesFile.getAbsolutePath())
+      .unOrdered()
+      .baselineColumns("b", "ti", "si", "i", "l", "f", "d", "s", "vc", "c", "bin", "dt", "ts", "dec")
+      .baselineValues(true, 1, 2, 3, 4L, 1.5f, 2.5d, "abc", "varchar", "chr", bytes("bin"),
+        new LocalDateTime(TimeUnit.DAYS.toMillis(18000), DateTimeZone.UTC),
+        new LocalDateTime(1555000000123L, DateTimeZone.UTC),
+        new BigDecimal("12.34"))
+      .baselineValues(null, null, null, null, null, null, null, null, null, null, null, null, null, null)
+      .go();
+  }
+
+  @Test
+  public void testProjection() throws Exception {
+    testBuilder()
+      .sqlQuery("SELECT s, l FROM dfs.\"%s\" WHERE l IS NOT NULL", allTypesFile.getAbsolutePath())
+      .unOrdered()
+      .baselineColumns("s", "l")
+      .baselineValues("abc", 4L)
+      .go();
+  }
+
+  @Test
+  public void testFilterPushDown() throws Exception {
+    // the filter is still applied on top of the rows read from the row groups that were not pruned
+    testBuilder()
+      .sqlQuery("SELECT count(*) AS c FROM dfs.\"%s\" WHERE id < 1500", idsFile.getAbsolutePath())
+      .unOrdered()
+      .baselineColumns("c")
+      .baselineValues(1500L)
+      .go();
+
+    testBuilder()
+      .sqlQuery("SELECT val FROM dfs.\"%s\" WHERE id = 4242", idsFile.getAbsolutePath())
+      .unOrdered()
+      .baselineColumns("val")
+      .baselineValues("v4242")
+      .go();
+  }
+
+  @Test
+  public void testUnsupportedColumnProjected() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-orc-reader", 0, Long.MAX_VALUE);
+         SampleMutator mutator = new SampleMutator(allocator);
+         OrcRecordReader reader = newReader(allocator, allTypesFile, 0, allTypesFile.length(),
+           ImmutableList.of(SchemaPath.getSimplePath("st")), null, 100)) {
+      reader.setup(mutator);
+      fail("projecting a struct column should fail");
+    } catch (UserException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("Reading column st of type struct<x:int> from ORC files is not supported"));
+    }
+  }
+
+  @Test
+  public void testReadAll() throws Exception {
+    assertEquals(range(0, NUM_IDS), readIds(null, 0, idsFile.length(), 4095));
+    // output batches smaller than the ORC row groups
+    assertEquals(range(0, NUM_IDS), readIds(null, 0, idsFile.length(), 100));
+  }
+
+  @Test
+  public void testSplits() throws Exception {
+    // each split reads the stripes starting in its range
+    final long length = idsFile.length();
+    final List<Long> first = readIds(null, 0, length / 2, 4095);
+    final List<Long> second = readIds(null, length / 2, length - length / 2, 4095);
+    assertFalse(first.isEmpty());
+    assertFalse(second.isEmpty());
+    assertEquals(0, first.size() % STRIPE_SIZE);
+
+    final List<Long> all = new ArrayList<>(first);
+    all.addAll(second);
+    assertEquals(range(0, NUM_IDS), all);
+  }
+
+  @Test
+  public void testStripeAndRowGroupPruning() throws Exception {
+    // only the first 2 row groups of the first stripe may contain ids lower than 1500
+    final SearchArgument lessThan = SearchArgumentFactory.newBuilder()
+      .startAnd()
+      .lessThan("id", PredicateLeaf.Type.LONG, 1500L)
+      .end()
+      .build();
+    assertEquals(range(0, 2 * ROW_INDEX_STRIDE), readIds(lessThan, 0, idsFile.length(), 4095));
+
+    // only the last 2 row groups of the last stripe, the stripe having 2500 rows
+    final SearchArgument greaterThanOrEqual = SearchArgumentFactory.newBuilder()
+      .startNot()
+      .lessThan("id", PredicateLeaf.Type.LONG, 9000L)
+      .end()
+      .build();
+    assertEquals(range(NUM_IDS - 1500, NUM_IDS), readIds(greaterThanOrEqual, 0, idsFile.length(), 4095));
+
+    // all stripes are pruned
+    final SearchArgument none = SearchArgumentFactory.newBuilder()
+      .startAnd()
+      .lessThan("id", PredicateLeaf.Type.LONG, -1L)
+      .end()
+      .build();
+    assertEquals(Collections.emptyList(), readIds(none, 0, idsFile.length(), 4095));
+  }
+
+  private List<Long> readIds(SearchArgument sarg, long start, long length, int batchSize) throws Exception {
+    final OrcScanFilter filter = sarg == null ? null
+      : new OrcScanFilter(sarg, ImmutableList.of(SchemaPath.getSimplePath("id")));
+    final List<Long> ids = new ArrayList<>();
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-orc-reader", 0, Long.MAX_VALUE);
+         SampleMutator mutator = new SampleMutator(allocator);
+         OrcRecordReader reader = newReader(allocator, idsFile, start, length,
+           ImmutableList.of(SchemaPath.getSimplePath("id")), filter, batchSize)) {
+      reader.setup(mutator);
+      while (true) {
+        mutator.allocate(batchSize);
+        final int count = reader.next();
+        if (count == 0) {
+          break;
+        }
+        final BigIntVector vector = (BigIntVector) mutator.getVector("id");
+        for (int i = 0; i < count; i++) {
+          ids.add(vector.get(i));
+        }
+      }
+    }
+    return ids;
+  }
+
+  private static OrcRecordReader newReader(BufferAllocator allocator, File file, long start, long length,
+                                           List<SchemaPath> columns, OrcScanFilter filter, int batchSize) throws Exception {
+    final OptionManager options = mock(OptionManager.class);
+    when(options.getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES))
+      .thenReturn(ExecConstants.LIMIT_FIELD_SIZE_BYTES.getDefault().getNumVal());
+    final OperatorContext context = mock(OperatorContext.class);
+    when(context.getAllocator()).thenReturn(allocator);
+    when(context.getOptions()).thenReturn(options);
+    when(context.getTargetBatchSize()).thenReturn(batchSize);
+    when(context.getStats()).thenReturn(new OperatorStats(new OpProfileDef(0, 0, 0), allocator));
+
+    final FileSystem fs = HadoopFileSystem.getLocal(new Configuration());
+    final EasyDatasetSplitXAttr split = EasyDatasetSplitXAttr.newBuilder()
+      .setPath(file.getAbsolutePath())
+      .setStart(start)
+      .setLength(length)
+      .build();
+    return new OrcRecordReader(context, fs, split, columns, filter);
+  }
+
+  private static List<Long> range(long start, long end) {
+    return LongStream.range(start, end).boxed().collect(Collectors.toList());
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.orc;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.orc.storage.ql.io.sarg.PredicateLeaf;
+import org.apache.orc.storage.ql.io.sarg.SearchArgument;
+import org.apache.orc.storage.ql.io.sarg.SearchArgumentFactory;
+import org.junit.Test;
+
+import com.dremio.common.expression.SchemaPath;
+import com.google.common.collect.ImmutableList;
+
+public class TestOrcScanFilter {
+
+  @Test
+  public void testSearchArgumentRoundTrip() {
+    final SearchArgument sarg = SearchArgumentFactory.newBuilder()
+      .startAnd()
+      .lessThan("a", PredicateLeaf.Type.LONG, 10L)
+      .startNot()
+      .isNull("b", PredicateLeaf.Type.STRING)
+      .end()
+      .end()
+      .build();
+    final OrcScanFilter filter = new OrcScanFilter(sarg,
+      ImmutableList.of(SchemaPath.getSimplePath("a"), SchemaPath.getSimplePath("b")));
+
+    final OrcScanFilter deserialized = new OrcScanFilter(filter.getKryoBase64EncodedFilter(), filter.getColumns());
+
+    assertEquals(sarg.toString(), deserialized.getSarg().toString());
+    assertEquals(filter, deserialized);
+    assertEquals(filter.getPaths(), deserialized.getPaths());
+  }
+}
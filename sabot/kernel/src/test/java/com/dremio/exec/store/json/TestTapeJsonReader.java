@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.json;
+
+import static com.dremio.TestBuilder.listOf;
+import static com.dremio.TestBuilder.mapOf;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.dremio.BaseTestQuery;
+import com.dremio.exec.ExecConstants;
+
+/**
+ * Tests for the tape based JSON reader, enabled with {@link ExecConstants#JSON_TAPE_READER}.
+ */
+public class TestTapeJsonReader extends BaseTestQuery {
+
+  private static AutoCloseable tapeReader;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    tapeReader = withOption(ExecConstants.JSON_TAPE_READER, true);
+
+    final File tableDir = new File(getDfsTestTmpSchemaLocation(), "tape_json");
+    tableDir.mkdir();
+    try (OutputStream os = new BufferedOutputStream(new FileOutputStream(new File(tableDir, "a.json")))) {
+      os.write(("{\"a\": 1, \"b\": \"x\\\"y\", \"c\": {\"d\": 1.5, \"e\": [1, 2]}, \"skip\": {\"deep\": [[{}]]}}\n"
+        + "{\"a\": 2, \"b\": \"\\u00e9\", \"c\": {\"d\": -2.0, \"e\": [3]}, \"skip\": \"ignored\", \"f\": true}\n")
+        .getBytes());
+    }
+  }
+
+  @AfterClass
+  public static void cleanup() throws Exception {
+    tapeReader.close();
+  }
+
+  @Test
+  public void testProjection() throws Exception {
+    testBuilder()
+      .sqlQuery("select t.a, t.b, t.c.d as d, t.c.e as e from dfs_test.tmp.tape_json t")
+      .unOrdered()
+      .baselineColumns("a", "b", "d", "e")
+      .baselineValues(1L, "x\"y", 1.5d, listOf(1L, 2L))
+      .baselineValues(2L, "\u00e9", -2.0d, listOf(3L))
+      .go();
+  }
+
+  @Test
+  public void testSelectStar() throws Exception {
+    testBuilder()
+      .sqlQuery("select * from cp.\"jsoninput/input4.json\"")
+      .unOrdered()
+      .baselineColumns("a")
+      .baselineValues(mapOf("b", 1L, "c", mapOf("d", 2L)))
+      .go();
+  }
+
+  @Test
+  public void testCount() throws Exception {
+    testBuilder()
+      .sqlQuery("select count(*) as cnt from dfs_test.tmp.tape_json")
+      .unOrdered()
+      .baselineColumns("cnt")
+      .baselineValues(2L)
+      .go();
+  }
+
+  @Test
+  public void testCountMatchesMaterializedCount() throws Exception {
+    final String query = "SELECT count(*) FROM cp.\"json/map_list_map.json\"";
+    testBuilder()
+      .sqlQuery(query)
+      .unOrdered()
+      .sqlBaselineQuery("SELECT count(id) FROM cp.\"json/map_list_map.json\"")
+      .go();
+  }
+}
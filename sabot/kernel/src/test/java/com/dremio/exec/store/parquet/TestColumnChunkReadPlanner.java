@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ColumnChunkReadPlanner}
+ */
+public class TestColumnChunkReadPlanner {
+
+  private static ColumnChunkMetaData chunk(long start, long size) {
+    final ColumnChunkMetaData chunk = mock(ColumnChunkMetaData.class);
+    when(chunk.getStartingPos()).thenReturn(start);
+    when(chunk.getTotalSize()).thenReturn(size);
+    return chunk;
+  }
+
+  @Test
+  public void testAdjacentAndNearbyChunksMerged() {
+    final ColumnChunkMetaData c1 = chunk(4, 100);
+    final ColumnChunkMetaData c2 = chunk(104, 50);
+    final ColumnChunkMetaData c3 = chunk(164, 20); // 10 bytes gap
+    final ColumnChunkMetaData c4 = chunk(1000, 30); // too far
+
+    // chunks are given out of order
+    final List<ColumnChunkReadPlanner.Range> ranges = ColumnChunkReadPlanner.plan(Arrays.asList(c3, c1, c4, c2), 16, 1024);
+
+    assertEquals(2, ranges.size());
+    assertEquals(4, ranges.get(0).getStart());
+    assertEquals(180, ranges.get(0).getLength());
+    assertEquals(Arrays.asList(c1, c2, c3), ranges.get(0).getChunks());
+    assertEquals(1000, ranges.get(1).getStart());
+    assertEquals(30, ranges.get(1).getLength());
+    assertEquals(Collections.singletonList(c4), ranges.get(1).getChunks());
+  }
+
+  @Test
+  public void testRangeLengthLimited() {
+    final ColumnChunkMetaData c1 = chunk(0, 60);
+    final ColumnChunkMetaData c2 = chunk(60, 60);
+    final ColumnChunkMetaData c3 = chunk(120, 200); // larger than a range on its own
+
+    final List<ColumnChunkReadPlanner.Range> ranges = ColumnChunkReadPlanner.plan(Arrays.asList(c1, c2, c3), 0, 100);
+
+    assertEquals(3, ranges.size());
+    assertEquals(Collections.singletonList(c1), ranges.get(0).getChunks());
+    assertEquals(Collections.singletonList(c2), ranges.get(1).getChunks());
+    assertEquals(200, ranges.get(2).getLength());
+  }
+
+  @Test
+  public void testNoChunks() {
+    assertTrue(ColumnChunkReadPlanner.plan(Collections.emptyList(), 16, 1024).isEmpty());
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.catalog.StoragePluginId;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.physical.base.WriterOptions;
+import com.dremio.exec.planner.sql.parser.PartitionDistributionStrategy;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.store.SplitAndPartitionInfo;
+import com.dremio.exec.store.WritePartition;
+import com.dremio.exec.store.dfs.FileSystemPlugin;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.fragment.FragmentExecutionContext;
+import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetDatasetSplitScanXAttr;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.dremio.sabot.op.spi.ProducerOperator;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf.NormalizedDatasetSplitInfo;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf.NormalizedPartitionInfo;
+import com.dremio.service.namespace.file.proto.ParquetFileConfig;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for the scan of parquet row groups with filter conditions pushed down into the scan
+ */
+public class TestParquetScanFilterConditions extends BaseTestOperator {
+
+  private static final BatchSchema SCHEMA = BatchSchema.newBuilder()
+    .addField(CompleteType.INT.toField("id"))
+    .addField(CompleteType.VARCHAR.toField("name"))
+    .addField(CompleteType.INT.toField("region"))
+    .build();
+
+  private static final List<SchemaPath> COLUMNS = ImmutableList.of(
+    SchemaPath.getSimplePath("id"), SchemaPath.getSimplePath("name"), SchemaPath.getSimplePath("region"));
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final FileSystemPlugin plugin = mock(FileSystemPlugin.class);
+  private final StoragePluginId pluginId = mock(StoragePluginId.class);
+
+  @Before
+  public void setupPlugin() throws Exception {
+    // a new file system for each user of the plugin, as they close it when they are done
+    when(plugin.createFS(anyString(), any(OperatorContext.class)))
+      .thenAnswer(invocation -> HadoopFileSystem.getLocal(new Configuration()));
+    when(pluginId.getName()).thenReturn("test");
+  }
+
+  @Test
+  public void lateMaterialization() throws Exception {
+    // with batches of 4 rows, no row of the second and third batches match, and the last rows of the fourth batch
+    // don't match: they are skipped before 13 and 19, in the next batches
+    final ParquetFile file = write(regions(1, 2, 3, 13, 19), WriterOptions.DEFAULT);
+    final Table expected = t(
+      th("id", "name", "region"),
+      tr(1, "name1", 1),
+      tr(2, "name2", 1),
+      tr(3, "name3", 1),
+      tr(13, "name13", 1),
+      tr(19, "name19", 1)
+    );
+
+    try (AutoCloseable vectorize = with(ExecConstants.PARQUET_READER_VECTORIZE, false)) {
+      try (AutoCloseable lateMaterialization = with(ExecConstants.PARQUET_LATE_MATERIALIZATION, true)) {
+        final OperatorStats stats = scan(file, equal("region", 1), 4, expected);
+        assertEquals(15, stats.getLongStat(ScanOperator.Metric.LATE_MATERIALIZATION_SKIPPED_ROWS));
+      }
+
+      final OperatorStats stats = scan(file, equal("region", 1), 4, expected);
+      assertEquals(0, stats.getLongStat(ScanOperator.Metric.LATE_MATERIALIZATION_SKIPPED_ROWS));
+    }
+  }
+
+  @Test
+  public void lateMaterializationNoMatchingRow() throws Exception {
+    final ParquetFile file = write(regions(1, 2, 3), WriterOptions.DEFAULT);
+
+    try (AutoCloseable vectorize = with(ExecConstants.PARQUET_READER_VECTORIZE, false);
+         AutoCloseable lateMaterialization = with(ExecConstants.PARQUET_LATE_MATERIALIZATION, true)) {
+      // within the min/max range of the row group, which is not pruned
+      final OperatorStats stats = scan(file, equal("region", 2), 4, null);
+      assertEquals(20, stats.getLongStat(ScanOperator.Metric.LATE_MATERIALIZATION_SKIPPED_ROWS));
+    }
+  }
+
+  @Test
+  public void bloomFilterPrunesRowGroup() throws Exception {
+    final WriterOptions sortedByRegion = new WriterOptions(null, ImmutableList.of(), ImmutableList.of("region"),
+      ImmutableList.of(), PartitionDistributionStrategy.UNSPECIFIED, false, Long.MAX_VALUE,
+      WriterOptions.IcebergWriterOperation.NONE, null);
+    final ParquetFile file;
+    try (AutoCloseable bloomFilters = with(ExecConstants.PARQUET_WRITER_BLOOM_FILTERS, true)) {
+      file = write(regions(1, 2), sortedByRegion);
+    }
+
+    try (AutoCloseable vectorize = with(ExecConstants.PARQUET_READER_VECTORIZE, false)) {
+      // 2 is within the min/max range of the column index, only the bloom filter shows that no row matches
+      OperatorStats stats = scan(file, equal("region", 2), DEFAULT_BATCH, null);
+      assertEquals(1, stats.getLongStat(ScanOperator.Metric.NUM_ROW_GROUPS_PRUNED));
+      assertEquals(1, stats.getLongStat(ScanOperator.Metric.BLOOM_FILTER_READ));
+
+      stats = scan(file, equal("region", 1), DEFAULT_BATCH, t(
+        th("id", "name", "region"),
+        tr(1, "name1", 1),
+        tr(2, "name2", 1)
+      ));
+      assertEquals(0, stats.getLongStat(ScanOperator.Metric.NUM_ROW_GROUPS_PRUNED));
+      assertEquals(1, stats.getLongStat(ScanOperator.Metric.BLOOM_FILTER_READ));
+
+      try (AutoCloseable readBloomFilters = with(ExecConstants.READ_BLOOM_FILTERS, false)) {
+        stats = scan(file, equal("region", 2), DEFAULT_BATCH, null);
+        assertEquals(0, stats.getLongStat(ScanOperator.Metric.NUM_ROW_GROUPS_PRUNED));
+        assertEquals(0, stats.getLongStat(ScanOperator.Metric.BLOOM_FILTER_READ));
+      }
+    }
+  }
+
+  /**
+   * @return 20 rows, in region 1 for the given ids and in region 3 otherwise
+   */
+  private static Table regions(Integer... regionOneIds) {
+    final List<Integer> ids = ImmutableList.copyOf(regionOneIds);
+    final DataRow[] rows = new DataRow[20];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = tr(i, "name" + i, ids.contains(i) ? 1 : 3);
+    }
+    return t(th("id", "name", "region"), rows);
+  }
+
+  private static List<ParquetFilterCondition> equal(String column, int value) {
+    final ParquetFilterIface filter = new ParquetFilterIface() {};
+    return ImmutableList.of(new ParquetFilterCondition(SchemaPath.getSimplePath(column), filter,
+      parseExpr(String.format("equal(%s, %d)", column, value)), 0));
+  }
+
+  /**
+   * Writes the table in a single parquet file, with the parquet writer of the parquet tables
+   */
+  private ParquetFile write(Table table, WriterOptions options) throws Exception {
+    final ParquetFormatPlugin formatPlugin = mock(ParquetFormatPlugin.class);
+    when(formatPlugin.getFsPlugin()).thenReturn(plugin);
+    final ParquetWriter writerConfig = new ParquetWriter(PROPS, null, folder.newFolder().getAbsolutePath(), options,
+      plugin, formatPlugin);
+    final OperatorContextImpl context = testContext.getNewOperatorContext(
+      getTestAllocator().newChildAllocator("writer", 0, Long.MAX_VALUE), writerConfig, DEFAULT_BATCH);
+    testCloseables.add(context);
+
+    final List<ParquetFile> files = new ArrayList<>();
+    try (Generator generator = table.toGenerator(getTestAllocator());
+         ParquetRecordWriter writer = new ParquetRecordWriter(context, writerConfig, new ParquetFormatConfig())) {
+      writer.setup(generator.getOutput(),
+        (recordCount, fileSize, path, metadata, partition, icebergMetadata) -> files.add(new ParquetFile(path, fileSize)),
+        byteCount -> {});
+      writer.startPartition(WritePartition.NONE);
+      int count;
+      while ((count = generator.next(DEFAULT_BATCH)) > 0) {
+        writer.writeBatch(0, count);
+      }
+    }
+    assertEquals(1, files.size());
+    return files.get(0);
+  }
+
+  /**
+   * Scans the single row group of the file with a parquet sub scan, and checks its output
+   * @param expected the expected output, or null if no row is expected
+   * @return the stats of the scan
+   */
+  private OperatorStats scan(ParquetFile file, List<ParquetFilterCondition> conditions, int batchSize, Table expected)
+    throws Exception {
+    final ParquetDatasetSplitScanXAttr splitXAttr = ParquetDatasetSplitScanXAttr.newBuilder()
+      .setPath(file.path)
+      .setStart(0)
+      .setLength(file.length)
+      .setRowGroupIndex(0)
+      .build();
+    final SplitAndPartitionInfo split = new SplitAndPartitionInfo(
+      NormalizedPartitionInfo.newBuilder().setId("0").build(),
+      NormalizedDatasetSplitInfo.newBuilder().setPartitionId("0").setExtendedProperty(splitXAttr.toByteString()).build());
+    final ParquetSubScan subScan = new ParquetSubScan(PROPS, new ParquetFileConfig().asFileConfig(),
+      ImmutableList.of(split), SCHEMA, ImmutableList.of(ImmutableList.of("test", "table")), conditions,
+      pluginId, COLUMNS, ImmutableList.of(), ImmutableList.of(), null, false);
+
+    final OperatorContextImpl context = testContext.getNewOperatorContext(
+      getTestAllocator().newChildAllocator("scan", 0, Long.MAX_VALUE), subScan, batchSize);
+    testCloseables.add(context);
+    final FragmentExecutionContext fec = mock(FragmentExecutionContext.class);
+    when(fec.getStoragePlugin(any())).thenReturn(plugin);
+    final ProducerOperator scan = new ParquetOperatorCreator().create(fec, context, subScan);
+    testCloseables.add(scan);
+
+    final VectorAccessible output = scan.setup();
+    final List<RecordBatchData> data = new ArrayList<>();
+    try {
+      int records = 0;
+      while (scan.getState() == ProducerOperator.State.CAN_PRODUCE) {
+        final int count = scan.outputData();
+        if (count > 0) {
+          records += count;
+          data.add(new RecordBatchData(output, getTestAllocator()));
+        }
+      }
+      if (expected == null) {
+        assertEquals(0, records);
+      } else {
+        expected.checkValid(data);
+      }
+    } finally {
+      AutoCloseables.close(data);
+    }
+    return context.getStats();
+  }
+
+  private static final class ParquetFile {
+    private final String path;
+    private final long length;
+
+    private ParquetFile(String path, long length) {
+      this.path = path;
+      this.length = length;
+    }
+  }
+}
@@ -31,6 +31,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.IntStream;
 
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
@@ -48,15 +50,18 @@ import com.dremio.exec.catalog.StoragePluginId;
 import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.SplitAndPartitionInfo;
+import com.dremio.exec.store.dfs.AsyncPrefetchingIterator;
 import com.dremio.exec.store.dfs.FileSystemPlugin;
 import com.dremio.exec.store.dfs.SplitReaderCreator;
 import com.dremio.exec.store.dfs.implicit.CompositeReaderConfig;
 import com.dremio.io.file.FileSystem;
 import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OpProfileDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.fragment.FragmentExecutionContext;
 import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf;
+import com.dremio.sabot.op.scan.ScanOperator;
 import com.dremio.service.namespace.dataset.proto.PartitionProtobuf;
 import com.dremio.service.namespace.file.proto.FileConfig;
 import com.google.protobuf.ByteString;
@@ -256,11 +261,45 @@ public class TestParquetSplitReaderCreatorIterator {
     }
   }
 
+  @Test
+  public void testAsyncPrefetch() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int mode = 0; mode < 3; mode++) {
+        final OperatorStats operatorStats = new OperatorStats(new OpProfileDef(0, 0, 0), null);
+        final InputStreamProvider inputStreamProvider = mock(InputStreamProvider.class);
+        final MutableParquetMetadata footer = mock(MutableParquetMetadata.class);
+        final ParquetSplitReaderCreatorIterator splitReaderCreatorIterator =
+          createSplitReaderCreator(true, 1, 10, inputStreamProvider, footer, mode, operatorStats, executor);
+
+        int readers = 0;
+        try (RecordReaderIterator iterator = splitReaderCreatorIterator.createReaderIterator()) {
+          Assert.assertTrue(iterator instanceof AsyncPrefetchingIterator);
+          while (iterator.hasNext()) {
+            Assert.assertNotNull(iterator.next());
+            Assert.assertNotNull(iterator.getCurrentSplitXAttr());
+            readers++;
+          }
+        }
+        Assert.assertEquals(10, readers);
+        // the row groups counted while opening the splits on the executor threads are merged into the operator stats
+        Assert.assertEquals(10, operatorStats.getLongStat(ScanOperator.Metric.NUM_ROW_GROUPS));
+        Assert.assertEquals(0, splitReaderCreatorIterator.getStats().getLongStat(ScanOperator.Metric.NUM_ROW_GROUPS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   private ParquetSplitReaderCreatorIterator createSplitReaderCreator(boolean prefetch, long numPrefetch, int numSplits, InputStreamProvider inputStreamProvider, MutableParquetMetadata footer, int mode) throws Exception {
+    return createSplitReaderCreator(prefetch, numPrefetch, numSplits, inputStreamProvider, footer, mode, mock(OperatorStats.class), null);
+  }
+
+  private ParquetSplitReaderCreatorIterator createSplitReaderCreator(boolean prefetch, long numPrefetch, int numSplits, InputStreamProvider inputStreamProvider, MutableParquetMetadata footer, int mode,
+                                                                     OperatorStats operatorStats, ExecutorService executor) throws Exception {
     FragmentExecutionContext fragmentExecutionContext = mock(FragmentExecutionContext.class);
     OperatorContext context = mock(OperatorContext.class);
     ParquetSubScan config = mock(ParquetSubScan.class);
-    OperatorStats operatorStats = mock(OperatorStats.class);
 
     SabotConfig sabotConfig = mock(SabotConfig.class);
     InputStreamProviderFactory inputStreamProviderFactory = mock(InputStreamProviderFactory.class);
@@ -279,6 +318,11 @@ public class TestParquetSplitReaderCreatorIterator {
     when(optionManager.getOption(NUM_SPLITS_TO_PREFETCH)).thenReturn(numPrefetch);
     when(optionManager.getOption(PARQUET_CACHED_ENTITY_SET_FILE_SIZE)).thenReturn(true);
     when(context.getStats()).thenReturn(operatorStats);
+    if (executor != null) {
+      when(optionManager.getOption(ExecConstants.ASYNC_SPLIT_PREFETCH)).thenReturn(true);
+      when(optionManager.getOption(ExecConstants.ASYNC_SPLIT_PREFETCH_DEPTH)).thenReturn(3L);
+      when(context.getExecutor()).thenReturn(executor);
+    }
     when(fragmentExecutionContext.getStoragePlugin(any())).thenReturn(fileSystemPlugin);
     when(fileSystemPlugin.createFS(anyString(), any())).thenReturn(fs);
     when(fs.supportsPath(any())).thenReturn(true);
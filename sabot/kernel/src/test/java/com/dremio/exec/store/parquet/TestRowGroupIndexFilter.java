@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.apache.parquet.internal.column.columnindex.BoundaryOrder;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.ColumnIndexBuilder;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.Test;
+
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
+
+/**
+ * Tests for {@link RowGroupIndexFilter}
+ */
+public class TestRowGroupIndexFilter {
+  private static final PrimitiveType INT_TYPE = Types.optional(PrimitiveTypeName.INT32).named("a");
+  private static final PrimitiveType STRING_TYPE = Types.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named("s");
+
+  private static ByteBuffer intValue(int value) {
+    final ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(0, value);
+    return buffer;
+  }
+
+  private static ByteBuffer stringValue(String value) {
+    return Binary.fromString(value).toByteBuffer();
+  }
+
+  @Test
+  public void testEqualityCondition() {
+    final SchemaPath column = SchemaPath.getSimplePath("a");
+    final LogicalExpression literal = ValueExpressions.getInt(5);
+
+    RowGroupIndexFilter.EqualityCondition condition =
+      RowGroupIndexFilter.EqualityCondition.from(new FunctionCall("equal", Arrays.asList(literal, column)));
+    assertEquals(column, condition.getColumn());
+    assertEquals(literal, condition.getLiteral());
+
+    assertNull(RowGroupIndexFilter.EqualityCondition.from(new FunctionCall("less_than", Arrays.asList(column, literal))));
+    assertNull(RowGroupIndexFilter.EqualityCondition.from(
+      new FunctionCall("equal", Arrays.asList(SchemaPath.getCompoundPath("a", "b"), literal))));
+  }
+
+  @Test
+  public void testToParquetValue() {
+    assertEquals(5, RowGroupIndexFilter.toParquetValue(ValueExpressions.getInt(5), INT_TYPE));
+    assertEquals(5, RowGroupIndexFilter.toParquetValue(ValueExpressions.getBigInt(5L), INT_TYPE));
+    assertNull(RowGroupIndexFilter.toParquetValue(ValueExpressions.getBigInt(Long.MAX_VALUE), INT_TYPE));
+    assertEquals(5L, RowGroupIndexFilter.toParquetValue(ValueExpressions.getInt(5),
+      Types.optional(PrimitiveTypeName.INT64).named("b")));
+    assertEquals(Binary.fromString("x"), RowGroupIndexFilter.toParquetValue(ValueExpressions.getChar("x"), STRING_TYPE));
+
+    // dates are stored as int32, the literal would have to be converted
+    assertNull(RowGroupIndexFilter.toParquetValue(ValueExpressions.getInt(5),
+      Types.optional(PrimitiveTypeName.INT32).as(OriginalType.DATE).named("d")));
+    assertNull(RowGroupIndexFilter.toParquetValue(ValueExpressions.getFloat8(0.0),
+      Types.optional(PrimitiveTypeName.DOUBLE).named("e")));
+  }
+
+  @Test
+  public void testColumnIndexMightContain() {
+    // pages [0, 10], null page, [20, 30]
+    final ColumnIndex columnIndex = ColumnIndexBuilder.build(INT_TYPE, BoundaryOrder.ASCENDING,
+      Arrays.asList(false, true, false), Arrays.asList(0L, 100L, 0L),
+      Arrays.asList(intValue(0), ByteBuffer.allocate(0), intValue(20)),
+      Arrays.asList(intValue(10), ByteBuffer.allocate(0), intValue(30)));
+
+    assertTrue(RowGroupIndexFilter.mightContain(columnIndex, INT_TYPE, 0));
+    assertTrue(RowGroupIndexFilter.mightContain(columnIndex, INT_TYPE, 25));
+    assertFalse(RowGroupIndexFilter.mightContain(columnIndex, INT_TYPE, 15));
+    assertFalse(RowGroupIndexFilter.mightContain(columnIndex, INT_TYPE, -1));
+  }
+
+  @Test
+  public void testStringColumnIndexMightContain() {
+    final ColumnIndex columnIndex = ColumnIndexBuilder.build(STRING_TYPE, BoundaryOrder.UNORDERED,
+      Arrays.asList(false, false), Arrays.asList(0L, 0L),
+      Arrays.asList(stringValue("apple"), stringValue("melon")),
+      Arrays.asList(stringValue("banana"), stringValue("peach")));
+
+    assertTrue(RowGroupIndexFilter.mightContain(columnIndex, STRING_TYPE, Binary.fromString("avocado")));
+    assertTrue(RowGroupIndexFilter.mightContain(columnIndex, STRING_TYPE, Binary.fromString("orange")));
+    assertFalse(RowGroupIndexFilter.mightContain(columnIndex, STRING_TYPE, Binary.fromString("cherry")));
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for the coalesced reads of {@link StreamPerColumnProvider}
+ */
+public class TestStreamPerColumnProvider {
+  private static final int FILE_LENGTH = 1000;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final FileSystem fs = mock(FileSystem.class);
+  private final OptionManager options = mock(OptionManager.class);
+  private final OperatorStats stats = mock(OperatorStats.class);
+  private final OperatorContext context = mock(OperatorContext.class);
+  private BufferAllocator allocator;
+  private Path path;
+  private byte[] content;
+
+  @Before
+  public void setup() throws Exception {
+    content = new byte[FILE_LENGTH];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    final File file = folder.newFile("file.parquet");
+    Files.write(file.toPath(), content);
+    path = Path.of(file.getAbsolutePath());
+
+    // each stream opened on the file is a request
+    final FileSystem localFs = HadoopFileSystem.getLocal(new Configuration());
+    when(fs.open(path)).thenAnswer(invocation -> localFs.open(path));
+    when(fs.supportsAsync()).thenReturn(false);
+
+    when(options.getOption(ExecConstants.PARQUET_COALESCE_READS)).thenReturn(true);
+    when(options.getOption(ExecConstants.PARQUET_COALESCE_READS_MAX_GAP)).thenReturn(16L);
+    when(options.getOption(ExecConstants.PARQUET_COALESCE_READS_MAX_RANGE)).thenReturn(1024L * 1024);
+    when(options.getOption(ExecConstants.PARQUET_COALESCE_READS_MAX_BUFFERED)).thenReturn(64L * 1024 * 1024);
+
+    allocator = allocatorRule.newAllocator("test-stream-per-column", 0, Long.MAX_VALUE);
+    when(context.getAllocator()).thenReturn(allocator);
+    when(context.getOptions()).thenReturn(options);
+    when(context.getStats()).thenReturn(stats);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  private static ColumnChunkMetaData chunk(long start, long size) {
+    final ColumnChunkMetaData chunk = mock(ColumnChunkMetaData.class);
+    when(chunk.getStartingPos()).thenReturn(start);
+    when(chunk.getTotalSize()).thenReturn(size);
+    return chunk;
+  }
+
+  private StreamPerColumnProvider newProvider() {
+    return new StreamPerColumnProvider(fs, path, FILE_LENGTH, 0, null, context, false);
+  }
+
+  private void checkChunk(StreamPerColumnProvider provider, ColumnChunkMetaData chunk) throws IOException {
+    final BulkInputStream stream = provider.getStream(chunk);
+    stream.seek(chunk.getStartingPos());
+    final byte[] read = new byte[(int) chunk.getTotalSize()];
+    stream.readFully(read, 0, read.length);
+    final int start = (int) chunk.getStartingPos();
+    assertArrayEquals(Arrays.copyOfRange(content, start, start + read.length), read);
+  }
+
+  @Test
+  public void testNearbyChunksReadWithSingleRequest() throws Exception {
+    final ColumnChunkMetaData c1 = chunk(4, 100);
+    final ColumnChunkMetaData c2 = chunk(104, 50);
+    final ColumnChunkMetaData c3 = chunk(164, 20); // 10 bytes gap
+    final ColumnChunkMetaData c4 = chunk(800, 30); // too far
+    final List<ColumnChunkMetaData> columns = Arrays.asList(c1, c2, c3, c4);
+
+    try (StreamPerColumnProvider provider = newProvider()) {
+      provider.planColumnChunkReads(0, columns);
+      verify(fs, times(1)).open(path);
+      final long firstRowGroupMemory = allocator.getAllocatedMemory();
+      assertTrue(firstRowGroupMemory >= 180);
+
+      // the chunks of the range are read from memory, the chunk on its own is streamed
+      for (ColumnChunkMetaData column : columns) {
+        checkChunk(provider, column);
+      }
+      verify(fs, times(2)).open(path);
+      verify(stats, times(1)).addLongStat(ScanOperator.Metric.NUM_COALESCED_READS, 1);
+      verify(stats, times(1)).addLongStat(ScanOperator.Metric.COALESCED_READ_BYTES, 180);
+
+      // moving to the next row group releases the ranges of the previous one
+      provider.planColumnChunkReads(1, Arrays.asList(chunk(200, 10), chunk(210, 10)));
+      verify(fs, times(3)).open(path);
+      assertTrue(allocator.getAllocatedMemory() < firstRowGroupMemory);
+    }
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testUnreadChunksReleasedOnClose() throws Exception {
+    try (StreamPerColumnProvider provider = newProvider()) {
+      provider.planColumnChunkReads(0, Arrays.asList(chunk(0, 100), chunk(100, 100)));
+      assertTrue(allocator.getAllocatedMemory() >= 200);
+    }
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testBufferedBytesLimited() throws Exception {
+    when(options.getOption(ExecConstants.PARQUET_COALESCE_READS_MAX_BUFFERED)).thenReturn(150L);
+    final ColumnChunkMetaData c1 = chunk(0, 100);
+    final ColumnChunkMetaData c2 = chunk(100, 100);
+
+    try (StreamPerColumnProvider provider = newProvider()) {
+      provider.planColumnChunkReads(0, Arrays.asList(c1, c2));
+      assertEquals(0, allocator.getAllocatedMemory());
+
+      checkChunk(provider, c1);
+      checkChunk(provider, c2);
+      verify(fs, times(2)).open(path);
+    }
+  }
+
+  @Test
+  public void testCoalescingDisabled() throws Exception {
+    when(options.getOption(ExecConstants.PARQUET_COALESCE_READS)).thenReturn(false);
+    final ColumnChunkMetaData c1 = chunk(0, 100);
+    final ColumnChunkMetaData c2 = chunk(100, 100);
+
+    try (StreamPerColumnProvider provider = newProvider()) {
+      provider.planColumnChunkReads(0, Arrays.asList(c1, c2));
+      verify(fs, never()).open(path);
+
+      checkChunk(provider, c1);
+      checkChunk(provider, c2);
+      verify(fs, times(2)).open(path);
+      assertEquals(0, allocator.getAllocatedMemory());
+    }
+  }
+}
@@ -91,6 +91,7 @@ public final class Fixtures {
   public static final Cell NULL_INTERVAL_DAY_SECOND = new IntervalDaySecond(null);
   public static final Cell NULL_INTERVAL_YEAR_MONTH = new IntervalYearMonth(null);
   public static final Cell NULL_DECIMAL = new Decimal(null);
+  public static final Cell NULL_LIST = new ListCell(null);
 
 
   private Fixtures(){}
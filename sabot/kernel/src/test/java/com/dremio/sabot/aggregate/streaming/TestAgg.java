@@ -61,7 +61,8 @@ public class TestAgg extends BaseTestOperator {
             n("sum(val)", "sum"),
             n("count(rare)", "cnt_rare")
             ),
-        1f);
+        1f,
+        false);
 
     validateSingle(agg, StreamingAggOperator.class, input, output);
   }
@@ -99,7 +100,8 @@ public class TestAgg extends BaseTestOperator {
             n("sum(val)", "sum"),
             n("count(rare)", "cnt_rare")
             ),
-        1f);
+        1f,
+        false);
 
     validateSingle(agg, StreamingAggOperator.class, input, output);
   }
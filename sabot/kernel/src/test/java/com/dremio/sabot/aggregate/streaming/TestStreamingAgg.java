@@ -42,7 +42,8 @@ public class TestStreamingAgg extends BaseTestOperator {
             n("sum(r_regionkey)", "sum"),
             n("count(r_regionkey)", "cnt")
             ),
-        1f);
+        1f,
+        false);
 
     final Table expected = t(
         th("r_name",    "sum", "cnt"),
@@ -66,7 +67,8 @@ public class TestStreamingAgg extends BaseTestOperator {
             n("sum(r_regionkey)", "sum"),
             n("count(r_regionkey)", "cnt")
             ),
-        1f);
+        1f,
+        false);
 
     final Table expected = t(
         th("r_name",    "sum", "cnt"),
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.aggregate.streaming;
+
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.NULL_VARCHAR;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.dremio.exec.physical.config.StreamingAggregate;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.op.aggregate.streaming.VectorizedStreamingAggOperator;
+
+import io.airlift.tpch.GenerationDefinition.TpchTable;
+
+public class TestVectorizedStreamingAgg extends BaseTestOperator {
+
+  private static final Table INPUT = t(
+      th("gb", "val", "rare"),
+      tr("bye", 1, 1L),
+      tr("bye", 5, NULL_BIGINT),
+      tr("hello", 1, NULL_BIGINT),
+      tr("hello", 2, 1L),
+      tr("hello", 7, NULL_BIGINT),
+      tr("what", 10, NULL_BIGINT),
+      tr(NULL_VARCHAR, NULL_INT, 3L),
+      tr(NULL_VARCHAR, 4, 5L)
+      );
+
+  private static final Table OUTPUT = t(
+      th("gb", "cnt", "sum", "min", "max", "cnt_rare"),
+      tr("bye", 2L, 6L, 1, 5, 1L),
+      tr("hello", 3L, 10L, 1, 7, 1L),
+      tr("what", 1L, 10L, 10, 10, 0L),
+      tr(NULL_VARCHAR, 1L, 4L, 4, 4, 2L)
+      );
+
+  private static StreamingAggregate oneKeyAgg() {
+    return new StreamingAggregate(
+        PROPS,
+        null,
+        Collections.singletonList(n("gb")),
+        Arrays.asList(
+            n("count(val)", "cnt"),
+            n("sum(val)", "sum"),
+            n("min(val)", "min"),
+            n("max(val)", "max"),
+            n("count(rare)", "cnt_rare")
+            ),
+        1f,
+        true);
+  }
+
+  @Test
+  public void oneKey() throws Exception {
+    validateSingle(oneKeyAgg(), VectorizedStreamingAggOperator.class, INPUT, OUTPUT);
+  }
+
+  @Test
+  public void oneKeySmallBatches() throws Exception {
+    // groups span batches, and fill the outgoing batches
+    for (int batchSize = 1; batchSize <= 4; batchSize++) {
+      validateSingle(oneKeyAgg(), VectorizedStreamingAggOperator.class, INPUT, OUTPUT, batchSize);
+    }
+  }
+
+  @Test
+  public void twoKeys() throws Exception {
+    final Table input = t(
+        th("gb1", "gb2", "val"),
+        tr("bye", 1L, 1),
+        tr("bye", 2L, 5),
+        tr("bye", 2L, 6),
+        tr("hello", 2L, 1),
+        tr("hello", NULL_BIGINT, 2),
+        tr("hello", NULL_BIGINT, 3)
+        );
+
+    final Table output = t(
+        th("gb1", "gb2", "sum"),
+        tr("bye", 1L, 1L),
+        tr("bye", 2L, 11L),
+        tr("hello", 2L, 1L),
+        tr("hello", NULL_BIGINT, 5L)
+        );
+
+    final StreamingAggregate agg = new StreamingAggregate(
+        PROPS,
+        null,
+        Arrays.asList(
+            n("gb1"),
+            n("gb2")
+            ),
+        Collections.singletonList(n("sum(val)", "sum")),
+        1f,
+        true);
+
+    validateSingle(agg, VectorizedStreamingAggOperator.class, input, output, 2);
+  }
+
+  @Test
+  public void noGroupBy() throws Exception {
+    final StreamingAggregate agg = new StreamingAggregate(
+        PROPS,
+        null,
+        Collections.emptyList(),
+        Arrays.asList(
+            n("count(val)", "cnt"),
+            n("sum(val)", "sum")
+            ),
+        1f,
+        true);
+
+    validateSingle(agg, VectorizedStreamingAggOperator.class, INPUT, t(th("cnt", "sum"), tr(7L, 30L)), 3);
+  }
+
+  @Test
+  public void tpchRegion() throws Exception {
+    final StreamingAggregate conf = new StreamingAggregate(
+        PROPS,
+        null,
+        Collections.singletonList(n("r_name")),
+        Arrays.asList(
+            n("sum(r_regionkey)", "sum"),
+            n("count(r_regionkey)", "cnt")
+            ),
+        1f,
+        true);
+
+    final Table expected = t(
+        th("r_name",    "sum", "cnt"),
+        tr("AFRICA",      0L, 1L),
+        tr("AMERICA",     1L, 1L),
+        tr("ASIA",        2L, 1L),
+        tr("EUROPE",      3L, 1L),
+        tr("MIDDLE EAST", 4L, 1L)
+        );
+
+    assertSingleInput(conf, VectorizedStreamingAggOperator.class, TpchTable.REGION, 0.1, null, 2, expected);
+  }
+
+  @Test
+  public void randomGroups() throws Exception {
+    final Random random = new Random(0xBEEF);
+    final List<DataRow> input = new ArrayList<>();
+    final List<DataRow> output = new ArrayList<>();
+    long key = 0;
+    for (int group = 0; group < 500; group++) {
+      key += 1 + random.nextInt(3);
+      final int size = 1 + random.nextInt(20);
+      long sum = 0;
+      for (int i = 0; i < size; i++) {
+        final int value = random.nextInt(1000);
+        sum += value;
+        input.add(tr(key, value));
+      }
+      output.add(tr(key, (long) size, sum));
+    }
+
+    final StreamingAggregate agg = new StreamingAggregate(
+        PROPS,
+        null,
+        Collections.singletonList(n("gb")),
+        Arrays.asList(
+            n("count(val)", "cnt"),
+            n("sum(val)", "sum")
+            ),
+        1f,
+        true);
+
+    validateSingle(agg, VectorizedStreamingAggOperator.class,
+        t(th("gb", "val"), input.toArray(new DataRow[0])),
+        t(th("gb", "cnt", "sum"), output.toArray(new DataRow[0])),
+        64);
+  }
+}
@@ -27,7 +27,9 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.Filter;
+import com.dremio.exec.proto.UserBitShared.ConjunctInfo;
 import com.dremio.exec.proto.UserBitShared.ExpressionSplitInfo;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.util.BatchPrinter;
@@ -194,4 +196,38 @@ public class TestSimpleFilter extends BaseTestOperator {
     Assert.assertFalse(splitInfoList.isEmpty());
     Assert.assertFalse(splitInfoList.get(0).getOptimize());
   }
+
+  @Test
+  public void adaptiveConjunctFilter() throws Exception {
+    Filter f = new Filter(PROPS, null, toExpr("c0 < 10 and c1 > 5 and c0 > 1"), 1f);
+    Table input = t(
+      th("c0", "c1"),
+      tr(35, 45),
+      tr(8, 6),
+      tr(2, 3),
+      tr(22, 23),
+      tr(1, 9),
+      tr(3, 7)
+    );
+
+    Table output = t(
+      th("c0", "c1"),
+      tr(8, 6),
+      tr(3, 7)
+    );
+
+    try (AutoCloseable adaptive = with(ExecConstants.FILTER_ADAPTIVE_REORDER, true)) {
+      OperatorStats stats = validateSingle(f, FilterOperator.class, input.toGenerator(getTestAllocator()), output, 2);
+      List<ConjunctInfo> conjunctInfos = stats.getProfile(true).getDetails().getConjunctInfosList();
+
+      Assert.assertEquals(3, conjunctInfos.size());
+      long recordsIn = 0;
+      for (ConjunctInfo info : conjunctInfos) {
+        Assert.assertTrue(info.getRecordsOut() <= info.getRecordsIn());
+        recordsIn += info.getRecordsIn();
+      }
+      // every conjunct after the first one only sees the rows selected by the previous ones
+      Assert.assertTrue(recordsIn < 3 * 6);
+    }
+  }
 }
@@ -15,22 +15,43 @@
  */
 package com.dremio.sabot.join.hash;
 
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
+import static com.dremio.sabot.Fixtures.NULL_LIST;
+import static com.dremio.sabot.Fixtures.NULL_VARCHAR;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.arrow.vector.util.JsonStringArrayList;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.junit.Test;
 
 import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.HashJoinPOP;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.join.BaseTestJoin;
+import com.dremio.sabot.op.join.vhash.HashJoinStats.Metric;
 import com.dremio.sabot.op.join.vhash.VectorizedHashJoinOperator;
+import com.google.common.collect.ImmutableSet;
 
 public class TestVHashJoin extends BaseTestJoin {
 
+  private static final int PROBE_KEYS = 1000;
+  private static final int PROBE_BATCH = 100;
+
   @Override
   protected JoinInfo getJoinInfo(List<JoinCondition> conditions, JoinRelType type, Set<Integer> buildProjected, Set<Integer> probeProjected) {
-    return new JoinInfo(VectorizedHashJoinOperator.class, new HashJoinPOP(PROPS, null, null, conditions, type, true, null));
+    return new JoinInfo(VectorizedHashJoinOperator.class, new HashJoinPOP(PROPS, null, null, conditions, type, true, null, false));
   }
 
   @Test
@@ -42,4 +63,161 @@ public class TestVHashJoin extends BaseTestJoin {
   public void manyColumnsDecimal() throws Exception {
     baseManyColumnsDecimal();
   }
+
+  @Test
+  public void complexBuildColumnLeft() throws Exception {
+    final Table expected = t(
+      th("id2", "list2", "id1", "name1"),
+      tr(NULL_BIGINT, NULL_LIST, 1L, "a1"),
+      tr(2L, longs(20, 21), 2L, "a2"),
+      tr(NULL_BIGINT, NULL_LIST, 3L, "a3"),
+      tr(4L, longs(40), 4L, "a4"),
+      tr(NULL_BIGINT, NULL_LIST, 6L, "a6")
+    );
+    complexBuildColumn(JoinRelType.LEFT, expected);
+  }
+
+  @Test
+  public void complexBuildColumnFull() throws Exception {
+    final Table expected = t(
+      th("id2", "list2", "id1", "name1"),
+      tr(NULL_BIGINT, NULL_LIST, 1L, "a1"),
+      tr(2L, longs(20, 21), 2L, "a2"),
+      tr(NULL_BIGINT, NULL_LIST, 3L, "a3"),
+      tr(4L, longs(40), 4L, "a4"),
+      tr(NULL_BIGINT, NULL_LIST, 6L, "a6"),
+      tr(5L, longs(50, 51, 52), NULL_BIGINT, NULL_VARCHAR)
+    );
+    complexBuildColumn(JoinRelType.FULL, expected);
+  }
+
+  @Test
+  public void probeBloomFilterInner() throws Exception {
+    final OperatorStats stats = probeBloomFilter(JoinRelType.INNER, true);
+    assertTrue(stats.getLongStat(Metric.PROBE_BLOOM_FILTER_MISSES) > 0);
+    // a single key in each probe batch matches, so the filter is used for all of them
+    assertEquals(PROBE_KEYS, stats.getLongStat(Metric.PROBE_BLOOM_FILTER_HITS)
+      + stats.getLongStat(Metric.PROBE_BLOOM_FILTER_MISSES));
+  }
+
+  @Test
+  public void probeBloomFilterLeft() throws Exception {
+    final OperatorStats stats = probeBloomFilter(JoinRelType.LEFT, true);
+    assertTrue(stats.getLongStat(Metric.PROBE_BLOOM_FILTER_MISSES) > 0);
+    assertEquals(PROBE_KEYS, stats.getLongStat(Metric.PROBE_BLOOM_FILTER_HITS)
+      + stats.getLongStat(Metric.PROBE_BLOOM_FILTER_MISSES));
+  }
+
+  @Test
+  public void probeBloomFilterFull() throws Exception {
+    final OperatorStats stats = probeBloomFilter(JoinRelType.FULL, true);
+    assertTrue(stats.getLongStat(Metric.PROBE_BLOOM_FILTER_MISSES) > 0);
+    assertEquals(PROBE_KEYS, stats.getLongStat(Metric.PROBE_BLOOM_FILTER_HITS)
+      + stats.getLongStat(Metric.PROBE_BLOOM_FILTER_MISSES));
+  }
+
+  @Test
+  public void probeBloomFilterDisabled() throws Exception {
+    final OperatorStats stats = probeBloomFilter(JoinRelType.FULL, false);
+    assertEquals(0, stats.getLongStat(Metric.PROBE_BLOOM_FILTER_HITS));
+    assertEquals(0, stats.getLongStat(Metric.PROBE_BLOOM_FILTER_MISSES));
+  }
+
+  @Test
+  public void probeBloomFilterMatchRateCutoff() throws Exception {
+    final JoinInfo info = getJoinInfo(Arrays.asList(new JoinCondition("EQUALS", f("id1"), f("id2"))), JoinRelType.INNER,
+      ImmutableSet.of(0), ImmutableSet.of(0));
+
+    final DataRow[] probeRows = new DataRow[PROBE_KEYS];
+    final DataRow[] buildRows = new DataRow[PROBE_KEYS];
+    final DataRow[] expectedRows = new DataRow[PROBE_KEYS];
+    for (int i = 0; i < PROBE_KEYS; i++) {
+      probeRows[i] = tr((long) i);
+      buildRows[i] = tr((long) i);
+      expectedRows[i] = tr((long) i, (long) i);
+    }
+
+    final OperatorStats stats;
+    try (AutoCloseable filter = with(ExecConstants.ENABLE_HASHJOIN_PROBE_BLOOM_FILTER, true);
+         AutoCloseable rate = with(ExecConstants.HASHJOIN_PROBE_BLOOM_FILTER_MAX_MATCH_RATE, 0.5)) {
+      stats = validateDual(info.operator, info.clazz,
+        t(th("id1"), probeRows).toGenerator(getTestAllocator()),
+        t(th("id2"), buildRows).toGenerator(getTestAllocator()),
+        PROBE_BATCH, t(th("id2", "id1"), expectedRows));
+    }
+
+    // every key of the first batch matches, the filter is not used for the following batches
+    assertEquals(PROBE_BATCH, stats.getLongStat(Metric.PROBE_BLOOM_FILTER_HITS));
+    assertEquals(0, stats.getLongStat(Metric.PROBE_BLOOM_FILTER_MISSES));
+  }
+
+  /**
+   * Joins the probe keys [0, PROBE_KEYS) with every hundredth of them, plus a build key without match.
+   */
+  private OperatorStats probeBloomFilter(JoinRelType type, boolean enabled) throws Exception {
+    final JoinInfo info = getJoinInfo(Arrays.asList(new JoinCondition("EQUALS", f("id1"), f("id2"))), type,
+      ImmutableSet.of(0), ImmutableSet.of(0));
+
+    final DataRow[] probeRows = new DataRow[PROBE_KEYS];
+    final List<DataRow> buildRows = new ArrayList<>();
+    final List<DataRow> expectedRows = new ArrayList<>();
+    for (int i = 0; i < PROBE_KEYS; i++) {
+      probeRows[i] = tr((long) i);
+      if (i % PROBE_BATCH == 0) {
+        buildRows.add(tr((long) i));
+        expectedRows.add(tr((long) i, (long) i));
+      } else if (type == JoinRelType.LEFT || type == JoinRelType.FULL) {
+        expectedRows.add(tr(NULL_BIGINT, (long) i));
+      }
+    }
+    buildRows.add(tr(10L * PROBE_KEYS));
+    if (type == JoinRelType.FULL) {
+      expectedRows.add(tr(10L * PROBE_KEYS, NULL_BIGINT));
+    }
+
+    try (AutoCloseable filter = with(ExecConstants.ENABLE_HASHJOIN_PROBE_BLOOM_FILTER, enabled)) {
+      return validateDual(info.operator, info.clazz,
+        t(th("id1"), probeRows).toGenerator(getTestAllocator()),
+        t(th("id2"), buildRows.toArray(new DataRow[0])).toGenerator(getTestAllocator()),
+        PROBE_BATCH, t(th("id2", "id1"), expectedRows.toArray(new DataRow[0])));
+    }
+  }
+
+  /**
+   * Unmatched probe records are skipped by the build copiers, which must still leave a null at their position so the
+   * complex build values stay aligned with the probe records.
+   */
+  private void complexBuildColumn(JoinRelType type, Table expected) throws Exception {
+    final JoinInfo info = getJoinInfo(Arrays.asList(new JoinCondition("EQUALS", f("id1"), f("id2"))), type,
+      ImmutableSet.of(0, 1), ImmutableSet.of(0, 1));
+
+    final Table probe = t(
+      th("id1", "name1"),
+      tr(1L, "a1"),
+      tr(2L, "a2"),
+      tr(3L, "a3"),
+      tr(4L, "a4"),
+      tr(6L, "a6")
+    );
+
+    final Table build = t(
+      th("id2", "list2"),
+      tr(2L, Arrays.asList(20, 21)),
+      tr(4L, Arrays.asList(40)),
+      tr(5L, Arrays.asList(50, 51, 52))
+    );
+
+    validateDual(info.operator, info.clazz,
+      probe.toGenerator(getTestAllocator()),
+      build.toGenerator(getTestAllocator()),
+      DEFAULT_BATCH, expected);
+  }
+
+  private static JsonStringArrayList<Long> longs(long... values) {
+    final JsonStringArrayList<Long> list = new JsonStringArrayList<>(values.length);
+    for (long value : values) {
+      list.add(value);
+    }
+    return list;
+  }
 }
@@ -107,7 +107,7 @@ public class TestMergeJoinRandom extends BaseTestOperator {
   }
 
   protected JoinInfo getJoinInfo(List<JoinCondition> conditions, JoinRelType type) {
-    return new JoinInfo(MergeJoinOperator.class, new MergeJoinPOP(PROPS, null, null, conditions, type));
+    return new JoinInfo(MergeJoinOperator.class, new MergeJoinPOP(PROPS, null, null, conditions, type, false));
   }
 
   private void noNullMultipleRowsData(JoinInfo info, Table expected) throws Exception {
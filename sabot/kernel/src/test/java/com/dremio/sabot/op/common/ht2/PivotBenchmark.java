@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.dremio.common.AutoCloseables;
+import com.google.common.base.Charsets;
+
+/**
+ * Measures the throughput of {@link Pivots} and {@link Unpivots} over the key shapes of common hash aggregations and
+ * joins. Run with the main method, it is not part of the unit tests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PivotBenchmark {
+  private static final int BATCH_SIZE = 4096;
+
+  /**
+   * Types of the key columns.
+   */
+  public enum KeyShape {
+    BIGINT_1(1, false),
+    BIGINT_2(2, false),
+    BIGINT_4(4, false),
+    BIGINT_VARCHAR(1, true);
+
+    private final int bigintCount;
+    private final boolean varchar;
+
+    KeyShape(int bigintCount, boolean varchar) {
+      this.bigintCount = bigintCount;
+      this.varchar = varchar;
+    }
+  }
+
+  @Param({"BIGINT_1", "BIGINT_2", "BIGINT_4", "BIGINT_VARCHAR"})
+  public KeyShape keys;
+
+  @Param({"0", "10", "100"})
+  public int nullPercent;
+
+  private BufferAllocator allocator;
+  private final List<FieldVector> vectors = new ArrayList<>();
+  private PivotDef pivot;
+  private FixedBlockVector fixed;
+  private VariableBlockVector variable;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final Random random = new Random(42);
+    final List<FieldVectorPair> pairs = new ArrayList<>();
+    for (int i = 0; i < keys.bigintCount; i++) {
+      final BigIntVector in = new BigIntVector("in" + i, allocator);
+      in.allocateNew(BATCH_SIZE);
+      for (int j = 0; j < BATCH_SIZE; j++) {
+        if (random.nextInt(100) >= nullPercent) {
+          in.set(j, random.nextLong());
+        }
+      }
+      in.setValueCount(BATCH_SIZE);
+      final BigIntVector out = new BigIntVector("out" + i, allocator);
+      vectors.add(in);
+      vectors.add(out);
+      pairs.add(new FieldVectorPair(in, out));
+    }
+    if (keys.varchar) {
+      final VarCharVector in = new VarCharVector("in_varchar", allocator);
+      in.allocateNew(BATCH_SIZE * 16, BATCH_SIZE);
+      for (int j = 0; j < BATCH_SIZE; j++) {
+        if (random.nextInt(100) >= nullPercent) {
+          final byte[] value = ("key-" + random.nextInt(1_000_000)).getBytes(Charsets.UTF_8);
+          in.setSafe(j, value, 0, value.length);
+        }
+      }
+      in.setValueCount(BATCH_SIZE);
+      final VarCharVector out = new VarCharVector("out_varchar", allocator);
+      vectors.add(in);
+      vectors.add(out);
+      pairs.add(new FieldVectorPair(in, out));
+    }
+
+    pivot = PivotBuilder.getBlockDefinition(pairs);
+    fixed = new FixedBlockVector(allocator, pivot.getBlockWidth(), BATCH_SIZE, true);
+    variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+    Pivots.pivot(pivot, BATCH_SIZE, fixed, variable);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(vectors);
+    AutoCloseables.close(fixed, variable, allocator);
+  }
+
+  @Benchmark
+  public void pivot() {
+    fixed.reset();
+    variable.reset();
+    Pivots.pivot(pivot, BATCH_SIZE, fixed, variable);
+  }
+
+  @Benchmark
+  public void unpivot() {
+    Unpivots.unpivot(pivot, fixed, variable, 0, BATCH_SIZE);
+    for (VectorPivotDef def : pivot.getVectorPivots()) {
+      def.getOutgoingVector().clear();
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder()
+      .include(PivotBenchmark.class.getSimpleName())
+      .build())
+      .run();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.dremio.sabot.BaseTestWithAllocator;
+
+/**
+ * Tests for {@link BlockedBloomFilter}
+ */
+public class TestBlockedBloomFilter extends BaseTestWithAllocator {
+
+  @Test
+  public void testNoFalseNegatives() {
+    final int keys = 100_000;
+    try (BlockedBloomFilter filter = BlockedBloomFilter.create(allocator, keys, 1024 * 1024)) {
+      final Random random = new Random(7);
+      for (int i = 0; i < keys; i++) {
+        filter.put(random.nextInt());
+      }
+
+      final Random replay = new Random(7);
+      for (int i = 0; i < keys; i++) {
+        assertTrue(filter.mightContain(replay.nextInt()));
+      }
+
+      // keys that were never added are mostly rejected
+      int falsePositives = 0;
+      for (int i = 0; i < keys; i++) {
+        if (filter.mightContain(replay.nextInt())) {
+          falsePositives++;
+        }
+      }
+      assertTrue("false positives: " + falsePositives, falsePositives < keys / 20);
+    }
+  }
+
+  @Test
+  public void testSizing() {
+    try (BlockedBloomFilter filter = BlockedBloomFilter.create(allocator, 0, 1024)) {
+      assertEquals(8, filter.getSizeInBytes());
+    }
+    // 16 bits per key, rounded up to a power of two number of words
+    try (BlockedBloomFilter filter = BlockedBloomFilter.create(allocator, 1000, 1024 * 1024)) {
+      assertEquals(2048, filter.getSizeInBytes());
+    }
+    assertNull(BlockedBloomFilter.create(allocator, 1000, 1024));
+  }
+}
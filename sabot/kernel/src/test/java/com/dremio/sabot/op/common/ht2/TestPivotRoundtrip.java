@@ -37,6 +37,7 @@ import org.junit.Test;
 import com.dremio.common.AutoCloseables;
 import com.dremio.sabot.BaseTestWithAllocator;
 import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 
 public class TestPivotRoundtrip extends BaseTestWithAllocator {
@@ -422,6 +423,47 @@ public class TestPivotRoundtrip extends BaseTestWithAllocator {
     }
   }
 
+  @Test
+  public void bigintVarcharPartialRoundtrip() throws Exception {
+    final int count = 1000;
+    final int pivotCount = 700;
+    try (
+      BigIntVector in1 = new BigIntVector("in1", allocator);
+      BigIntVector out1 = new BigIntVector("out1", allocator);
+      VarCharVector in2 = new VarCharVector("in2", allocator);
+      VarCharVector out2 = new VarCharVector("out2", allocator);
+    ) {
+      in1.allocateNew(count);
+      in2.allocateNew(count * 8, count);
+      for (int i = 0; i < count; i++) {
+        if (i % 3 != 0) {
+          in1.setSafe(i, i);
+        }
+        if (i % 7 != 0) {
+          // values longer than the average width the unpivoted vectors are allocated with
+          byte[] data = Strings.repeat("x", i % 50).getBytes(Charsets.UTF_8);
+          in2.setSafe(i, data, 0, data.length);
+        }
+      }
+      in1.setValueCount(count);
+      in2.setValueCount(count);
+
+      final PivotDef pivot = PivotBuilder.getBlockDefinition(new FieldVectorPair(in1, out1), new FieldVectorPair(in2, out2));
+      try (
+        final FixedBlockVector fbv = new FixedBlockVector(allocator, pivot.getBlockWidth());
+        final VariableBlockVector vbv = new VariableBlockVector(allocator, pivot.getVariableCount());
+      ) {
+        // only the first records of the batch are pivoted
+        Pivots.pivot(pivot, pivotCount, fbv, vbv);
+
+        ValueVector[] ins = new ValueVector[]{in1, in2};
+        ValueVector[] outs = new ValueVector[]{out1, out2};
+        unpivotHelper(pivot, fbv, vbv, ins, outs, 0, pivotCount);
+        unpivotHelper(pivot, fbv, vbv, ins, outs, 37, pivotCount - 37);
+      }
+    }
+  }
+
   private void unpivotHelper(PivotDef pivot, FixedBlockVector fbv, VariableBlockVector vbv,
                              ValueVector[] in, ValueVector out[], int s, int e) throws Exception {
     Unpivots.unpivot(pivot, fbv, vbv, s, e);
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.merge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.Test;
+
+import com.dremio.sabot.BaseTestWithAllocator;
+import com.google.common.base.Charsets;
+
+/**
+ * Tests for {@link KeyNormalizer} and {@link NormalizedKeys}
+ */
+public class TestKeyNormalizer extends BaseTestWithAllocator {
+
+  @Test
+  public void testOrderOfFloats() throws Exception {
+    final double[] values = {Double.NEGATIVE_INFINITY, -10.5d, -0.0d, 0.0d, Double.MIN_VALUE, 3d, Double.MAX_VALUE, Double.NaN};
+    try (Float8Vector vector = new Float8Vector("key", allocator)) {
+      vector.allocateNew(values.length + 1);
+      for (int i = 0; i < values.length; i++) {
+        vector.set(i, values[i]);
+      }
+      vector.setNull(values.length);
+      vector.setValueCount(values.length + 1);
+
+      final KeyNormalizer normalizer = new KeyNormalizer(Collections.singletonList(vector), new boolean[] {false});
+      try (NormalizedKeys keys = normalizer.normalize(allocator, values.length + 1)) {
+        for (int i = 0; i < values.length; i++) {
+          if (i + 1 < values.length) {
+            // -0.0 is equal to 0.0
+            final int compare = NormalizedKeys.compare(keys, i, keys, i + 1);
+            assertTrue("at " + i, i == 2 ? compare == 0 : compare < 0);
+          }
+          // nulls are high
+          assertTrue(NormalizedKeys.compare(keys, i, keys, values.length) < 0);
+        }
+        assertFalse(keys.isMatchable(values.length));
+        assertTrue(keys.isMatchable(0));
+      }
+    }
+  }
+
+  @Test
+  public void testOrderOfMultipleKeys() throws Exception {
+    final String[] strings = {"", "", "a", "a\u0000", "a\u0000", "ab", "b"};
+    final long[] longs = {-1L, 5L, Long.MIN_VALUE, 0L, 0L, 7L, 7L};
+    try (VarCharVector varchar = new VarCharVector("s", allocator);
+         BigIntVector bigint = new BigIntVector("l", allocator)) {
+      varchar.allocateNew();
+      bigint.allocateNew();
+      for (int i = 0; i < strings.length; i++) {
+        varchar.setSafe(i, strings[i].getBytes(Charsets.UTF_8));
+        bigint.setSafe(i, longs[i]);
+      }
+      varchar.setValueCount(strings.length);
+      bigint.setValueCount(strings.length);
+
+      final KeyNormalizer normalizer = new KeyNormalizer(Arrays.asList(varchar, bigint), new boolean[] {false, true});
+      try (NormalizedKeys keys = normalizer.normalize(allocator, strings.length)) {
+        for (int i = 0; i + 1 < strings.length; i++) {
+          final int compare = NormalizedKeys.compare(keys, i, keys, i + 1);
+          if (i == 3) {
+            assertEquals(0, compare);
+          } else {
+            assertTrue("at " + i, compare < 0);
+          }
+        }
+
+        // galloping search over the sorted keys
+        assertEquals(3, keys.findStart(0, strings.length, keys, 3));
+        assertEquals(5, keys.findEnd(0, strings.length, keys, 3));
+        assertEquals(5, keys.findEnd(4, strings.length, keys, 3));
+        assertEquals(strings.length, keys.findEnd(0, strings.length, keys, strings.length - 1));
+        assertEquals(6, keys.findStart(6, strings.length, keys, 0));
+      }
+    }
+  }
+}
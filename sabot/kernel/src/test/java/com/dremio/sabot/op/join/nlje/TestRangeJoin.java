@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.nlje;
+
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.calcite.rel.core.JoinRelType;
+import org.junit.Test;
+
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.InputReference;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.physical.config.NestedLoopJoinPOP;
+import com.dremio.exec.planner.physical.NestedLoopJoinPrel;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Fixtures.Table;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests range joins in the NLJE, with candidates generated by {@link RangeJoinFunction}
+ */
+public class TestRangeJoin extends BaseTestOperator {
+
+  private static InputReference ref(int input, String name) {
+    return new InputReference(input, SchemaPath.getSimplePath(name));
+  }
+
+  private static LogicalExpression between(InputReference value, InputReference low, InputReference high) {
+    return new BooleanOperator("booleanAnd", Arrays.asList(
+        new FunctionCall("greater_than_or_equal_to", Arrays.asList(value, low)),
+        new FunctionCall("less_than_or_equal_to", Arrays.asList(value, high))));
+  }
+
+  private static NestedLoopJoinPOP rangeJoin(JoinRelType type, InputReference value, InputReference low, InputReference high, int buildFields, int probeFields) {
+    final ImmutableSet.Builder<Integer> buildProjected = ImmutableSet.builder();
+    for (int i = 0; i < buildFields; i++) {
+      buildProjected.add(i);
+    }
+    final ImmutableSet.Builder<Integer> probeProjected = ImmutableSet.builder();
+    for (int i = 0; i < probeFields; i++) {
+      probeProjected.add(i);
+    }
+    return new NestedLoopJoinPOP(PROPS, null, null, type, between(value, low, high), true,
+        new FunctionCall("range_join", Arrays.asList(value, low, high)), buildProjected.build(), probeProjected.build());
+  }
+
+  private static final Table VALUES = t(
+      th("x"),
+      tr(1),
+      tr(5),
+      tr(10),
+      tr(NULL_INT),
+      tr(15));
+
+  private static final Table INTERVALS = t(
+      th("lo", "hi"),
+      tr(0, 5),
+      tr(4, 12),
+      tr(NULL_INT, 3),
+      tr(8, 6),
+      tr(10, 10),
+      tr(20, 30));
+
+  @Test
+  public void intervalsOnBuild() throws Exception {
+    final Table expected = t(
+        th("lo", "hi", "x"),
+        tr(0, 5, 1),
+        tr(0, 5, 5),
+        tr(4, 12, 5),
+        tr(4, 12, 10),
+        tr(10, 10, 10)).orderInsensitive();
+
+    validateDual(
+        rangeJoin(JoinRelType.INNER, ref(0, "x"), ref(1, "lo"), ref(1, "hi"), 2, 1),
+        NLJEOperator.class,
+        VALUES.toGenerator(getTestAllocator()),
+        INTERVALS.toGenerator(getTestAllocator()),
+        2, expected);
+  }
+
+  @Test
+  public void valuesOnBuild() throws Exception {
+    final Table expected = t(
+        th("x", "lo", "hi"),
+        tr(1, 0, 5),
+        tr(5, 0, 5),
+        tr(5, 4, 12),
+        tr(10, 4, 12),
+        tr(10, 10, 10)).orderInsensitive();
+
+    validateDual(
+        rangeJoin(JoinRelType.INNER, ref(1, "x"), ref(0, "lo"), ref(0, "hi"), 1, 2),
+        NLJEOperator.class,
+        INTERVALS.toGenerator(getTestAllocator()),
+        VALUES.toGenerator(getTestAllocator()),
+        2, expected);
+  }
+
+  @Test
+  public void leftJoin() throws Exception {
+    final Table expected = t(
+        th("lo", "hi", "x"),
+        tr(0, 5, 1),
+        tr(0, 5, 5),
+        tr(4, 12, 5),
+        tr(4, 12, 10),
+        tr(10, 10, 10),
+        tr(NULL_INT, NULL_INT, NULL_INT),
+        tr(NULL_INT, NULL_INT, 15)).orderInsensitive();
+
+    validateDual(
+        rangeJoin(JoinRelType.LEFT, ref(0, "x"), ref(1, "lo"), ref(1, "hi"), 2, 1),
+        NLJEOperator.class,
+        VALUES.toGenerator(getTestAllocator()),
+        INTERVALS.toGenerator(getTestAllocator()),
+        10, expected);
+  }
+
+  @Test
+  public void randomIntervals() throws Exception {
+    final Random random = new Random(0xCAFE);
+    final int[] x = new int[500];
+    final DataRow[] values = new DataRow[x.length];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = random.nextInt(1000);
+      values[i] = tr(x[i]);
+    }
+    final int[] lo = new int[300];
+    final int[] hi = new int[lo.length];
+    final DataRow[] intervals = new DataRow[lo.length];
+    for (int i = 0; i < lo.length; i++) {
+      lo[i] = random.nextInt(1000);
+      hi[i] = lo[i] + random.nextInt(50);
+      intervals[i] = tr(lo[i], hi[i]);
+    }
+
+    final List<DataRow> expected = new ArrayList<>();
+    for (int i = 0; i < lo.length; i++) {
+      for (int j = 0; j < x.length; j++) {
+        if (lo[i] <= x[j] && x[j] <= hi[i]) {
+          expected.add(tr(lo[i], hi[i], x[j]));
+        }
+      }
+    }
+
+    // generate the candidates in several steps for each probe batch
+    try (AutoCloseable ignored = with(NestedLoopJoinPrel.OUTPUT_COUNT, 100)) {
+      validateDual(
+          rangeJoin(JoinRelType.INNER, ref(0, "x"), ref(1, "lo"), ref(1, "hi"), 2, 1),
+          NLJEOperator.class,
+          t(th("x"), values).toGenerator(getTestAllocator()),
+          t(th("lo", "hi"), intervals).toGenerator(getTestAllocator()),
+          64, t(th("lo", "hi", "x"), expected.toArray(new DataRow[0])).orderInsensitive());
+    }
+  }
+}
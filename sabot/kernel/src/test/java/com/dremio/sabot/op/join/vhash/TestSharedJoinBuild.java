@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Test;
+
+import com.dremio.sabot.BaseTestWithAllocator;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.dremio.sabot.threads.sharedres.SharedResourceManager;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+
+/**
+ * Unit test for {@link SharedJoinBuild}
+ */
+public class TestSharedJoinBuild extends BaseTestWithAllocator {
+
+  private static SharedResource newResource(SharedResourceManager manager) {
+    return manager.getGroup("pipeline").createResource("wait", SharedResourceType.SHARED_JOIN_BUILD);
+  }
+
+  @Test
+  public void testPublishWakesUpWaiters() throws Exception {
+    final BufferAllocator buildAllocator = allocator.newChildAllocator("build", 0, 0);
+    final SharedJoinBuild build = new SharedJoinBuild(buildAllocator);
+    final SharedResourceManager manager = SharedResourceManager.newBuilder().addGroup("pipeline").build();
+    final SharedResource waiter = newResource(manager);
+
+    assertTrue(build.acquire(1024));
+    assertTrue(build.acquire(1024));
+    // bounded by the limits of the operators using the build
+    assertEquals(2048, buildAllocator.getLimit());
+    assertTrue(build.claim());
+    assertFalse(build.claim());
+
+    // not published yet, the waiting fragment is blocked
+    assertFalse(build.isPublished(waiter));
+    assertFalse(waiter.isAvailable());
+    assertFalse(manager.isAvailable());
+
+    final ArrowBuf startIndex = buildAllocator.buffer(64);
+    build.publish(null, null, Collections.singletonList(startIndex), Collections.emptyList(), 7);
+    assertTrue(waiter.isAvailable());
+    assertTrue(build.isPublished(waiter));
+    assertEquals(7, build.getMaxHashTableIndex());
+    assertEquals(Collections.singletonList(startIndex), build.getStartIndices());
+
+    // memory is released with the last reference
+    build.release(true);
+    assertEquals(64, buildAllocator.getAllocatedMemory());
+    build.release(false);
+    assertEquals(0, allocator.getAllocatedMemory());
+    assertFalse(build.acquire(1024));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testBuilderFailure() throws Exception {
+    final SharedJoinBuild build = new SharedJoinBuild(allocator.newChildAllocator("build", 0, 0));
+    final SharedResourceManager manager = SharedResourceManager.newBuilder().addGroup("pipeline").build();
+    final SharedResource waiter = newResource(manager);
+
+    assertTrue(build.acquire(1024));
+    assertTrue(build.acquire(1024));
+    assertTrue(build.claim());
+    assertFalse(build.isPublished(waiter));
+
+    // the builder is closed before publishing the table
+    build.release(true);
+    assertTrue(waiter.isAvailable());
+    try {
+      build.isPublished(waiter);
+    } finally {
+      build.release(false);
+    }
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import static com.dremio.sabot.Fixtures.NULL_VARCHAR;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.config.HashJoinPOP;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.exec.context.PhaseSharedContext;
+import com.dremio.sabot.op.spi.DualInputOperator.State;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
+import com.dremio.sabot.threads.sharedres.SharedResourceManager;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+
+/**
+ * Two fragments of the same phase joining with a shared build, see {@link SharedJoinBuild}
+ */
+public class TestVHashJoinSharedBuild extends BaseTestOperator {
+
+  private static final long OPERATOR_LIMIT = 20 * 1024 * 1024;
+
+  private final HashJoinPOP pop = new HashJoinPOP(PROPS, null, null,
+    Arrays.asList(new JoinCondition("EQUALS", f("name1"), f("name2"))), JoinRelType.LEFT, true, null, true);
+
+  private final Table build = t(
+    th("name2", "value2"),
+    tr("a", 1L),
+    tr("b", 2L),
+    tr("c", 3L)
+  );
+
+  @Test
+  public void twoFragmentsShareBuild() throws Exception {
+    final BufferAllocator phaseAllocator = getTestAllocator().newChildAllocator("phase", 0, Long.MAX_VALUE);
+    testCloseables.add(phaseAllocator);
+    final TestPhaseSharedContext phaseContext = new TestPhaseSharedContext(phaseAllocator);
+
+    try (AutoCloseable sharedBuild = with(ExecConstants.ENABLE_HASHJOIN_SHARED_BUILD, true)) {
+      final VectorizedHashJoinOperator builder = newOperator(phaseContext);
+      final VectorizedHashJoinOperator prober = newOperator(phaseContext);
+
+      try (Generator probe1 = t(th("name1"), tr("a"), tr("x"), tr("c")).toGenerator(getTestAllocator());
+           Generator build1 = build.toGenerator(getTestAllocator());
+           Generator probe2 = t(th("name1"), tr("b"), tr("c"), tr("y")).toGenerator(getTestAllocator());
+           Generator build2 = build.toGenerator(getTestAllocator())) {
+        final VectorAccessible builderOutput = builder.setup(probe1.getOutput(), build1.getOutput());
+        final VectorAccessible proberOutput = prober.setup(probe2.getOutput(), build2.getOutput());
+
+        final SharedJoinBuild shared = phaseContext.getOnlyBuild();
+        // the first fragment builds the table, bounded by the limits of both operators
+        assertEquals(2 * OPERATOR_LIMIT, shared.getAllocator().getLimit());
+
+        final List<RecordBatchData> proberData = new ArrayList<>();
+        final List<RecordBatchData> builderData = new ArrayList<>();
+        try {
+          // the second fragment ignores its copy of the build side and waits for the table
+          while (prober.getState() == State.CAN_CONSUME_R) {
+            consumeRight(prober, build2);
+          }
+          assertEquals(State.CAN_PRODUCE, prober.getState());
+          assertEquals(0, prober.outputData());
+          assertFalse(phaseContext.getOnlyResource().isAvailable());
+          assertEquals(0, shared.getAllocator().getAllocatedMemory());
+
+          run(builder, probe1, build1, builderOutput, builderData);
+          assertTrue(phaseContext.getOnlyResource().isAvailable());
+          assertTrue(shared.getAllocator().getAllocatedMemory() > 0);
+
+          run(prober, probe2, build2, proberOutput, proberData);
+
+          t(th("name2", "value2", "name1"),
+            tr("a", 1L, "a"),
+            tr(NULL_VARCHAR, null, "x"),
+            tr("c", 3L, "c")
+          ).checkValid(builderData);
+          t(th("name2", "value2", "name1"),
+            tr("b", 2L, "b"),
+            tr("c", 3L, "c"),
+            tr(NULL_VARCHAR, null, "y")
+          ).checkValid(proberData);
+        } finally {
+          AutoCloseables.close(builderData);
+          AutoCloseables.close(proberData);
+        }
+
+        // the table outlives the fragment that built it, until the last fragment is done with it
+        builder.close();
+        assertTrue(shared.getAllocator().getAllocatedMemory() > 0);
+        prober.close();
+        assertEquals(0, phaseAllocator.getAllocatedMemory());
+      }
+    }
+  }
+
+  private VectorizedHashJoinOperator newOperator(PhaseSharedContext phaseContext) throws Exception {
+    final BufferAllocator allocator = getTestAllocator().newChildAllocator("join", 0, OPERATOR_LIMIT);
+    final OperatorContextImpl context = testContext.getNewOperatorContext(allocator, pop, DEFAULT_BATCH);
+    testCloseables.add(context);
+    context.setPhaseSharedContext(phaseContext);
+    return new VectorizedHashJoinOperator(context, pop);
+  }
+
+  private static void consumeRight(VectorizedHashJoinOperator op, Generator buildGen) throws Exception {
+    final int count = buildGen.next(DEFAULT_BATCH);
+    if (count > 0) {
+      op.consumeDataRight(count);
+    } else {
+      op.noMoreToConsumeRight();
+    }
+  }
+
+  private void run(VectorizedHashJoinOperator op, Generator probeGen, Generator buildGen, VectorAccessible output,
+                   List<RecordBatchData> data) throws Exception {
+    while (op.getState() != State.DONE) {
+      switch (op.getState()) {
+        case CAN_CONSUME_R:
+          consumeRight(op, buildGen);
+          break;
+        case CAN_CONSUME_L:
+          final int count = probeGen.next(DEFAULT_BATCH);
+          if (count > 0) {
+            op.consumeDataLeft(count);
+          } else {
+            op.noMoreToConsumeLeft();
+          }
+          break;
+        case CAN_PRODUCE:
+          if (op.outputData() > 0) {
+            data.add(new RecordBatchData(output, getTestAllocator()));
+          }
+          break;
+        default:
+          throw new IllegalStateException("State is: " + op.getState());
+      }
+    }
+  }
+
+  /**
+   * Phase shared context of the fragments of this test
+   */
+  private static final class TestPhaseSharedContext implements PhaseSharedContext {
+    private final BufferAllocator allocator;
+    private final Map<String, Object> objects = new HashMap<>();
+    private final SharedResourceGroup pipeline = SharedResourceManager.newBuilder().addGroup("pipeline").build()
+      .getGroup("pipeline");
+    private final List<SharedResource> resources = new ArrayList<>();
+
+    private TestPhaseSharedContext(BufferAllocator allocator) {
+      this.allocator = allocator;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getOrCreate(String key, Function<BufferAllocator, T> factory) {
+      return (T) objects.computeIfAbsent(key, k -> factory.apply(allocator));
+    }
+
+    @Override
+    public SharedResource newPipelineResource(String name, SharedResourceType type) {
+      final SharedResource resource = pipeline.createResource(name, type);
+      resources.add(resource);
+      return resource;
+    }
+
+    SharedJoinBuild getOnlyBuild() {
+      assertEquals(1, objects.size());
+      return (SharedJoinBuild) objects.values().iterator().next();
+    }
+
+    SharedResource getOnlyResource() {
+      assertEquals(1, resources.size());
+      return resources.get(0);
+    }
+  }
+}
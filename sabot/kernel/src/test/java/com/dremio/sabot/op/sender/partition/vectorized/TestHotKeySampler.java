@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender.partition.vectorized;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link HotKeySampler}
+ */
+public class TestHotKeySampler {
+  private static final int NUM_RECEIVERS = 4;
+  private static final int BATCH_SIZE = 1000;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+  private IntVector hashes;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-hot-key-sampler", 0, Long.MAX_VALUE);
+    hashes = new IntVector("hashes", allocator);
+    hashes.allocateNew(BATCH_SIZE);
+  }
+
+  @After
+  public void cleanup() {
+    hashes.close();
+    allocator.close();
+  }
+
+  @Test
+  public void testHotKeysFoundAfterSampling() {
+    final HotKeySampler sampler = new HotKeySampler(NUM_RECEIVERS, 2, 0.5);
+
+    // key 42 is half of the rows, key 7 a tenth, every other key is unique
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      hashes.set(i, i % 2 == 0 ? 42 : (i % 10 == 1 ? 7 : 1000 + i));
+    }
+    sampler.sample(hashes.getDataBufferAddress(), BATCH_SIZE);
+    assertTrue(sampler.isSampling());
+    sampler.sample(hashes.getDataBufferAddress(), BATCH_SIZE);
+    assertFalse(sampler.isSampling());
+
+    // fair share of a receiver is 25% of the rows, hot keys need at least half of that
+    final IntHashSet hotKeys = sampler.getHotKeys();
+    assertEquals(1, hotKeys.size());
+    assertTrue(hotKeys.contains(42));
+    assertEquals(2 * BATCH_SIZE, sampler.getSampledRows());
+    assertEquals(BATCH_SIZE, sampler.getHotKeyRows());
+  }
+
+  @Test
+  public void testUniformKeys() {
+    final HotKeySampler sampler = new HotKeySampler(NUM_RECEIVERS, 1, 0.5);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      hashes.set(i, i % 100);
+    }
+    sampler.sample(hashes.getDataBufferAddress(), BATCH_SIZE);
+
+    assertFalse(sampler.isSampling());
+    assertTrue(sampler.getHotKeys().isEmpty());
+    assertEquals(0, sampler.getHotKeyRows());
+  }
+
+  @Test
+  public void testSingleRowIsNeverHot() {
+    final HotKeySampler sampler = new HotKeySampler(NUM_RECEIVERS, 1, 0.5);
+    hashes.set(0, 42);
+    sampler.sample(hashes.getDataBufferAddress(), 1);
+
+    assertTrue(sampler.getHotKeys().isEmpty());
+  }
+}
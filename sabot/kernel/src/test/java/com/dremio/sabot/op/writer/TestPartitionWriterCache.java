@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.store.RecordWriter;
+import com.dremio.exec.store.WritePartition;
+import com.dremio.sabot.exec.context.OperatorStats;
+
+/**
+ * Tests for {@link PartitionWriterCache}
+ */
+public class TestPartitionWriterCache {
+  private final List<RecordWriter> created = new ArrayList<>();
+  private BufferAllocator allocator;
+  private PartitionWriteManager partitionManager;
+  private RecordWriter initialWriter;
+
+  @Before
+  public void setup() {
+    allocator = mock(BufferAllocator.class);
+    when(allocator.getHeadroom()).thenReturn(Long.MAX_VALUE);
+    partitionManager = mock(PartitionWriteManager.class);
+    when(partitionManager.getPartition(anyInt())).thenReturn(WritePartition.NONE);
+    initialWriter = mock(RecordWriter.class);
+  }
+
+  private PartitionWriterCache newCache(int maxOpenWriters, long maxPartitions) {
+    return new PartitionWriterCache(mock(VectorAccessible.class), initialWriter, ordinal -> {
+      final RecordWriter writer = mock(RecordWriter.class);
+      created.add(writer);
+      return writer;
+    }, null, null, allocator, mock(OperatorStats.class), maxOpenWriters, 1024, maxPartitions);
+  }
+
+  private static List<Object> key(String value) {
+    return Collections.singletonList(value);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedWriterClosed() throws Exception {
+    try (PartitionWriterCache cache = newCache(2, Long.MAX_VALUE)) {
+      final RecordWriter a = cache.getWriter(key("a"), partitionManager, 0);
+      assertSame(initialWriter, a);
+      final RecordWriter b = cache.getWriter(key("b"), partitionManager, 1);
+      // reusing a makes b the least recently used writer
+      assertSame(a, cache.getWriter(key("a"), partitionManager, 2));
+
+      cache.getWriter(key("c"), partitionManager, 3);
+      verify(b).close();
+      verify(a, never()).close();
+      assertEquals(2, cache.getOpenWriterCount());
+
+      // b gets a new writer
+      final RecordWriter newB = cache.getWriter(key("b"), partitionManager, 4);
+      assertEquals(3, created.size());
+      assertSame(created.get(2), newB);
+      verify(a).close();
+    }
+  }
+
+  @Test
+  public void testWritersClosedUnderMemoryPressure() throws Exception {
+    try (PartitionWriterCache cache = newCache(10, Long.MAX_VALUE)) {
+      final RecordWriter a = cache.getWriter(key("a"), partitionManager, 0);
+      when(allocator.getHeadroom()).thenReturn(0L);
+      cache.getWriter(key("b"), partitionManager, 1);
+      verify(a).close();
+      assertEquals(1, cache.getOpenWriterCount());
+    }
+  }
+
+  @Test(expected = UserException.class)
+  public void testMaxPartitions() throws Exception {
+    try (PartitionWriterCache cache = newCache(10, 2)) {
+      cache.getWriter(key("a"), partitionManager, 0);
+      cache.getWriter(key("b"), partitionManager, 1);
+      cache.getWriter(key("c"), partitionManager, 2);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.sender.partition;
+
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.config.HashPartitionSender;
+import com.dremio.exec.physical.config.HashPartitionSender.HotKeyRouting;
+import com.dremio.exec.planner.fragment.EndpointsIndex;
+import com.dremio.exec.proto.CoordExecRPC.MinorFragmentIndexEndpoint;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
+import com.dremio.sabot.op.sender.partition.vectorized.VectorizedPartitionSenderOperator;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tests how the vectorized partition sender routes the rows of hot keys, see {@link HotKeyRouting}
+ */
+public class TestHotKeyRouting extends BaseTestOperator {
+  private static final int NUM_FRAGMENTS = 3;
+  // 7 maps to partition 7 out of 32, so to receiver 7 % 3 = 1
+  private static final int HOT_HASH = 7;
+
+  // stats of the last sender
+  private OperatorStats stats;
+
+  @Test
+  public void strictRoutingSendsHotKeyToSingleReceiver() throws Exception {
+    assertArrayEquals(new int[] {0, 300, 0}, send(HotKeyRouting.NONE, 1, table(HOT_HASH, 300)));
+  }
+
+  @Test
+  public void spreadHotKeyAcrossAllReceivers() throws Exception {
+    assertArrayEquals(new int[] {100, 100, 100}, send(HotKeyRouting.SPREAD, 3, table(HOT_HASH, 300)));
+    assertEquals(1, stats.getLongStat(Metric.HOT_KEYS));
+    assertEquals(300, stats.getLongStat(Metric.SPREAD_ROWS));
+  }
+
+  @Test
+  public void spreadHotKeyAcrossSomeReceivers() throws Exception {
+    // rows go to the receiver the hash maps to and the next one
+    assertArrayEquals(new int[] {0, 150, 150}, send(HotKeyRouting.SPREAD, 2, table(HOT_HASH, 300)));
+  }
+
+  @Test
+  public void coldKeysNotSpread() throws Exception {
+    // each hash only has 1 row out of 300 and none is hot
+    final DataRow[] rows = new DataRow[300];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = tr(i, (long) i);
+    }
+    final int[] expected = send(HotKeyRouting.NONE, 1, t(th("hash", "value"), rows));
+    assertArrayEquals(expected, send(HotKeyRouting.SPREAD, 3, t(th("hash", "value"), rows)));
+    assertEquals(0, stats.getLongStat(Metric.HOT_KEYS));
+    assertEquals(0, stats.getLongStat(Metric.SPREAD_ROWS));
+  }
+
+  @Test
+  public void replicateToReceiversOfSpreadHotKey() throws Exception {
+    // every row of the build side reaches all the receivers that get rows of the key from the probe side
+    assertArrayEquals(new int[] {0, 10, 10}, send(HotKeyRouting.REPLICATE, 2, table(HOT_HASH, 10)));
+    assertEquals(10, stats.getLongStat(Metric.REPLICATED_ROWS));
+
+    // receiver 2 is the next receiver of receiver 1 for both senders, receiver 0 the next one of receiver 2
+    assertArrayEquals(new int[] {0, 10, 10}, send(HotKeyRouting.REPLICATE, 2, table(1, 10)));
+    assertArrayEquals(new int[] {10, 0, 10}, send(HotKeyRouting.REPLICATE, 2, table(2, 10)));
+    assertArrayEquals(new int[] {15, 0, 15}, send(HotKeyRouting.SPREAD, 2, table(2, 30)));
+  }
+
+  @Test
+  public void hotKeyReceiversLimitedToReceivers() throws Exception {
+    assertArrayEquals(new int[] {10, 10, 10}, send(HotKeyRouting.REPLICATE, 8, table(HOT_HASH, 10)));
+  }
+
+  private static Table table(int hash, int numRows) {
+    final DataRow[] rows = new DataRow[numRows];
+    for (int i = 0; i < numRows; i++) {
+      rows[i] = tr(hash, (long) i);
+    }
+    return t(th("hash", "value"), rows);
+  }
+
+  /**
+   * @return number of rows received by each receiver
+   */
+  private int[] send(HotKeyRouting routing, int hotKeyReceivers, Table table) throws Exception {
+    final int[] rowCountPerFragment = new int[NUM_FRAGMENTS];
+    final AccountingExecTunnel tunnel = mock(AccountingExecTunnel.class);
+    doAnswer(invocation -> {
+      final FragmentWritableBatch batch = (FragmentWritableBatch) invocation.getArguments()[0];
+      for (int fragId : batch.getHeader().getReceivingMinorFragmentIdList()) {
+        rowCountPerFragment[fragId] += batch.getRecordCount();
+      }
+      for (ByteBuf b : batch.getBuffers()) {
+        b.release();
+      }
+      return null;
+    }).when(tunnel).sendRecordBatch(any(FragmentWritableBatch.class));
+
+    final TunnelProvider provider = mock(TunnelProvider.class);
+    when(provider.getExecTunnel(any(NodeEndpoint.class))).thenReturn(tunnel);
+
+    try (AutoCloseable sampleOneBatch = with(ExecConstants.PARTITIONER_HOT_KEYS_SAMPLE_BATCHES, 1);
+         Generator generator = table.toGenerator(getTestAllocator())) {
+      final HashPartitionSender sender = new HashPartitionSender(PROPS, generator.getOutput().getSchema(), null, 1,
+        getIndexEndpoints(), f("hash"), routing, hotKeyReceivers);
+      final VectorizedPartitionSenderOperator op = newOperator(VectorizedPartitionSenderOperator.class, sender,
+        DEFAULT_BATCH, new EndpointsIndex(getEndpoints()), provider);
+      stats = op.getOperatorContext().getStats();
+      op.setup(generator.getOutput());
+      stats.startProcessing();
+      int count;
+      while ((count = generator.next(DEFAULT_BATCH)) > 0) {
+        op.consumeData(count);
+      }
+      op.noMoreToConsume();
+    }
+    return rowCountPerFragment;
+  }
+
+  private static List<MinorFragmentIndexEndpoint> getIndexEndpoints() {
+    List<MinorFragmentIndexEndpoint> l = new ArrayList<>();
+    for (int i = 0; i < NUM_FRAGMENTS; i++) {
+      l.add(MinorFragmentIndexEndpoint.newBuilder().setMinorFragmentId(i).setEndpointIndex(0).build());
+    }
+    return l;
+  }
+
+  private static List<NodeEndpoint> getEndpoints() {
+    List<NodeEndpoint> l = new ArrayList<>();
+    for (int i = 0; i < NUM_FRAGMENTS; i++) {
+      l.add(NodeEndpoint.newBuilder().setAddress(String.format("a_%d", i)).setFabricPort(1).build());
+    }
+    return l;
+  }
+}
@@ -29,15 +29,21 @@ import org.apache.calcite.sql.SqlKind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.dremio.datastore.LegacyProtobufSerializer;
 import com.dremio.exec.expr.fn.hll.HyperLogLog;
 import com.dremio.exec.planner.RoutingShuttle;
 import com.dremio.exec.planner.StatelessRelShuttleImpl;
 import com.dremio.exec.planner.acceleration.ExpansionNode;
+import com.dremio.sabot.exec.store.deltalake.proto.DeltaLakeProtobuf.DeltaLakeDatasetXAttr;
 import com.dremio.service.Pointer;
+import com.dremio.service.namespace.DatasetHelper;
 import com.dremio.service.namespace.NamespaceKey;
 import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.ReadDefinition;
 import com.dremio.service.namespace.dataset.proto.RefreshMethod;
 import com.google.common.base.Preconditions;
+import com.google.protobuf.InvalidProtocolBufferException;
 
 /**
  * Contains various utilities for acceleration incremental updates
@@ -58,6 +64,56 @@ public class IncrementalUpdateServiceUtils {
       .setRefreshField(refreshField);
   }
 
+  /**
+   * Commit times of the snapshot a delta lake dataset was read at.
+   */
+  public static final class SnapshotTimestamps {
+    private final long snapshotTimestamp;
+    private final long appendOnlySince;
+
+    private SnapshotTimestamps(long snapshotTimestamp, long appendOnlySince) {
+      this.snapshotTimestamp = snapshotTimestamp;
+      this.appendOnlySince = appendOnlySince;
+    }
+
+    /**
+     * @return commit time of the current snapshot
+     */
+    public long getSnapshotTimestamp() {
+      return snapshotTimestamp;
+    }
+
+    /**
+     * @return commit time of the last snapshot that did not only append data files
+     */
+    public long getAppendOnlySince() {
+      return appendOnlySince;
+    }
+  }
+
+  /**
+   * Reads the snapshot commit times stored in the metadata of a delta lake dataset.
+   *
+   * @return snapshot commit times, or null if the dataset is not a delta lake table or its metadata predates them
+   */
+  public static SnapshotTimestamps getSnapshotTimestamps(DatasetConfig dataset) {
+    final ReadDefinition readDefinition = dataset.getReadDefinition();
+    if (readDefinition == null || readDefinition.getExtendedProperty() == null) {
+      return null;
+    }
+
+    try {
+      if (DatasetHelper.isDeltaLakeDataset(dataset)) {
+        final DeltaLakeDatasetXAttr xAttr = LegacyProtobufSerializer.parseFrom(DeltaLakeDatasetXAttr.PARSER,
+          readDefinition.getExtendedProperty().asReadOnlyByteBuffer());
+        return xAttr.hasSnapshotTimestamp() ? new SnapshotTimestamps(xAttr.getSnapshotTimestamp(), xAttr.getAppendOnlySince()) : null;
+      }
+    } catch (InvalidProtocolBufferException e) {
+      logger.debug("Could not deserialize metadata of dataset {}", dataset.getFullPathList(), e);
+    }
+    return null;
+  }
+
   private static String findRefreshField(RelNode plan, final ReflectionSettings reflectionSettings) {
     final Pointer<String> refreshField = new Pointer<>();
     plan.accept(new StatelessRelShuttleImpl() {
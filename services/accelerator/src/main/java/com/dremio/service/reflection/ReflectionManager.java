@@ -17,8 +17,11 @@ package com.dremio.service.reflection;
 
 import static com.dremio.common.utils.PathUtils.constructFullPath;
 import static com.dremio.exec.ExecConstants.LAYOUT_REFRESH_MAX_ATTEMPTS;
+import static com.dremio.exec.ExecConstants.PARQUET_BLOCK_SIZE_VALIDATOR;
+import static com.dremio.service.reflection.ReflectionOptions.COMPACTION_CHECK_PERIOD_SECONDS;
 import static com.dremio.service.reflection.ReflectionOptions.COMPACTION_TRIGGER_FILE_SIZE;
 import static com.dremio.service.reflection.ReflectionOptions.COMPACTION_TRIGGER_NUMBER_FILES;
+import static com.dremio.service.reflection.ReflectionOptions.COMPACTION_TRIGGER_SIZE_SKEW;
 import static com.dremio.service.reflection.ReflectionOptions.ENABLE_COMPACTION;
 import static com.dremio.service.reflection.ReflectionOptions.MATERIALIZATION_ORPHAN_REFRESH;
 import static com.dremio.service.reflection.ReflectionOptions.REFLECTION_DELETION_GRACE_PERIOD;
@@ -38,6 +41,7 @@ import static com.dremio.service.reflection.proto.ReflectionState.UPDATE;
 import static com.dremio.service.users.SystemUser.SYSTEM_USERNAME;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
@@ -45,6 +49,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.arrow.memory.BufferAllocator;
 
@@ -146,6 +151,7 @@ public class ReflectionManager implements Runnable {
   private volatile EntryCounts lastStats = new EntryCounts();
   private long lastWakeupTime;
   private long lastOrphanCheckTime;
+  private long lastCompactionCheckTime;
 
   ReflectionManager(SabotContext sabotContext, JobsService jobsService, NamespaceService namespaceService,
                     OptionManager optionManager, ReflectionGoalsStore userStore, ReflectionEntriesStore reflectionStore,
@@ -317,11 +323,19 @@ public class ReflectionManager implements Runnable {
   private void handleEntries() {
     final long noDependencyRefreshPeriodMs = optionManager.getOption(ReflectionOptions.NO_DEPENDENCY_REFRESH_PERIOD_SECONDS) * 1000;
 
+    // active reflections are periodically checked for compaction, incremental refreshes keep adding small files
+    final long now = System.currentTimeMillis();
+    final boolean compactionCheckDue = optionManager.getOption(ENABLE_COMPACTION)
+      && now - lastCompactionCheckTime >= optionManager.getOption(COMPACTION_CHECK_PERIOD_SECONDS) * 1000;
+    if (compactionCheckDue) {
+      lastCompactionCheckTime = now;
+    }
+
     Iterable<ReflectionEntry> entries = reflectionStore.find();
     final EntryCounts ec = new EntryCounts();
     for (ReflectionEntry entry : entries) {
       try {
-        handleEntry(entry, noDependencyRefreshPeriodMs, ec);
+        handleEntry(entry, noDependencyRefreshPeriodMs, compactionCheckDue, ec);
       } catch (Exception e) {
         ec.unknown++;
         logger.error("Couldn't handle reflection entry {}", entry.getId().getId(), e);
@@ -354,7 +368,8 @@ public class ReflectionManager implements Runnable {
     private long unknown;
   }
 
-  private void handleEntry(ReflectionEntry entry, final long noDependencyRefreshPeriodMs, EntryCounts counts) {
+  private void handleEntry(ReflectionEntry entry, final long noDependencyRefreshPeriodMs, boolean compactionCheckDue,
+                           EntryCounts counts) {
     final ReflectionState state = entry.getState();
     switch (state) {
       case FAILED:
@@ -377,6 +392,9 @@ public class ReflectionManager implements Runnable {
         if (!dependencyManager.shouldRefresh(entry, noDependencyRefreshPeriodMs)) {
           counts.active++;
           // only refresh ACTIVE reflections when they are due for refresh
+          if (compactionCheckDue) {
+            compactLastMaterializationIfNecessary(entry);
+          }
           break;
         }
       case REFRESH:
@@ -472,7 +490,13 @@ public class ReflectionManager implements Runnable {
         m.setState(MaterializationState.FAILED)
           .setFailure(new Failure().setMessage(jobFailure));
         materializationStore.save(m);
-        reportFailure(entry, ACTIVE);
+        if (isBackgroundCompaction(m)) {
+          // the compacted materialization still accelerates queries, the reflection didn't fail
+          entry.setState(ACTIVE);
+          reflectionStore.save(entry);
+        } else {
+          reportFailure(entry, ACTIVE);
+        }
         break;
       default:
         // nothing to do for non terminal states
@@ -480,6 +504,18 @@ public class ReflectionManager implements Runnable {
     }
   }
 
+  /**
+   * @return true if the materialization compacts a materialization that is still DONE, i.e. the compaction was started
+   * by the periodic compaction check and not by a refresh
+   */
+  private boolean isBackgroundCompaction(Materialization m) {
+    if (m.getCompactedMaterializationId() == null) {
+      return false;
+    }
+    final Materialization compacted = materializationStore.get(m.getCompactedMaterializationId());
+    return compacted != null && compacted.getState() == MaterializationState.DONE;
+  }
+
   private void updateDependenciesIfPossible(final ReflectionEntry entry, final JobAttempt jobAttempt) {
     if (dependencyManager.reflectionHasKnownDependencies(entry.getId())) {
       return;
@@ -804,20 +840,43 @@ public class ReflectionManager implements Runnable {
     reflectionStore.save(entry);
   }
 
+  /**
+   * compacts the materialization currently used to accelerate queries, if it accumulated too many small files. The
+   * materialization keeps accelerating queries until the compacted one is done.
+   */
+  private void compactLastMaterializationIfNecessary(ReflectionEntry entry) {
+    final Materialization materialization = materializationStore.getLastMaterializationDone(entry.getId());
+    if (materialization == null) {
+      return;
+    }
+
+    final List<Refresh> refreshes = materializationStore.getRefreshes(materialization).toList();
+    if (refreshes.isEmpty() || (refreshes.size() == 1 && Boolean.TRUE.equals(refreshes.get(0).getCompacted()))) {
+      return; // nothing written since last compaction
+    }
+
+    try {
+      compactIfNecessary(entry, materialization, refreshes);
+    } catch (Exception e) {
+      logger.warn("failed to start compaction of materialization {}", getId(materialization), e);
+    }
+  }
+
   private boolean compactIfNecessary(ReflectionEntry entry, Materialization materialization, List<Refresh> refreshes) {
     if (!optionManager.getOption(ENABLE_COMPACTION)) {
       return false; // compaction disabled by user
     }
-    if (entry.getRefreshMethod() != RefreshMethod.FULL) {
-      logger.debug("Skipping compaction check for reflection {} with incremental refresh", getId(entry));
-      return false; // only applies to full refresh
+    if (Boolean.TRUE.equals(materialization.getIsIcebergDataset())) {
+      logger.debug("Skipping compaction check for reflection {} stored as an iceberg table", getId(entry));
+      return false; // incremental refreshes insert into the existing iceberg table
     }
 
-    // full refresh materializations must contain a single refresh entry
-    Preconditions.checkState(refreshes.size() == 1, "expected 1 refresh entry found %s", refreshes.size());
-    final Refresh refresh = refreshes.get(0);
+    if (entry.getRefreshMethod() == RefreshMethod.FULL) {
+      // full refresh materializations must contain a single refresh entry
+      Preconditions.checkState(refreshes.size() == 1, "expected 1 refresh entry found %s", refreshes.size());
+    }
 
-    if (!shouldCompact(entry, refresh)) {
+    if (!shouldCompact(entry, refreshes)) {
       return false;
     }
 
@@ -830,10 +889,13 @@ public class ReflectionManager implements Runnable {
       return false;
     }
 
-    // mark current materialization as COMPACTED (terminal state)
-    materialization
-      .setState(MaterializationState.COMPACTED);
-    materializationStore.save(materialization);
+    // a materialization that is already done keeps accelerating queries until the compacted one replaces it
+    if (materialization.getState() != MaterializationState.DONE) {
+      // mark current materialization as COMPACTED (terminal state)
+      materialization
+        .setState(MaterializationState.COMPACTED);
+      materializationStore.save(materialization);
+    }
 
     logger.debug("Compacting reflection {}", getId(entry));
 
@@ -845,11 +907,14 @@ public class ReflectionManager implements Runnable {
       .setExpiration(materialization.getExpiration())
       .setLastRefreshFromPds(materialization.getLastRefreshFromPds())
       .setLogicalPlan(materialization.getLogicalPlan())
+      .setLogicalPlanStrippedHash(materialization.getLogicalPlanStrippedHash())
+      .setStripVersion(materialization.getStripVersion())
       .setReflectionGoalVersion(materialization.getReflectionGoalVersion())
       .setJoinAnalysis(materialization.getJoinAnalysis())
       .setInitRefreshSubmit(System.currentTimeMillis()) // needed to properly return this materialization as last one
       .setInitRefreshExecution(materialization.getInitRefreshExecution())
-      .setInitRefreshJobId(materialization.getInitRefreshJobId());
+      .setInitRefreshJobId(materialization.getInitRefreshJobId())
+      .setCompactedMaterializationId(materialization.getId());
     materializationStore.save(newMaterialization);
 
     // start compaction job
@@ -885,9 +950,20 @@ public class ReflectionManager implements Runnable {
     final List<String> refreshPath = ReflectionUtils.getRefreshPath(JobsProtoUtil.toStuff(job.getJobId()), accelerationBasePath, jobsService, allocator);
     final boolean isIcebergRefresh = materialization.getIsIcebergDataset() != null && materialization.getIsIcebergDataset();
     final String icebergBasePath = ReflectionUtils.getIcebergReflectionBasePath(materialization, refreshPath, isIcebergRefresh);
+    final Materialization compacted = materialization.getCompactedMaterializationId() == null ? null
+      : materializationStore.get(materialization.getCompactedMaterializationId());
+    // incremental refreshes resume from the last refresh that was compacted
+    final Refresh lastCompactedRefresh = compacted == null || entry.getRefreshMethod() != RefreshMethod.INCREMENTAL ? null
+      : materializationStore.getRefreshes(compacted).toList().stream()
+        .max(Comparator.comparing(Refresh::getSeriesOrdinal))
+        .orElse(null);
+    final UpdateId updateId = lastCompactedRefresh != null ? lastCompactedRefresh.getUpdateId() : new UpdateId();
     final Refresh refresh = ReflectionUtils.createRefresh(materialization.getReflectionId(), refreshPath, seriesId,
-      0, new UpdateId(), jobDetails, metrics, dataPartitions, isIcebergRefresh, icebergBasePath);
+      0, updateId, jobDetails, metrics, dataPartitions, isIcebergRefresh, icebergBasePath);
     refresh.setCompacted(true);
+    if (lastCompactedRefresh != null) {
+      refresh.setSourceSnapshotTimestamp(lastCompactedRefresh.getSourceSnapshotTimestamp());
+    }
 
     // no need to update entry lastSuccessfulRefresh, as it may only cause unnecessary refreshes on dependant reflections
 
@@ -895,7 +971,12 @@ public class ReflectionManager implements Runnable {
     materializationStore.save(refresh);
 
     // start a metadata refresh and delete compacted materialization, in parallel
-    deleteCompactedMaterialization(entry);
+    if (compacted == null) {
+      deleteCompactedMaterialization(entry);
+    } else if (compacted.getState() == MaterializationState.COMPACTED) {
+      deleteMaterialization(compacted);
+    }
+    // a compacted materialization that is still done gets deprecated once the new one is done
     refreshMetadata(entry, materialization);
   }
 
@@ -909,13 +990,45 @@ public class ReflectionManager implements Runnable {
     deleteMaterialization(compacted);
   }
 
-  private boolean shouldCompact(ReflectionEntry entry, Refresh refresh) {
-    final long medianFileSize = refresh.getMetrics().getMedianFileSize();
-    final int numFiles = refresh.getMetrics().getNumFiles();
+  private boolean shouldCompact(ReflectionEntry entry, List<Refresh> refreshes) {
+    final List<MaterializationMetrics> metrics = refreshes.stream()
+      .map(Refresh::getMetrics)
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
+    final long footprint = metrics.stream().mapToLong(MaterializationMetrics::getFootprint).sum();
+    final int numFiles = metrics.stream().mapToInt(MaterializationMetrics::getNumFiles).sum();
+    final long medianFileSize = getMedianFileSize(metrics, numFiles);
+
+    logger.debug("Reflection {} refreshes wrote {} files, {} bytes, with a median size of {} bytes", getId(entry),
+      numFiles, footprint, medianFileSize);
+    if (numFiles > optionManager.getOption(COMPACTION_TRIGGER_NUMBER_FILES)
+      && medianFileSize < optionManager.getOption(COMPACTION_TRIGGER_FILE_SIZE) * 1024 * 1024) {
+      return true;
+    }
+
+    // too many files compared to the number of files of the target size needed to store the same data
+    final long targetFileSize = optionManager.getOption(PARQUET_BLOCK_SIZE_VALIDATOR);
+    final long targetNumFiles = Math.max(1, (footprint + targetFileSize - 1) / targetFileSize);
+    return numFiles > 1 && numFiles >= targetNumFiles * optionManager.getOption(COMPACTION_TRIGGER_SIZE_SKEW);
+  }
 
-    logger.debug("Reflection {} refresh wrote {} files with a median size of {} bytes", getId(entry), numFiles, medianFileSize);
-    return numFiles > optionManager.getOption(COMPACTION_TRIGGER_NUMBER_FILES)
-      && medianFileSize < optionManager.getOption(COMPACTION_TRIGGER_FILE_SIZE) * 1024 * 1024;
+  /**
+   * approximates the median size of the files written by several refreshes with the median of the refreshes median
+   * file sizes, weighted by their number of files
+   */
+  @VisibleForTesting
+  static long getMedianFileSize(List<MaterializationMetrics> metrics, int numFiles) {
+    final List<MaterializationMetrics> sorted = metrics.stream()
+      .sorted(Comparator.comparing(MaterializationMetrics::getMedianFileSize))
+      .collect(Collectors.toList());
+    int files = 0;
+    for (MaterializationMetrics m : sorted) {
+      files += m.getNumFiles();
+      if (2 * files >= numFiles) {
+        return m.getMedianFileSize();
+      }
+    }
+    return 0;
   }
 
   private void metadataRefreshJobSucceeded(ReflectionEntry entry, Materialization materialization) {
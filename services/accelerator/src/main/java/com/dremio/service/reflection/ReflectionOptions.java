@@ -58,6 +58,11 @@ public interface ReflectionOptions {
   PositiveLongValidator COMPACTION_TRIGGER_NUMBER_FILES = new PositiveLongValidator("reflection.compaction.trigger.num_files", Long.MAX_VALUE, 1);
   // Compaction will be triggered if the median file size is less than or equal to this parameter
   PositiveLongValidator COMPACTION_TRIGGER_FILE_SIZE = new PositiveLongValidator("reflection.compaction.trigger.file_size_mb", Long.MAX_VALUE / (1024 * 1024), 16);
+  // Compaction will be triggered if a materialization has at least this many times more files than it would need if
+  // all files had the target size (parquet block size)
+  PositiveLongValidator COMPACTION_TRIGGER_SIZE_SKEW = new PositiveLongValidator("reflection.compaction.trigger.size_skew", Long.MAX_VALUE, 4);
+  // how often should active reflections be checked for compaction, in seconds
+  PositiveLongValidator COMPACTION_CHECK_PERIOD_SECONDS = new PositiveLongValidator("reflection.compaction.check_period_seconds", Long.MAX_VALUE, TimeUnit.HOURS.toSeconds(1));
   // Enable caching of reflection whose dist storage is in cloud ( S3, AzureDataLake, AzureFileSystem)
   BooleanValidator CLOUD_CACHING_ENABLED = new BooleanValidator("reflection.cloud.cache.enabled", true);
   // If disabled, only vds schema and expanded sql definition will be considered when deciding to do an incremental refresh
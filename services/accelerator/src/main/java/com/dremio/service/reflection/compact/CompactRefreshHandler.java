@@ -18,6 +18,7 @@ package com.dremio.service.reflection.compact;
 import static com.dremio.exec.planner.acceleration.IncrementalUpdateUtils.UPDATE_COLUMN;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -52,12 +53,14 @@ import com.dremio.exec.planner.sql.parser.SqlCompactMaterialization;
 import com.dremio.exec.work.foreman.ForemanSetupException;
 import com.dremio.options.OptionManager;
 import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.RefreshMethod;
 import com.dremio.service.reflection.ReflectionGoalChecker;
 import com.dremio.service.reflection.ReflectionService;
 import com.dremio.service.reflection.ReflectionUtils;
 import com.dremio.service.reflection.WriterOptionManager;
 import com.dremio.service.reflection.proto.Materialization;
 import com.dremio.service.reflection.proto.MaterializationId;
+import com.dremio.service.reflection.proto.MaterializationMetrics;
 import com.dremio.service.reflection.proto.ReflectionEntry;
 import com.dremio.service.reflection.proto.ReflectionGoal;
 import com.dremio.service.reflection.proto.ReflectionId;
@@ -142,8 +145,9 @@ public class CompactRefreshHandler implements SqlToPlanHandler {
       }
       final Materialization materialization = materializationOpt.get();
 
+      // incremental reflections may have several refreshes to compact
       List<Refresh> refreshes = Lists.newArrayList(service.getRefreshes(materialization));
-      if (refreshes.size() != 1) {
+      if (refreshes.isEmpty()) {
         throw SqlExceptionHelper.parseError("Invalid materialization", sql, compact.getParserPosition()).build(logger);
       }
 
@@ -155,12 +159,21 @@ public class CompactRefreshHandler implements SqlToPlanHandler {
 
       final List<String> tableSchemaPath = ReflectionUtils.getMaterializationPath(materialization);
 
-      final PlanNormalizer planNormalizer = new PlanNormalizer(config);
+      // incremental refreshes need the update column of the compacted data
+      final PlanNormalizer planNormalizer = new PlanNormalizer(config, entry.getRefreshMethod() == RefreshMethod.INCREMENTAL);
       final RelNode initial = getPlan(config, tableSchemaPath, planNormalizer);
 
       final Rel drel = PrelTransformer.convertToDrelMaintainingNames(config, initial);
       final List<String> fields = drel.getRowType().getFieldNames();
       final long ringCount = config.getContext().getOptions().getOption(PlannerSettings.RING_COUNT);
+      // writers roll to a new file once they reach the parquet block size, a single writer produces target sized files
+      // when the data is small enough
+      final long footprint = refreshes.stream()
+        .map(Refresh::getMetrics)
+        .filter(Objects::nonNull)
+        .mapToLong(MaterializationMetrics::getFootprint)
+        .sum();
+      final boolean singleWriter = footprint <= config.getContext().getOptions().getOption(ExecConstants.PARQUET_BLOCK_SIZE_VALIDATOR);
       final Rel writerDrel = new WriterRel(
         drel.getCluster(),
         drel.getCluster().traitSet().plus(Rel.LOGICAL),
@@ -168,7 +181,7 @@ public class CompactRefreshHandler implements SqlToPlanHandler {
         config.getContext().getCatalog().createNewTable(
           new NamespaceKey(ReflectionUtils.getMaterializationPath(newMaterialization)),
           null,
-          writerOptionManager.buildWriterOptionForReflectionGoal((int) ringCount, goal, fields),
+          writerOptionManager.buildWriterOptionForReflectionGoal((int) ringCount, goal, fields).withSingleWriter(singleWriter),
           ImmutableMap.of()
         ),
         initial.getRowType()
@@ -225,9 +238,11 @@ public class CompactRefreshHandler implements SqlToPlanHandler {
 
   private class PlanNormalizer implements RelTransformer {
     private final OptionManager optionManager;
+    private final boolean keepUpdateColumn;
 
-    PlanNormalizer(SqlHandlerConfig sqlHandlerConfig) {
+    PlanNormalizer(SqlHandlerConfig sqlHandlerConfig, boolean keepUpdateColumn) {
       this.optionManager = sqlHandlerConfig.getContext().getOptions();
+      this.keepUpdateColumn = keepUpdateColumn;
     }
 
     @Override
@@ -235,7 +250,7 @@ public class CompactRefreshHandler implements SqlToPlanHandler {
       final String partitionDesignator = optionManager.getOption(ExecConstants.FILESYSTEM_PARTITION_COLUMN_LABEL_VALIDATOR);
       final Matcher directoryMatcher = Pattern.compile(String.format("%s([0-9]+)", Pattern.quote(partitionDesignator))).matcher("");
       return ReflectionUtils.removeColumns(relNode, (field) ->
-        UPDATE_COLUMN.equals(field.getName()) || directoryMatcher.reset(field.getName().toLowerCase()).matches()
+        (!keepUpdateColumn && UPDATE_COLUMN.equals(field.getName())) || directoryMatcher.reset(field.getName().toLowerCase()).matches()
       );
     }
 
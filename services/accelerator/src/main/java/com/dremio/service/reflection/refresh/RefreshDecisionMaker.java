@@ -31,6 +31,7 @@ import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.dataset.proto.RefreshMethod;
 import com.dremio.service.reflection.IncrementalUpdateServiceUtils;
+import com.dremio.service.reflection.IncrementalUpdateServiceUtils.SnapshotTimestamps;
 import com.dremio.service.reflection.ReflectionSettings;
 import com.dremio.service.reflection.ReflectionUtils;
 import com.dremio.service.reflection.proto.Materialization;
@@ -99,6 +100,13 @@ class RefreshDecisionMaker {
     decision.setLogicalPlan(ByteString.copyFrom(serializer.serializeToBytes(plan)));
     decision.setLogicalPlanStrippedHash(PlanHasher.hash(strippedPlan));
 
+    // delta lake tables record the snapshot read by the refresh, incremental refreshes are only valid
+    // while the table does nothing but append data files
+    final SnapshotTimestamps snapshotTimestamps = getSnapshotTimestamps(requestedTables);
+    if (snapshotTimestamps != null) {
+      decision.setSourceSnapshotTimestamp(snapshotTimestamps.getSnapshotTimestamp());
+    }
+
     if(settings.getMethod() == RefreshMethod.FULL) {
       logger.trace("Incremental either not set or not supported for this query.");
       return decision.setInitialRefresh(true)
@@ -166,10 +174,38 @@ class RefreshDecisionMaker {
           .setSeriesId(newSeriesId);
     }
 
+    if (snapshotTimestamps != null) {
+      final Long lastSnapshotTimestamp = refresh.getSourceSnapshotTimestamp();
+      if (lastSnapshotTimestamp == null
+        || snapshotTimestamps.getAppendOnlySince() > lastSnapshotTimestamp
+        || snapshotTimestamps.getSnapshotTimestamp() < lastSnapshotTimestamp) {
+        logger.trace("Table files were rewritten or removed since last refresh, doing an initial refresh.");
+        return decision.setInitialRefresh(true)
+          .setUpdateId(new UpdateId())
+          .setSeriesId(newSeriesId);
+      }
+    }
+
     return decision.setInitialRefresh(false)
         .setUpdateId(refresh.getUpdateId())
         .setSeriesId(refresh.getSeriesId())
         .setSeriesOrdinal(refresh.getSeriesOrdinal() + 1);
   }
 
+  private static SnapshotTimestamps getSnapshotTimestamps(Iterable<DremioTable> requestedTables) {
+    if (requestedTables == null) {
+      return null;
+    }
+    for (DremioTable table : requestedTables) {
+      final DatasetConfig dataset = table.getDatasetConfig();
+      if (dataset != null && ReflectionUtils.isPhysicalDataset(dataset.getType())) {
+        final SnapshotTimestamps snapshotTimestamps = IncrementalUpdateServiceUtils.getSnapshotTimestamps(dataset);
+        if (snapshotTimestamps != null) {
+          return snapshotTimestamps;
+        }
+      }
+    }
+    return null;
+  }
+
 }
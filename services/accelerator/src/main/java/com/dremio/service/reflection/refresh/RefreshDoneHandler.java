@@ -246,6 +246,7 @@ public class RefreshDoneHandler {
     final String icebergBasePath = ReflectionUtils.getIcebergReflectionBasePath(materialization, refreshPath, isIcebergRefresh);
     final Refresh refresh = ReflectionUtils.createRefresh(reflection.getId(), refreshPath, decision.getSeriesId(),
       decision.getSeriesOrdinal(), updateId, details, metrics, dataPartitions, isIcebergRefresh, icebergBasePath);
+    refresh.setSourceSnapshotTimestamp(decision.getSourceSnapshotTimestamp());
 
     logger.trace("Refresh created: {}", refresh);
     materializationStore.save(refresh);
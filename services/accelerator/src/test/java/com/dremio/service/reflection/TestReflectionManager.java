@@ -22,30 +22,46 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.server.SabotContext;
 import com.dremio.io.file.Path;
 import com.dremio.options.OptionManager;
+import com.dremio.service.job.JobDetailsRequest;
+import com.dremio.service.job.SubmitJobRequest;
+import com.dremio.service.job.proto.JobAttempt;
 import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.JobState;
+import com.dremio.service.job.proto.QueryType;
+import com.dremio.service.jobs.JobStatusListener;
+import com.dremio.service.jobs.JobsProtoUtil;
 import com.dremio.service.jobs.JobsService;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.RefreshMethod;
 import com.dremio.service.reflection.proto.Materialization;
 import com.dremio.service.reflection.proto.MaterializationId;
+import com.dremio.service.reflection.proto.MaterializationMetrics;
 import com.dremio.service.reflection.proto.MaterializationState;
+import com.dremio.service.reflection.proto.ReflectionDetails;
 import com.dremio.service.reflection.proto.ReflectionEntry;
 import com.dremio.service.reflection.proto.ReflectionGoal;
 import com.dremio.service.reflection.proto.ReflectionGoalHash;
@@ -53,6 +69,7 @@ import com.dremio.service.reflection.proto.ReflectionGoalState;
 import com.dremio.service.reflection.proto.ReflectionId;
 import com.dremio.service.reflection.proto.ReflectionState;
 import com.dremio.service.reflection.proto.ReflectionType;
+import com.dremio.service.reflection.proto.Refresh;
 import com.dremio.service.reflection.refresh.RefreshStartHandler;
 import com.dremio.service.reflection.store.ExternalReflectionStore;
 import com.dremio.service.reflection.store.MaterializationStore;
@@ -60,6 +77,7 @@ import com.dremio.service.reflection.store.ReflectionEntriesStore;
 import com.dremio.service.reflection.store.ReflectionGoalsStore;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Sets;
 import com.sun.tools.javac.util.List;
 
@@ -500,6 +518,202 @@ public class TestReflectionManager {
     assertEquals(MaterializationState.DELETED, materialization2.getState());
     assertEquals(MaterializationState.DELETED, materialization3.getState());
   }
+
+  @Test
+  public void testMedianFileSize() {
+    final MaterializationMetrics initialRefresh = new MaterializationMetrics().setNumFiles(4).setMedianFileSize(100L);
+    final MaterializationMetrics incrementalRefresh = new MaterializationMetrics().setNumFiles(10).setMedianFileSize(1L);
+    final MaterializationMetrics emptyRefresh = new MaterializationMetrics().setNumFiles(0).setMedianFileSize(0L);
+
+    assertEquals(100L, ReflectionManager.getMedianFileSize(Arrays.asList(initialRefresh), 4));
+    // most files were written by the incremental refresh
+    assertEquals(1L, ReflectionManager.getMedianFileSize(Arrays.asList(initialRefresh, incrementalRefresh, emptyRefresh), 14));
+    assertEquals(0L, ReflectionManager.getMedianFileSize(Arrays.asList(emptyRefresh), 0));
+  }
+  @Test
+  public void testPeriodicCompactionCheckStartsCompaction() {
+    final ReflectionId reflectionId = new ReflectionId("r_id");
+    final Materialization materialization = new Materialization()
+      .setId(new MaterializationId("m_id"))
+      .setReflectionId(reflectionId)
+      .setState(MaterializationState.DONE);
+    final ReflectionEntry entry = newCompactionEntry(reflectionId, ReflectionState.ACTIVE);
+    final ReflectionGoal goal = new ReflectionGoal()
+      .setId(reflectionId)
+      .setDetails(new ReflectionDetails());
+
+    final Subject subject = newCompactionSubject(entry);
+    when(subject.dependencyManager.shouldRefresh(entry, 5555L)).thenReturn(false);
+    when(subject.optionManager.getOption(ReflectionOptions.NO_DEPENDENCY_REFRESH_PERIOD_SECONDS)).thenReturn(5555L);
+    when(subject.optionManager.getOption(ReflectionOptions.COMPACTION_CHECK_PERIOD_SECONDS)).thenReturn(3600L);
+    when(subject.optionManager.getOption(ReflectionOptions.COMPACTION_TRIGGER_NUMBER_FILES)).thenReturn(1L);
+    when(subject.optionManager.getOption(ReflectionOptions.COMPACTION_TRIGGER_FILE_SIZE)).thenReturn(16L);
+    when(subject.materializationStore.getLastMaterializationDone(reflectionId)).thenReturn(materialization);
+    // two incremental refreshes wrote many small files
+    when(subject.materializationStore.getRefreshes(materialization)).thenReturn(FluentIterable.from(Arrays.asList(
+      new Refresh().setMetrics(new MaterializationMetrics().setNumFiles(10).setFootprint(1000L).setMedianFileSize(100L)),
+      new Refresh().setMetrics(new MaterializationMetrics().setNumFiles(10).setFootprint(1000L).setMedianFileSize(100L)))));
+    when(subject.userStore.get(reflectionId)).thenReturn(goal);
+    when(subject.namespaceService.findDatasetByUUID(entry.getDatasetId()))
+      .thenReturn(new DatasetConfig().setFullPathList(Arrays.asList("space", "dataset")));
+    when(subject.jobsService.submitJob(any(SubmitJobRequest.class), any(JobStatusListener.class)))
+      .thenAnswer(invocation -> {
+        invocation.getArgumentAt(1, JobStatusListener.class).jobSubmitted();
+        return new JobId("compaction_job_id");
+      });
+
+    subject.reflectionManager.sync();
+
+    // ASSERT
+    final ArgumentCaptor<Materialization> saved = ArgumentCaptor.forClass(Materialization.class);
+    verify(subject.materializationStore, times(2)).save(saved.capture());
+    final Materialization compacted = saved.getValue();
+    assertEquals(MaterializationState.RUNNING, compacted.getState());
+    assertEquals(materialization.getId(), compacted.getCompactedMaterializationId());
+    assertEquals("compaction_job_id", compacted.getInitRefreshJobId());
+    // the compacted materialization keeps accelerating queries until the compaction is done
+    assertEquals(MaterializationState.DONE, materialization.getState());
+    assertEquals(ReflectionState.COMPACTING, entry.getState());
+    assertEquals(new JobId("compaction_job_id"), entry.getRefreshJobId());
+    assertEquals(0, entry.getNumFailures().intValue());
+  }
+
+  @Test
+  public void testCompactedMaterializationReplacesLastMaterializationDone() throws Exception {
+    final ReflectionId reflectionId = new ReflectionId("r_id");
+    final Materialization materialization = new Materialization()
+      .setId(new MaterializationId("m_id"))
+      .setReflectionId(reflectionId)
+      .setState(MaterializationState.DONE);
+    final Materialization compacted = newCompactedMaterialization(materialization);
+    // the compaction job is done, and the metadata of the compacted materialization is being loaded
+    final ReflectionEntry entry = newCompactionEntry(reflectionId, ReflectionState.METADATA_REFRESH);
+
+    final Subject subject = newCompactionSubject(entry);
+    when(subject.materializationStore.getLastMaterialization(reflectionId)).thenReturn(compacted);
+    when(subject.materializationStore.getLastMaterializationDone(reflectionId)).thenReturn(materialization);
+    when(subject.materializationStore.get(materialization.getId())).thenReturn(materialization);
+    when(subject.jobsService.getJobDetails(any(JobDetailsRequest.class))).thenReturn(newJobDetails(JobState.COMPLETED));
+
+    subject.reflectionManager.sync();
+
+    // ASSERT
+    verify(subject.descriptorCache).update(compacted);
+    verify(subject.descriptorCache).invalidate(materialization.getId());
+    assertEquals(MaterializationState.DONE, compacted.getState());
+    assertEquals(MaterializationState.DEPRECATED, materialization.getState());
+    assertEquals(ReflectionState.ACTIVE, entry.getState());
+    assertEquals(0, entry.getNumFailures().intValue());
+  }
+
+  @Test
+  public void testFailedCompactionKeepsLastMaterializationDone() throws Exception {
+    final ReflectionId reflectionId = new ReflectionId("r_id");
+    final Materialization materialization = new Materialization()
+      .setId(new MaterializationId("m_id"))
+      .setReflectionId(reflectionId)
+      .setState(MaterializationState.DONE);
+    final Materialization compacted = newCompactedMaterialization(materialization);
+    final ReflectionEntry entry = newCompactionEntry(reflectionId, ReflectionState.COMPACTING);
+
+    final Subject subject = newCompactionSubject(entry);
+    when(subject.materializationStore.getLastMaterialization(reflectionId)).thenReturn(compacted);
+    when(subject.materializationStore.get(materialization.getId())).thenReturn(materialization);
+    when(subject.jobsService.getJobDetails(any(JobDetailsRequest.class))).thenReturn(newJobDetails(JobState.FAILED));
+
+    subject.reflectionManager.sync();
+
+    // ASSERT
+    assertEquals(MaterializationState.FAILED, compacted.getState());
+    assertEquals(MaterializationState.DONE, materialization.getState());
+    // a failed compaction doesn't count as a failure of the reflection
+    assertEquals(ReflectionState.ACTIVE, entry.getState());
+    assertEquals(0, entry.getNumFailures().intValue());
+    verify(subject.descriptorCache, never()).invalidate(materialization.getId());
+  }
+
+  @Test
+  public void testCanceledCompactionKeepsLastMaterializationDone() throws Exception {
+    final ReflectionId reflectionId = new ReflectionId("r_id");
+    final Materialization materialization = new Materialization()
+      .setId(new MaterializationId("m_id"))
+      .setReflectionId(reflectionId)
+      .setState(MaterializationState.DONE);
+    final Materialization compacted = newCompactedMaterialization(materialization);
+    final ReflectionEntry entry = newCompactionEntry(reflectionId, ReflectionState.COMPACTING);
+
+    final Subject subject = newCompactionSubject(entry);
+    when(subject.materializationStore.getLastMaterialization(reflectionId)).thenReturn(compacted);
+    when(subject.materializationStore.get(materialization.getId())).thenReturn(materialization);
+    when(subject.jobsService.getJobDetails(any(JobDetailsRequest.class))).thenReturn(newJobDetails(JobState.CANCELED));
+
+    subject.reflectionManager.sync();
+
+    // ASSERT
+    assertEquals(MaterializationState.CANCELED, compacted.getState());
+    assertEquals(MaterializationState.DONE, materialization.getState());
+    assertEquals(ReflectionState.ACTIVE, entry.getState());
+    assertEquals(0, entry.getNumFailures().intValue());
+    verify(subject.descriptorCache, never()).invalidate(materialization.getId());
+  }
+
+  private static ReflectionEntry newCompactionEntry(ReflectionId reflectionId, ReflectionState state) {
+    return new ReflectionEntry()
+      .setId(reflectionId)
+      .setTag("entry_tag")
+      .setName("name")
+      .setType(ReflectionType.RAW)
+      .setDatasetId("dataSetId")
+      .setRefreshMethod(RefreshMethod.INCREMENTAL)
+      .setRefreshJobId(new JobId("compaction_job_id"))
+      .setState(state)
+      .setNumFailures(0);
+  }
+
+  private static Materialization newCompactedMaterialization(Materialization materialization) {
+    return new Materialization()
+      .setId(new MaterializationId("compacted_m_id"))
+      .setReflectionId(materialization.getReflectionId())
+      .setState(MaterializationState.RUNNING)
+      .setExpiration(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1))
+      .setCompactedMaterializationId(materialization.getId());
+  }
+
+  private static com.dremio.service.job.JobDetails newJobDetails(JobState state) {
+    final JobAttempt attempt = new JobAttempt()
+      .setState(state)
+      .setInfo(new JobInfo()
+        .setJobId(new JobId("compaction_job_id"))
+        .setSql("COMPACT MATERIALIZATION")
+        .setDatasetVersion("version")
+        .setQueryType(QueryType.ACCELERATOR_CREATE)
+        .setFailureInfo("compaction failed"));
+    return com.dremio.service.job.JobDetails.newBuilder()
+      .setJobId(JobsProtoUtil.toBuf(new JobId("compaction_job_id")))
+      .addAttempts(JobsProtoUtil.toBuf(attempt))
+      .setCompleted(true)
+      .build();
+  }
+
+  /**
+   * stubs the stores so that {@link ReflectionManager#sync()} only handles the given reflection entry, with
+   * compaction enabled
+   */
+  private static Subject newCompactionSubject(ReflectionEntry entry) {
+    final Subject subject = new Subject();
+    when(subject.optionManager.getOption(ReflectionOptions.ENABLE_COMPACTION)).thenReturn(true);
+    when(subject.optionManager.getOption(ExecConstants.LAYOUT_REFRESH_MAX_ATTEMPTS)).thenReturn(3L);
+
+    when(subject.externalReflectionStore.getExternalReflections()).thenReturn(emptyList());
+    when(subject.materializationStore.getAllExpiredWhen(anyLong())).thenReturn(emptyList());
+    when(subject.materializationStore.getDeletableEntriesModifiedBefore(anyLong(), anyInt())).thenReturn(emptyList());
+    when(subject.materializationStore.getAllMaterializations()).thenReturn(emptyList());
+    when(subject.reflectionStore.find()).thenReturn(singletonList(entry));
+    when(subject.userStore.getAllNotDeleted()).thenReturn(emptyList());
+    when(subject.userStore.getDeletedBefore(anyLong())).thenReturn(emptyList());
+    when(subject.userStore.getModifiedOrCreatedSince(anyLong())).thenReturn(emptyList());
+    return subject;
+  }
 }
 
 class Subject {
@@ -17,10 +17,13 @@ package com.dremio.service.jobs;
 
 import static org.apache.arrow.util.Preconditions.checkNotNull;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Provider;
 
 import org.apache.arrow.flight.Action;
 import org.apache.arrow.flight.ActionType;
+import org.apache.arrow.flight.BackpressureStrategy;
 import org.apache.arrow.flight.Criteria;
 import org.apache.arrow.flight.FlightDescriptor;
 import org.apache.arrow.flight.FlightInfo;
@@ -48,6 +51,10 @@ import io.grpc.Status;
  */
 public class JobsFlightProducer implements FlightProducer, AutoCloseable {
   private static final Logger logger = LoggerFactory.getLogger(JobsFlightProducer.class);
+  // maximum number of records loaded from the job results store at a time
+  private static final int MAX_RECORDS_PER_LOAD = 4000;
+  private static final long CLIENT_READINESS_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
   private final Provider<LocalJobsService> jobsService;
   private final BufferAllocator allocator;
 
@@ -63,40 +70,67 @@ public class JobsFlightProducer implements FlightProducer, AutoCloseable {
 
   @Override
   public void getStream(CallContext callContext, Ticket ticket, ServerStreamListener serverStreamListener) {
-    /* Note that we do not trim record batches that we receive from the Job Results Store. This may result
-     * in sending record that the client does not care about, or in the case of sequential requests, sending
-     * duplicate records. We may want to trim the record batches if this presents a problem.
+    /* Job results are loaded from the Job Results Store in windows of at most MAX_RECORDS_PER_LOAD records, and the
+     * next window is only loaded once the client is ready for more data, so that streaming large results only holds
+     * one window in memory.
      */
+    final BackpressureStrategy backpressureStrategy = new BackpressureStrategy.CallbackBackpressureStrategy();
+    backpressureStrategy.register(serverStreamListener);
     try {
       final JobsFlightTicket jobsFlightTicket = JobsFlightTicket.from(ticket);
       final JobProtobuf.JobId jobId = JobProtobuf.JobId.newBuilder().setId(jobsFlightTicket.getJobId()).build();
-      final int offset = jobsFlightTicket.getOffset();
-      final int limit = jobsFlightTicket.getLimit();
-
-      try (final JobDataFragment jobDataFragment = jobsService.get().getJobData(JobsProtoUtil.toStuff(jobId), offset, limit)) {
-        final Schema schema = jobDataFragment.getSchema();
-        try (final VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
-          serverStreamListener.start(root);
-          for (RecordBatchHolder holder : jobDataFragment.getRecordBatches()) {
-            // iterate over the columns
-            int numRecords = holder.size();
-            for (int i = 0; i < schema.getFields().size(); i++) {
-              ValueVector vector = root.getVector(schema.getFields().get(i).getName());
-              ValueVector dataVector = holder.getData().getVectors().get(i);
-              int k = 0; // index at which value need to written in "vector" from "dataVector"
-              // iterate over values in the column to copy data
-              for (int j = holder.getStart(); j < holder.getEnd(); j++, k++ ) {
-                // Copy value at dataVector[j] into vector[k]
-                vector.copyFromSafe(j, k, dataVector);
+      int offset = jobsFlightTicket.getOffset();
+      int remaining = jobsFlightTicket.getLimit();
+
+      VectorSchemaRoot root = null;
+      try {
+        do {
+          final int limit = Math.min(remaining, MAX_RECORDS_PER_LOAD);
+          int loaded = 0;
+          try (final JobDataFragment jobDataFragment = jobsService.get().getJobData(JobsProtoUtil.toStuff(jobId), offset, limit)) {
+            final Schema schema = jobDataFragment.getSchema();
+            if (root == null) {
+              root = VectorSchemaRoot.create(schema, allocator);
+              serverStreamListener.start(root);
+            }
+            for (RecordBatchHolder holder : jobDataFragment.getRecordBatches()) {
+              // iterate over the columns
+              int numRecords = holder.size();
+              if (numRecords == 0) {
+                continue;
+              }
+              for (int i = 0; i < schema.getFields().size(); i++) {
+                ValueVector vector = root.getVector(schema.getFields().get(i).getName());
+                ValueVector dataVector = holder.getData().getVectors().get(i);
+                int k = 0; // index at which value need to written in "vector" from "dataVector"
+                // iterate over values in the column to copy data
+                for (int j = holder.getStart(); j < holder.getEnd(); j++, k++ ) {
+                  // Copy value at dataVector[j] into vector[k]
+                  vector.copyFromSafe(j, k, dataVector);
+                }
+                vector.setValueCount(numRecords);
+                root.setRowCount(numRecords);
+              }
+              if (!waitForClient(backpressureStrategy)) {
+                return;
               }
-              vector.setValueCount(numRecords);
-              root.setRowCount(numRecords);
+              serverStreamListener.putNext();
+              root.allocateNew();
+              loaded += numRecords;
             }
-            serverStreamListener.putNext();
-            root.allocateNew();
           }
-        }
+          if (loaded == 0) {
+            // past the end of the job results
+            break;
+          }
+          offset += loaded;
+          remaining -= loaded;
+        } while (remaining > 0);
         serverStreamListener.completed();
+      } finally {
+        if (root != null) {
+          root.close();
+        }
       }
     } catch (UserException ue) {
       serverStreamListener.error(GrpcExceptionUtil.toStatusRuntimeException(ue));
@@ -105,6 +139,21 @@ public class JobsFlightProducer implements FlightProducer, AutoCloseable {
     }
   }
 
+  private static boolean waitForClient(BackpressureStrategy backpressureStrategy) {
+    final BackpressureStrategy.WaitResult result = backpressureStrategy.waitForListener(CLIENT_READINESS_TIMEOUT_MILLIS);
+    switch (result) {
+      case READY:
+        return true;
+      case CANCELLED:
+        logger.debug("Client cancelled the job results stream.");
+        return false;
+      default:
+        throw UserException.ioExceptionError()
+          .message("Client did not become ready to receive job results (%s).", result)
+          .build(logger);
+    }
+  }
+
   @Override
   public void listFlights(CallContext callContext, Criteria criteria, StreamListener<FlightInfo> streamListener) {
     throw Status.UNIMPLEMENTED.asRuntimeException();
@@ -400,6 +400,7 @@ class QueryProfileParser {
             case ELASTICSEARCH_SUB_SCAN:
             case MONGO_SUB_SCAN:
             case JDBC_SUB_SCAN:
+            case ORC_SUB_SCAN:
               setScanStats(operatorType, operatorProfile, majorFragment);
               // wait time in scan is shown per table.
               setOperationStats(OperationType.Reading, toMillis(operatorProfile.getProcessNanos() + operatorProfile.getSetupNanos()));
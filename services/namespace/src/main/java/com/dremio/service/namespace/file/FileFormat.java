@@ -28,6 +28,7 @@ import com.dremio.service.namespace.file.proto.FileType;
 import com.dremio.service.namespace.file.proto.HttpLogFileConfig;
 import com.dremio.service.namespace.file.proto.IcebergFileConfig;
 import com.dremio.service.namespace.file.proto.JsonFileConfig;
+import com.dremio.service.namespace.file.proto.OrcFileConfig;
 import com.dremio.service.namespace.file.proto.ParquetFileConfig;
 import com.dremio.service.namespace.file.proto.TextFileConfig;
 import com.dremio.service.namespace.file.proto.UnknownFileConfig;
@@ -56,6 +57,7 @@ import io.protostuff.Schema;
   @Type(value = JsonFileConfig.class, name = "JSON"),
   @Type(value = AvroFileConfig.class, name = "Avro"),
   @Type(value = ParquetFileConfig.class, name = "Parquet"),
+  @Type(value = OrcFileConfig.class, name = "ORC"),
   @Type(value = IcebergFileConfig.class, name = "Iceberg"),
   @Type(value = ExcelFileConfig.class, name = "Excel"),
   @Type(value = XlsFileConfig.class, name = "XLS"),
@@ -75,6 +77,7 @@ public abstract class FileFormat {
     .put("json", FileType.JSON)
     .put("avro", FileType.AVRO)
     .put("parquet", FileType.PARQUET)
+    .put("orc", FileType.ORC)
     .put("iceberg", FileType.ICEBERG)
     .put("delta", FileType.DELTA)
     .put("xlsx", FileType.EXCEL)
@@ -133,6 +136,9 @@ public abstract class FileFormat {
       case PARQUET:
         return "type => 'parquet'";
 
+      case ORC:
+        return "type => 'orc'";
+
       case ICEBERG:
         return "type => 'iceberg'";
 
@@ -304,6 +310,8 @@ public abstract class FileFormat {
         return new JsonFileConfig();
       case PARQUET:
         return new ParquetFileConfig();
+      case ORC:
+        return new OrcFileConfig();
       case ICEBERG:
         return new IcebergFileConfig();
       case AVRO:
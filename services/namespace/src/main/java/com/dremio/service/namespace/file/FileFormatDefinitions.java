@@ -25,6 +25,7 @@ import com.dremio.service.namespace.file.proto.FileType;
 import com.dremio.service.namespace.file.proto.HttpLogFileConfig;
 import com.dremio.service.namespace.file.proto.IcebergFileConfig;
 import com.dremio.service.namespace.file.proto.JsonFileConfig;
+import com.dremio.service.namespace.file.proto.OrcFileConfig;
 import com.dremio.service.namespace.file.proto.ParquetFileConfig;
 import com.dremio.service.namespace.file.proto.TextFileConfig;
 import com.dremio.service.namespace.file.proto.UnknownFileConfig;
@@ -60,6 +61,9 @@ public class FileFormatDefinitions {
     types.put(ParquetFileConfig.class, FileType.PARQUET);
     schemas.put(ParquetFileConfig.class, ParquetFileConfig.getSchema());
 
+    types.put(OrcFileConfig.class, FileType.ORC);
+    schemas.put(OrcFileConfig.class, OrcFileConfig.getSchema());
+
     types.put(ExcelFileConfig.class, FileType.EXCEL);
     schemas.put(ExcelFileConfig.class, ExcelFileConfig.getSchema());
 
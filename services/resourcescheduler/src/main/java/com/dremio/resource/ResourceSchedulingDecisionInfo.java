@@ -38,6 +38,8 @@ public class ResourceSchedulingDecisionInfo {
   private String engineName;
   private EngineId engineId;
   private SubEngineId subEngineId;
+  private long queueWaitTimeMs;        // Time spent waiting for admission, in ms
+  private long memoryReservation;      // Per node memory reserved at admission, in bytes
 
   private ResourceSchedulingProperties resourceSchedulingProperties;
 
@@ -167,4 +169,20 @@ public class ResourceSchedulingDecisionInfo {
   public void setSubEngineId(SubEngineId subEngineId) {
     this.subEngineId = subEngineId;
   }
+
+  public long getQueueWaitTimeMs() {
+    return queueWaitTimeMs;
+  }
+
+  public void setQueueWaitTimeMs(long queueWaitTimeMs) {
+    this.queueWaitTimeMs = queueWaitTimeMs;
+  }
+
+  public long getMemoryReservation() {
+    return memoryReservation;
+  }
+
+  public void setMemoryReservation(long memoryReservation) {
+    this.memoryReservation = memoryReservation;
+  }
 }
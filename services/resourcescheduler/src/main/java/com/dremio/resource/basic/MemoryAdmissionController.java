@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.resource.exception.ResourceUnavailableException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * Admits queries as long as the sum of their per node memory reservations fits in the admission capacity.<br>
+ * Queries that don't fit wait in their queue. When memory is released, the queue with the lowest reserved memory
+ * relative to its weight is served first, in FIFO order within a queue. If the head of that queue still doesn't fit,
+ * no other query is admitted, so that large queries are not starved by a stream of smaller ones.<br>
+ * When too many queries are waiting, the newest query of the lowest weight queue is rejected.
+ */
+class MemoryAdmissionController implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MemoryAdmissionController.class);
+
+  private final ScheduledExecutorService timeoutExecutor =
+    Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("memory-admission-timeout-"));
+  private final Map<QueueType, Deque<Waiter>> waiting = new EnumMap<>(QueueType.class);
+  private final Map<QueueType, Long> reservedPerQueue = new EnumMap<>(QueueType.class);
+
+  private Map<QueueType, Double> weights;
+  private long capacity = Long.MAX_VALUE;
+  private int maxWaiting = Integer.MAX_VALUE;
+  private long reserved;
+  private int waitingCount;
+
+  MemoryAdmissionController() {
+    final Map<QueueType, Double> defaultWeights = new EnumMap<>(QueueType.class);
+    for (QueueType queueType : QueueType.values()) {
+      waiting.put(queueType, new ArrayDeque<>());
+      reservedPerQueue.put(queueType, 0L);
+      defaultWeights.put(queueType, 1.0);
+    }
+    this.weights = defaultWeights;
+  }
+
+  /**
+   * Updates the admission limits. A lower capacity doesn't affect the queries already admitted.
+   *
+   * @param capacity per node memory that can be reserved by the admitted queries
+   * @param weights weight of each queue
+   * @param maxWaiting maximum number of waiting queries
+   */
+  void configure(long capacity, Map<QueueType, Double> weights, int maxWaiting) {
+    final List<Runnable> completions = new ArrayList<>();
+    synchronized (this) {
+      Preconditions.checkArgument(capacity > 0, "admission capacity must be positive");
+      this.capacity = capacity;
+      this.weights = weights;
+      this.maxWaiting = maxWaiting;
+      drain(completions);
+    }
+    completions.forEach(Runnable::run);
+  }
+
+  /**
+   * Requests a memory reservation. The returned future can be cancelled while the query is waiting.
+   *
+   * @param queueType queue of the query
+   * @param bytes per node memory to reserve, capped to the admission capacity
+   * @param timeoutMillis maximum time spent waiting for the reservation
+   */
+  CompletableFuture<Reservation> admit(QueueType queueType, long bytes, long timeoutMillis) {
+    final List<Runnable> completions = new ArrayList<>();
+    final Waiter waiter;
+    synchronized (this) {
+      waiter = new Waiter(queueType, Math.min(bytes, capacity), System.currentTimeMillis());
+      waiting.get(queueType).addLast(waiter);
+      waitingCount++;
+      drain(completions);
+      if (!waiter.future.isDone()) {
+        evictIfFull(completions);
+      }
+    }
+    completions.forEach(Runnable::run);
+
+    if (!waiter.future.isDone()) {
+      final ScheduledFuture<?> timeout = timeoutExecutor.schedule(() -> timeout(waiter, timeoutMillis),
+        timeoutMillis, TimeUnit.MILLISECONDS);
+      waiter.future.whenComplete((r, t) -> timeout.cancel(false));
+    }
+    waiter.future.whenComplete((r, t) -> {
+      if (waiter.future.isCancelled()) {
+        remove(waiter);
+      }
+    });
+    return waiter.future;
+  }
+
+  private void timeout(Waiter waiter, long timeoutMillis) {
+    if (remove(waiter)) {
+      final String message = String.format(
+        "Query cancelled by Workload Manager. Query enqueued time of %.2f seconds exceeded for '%s' queue.",
+        timeoutMillis / 1000.0, waiter.queueType.name());
+      logger.trace(message);
+      waiter.future.completeExceptionally(new ResourceUnavailableException(message));
+    }
+  }
+
+  /**
+   * @return true if the waiter was still waiting
+   */
+  private synchronized boolean remove(Waiter waiter) {
+    if (waiting.get(waiter.queueType).remove(waiter)) {
+      waitingCount--;
+      return true;
+    }
+    return false;
+  }
+
+  private void release(Reservation reservation) {
+    final List<Runnable> completions = new ArrayList<>();
+    synchronized (this) {
+      reserved -= reservation.bytes;
+      reservedPerQueue.merge(reservation.queueType, -reservation.bytes, Long::sum);
+      drain(completions);
+    }
+    completions.forEach(Runnable::run);
+  }
+
+  // futures are completed once the lock is released, as their callbacks run on the completing thread
+  private void drain(List<Runnable> completions) {
+    while (waitingCount > 0) {
+      final QueueType next = nextQueue();
+      final Waiter head = waiting.get(next).peekFirst();
+      // an empty cluster always admits a query, even if its reservation exceeds a reduced capacity
+      if (reserved > 0 && reserved + head.bytes > capacity) {
+        return;
+      }
+      waiting.get(next).pollFirst();
+      waitingCount--;
+      reserved += head.bytes;
+      reservedPerQueue.merge(next, head.bytes, Long::sum);
+      final Reservation reservation = new Reservation(this, next, head.bytes,
+        System.currentTimeMillis() - head.enqueuedMillis);
+      completions.add(() -> {
+        if (!head.future.complete(reservation)) {
+          // cancelled before being admitted
+          reservation.close();
+        }
+      });
+    }
+  }
+
+  private QueueType nextQueue() {
+    QueueType next = null;
+    double nextShare = Double.MAX_VALUE;
+    for (QueueType queueType : QueueType.values()) {
+      if (waiting.get(queueType).isEmpty()) {
+        continue;
+      }
+      final double share = reservedPerQueue.get(queueType) / weights.get(queueType);
+      if (next == null || share < nextShare || (share == nextShare && weights.get(queueType) > weights.get(next))) {
+        next = queueType;
+        nextShare = share;
+      }
+    }
+    return next;
+  }
+
+  private void evictIfFull(List<Runnable> completions) {
+    while (waitingCount > maxWaiting) {
+      QueueType lowest = null;
+      for (QueueType queueType : QueueType.values()) {
+        if (!waiting.get(queueType).isEmpty() && (lowest == null || weights.get(queueType) < weights.get(lowest))) {
+          lowest = queueType;
+        }
+      }
+      final Waiter evicted = waiting.get(lowest).pollLast();
+      waitingCount--;
+      final String message = String.format(
+        "Query cancelled by Workload Manager. Cannot enqueue as the '%s' queue is full. Please try again later.",
+        lowest.name());
+      logger.trace(message);
+      completions.add(() -> evicted.future.completeExceptionally(new ResourceUnavailableException(message)));
+    }
+  }
+
+  @VisibleForTesting
+  synchronized long getReservedMemory() {
+    return reserved;
+  }
+
+  @VisibleForTesting
+  synchronized int getWaitingCount() {
+    return waitingCount;
+  }
+
+  @Override
+  public void close() {
+    timeoutExecutor.shutdownNow();
+  }
+
+  /**
+   * Memory reserved by an admitted query, released when closed.
+   */
+  static final class Reservation implements AutoCloseable {
+    private final MemoryAdmissionController controller;
+    private final QueueType queueType;
+    private final long bytes;
+    private final long waitMillis;
+    private boolean released;
+
+    private Reservation(MemoryAdmissionController controller, QueueType queueType, long bytes, long waitMillis) {
+      this.controller = controller;
+      this.queueType = queueType;
+      this.bytes = bytes;
+      this.waitMillis = waitMillis;
+    }
+
+    long getBytes() {
+      return bytes;
+    }
+
+    long getWaitMillis() {
+      return waitMillis;
+    }
+
+    @Override
+    public void close() {
+      synchronized (this) {
+        if (released) {
+          return;
+        }
+        released = true;
+      }
+      controller.release(this);
+    }
+  }
+
+  private static final class Waiter {
+    private final QueueType queueType;
+    private final long bytes;
+    private final long enqueuedMillis;
+    private final CompletableFuture<Reservation> future = new CompletableFuture<>();
+
+    private Waiter(QueueType queueType, long bytes, long enqueuedMillis) {
+      this.queueType = queueType;
+      this.bytes = bytes;
+      this.enqueuedMillis = enqueuedMillis;
+    }
+  }
+}
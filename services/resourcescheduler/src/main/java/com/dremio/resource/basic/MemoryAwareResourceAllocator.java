@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import javax.inject.Provider;
+
+import com.dremio.options.OptionManager;
+import com.dremio.resource.GroupResourceInformation;
+import com.dremio.resource.ResourceSchedulingDecisionInfo;
+import com.dremio.resource.ResourceSchedulingObserver;
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.dremio.resource.ResourceSchedulingResult;
+import com.dremio.resource.ResourceSet;
+import com.dremio.resource.common.ResourceSchedulingContext;
+import com.dremio.service.coordinator.ClusterCoordinator;
+
+/**
+ * Resource allocator admitting queries based on memory rather than on a number of concurrent queries.<br>
+ * Each query reserves an estimate of its per node memory, bounded by its memory limit, out of a capacity derived from
+ * the memory of the executors currently registered. Queries are routed to a queue by cost, or by a user or routing tag
+ * rule, and queues share the capacity according to their weights, see {@link MemoryAdmissionController}.<br>
+ * The reservation is enforced as the per node memory limit of the query. Admission is tracked by this coordinator
+ * only. Falls back to {@link BasicResourceAllocator} when {@link MemoryAwareResourceConstants#ENABLE} is off.
+ */
+public class MemoryAwareResourceAllocator extends BasicResourceAllocator {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MemoryAwareResourceAllocator.class);
+
+  private final MemoryAdmissionController admissionController = new MemoryAdmissionController();
+
+  public MemoryAwareResourceAllocator(final Provider<ClusterCoordinator> clusterCoordinatorProvider,
+                                      final Provider<GroupResourceInformation> clusterResourceInformationProvider) {
+    super(clusterCoordinatorProvider, clusterResourceInformationProvider);
+  }
+
+  @Override
+  public ResourceSchedulingResult allocate(final ResourceSchedulingContext queryContext,
+                                           final ResourceSchedulingProperties resourceSchedulingProperties,
+                                           final ResourceSchedulingObserver resourceSchedulingObserver,
+                                           final Consumer<ResourceSchedulingDecisionInfo> schedulingDecisionInfoConsumer) {
+    final OptionManager options = queryContext.getOptions();
+    if (!options.getOption(MemoryAwareResourceConstants.ENABLE)) {
+      // this allocator is always bound, so the queueing and per node memory limits must stay the basic ones when off
+      return super.allocate(queryContext, resourceSchedulingProperties, resourceSchedulingObserver,
+        schedulingDecisionInfoConsumer);
+    }
+
+    final QueueRules queueRules = QueueRules.parse(options.getOption(MemoryAwareResourceConstants.QUEUE_WEIGHTS),
+      options.getOption(MemoryAwareResourceConstants.QUEUE_RULES));
+    final ResourceSchedulingDecisionInfo resourceSchedulingDecisionInfo = new ResourceSchedulingDecisionInfo();
+    final QueueRules.Rule rule = queueRules.match(resourceSchedulingProperties);
+    final QueueType queueType = rule != null ? rule.getQueueType() :
+      getQueueNameFromSchedulingProperties(queryContext, resourceSchedulingProperties);
+    if (rule != null) {
+      resourceSchedulingDecisionInfo.setRuleContent(rule.getContent());
+    }
+    resourceSchedulingDecisionInfo.setQueueName(queueType.name());
+    resourceSchedulingDecisionInfo.setQueueId(queueType.name());
+    resourceSchedulingDecisionInfo.setWorkloadClass(queryContext.getQueryContextInfo().getPriority().getWorkloadClass());
+    schedulingDecisionInfoConsumer.accept(resourceSchedulingDecisionInfo);
+
+    final long capacity = getAdmissionCapacity(options, resourceSchedulingProperties);
+    admissionController.configure(capacity, queueRules.getWeights(),
+      (int) options.getOption(MemoryAwareResourceConstants.MAX_WAITING_QUERIES));
+    final long reservation = estimateQueryMemory(queryContext, queueType, capacity);
+    final long queueTimeout = (queueType == QueueType.REFLECTION_SMALL || queueType == QueueType.REFLECTION_LARGE) ?
+      options.getOption(BasicResourceConstants.REFLECTION_QUEUE_TIMEOUT) :
+      options.getOption(BasicResourceConstants.QUEUE_TIMEOUT);
+
+    resourceSchedulingObserver.beginQueueWait();
+    final CompletableFuture<MemoryAdmissionController.Reservation> admission =
+      admissionController.admit(queueType, reservation, queueTimeout);
+    final CompletableFuture<ResourceSet> futureAllocation = new CompletableFuture<>();
+    admission.whenComplete((admitted, throwable) -> {
+      if (throwable != null) {
+        futureAllocation.completeExceptionally(throwable);
+        return;
+      }
+      resourceSchedulingDecisionInfo.setQueueWaitTimeMs(admitted.getWaitMillis());
+      resourceSchedulingDecisionInfo.setMemoryReservation(admitted.getBytes());
+      if (!futureAllocation.complete(new MemoryAwareResourceSet(admitted))) {
+        admitted.close();
+      }
+    });
+    futureAllocation.whenComplete((resourceSet, throwable) -> {
+      if (futureAllocation.isCancelled()) {
+        admission.cancel(false);
+      }
+    });
+
+    return new ResourceSchedulingResult(resourceSchedulingDecisionInfo, futureAllocation);
+  }
+
+  private long getAdmissionCapacity(OptionManager options, ResourceSchedulingProperties resourceSchedulingProperties) {
+    final GroupResourceInformation resourceInformation = getGroupResourceInformation(options, resourceSchedulingProperties);
+    final long executorMemory = resourceInformation == null ? 0 : resourceInformation.getAverageExecutorMemory();
+    if (executorMemory <= 0) {
+      logger.debug("No executor memory information available, memory admission is not limited");
+      return Long.MAX_VALUE;
+    }
+    return Math.max(1, (long) (executorMemory * options.getOption(MemoryAwareResourceConstants.ADMISSION_MEMORY_RATIO)));
+  }
+
+  private static long estimateQueryMemory(ResourceSchedulingContext queryContext, QueueType queueType, long capacity) {
+    final OptionManager options = queryContext.getOptions();
+    final boolean small = queueType == QueueType.SMALL || queueType == QueueType.REFLECTION_SMALL;
+    long estimate = queryContext.getQueryContextInfo().getQueryMaxAllocation();
+    if (options.getOption(BasicResourceConstants.ENABLE_QUEUE_MEMORY_LIMIT)) {
+      final long queueLimit = small ?
+        options.getOption(BasicResourceConstants.SMALL_QUEUE_MEMORY_LIMIT) :
+        options.getOption(BasicResourceConstants.LARGE_QUEUE_MEMORY_LIMIT);
+      if (queueLimit > 0) {
+        estimate = Math.min(estimate, queueLimit);
+      }
+    }
+    if (capacity != Long.MAX_VALUE) {
+      final double ratio = small ?
+        options.getOption(MemoryAwareResourceConstants.SMALL_QUERY_MEMORY_RATIO) :
+        options.getOption(MemoryAwareResourceConstants.LARGE_QUERY_MEMORY_RATIO);
+      estimate = Math.min(estimate, Math.max(1, (long) (capacity * ratio)));
+    }
+    return estimate;
+  }
+
+  @Override
+  public void close() throws Exception {
+    admissionController.close();
+    super.close();
+  }
+
+  private static final class MemoryAwareResourceSet implements ResourceSet {
+    private final MemoryAdmissionController.Reservation reservation;
+
+    private MemoryAwareResourceSet(MemoryAdmissionController.Reservation reservation) {
+      this.reservation = reservation;
+    }
+
+    /**
+     * The reservation is never larger than the limit the basic allocator would give, see estimateQueryMemory
+     */
+    @Override
+    public long getPerNodeQueryMemoryLimit() {
+      return reservation.getBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+      reservation.close();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators;
+
+/**
+ * Constants of the memory aware admission control, see {@link MemoryAwareResourceAllocator}
+ */
+@Options
+public interface MemoryAwareResourceConstants {
+  TypeValidators.BooleanValidator ENABLE = new TypeValidators.BooleanValidator("exec.queue.memory_aware.enable", false);
+  // fraction of the average executor memory that can be reserved by the admitted queries
+  TypeValidators.DoubleValidator ADMISSION_MEMORY_RATIO = new TypeValidators.RangeDoubleValidator(
+    "exec.queue.memory_aware.admission_ratio", 0.0, 1.0, 0.8);
+  // per node memory reserved by a query, as a fraction of the admission capacity
+  TypeValidators.DoubleValidator SMALL_QUERY_MEMORY_RATIO = new TypeValidators.RangeDoubleValidator(
+    "exec.queue.memory_aware.small_query_ratio", 0.0, 1.0, 0.1);
+  TypeValidators.DoubleValidator LARGE_QUERY_MEMORY_RATIO = new TypeValidators.RangeDoubleValidator(
+    "exec.queue.memory_aware.large_query_ratio", 0.0, 1.0, 0.3);
+  // comma separated list of <queue>:<weight>, queues with a higher weight get a larger share of the memory
+  TypeValidators.StringValidator QUEUE_WEIGHTS = new TypeValidators.StringValidator("exec.queue.memory_aware.weights",
+    "SMALL:4,LARGE:2,REFLECTION_SMALL:1,REFLECTION_LARGE:1");
+  // comma separated list of user=<name>:<queue> or tag=<routing tag>:<queue>, first match wins
+  TypeValidators.StringValidator QUEUE_RULES = new TypeValidators.StringValidator("exec.queue.memory_aware.rules", "");
+  // beyond this number of waiting queries, the newest query of the lowest weight queue is rejected
+  TypeValidators.LongValidator MAX_WAITING_QUERIES = new TypeValidators.PositiveLongValidator(
+    "exec.queue.memory_aware.max_waiting", 100000, 100);
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.google.common.base.Splitter;
+
+/**
+ * Queue weights and routing rules of the memory aware admission control, parsed from
+ * {@link MemoryAwareResourceConstants#QUEUE_WEIGHTS} and {@link MemoryAwareResourceConstants#QUEUE_RULES}.
+ */
+final class QueueRules {
+  private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+  private static final Splitter ENTRY_SPLITTER = Splitter.on(':').trimResults();
+  private static final double DEFAULT_WEIGHT = 1.0;
+
+  private final Map<QueueType, Double> weights;
+  private final List<Rule> rules;
+
+  private QueueRules(Map<QueueType, Double> weights, List<Rule> rules) {
+    this.weights = weights;
+    this.rules = rules;
+  }
+
+  static QueueRules parse(String weights, String rules) {
+    final Map<QueueType, Double> parsedWeights = new EnumMap<>(QueueType.class);
+    for (QueueType queueType : QueueType.values()) {
+      parsedWeights.put(queueType, DEFAULT_WEIGHT);
+    }
+    for (String entry : LIST_SPLITTER.split(weights)) {
+      final List<String> parts = ENTRY_SPLITTER.splitToList(entry);
+      if (parts.size() != 2) {
+        throw invalid(MemoryAwareResourceConstants.QUEUE_WEIGHTS.getOptionName(), entry);
+      }
+      final double weight;
+      try {
+        weight = Double.parseDouble(parts.get(1));
+      } catch (NumberFormatException e) {
+        throw invalid(MemoryAwareResourceConstants.QUEUE_WEIGHTS.getOptionName(), entry);
+      }
+      if (weight <= 0) {
+        throw invalid(MemoryAwareResourceConstants.QUEUE_WEIGHTS.getOptionName(), entry);
+      }
+      parsedWeights.put(queueType(MemoryAwareResourceConstants.QUEUE_WEIGHTS.getOptionName(), parts.get(0)), weight);
+    }
+
+    final List<Rule> parsedRules = new ArrayList<>();
+    for (String entry : LIST_SPLITTER.split(rules)) {
+      final List<String> parts = ENTRY_SPLITTER.splitToList(entry);
+      final int equals = parts.get(0).indexOf('=');
+      if (parts.size() != 2 || equals <= 0) {
+        throw invalid(MemoryAwareResourceConstants.QUEUE_RULES.getOptionName(), entry);
+      }
+      final String kind = parts.get(0).substring(0, equals).trim().toLowerCase(Locale.ROOT);
+      if (!kind.equals("user") && !kind.equals("tag")) {
+        throw invalid(MemoryAwareResourceConstants.QUEUE_RULES.getOptionName(), entry);
+      }
+      parsedRules.add(new Rule(entry, kind.equals("user"), parts.get(0).substring(equals + 1).trim(),
+        queueType(MemoryAwareResourceConstants.QUEUE_RULES.getOptionName(), parts.get(1))));
+    }
+    return new QueueRules(Collections.unmodifiableMap(parsedWeights), Collections.unmodifiableList(parsedRules));
+  }
+
+  Map<QueueType, Double> getWeights() {
+    return weights;
+  }
+
+  double getWeight(QueueType queueType) {
+    return weights.get(queueType);
+  }
+
+  /**
+   * @return the first rule matching the user or the routing tag of the query, or null if none does
+   */
+  Rule match(ResourceSchedulingProperties properties) {
+    for (Rule rule : rules) {
+      final String value = rule.user ? properties.getUser() : properties.getRoutingTag();
+      if (rule.value.equals(value)) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  private static QueueType queueType(String option, String name) {
+    try {
+      return QueueType.valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw UserException.validationError()
+        .message("Unknown queue '%s' in option %s, expected one of SMALL, LARGE, REFLECTION_SMALL, REFLECTION_LARGE.",
+          name, option)
+        .build();
+    }
+  }
+
+  private static UserException invalid(String option, String entry) {
+    return UserException.validationError()
+      .message("Invalid entry '%s' in option %s.", entry, option)
+      .build();
+  }
+
+  /**
+   * Routes the queries of a user, or with a routing tag, to a queue.
+   */
+  static final class Rule {
+    private final String content;
+    private final boolean user;
+    private final String value;
+    private final QueueType queueType;
+
+    private Rule(String content, boolean user, String value, QueueType queueType) {
+      this.content = content;
+      this.user = user;
+      this.value = value;
+      this.queueType = queueType;
+    }
+
+    String getContent() {
+      return content;
+    }
+
+    QueueType getQueueType() {
+      return queueType;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.dremio.resource.exception.ResourceUnavailableException;
+
+/**
+ * Tests for {@link MemoryAdmissionController} and {@link QueueRules}
+ */
+public class TestMemoryAdmissionController {
+  private static final long NO_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+  @Rule
+  public Timeout globalTimeout = new Timeout(30, TimeUnit.SECONDS);
+
+  private MemoryAdmissionController controller;
+
+  @Before
+  public void setup() {
+    controller = new MemoryAdmissionController();
+  }
+
+  @After
+  public void cleanup() {
+    controller.close();
+  }
+
+  private void configure(long capacity, String weights, int maxWaiting) {
+    controller.configure(capacity, QueueRules.parse(weights, "").getWeights(), maxWaiting);
+  }
+
+  @Test
+  public void testQueriesWaitForMemory() throws Exception {
+    configure(100, "", 10);
+    final MemoryAdmissionController.Reservation first = controller.admit(QueueType.SMALL, 60, NO_TIMEOUT).get();
+    final CompletableFuture<MemoryAdmissionController.Reservation> second = controller.admit(QueueType.SMALL, 60, NO_TIMEOUT);
+    assertFalse(second.isDone());
+    assertEquals(60, controller.getReservedMemory());
+    assertEquals(1, controller.getWaitingCount());
+
+    first.close();
+    // closing twice releases the memory once
+    first.close();
+    assertEquals(60, second.get().getBytes());
+    assertEquals(60, controller.getReservedMemory());
+    assertEquals(0, controller.getWaitingCount());
+  }
+
+  @Test
+  public void testReservationCappedToCapacity() throws Exception {
+    configure(100, "", 10);
+    assertEquals(100, controller.admit(QueueType.LARGE, 1000, NO_TIMEOUT).get().getBytes());
+  }
+
+  @Test
+  public void testWeightedQueueServedFirst() throws Exception {
+    configure(100, "SMALL:4,LARGE:1", 10);
+    final MemoryAdmissionController.Reservation running = controller.admit(QueueType.LARGE, 100, NO_TIMEOUT).get();
+    final CompletableFuture<MemoryAdmissionController.Reservation> large = controller.admit(QueueType.LARGE, 60, NO_TIMEOUT);
+    final CompletableFuture<MemoryAdmissionController.Reservation> small = controller.admit(QueueType.SMALL, 60, NO_TIMEOUT);
+
+    // no memory is reserved by either queue once the running query is done, the small queue has the higher weight
+    running.close();
+    assertTrue(small.isDone());
+    assertFalse(large.isDone());
+
+    small.get().close();
+    assertTrue(large.isDone());
+  }
+
+  @Test
+  public void testQueueWithLowestShareServedFirst() throws Exception {
+    configure(100, "SMALL:4,LARGE:1", 10);
+    final MemoryAdmissionController.Reservation small = controller.admit(QueueType.SMALL, 40, NO_TIMEOUT).get();
+    final MemoryAdmissionController.Reservation large = controller.admit(QueueType.LARGE, 60, NO_TIMEOUT).get();
+    final CompletableFuture<MemoryAdmissionController.Reservation> nextLarge = controller.admit(QueueType.LARGE, 30, NO_TIMEOUT);
+    final CompletableFuture<MemoryAdmissionController.Reservation> nextSmall = controller.admit(QueueType.SMALL, 30, NO_TIMEOUT);
+
+    // once the small query is done, the small queue has the lowest reserved memory relative to its weight
+    small.close();
+    assertTrue(nextSmall.isDone());
+    assertFalse(nextLarge.isDone());
+
+    large.close();
+    assertTrue(nextLarge.isDone());
+  }
+
+  @Test
+  public void testLowestWeightEvictedWhenFull() throws Exception {
+    configure(100, "SMALL:4,REFLECTION_LARGE:1", 1);
+    controller.admit(QueueType.SMALL, 100, NO_TIMEOUT).get();
+    final CompletableFuture<MemoryAdmissionController.Reservation> reflection =
+      controller.admit(QueueType.REFLECTION_LARGE, 10, NO_TIMEOUT);
+    final CompletableFuture<MemoryAdmissionController.Reservation> small = controller.admit(QueueType.SMALL, 10, NO_TIMEOUT);
+
+    assertFalse(small.isDone());
+    assertEquals(1, controller.getWaitingCount());
+    assertUnavailable(reflection);
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    configure(100, "", 10);
+    controller.admit(QueueType.SMALL, 100, NO_TIMEOUT).get();
+    assertUnavailable(controller.admit(QueueType.SMALL, 10, 10));
+    assertEquals(0, controller.getWaitingCount());
+  }
+
+  @Test
+  public void testCancelledWhileWaiting() throws Exception {
+    configure(100, "", 10);
+    final MemoryAdmissionController.Reservation running = controller.admit(QueueType.SMALL, 100, NO_TIMEOUT).get();
+    final CompletableFuture<MemoryAdmissionController.Reservation> waiting = controller.admit(QueueType.SMALL, 10, NO_TIMEOUT);
+    waiting.cancel(false);
+    assertEquals(0, controller.getWaitingCount());
+    running.close();
+    assertEquals(0, controller.getReservedMemory());
+  }
+
+  @Test
+  public void testQueueRules() {
+    final QueueRules rules = QueueRules.parse("LARGE:3", "user=etl:REFLECTION_LARGE, tag=dashboards:small");
+    assertEquals(3.0, rules.getWeight(QueueType.LARGE), 0.0);
+    assertEquals(1.0, rules.getWeight(QueueType.SMALL), 0.0);
+    assertEquals(QueueType.REFLECTION_LARGE, rules.match(new ResourceSchedulingProperties().setUser("etl")).getQueueType());
+    assertEquals(QueueType.SMALL, rules.match(new ResourceSchedulingProperties().setUser("bob").setRoutingTag("dashboards"))
+      .getQueueType());
+    assertNull(rules.match(new ResourceSchedulingProperties().setUser("bob")));
+
+    try {
+      QueueRules.parse("", "group=admins:LARGE");
+      fail("expected invalid rule to be rejected");
+    } catch (UserException e) {
+      assertEquals(UserBitShared.DremioPBError.ErrorType.VALIDATION, e.getErrorType());
+    }
+  }
+
+  private static void assertUnavailable(CompletableFuture<?> future) throws InterruptedException {
+    try {
+      future.get();
+      fail("expected the query not to be admitted");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ResourceUnavailableException);
+    }
+  }
+}
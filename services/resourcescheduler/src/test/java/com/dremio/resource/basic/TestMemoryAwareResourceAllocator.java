@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.exec.proto.CoordExecRPC;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.options.OptionManager;
+import com.dremio.resource.GroupResourceInformation;
+import com.dremio.resource.ResourceAllocator;
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.dremio.resource.ResourceSchedulingResult;
+import com.dremio.resource.ResourceSet;
+import com.dremio.resource.common.ResourceSchedulingContext;
+import com.dremio.service.DirectProvider;
+import com.dremio.service.coordinator.ClusterCoordinator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests for {@link MemoryAwareResourceAllocator}
+ */
+public class TestMemoryAwareResourceAllocator {
+
+  private static final double SMALL_COST = 112100D;
+  private static final double LARGE_COST = 40000000D;
+
+  @Rule
+  public Timeout globalTimeout = new Timeout(30, TimeUnit.SECONDS);
+
+  private final CoordinationProtos.NodeEndpoint nodeEndpoint = CoordinationProtos.NodeEndpoint.newBuilder()
+    .setAddress("host1")
+    .setFabricPort(1234)
+    .setUserPort(2345)
+    .setAvailableCores(3)
+    .setMaxDirectMemory(8 * 1024)
+    .setRoles(ClusterCoordinator.Role.toEndpointRoles(Sets.newHashSet(ClusterCoordinator.Role.EXECUTOR)))
+    .build();
+
+  private OptionManager optionManager;
+  private GroupResourceInformation resourceInformation;
+
+  @Before
+  public void setup() {
+    optionManager = mock(OptionManager.class);
+    when(optionManager.getOption(BasicResourceConstants.ENABLE_QUEUE)).thenReturn(false);
+    when(optionManager.getOption(BasicResourceConstants.REFLECTION_ENABLE_QUEUE)).thenReturn(false);
+    when(optionManager.getOption(BasicResourceConstants.ENABLE_QUEUE_MEMORY_LIMIT)).thenReturn(true);
+    when(optionManager.getOption(BasicResourceConstants.SMALL_QUEUE_MEMORY_LIMIT)).thenReturn(4096L);
+    when(optionManager.getOption(BasicResourceConstants.LARGE_QUEUE_MEMORY_LIMIT)).thenReturn(Long.MAX_VALUE);
+    when(optionManager.getOption(BasicResourceConstants.QUEUE_THRESHOLD_SIZE)).thenReturn(30000000L);
+    when(optionManager.getOption(BasicResourceConstants.QUEUE_TIMEOUT)).thenReturn(1000L);
+    when(optionManager.getOption(BasicResourceConstants.REFLECTION_QUEUE_TIMEOUT)).thenReturn(1000L);
+
+    when(optionManager.getOption(MemoryAwareResourceConstants.ADMISSION_MEMORY_RATIO)).thenReturn(0.5D);
+    when(optionManager.getOption(MemoryAwareResourceConstants.SMALL_QUERY_MEMORY_RATIO)).thenReturn(0.25D);
+    when(optionManager.getOption(MemoryAwareResourceConstants.LARGE_QUERY_MEMORY_RATIO)).thenReturn(0.5D);
+    when(optionManager.getOption(MemoryAwareResourceConstants.QUEUE_WEIGHTS))
+      .thenReturn("SMALL:4,LARGE:2,REFLECTION_SMALL:1,REFLECTION_LARGE:1");
+    when(optionManager.getOption(MemoryAwareResourceConstants.QUEUE_RULES)).thenReturn("");
+    when(optionManager.getOption(MemoryAwareResourceConstants.MAX_WAITING_QUERIES)).thenReturn(100L);
+
+    resourceInformation = mock(GroupResourceInformation.class);
+    when(resourceInformation.getAverageExecutorMemory()).thenReturn(8192L);
+  }
+
+  @Test
+  public void testDisabledKeepsBasicLimits() throws Exception {
+    when(optionManager.getOption(MemoryAwareResourceConstants.ENABLE)).thenReturn(false);
+
+    final ClusterCoordinator clusterCoordinator = mock(ClusterCoordinator.class);
+    try (BasicResourceAllocator basicAllocator = new BasicResourceAllocator(DirectProvider.wrap(clusterCoordinator),
+           DirectProvider.wrap(resourceInformation));
+         MemoryAwareResourceAllocator memoryAwareAllocator =
+           new MemoryAwareResourceAllocator(DirectProvider.wrap(clusterCoordinator), DirectProvider.wrap(resourceInformation))) {
+      basicAllocator.start();
+      memoryAwareAllocator.start();
+
+      for (double cost : new double[] {SMALL_COST, LARGE_COST}) {
+        final long expected = getPerNodeQueryMemoryLimit(basicAllocator, cost);
+        assertEquals(expected, getPerNodeQueryMemoryLimit(memoryAwareAllocator, cost));
+      }
+      assertEquals(4096, getPerNodeQueryMemoryLimit(memoryAwareAllocator, SMALL_COST));
+      assertEquals(Long.MAX_VALUE, getPerNodeQueryMemoryLimit(memoryAwareAllocator, LARGE_COST));
+    }
+  }
+
+  @Test
+  public void testEnabledLimitsToReservation() throws Exception {
+    when(optionManager.getOption(MemoryAwareResourceConstants.ENABLE)).thenReturn(true);
+
+    try (MemoryAwareResourceAllocator allocator = new MemoryAwareResourceAllocator(
+      DirectProvider.wrap(mock(ClusterCoordinator.class)), DirectProvider.wrap(resourceInformation))) {
+      allocator.start();
+
+      // capacity is 8192 * 0.5, small queries reserve a quarter of it, large queries half of it
+      assertEquals(1024, getPerNodeQueryMemoryLimit(allocator, SMALL_COST));
+      assertEquals(2048, getPerNodeQueryMemoryLimit(allocator, LARGE_COST));
+    }
+  }
+
+  private long getPerNodeQueryMemoryLimit(ResourceAllocator allocator, double cost) throws Exception {
+    final ResourceSchedulingProperties resourceSchedulingProperties = new ResourceSchedulingProperties();
+    resourceSchedulingProperties.setQueryCost(cost);
+    final ResourceSchedulingResult result = allocator.allocate(createQueryContext(), resourceSchedulingProperties);
+    try (ResourceSet resourceSet = result.getResourceSetFuture().get()) {
+      return resourceSet.getPerNodeQueryMemoryLimit();
+    }
+  }
+
+  private ResourceSchedulingContext createQueryContext() {
+    final UserBitShared.QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
+    return new ResourceSchedulingContext() {
+
+      @Override
+      public CoordExecRPC.QueryContextInformation getQueryContextInfo() {
+        return CoordExecRPC.QueryContextInformation.newBuilder()
+          .setQueryMaxAllocation(Long.MAX_VALUE)
+          .setPriority(CoordExecRPC.FragmentPriority.newBuilder().setWorkloadClass(UserBitShared.WorkloadClass.GENERAL).build())
+          .build();
+      }
+
+      @Override
+      public UserBitShared.QueryId getQueryId() {
+        return queryId;
+      }
+
+      @Override
+      public String getQueryUserName() {
+        return "foo";
+      }
+
+      @Override
+      public CoordinationProtos.NodeEndpoint getCurrentEndpoint() {
+        return nodeEndpoint;
+      }
+
+      @Override
+      public Collection<CoordinationProtos.NodeEndpoint> getActiveEndpoints() {
+        return ImmutableList.of(nodeEndpoint);
+      }
+
+      @Override
+      public OptionManager getOptions() {
+        return optionManager;
+      }
+    };
+  }
+}